@@ -0,0 +1,270 @@
+package com.thelogicmaster.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Simple micro-benchmarks for comparing runtime changes, run with the `benchmark` program argument
+ */
+public class Benchmarks {
+
+	private static final int WARMUP = 3;
+	private static final int ITERATIONS = 10;
+
+	private interface Benchmark {
+		long run();
+	}
+
+	private static void measure(String name, Benchmark benchmark) {
+		long result = 0;
+		for (int i = 0; i < WARMUP; i++)
+			result += benchmark.run();
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			result += benchmark.run();
+		long elapsed = (System.nanoTime() - start) / ITERATIONS;
+		System.out.println(name + ": " + elapsed / 1000 + " us (" + result + ")");
+	}
+
+	/**
+	 * Runs the same workload on several threads at once and returns the combined result
+	 */
+	private static long runThreads(int threads, Benchmark benchmark) {
+		long[] results = new long[threads];
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			int index = i;
+			workers[i] = new Thread(() -> results[index] = benchmark.run());
+			workers[i].start();
+		}
+		long result = 0;
+		for (int i = 0; i < threads; i++) {
+			try {
+				workers[i].join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			result += results[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Read mostly map workload, with one write for every eight reads
+	 */
+	private static long mapWorkload(Map<Integer, Integer> map, int seed) {
+		long sum = 0;
+		int key = seed;
+		for (int i = 0; i < 100000; i++) {
+			key = key * 1103515245 + 12345;
+			int k = (key >>> 16) & 0xFFFF;
+			if ((i & 7) == 0)
+				map.put(k, i);
+			else {
+				Integer value = map.get(k);
+				if (value != null)
+					sum += value;
+			}
+		}
+		return sum;
+	}
+
+	private static long sumIterator(List<Integer> list) {
+		long sum = 0;
+		for (Iterator<Integer> it = list.iterator(); it.hasNext();)
+			sum += it.next();
+		return sum;
+	}
+
+	private static long sumIndexed(List<Integer> list) {
+		long sum = 0;
+		for (int i = 0; i < list.size(); i++)
+			sum += list.get(i);
+		return sum;
+	}
+
+	private static long sumTryFinally(List<Integer> list) {
+		long sum = 0;
+		for (Iterator<Integer> it = list.iterator(); it.hasNext();) {
+			try {
+				sum += it.next();
+			} finally {
+				sum ^= 1;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Mostly non-throwing try-catch blocks, with an exception every thousand iterations
+	 */
+	private static long sumTryCatch(List<Integer> list) {
+		long sum = 0;
+		for (int i = 0; i < list.size(); i++) {
+			try {
+				int value = list.get(i);
+				if (value % 1000 == 0)
+					throw new IllegalStateException();
+				sum += value;
+			} catch (IllegalStateException e) {
+				sum--;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Throws when the value isn't positive, so the exception unwinds through a call
+	 */
+	private static void checkPositive(int value) {
+		if (value <= 0)
+			throw new IllegalArgumentException();
+	}
+
+	/**
+	 * An exception thrown by a called method and caught by the caller on every iteration
+	 */
+	private static long throwAndCatch(int count) {
+		long sum = 0;
+		for (int i = 0; i < count; i++) {
+			try {
+				checkPositive(-i);
+			} catch (IllegalArgumentException e) {
+				sum++;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Naive matrix multiplication, dominated by primitive local loads and stores
+	 */
+	private static long multiplyMatrices(double[][] a, double[][] b) {
+		int n = a.length;
+		double[][] result = new double[n][n];
+		for (int i = 0; i < n; i++)
+			for (int j = 0; j < n; j++) {
+				double sum = 0;
+				for (int k = 0; k < n; k++)
+					sum += a[i][k] * b[k][j];
+				result[i][j] = sum;
+			}
+		long checksum = 0;
+		for (int i = 0; i < n; i++)
+			checksum += (long) result[i][i];
+		return checksum;
+	}
+
+	/**
+	 * Per-thread counters, like a thread local object pool, contended when every access takes a shared lock
+	 */
+	private static long threadLocalWorkload(ThreadLocal<int[]> counter) {
+		long sum = 0;
+		for (int i = 0; i < 100000; i++)
+			sum += ++counter.get()[0];
+		counter.remove();
+		return sum;
+	}
+
+	/**
+	 * The filter, map, and reduce of the stream benchmarks written as a plain loop
+	 */
+	private static long sumSquaresOfOddsLoop(int[] values) {
+		long sum = 0;
+		for (int value: values)
+			if ((value & 1) != 0)
+				sum += (long) value * value;
+		return sum;
+	}
+
+	private static long sumSquaresOfOddsStream(int[] values, boolean parallel) {
+		IntStream stream = Arrays.stream(values);
+		if (parallel)
+			stream = stream.parallel();
+		return stream.filter(value -> (value & 1) != 0).asLongStream().map(value -> value * value).sum();
+	}
+
+	/**
+	 * Sorts a copy of the values so each iteration starts from the same unsorted data
+	 */
+	private static long sortCopy(int[] values, boolean parallel) {
+		int[] copy = values.clone();
+		if (parallel)
+			Arrays.parallelSort(copy);
+		else
+			Arrays.sort(copy);
+		return copy[copy.length / 2];
+	}
+
+	public static void run() {
+		ArrayList<Integer> arrayList = new ArrayList<>();
+		LinkedList<Integer> linkedList = new LinkedList<>();
+		for (int i = 0; i < 100000; i++) {
+			arrayList.add(i);
+			linkedList.add(i);
+		}
+
+		// Interface dispatch on collections, which is monomorphic per call site
+		measure("ArrayList iterator", () -> sumIterator(arrayList));
+		measure("ArrayList get", () -> sumIndexed(arrayList));
+		// Alternating receiver classes at the same call sites
+		measure("Mixed list iterator", () -> sumIterator(arrayList) + sumIterator(linkedList));
+
+		// Exception handling overhead, compare builds with and without `useCppExceptions`
+		measure("Try-finally iterator", () -> sumTryFinally(arrayList));
+		measure("Try-catch with rare throws", () -> sumTryCatch(arrayList));
+		measure("Throw and catch", () -> throwAndCatch(10000));
+
+		// Primitive locals, compare builds with and without `useRegisterLocals`
+		double[][] matrixA = new double[128][128];
+		double[][] matrixB = new double[128][128];
+		for (int i = 0; i < 128; i++)
+			for (int j = 0; j < 128; j++) {
+				matrixA[i][j] = i + j;
+				matrixB[i][j] = i - j;
+			}
+		measure("Matrix multiply", () -> multiplyMatrices(matrixA, matrixB));
+
+		// Multithreaded map throughput, compared against a single monitor map like the previous ConcurrentHashMap
+		int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+		Map<Integer, Integer> synchronizedMap = Collections.synchronizedMap(new HashMap<>());
+		Map<Integer, Integer> concurrentMap = new ConcurrentHashMap<>();
+		measure("Synchronized map (" + threads + " threads)", () -> runThreads(threads, () -> mapWorkload(synchronizedMap, (int) Thread.currentThread().getId())));
+		measure("ConcurrentHashMap (" + threads + " threads)", () -> runThreads(threads, () -> mapWorkload(concurrentMap, (int) Thread.currentThread().getId())));
+
+		// Thread local lookups from several threads at once
+		ThreadLocal<int[]> counter = new ThreadLocal<int[]>() {
+			@Override
+			protected int[] initialValue() {
+				return new int[1];
+			}
+		};
+		measure("ThreadLocal get (" + threads + " threads)", () -> runThreads(threads, () -> threadLocalWorkload(counter)));
+
+		// Fused stream pipelines against the equivalent loop
+		int[] values = new int[1000000];
+		for (int i = 0; i < values.length; i++)
+			values[i] = i;
+		measure("Filter-map-sum loop", () -> sumSquaresOfOddsLoop(values));
+		measure("Filter-map-sum stream", () -> sumSquaresOfOddsStream(values, false));
+		measure("Filter-map-sum parallel stream", () -> sumSquaresOfOddsStream(values, true));
+		measure("Boxed stream collect", () -> arrayList.stream().filter(value -> value % 3 == 0).map(value -> value * 2).collect(Collectors.toList()).size());
+
+		// Native primitive sorts
+		int[] unsorted = new int[1000000];
+		int seed = 12345;
+		for (int i = 0; i < unsorted.length; i++)
+			unsorted[i] = seed = seed * 1103515245 + 12345;
+		measure("Arrays.sort", () -> sortCopy(unsorted, false));
+		measure("Arrays.parallelSort", () -> sortCopy(unsorted, true));
+	}
+}
@@ -50,6 +50,14 @@ public class Example {
 //	}
 
 	public static void main (String[] args) {
+		if (args.length > 0 && args[0].equals("benchmark")) {
+			Benchmarks.run();
+			return;
+		}
+		if (args.length > 0 && args[0].equals("test")) {
+			RuntimeTests.run();
+			return;
+		}
 //		int a = 2;
 //		int b = a + 2;
 //		Example e = new Example();
@@ -0,0 +1,196 @@
+package com.thelogicmaster.example;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runtime regression checks, run with the `test` program argument
+ */
+public class RuntimeTests {
+
+	private static final long TIMEOUT = 5000;
+
+	private interface Condition {
+		boolean check();
+	}
+
+	private static void check(String name, boolean passed) {
+		if (!passed)
+			throw new RuntimeException("Test failed: " + name);
+		System.out.println("Passed: " + name);
+	}
+
+	/**
+	 * Repeatedly collects until the condition holds, since collected objects are freed asynchronously by the GC thread
+	 */
+	private static boolean collectUntil(Condition condition) {
+		long start = System.currentTimeMillis();
+		while (System.currentTimeMillis() - start < TIMEOUT) {
+			System.gc();
+			if (condition.check())
+				return true;
+			sleep(10);
+		}
+		return false;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Allocates arrays that are unreachable once this returns, and returns a checksum of their contents
+	 */
+	private static long allocateArrays(int count) {
+		long checksum = 0;
+		for (int i = 0; i < count; i++) {
+			int[] values = new int[64 * 1024];
+			Object[] objects = new Object[16 * 1024];
+			values[i] = i;
+			objects[i] = values;
+			checksum += values[i] + objects.length;
+		}
+		return checksum;
+	}
+
+	/**
+	 * Array data is allocated separately from the array object, so it must be freed when the array is collected
+	 */
+	private static void testArrayHeapUsage() {
+		long baseline = usedMemory();
+		long checksum = allocateArrays(200);
+		long allocated = 200L * (64 * 1024 * 4 + 16 * 1024 * 8);
+		check("Array checksum", checksum == 199 * 200 / 2 + 200L * 16 * 1024);
+		check("Array heap usage", collectUntil(() -> usedMemory() - baseline < allocated / 10));
+	}
+
+	/**
+	 * Sparse survivors must not keep whole nursery chunks allocated, since the space freed around them is reused
+	 */
+	private static void testNurseryReuse() {
+		long baseline = usedMemory();
+		List<long[]> survivors = new ArrayList<>();
+		for (int round = 0; round < 50; round++) {
+			for (int i = 0; i < 100000; i++) {
+				long[] values = new long[] { round * 100000L + i };
+				if (i % 1000 == 0)
+					survivors.add(values);
+			}
+			System.gc();
+		}
+		boolean intact = true;
+		for (int i = 0; i < survivors.size(); i++)
+			intact &= survivors.get(i)[0] == (i / 100) * 100000L + (i % 100) * 1000L;
+		check("Nursery survivors intact", intact);
+		check("Nursery memory reused", collectUntil(() -> usedMemory() - baseline < 32 * 1024 * 1024));
+	}
+
+	/**
+	 * Mixes primitive locals of every type with allocations, and reuses a slot for locals of different types
+	 */
+	private static long mixPrimitiveLocals(int count) {
+		long sum = 0;
+		for (int i = 0; i < count; i++) {
+			byte b = (byte) i;
+			short s = (short) (i * 300);
+			char c = (char) ('a' + i % 26);
+			float f = i * 0.5f;
+			double d = i * 0.25;
+			boolean odd = (i & 1) != 0;
+			sum += b + s + c + (long) (f * 4) + (long) (d * 8) + (odd ? 1 : 0);
+			if (i % 100 == 0)
+				sum += new Object[64].length;
+		}
+		{
+			int reused = count;
+			sum += reused;
+		}
+		{
+			double reused = count * 1.5;
+			sum += (long) reused;
+		}
+		return sum;
+	}
+
+	/**
+	 * Updates primitive locals inside a try block, where they must survive the jump to the handler
+	 */
+	private static long sumWithHandler(int count) {
+		long sum = 0;
+		for (int i = 0; i < count; i++) {
+			try {
+				if (i % 7 == 0)
+					throw new IllegalStateException();
+				sum += i;
+			} catch (IllegalStateException e) {
+				sum -= i;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Primitive locals must keep their values when stored in C++ variables, see `useRegisterLocals` in config.json
+	 */
+	private static void testPrimitiveLocals() {
+		check("Primitive locals", mixPrimitiveLocals(1000) == 3456268);
+		check("Primitive locals with handler", sumWithHandler(1000) == 357358);
+	}
+
+	/**
+	 * Parking must return immediately for as long as the interrupt flag is set, not just once per interrupt
+	 */
+	private static void testParkWhileInterrupted() {
+		Thread.currentThread().interrupt();
+		LockSupport.park();
+		LockSupport.park();
+		check("Park while interrupted", Thread.interrupted());
+	}
+
+	/**
+	 * Sets a thread local to a value referencing the ThreadLocal itself, and returns a weak reference to the ThreadLocal
+	 */
+	private static WeakReference<ThreadLocal<Object>> createSelfReferencingThreadLocal() {
+		ThreadLocal<Object> threadLocal = new ThreadLocal<>();
+		threadLocal.set(new Object[] { threadLocal });
+		return new WeakReference<>(threadLocal);
+	}
+
+	/**
+	 * A thread local value must not keep its own ThreadLocal alive, and recycled slots must not return stale values
+	 */
+	private static void testThreadLocalCollection() {
+		WeakReference<ThreadLocal<Object>> reference = createSelfReferencingThreadLocal();
+		check("Self referencing ThreadLocal collected", collectUntil(() -> reference.get() == null));
+
+		for (int i = 0; i < 100; i++)
+			new ThreadLocal<>().set(i);
+		for (int i = 0; i < 3; i++) { // Let the collected ThreadLocals be finalized, so their slots are recycled
+			System.gc();
+			sleep(50);
+		}
+		boolean fresh = true;
+		for (int i = 0; i < 100; i++)
+			fresh &= new ThreadLocal<>().get() == null;
+		check("Recycled ThreadLocal slots", fresh);
+	}
+
+	public static void run() {
+		testArrayHeapUsage();
+		testNurseryReuse();
+		testPrimitiveLocals();
+		testParkWhileInterrupted();
+		testThreadLocalCollection();
+	}
+}
@@ -10,23 +10,12 @@ extern "C" {
 void clinit_array(jcontext ctx) {
 }
 
-void mark_array(jobject object, jint mark, jint depth) {
-    if (!object || (depth > GC_DEPTH_ALWAYS && (object->gcMark < GC_MARK_START || object->gcMark == mark)))
-        return;
-    if (depth > MAX_GC_MARK_DEPTH) {
-        markDeepObject(object);
-        return;
-    }
-    if (object->gcMark >= GC_MARK_START)
-        object->gcMark = mark;
-    if (((jclass) ((jclass) object->clazz)->componentClass)->primitive)
+void mark_array(jobject object, jint mark) {
+    if (!object || ((jclass) ((jclass) object->clazz)->componentClass)->primitive)
         return;
     auto array = (jarray) object;
-    for (int i = 0; i < array->length; i++) {
-        auto child = ((jobject *) array->data)[i];
-        if (child)
-            ((gc_mark_ptr) ((jclass) child->clazz)->markFunction)(child, mark, depth + 1);
-    }
+    for (int i = 0; i < array->length; i++)
+        markObject(((jobject *) array->data)[i], mark);
 }
 
 jobject array_clone_R_java_lang_Object(jcontext ctx, jobject self) {
@@ -35,6 +24,9 @@ jobject array_clone_R_java_lang_Object(jcontext ctx, jobject self) {
     auto componentClass = (jclass) clazz->componentClass;
     auto copy = createArray(ctx, componentClass, array->length);
     memcpy(copy->data, array->data, componentClass->primitive ? array->length * componentClass->size : array->length * sizeof(jobject));
+    if (!componentClass->primitive)
+        for (int i = 0; i < array->length; i++)
+            writeBarrier((jobject) copy, ((jobject *) copy->data)[i]);
     return (jobject) copy;
 }
 
@@ -63,6 +55,20 @@ void *vtable_array[]{
         (void *) M_java_lang_Object_wait_long_int,
 };
 
+static VtableEntry vtableEntries_array[] {
+        { "hashCode", "()I" },
+        { "equals", "(Ljava/lang/Object;)Z" },
+        { "clone", "()Ljava/lang/Object;" },
+        { "getClass", "()Ljava/lang/Class;" },
+        { "toString", "()Ljava/lang/String;" },
+        { "finalize", "()V" },
+        { "notify", "()V" },
+        { "notifyAll", "()V" },
+        { "wait", "()V" },
+        { "wait", "(J)V" },
+        { "wait", "(JI)V" },
+};
+
 /// Gets an array class for the provided type. Does not throw exceptions.
 jclass getArrayClass(jclass componentType, int dimensions) {
     static std::mutex mutex;
@@ -103,6 +109,8 @@ jclass getArrayClass(jclass componentType, int dimensions) {
                 .nativeFields = (jref) nullptr,
                 .methodCount = 0,
                 .nativeMethods =  (jref) nullptr,
+                .vtableSize = (jint) (sizeof(vtable_array) / sizeof(void *)), // Includes array_finalize, which frees the array data
+                .vtableEntries = (jref) vtableEntries_array,
         });
         registerClass(vector.back());
     }
@@ -113,7 +121,10 @@ jclass getArrayClass(jclass componentType, int dimensions) {
 /// Creates a new multi-dimensional array. Throws exceptions.
 extern "C++" jarray createMultiArray(jcontext ctx, jclass type, const std::vector<int> &dimensions) {
     nullCheck(ctx, (jobject) type);
-    auto array = (jarray) gcAllocProtected(ctx, getArrayClass(type, (int) dimensions.size())); // Safe because no methods are called on it, so no safepoint
+    // Single dimensional arrays can be young, since nothing reaches a safepoint before they are returned. The outer array
+    // of a multi-dimensional array is protected instead, since creating the inner arrays can run a collection.
+    auto arrayClass = getArrayClass(type, (int) dimensions.size());
+    auto array = (jarray) (dimensions.size() > 1 ? gcAllocProtected(ctx, arrayClass) : gcAlloc(ctx, arrayClass));
     array->length = dimensions[0];
     if (array->length == 0) // Todo: Verify
         return array;
@@ -126,10 +137,11 @@ extern "C++" jarray createMultiArray(jcontext ctx, jclass type, const std::vecto
         if (dimensions.size() > 1) {
             auto itemDims = std::vector<int>(dimensions.begin() + 1, dimensions.end());
             for (int i = 0; i < dimensions[0]; i++)
-                ((jobject *) array->data)[i] = (jobject) createMultiArray(ctx, type, itemDims);
+                writeBarrier((jobject) array, ((jobject *) array->data)[i] = (jobject) createMultiArray(ctx, type, itemDims));
         }
     }
-    unprotectObject((jobject)array);
+    if (dimensions.size() > 1)
+        unprotectObject((jobject)array);
     return array;
 }
 
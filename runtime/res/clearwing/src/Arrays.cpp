@@ -0,0 +1,384 @@
+#include "java/util/Arrays.h"
+#include "java/lang/OutOfMemoryError.h"
+
+#include <algorithm>
+#include <array>
+#include <atomic>
+#include <bit>
+#include <cmath>
+#include <condition_variable>
+#include <cstring>
+#include <deque>
+#include <functional>
+#include <limits>
+#include <memory>
+#include <mutex>
+#include <system_error>
+#include <thread>
+#include <type_traits>
+#include <vector>
+
+// Below this length, comparison sorting beats the extra passes and buffer of a radix sort
+static constexpr jint RADIX_SORT_THRESHOLD = 1024;
+// Minimum lengths for counting sorts of byte and short/char arrays, where the count table is cheap relative to the array
+static constexpr jint BYTE_COUNTING_SORT_THRESHOLD = 64;
+static constexpr jint SHORT_COUNTING_SORT_THRESHOLD = 3200;
+// Minimum number of elements sorted by each thread of a parallel sort
+static constexpr jint PARALLEL_SORT_GRANULARITY = 1 << 13;
+
+/// Maps a value to an unsigned key with the same ordering as the Java sort order, where -0.0 sorts before 0.0.
+/// NaN values must have been moved out of the range first. Does not throw exceptions.
+template<typename T>
+static constexpr auto sortKey(T value) {
+    if constexpr (std::is_same_v<T, jfloat>) {
+        auto bits = std::bit_cast<uint32_t>(value);
+        return bits ^ ((bits >> 31) ? 0xFFFFFFFFu : 0x80000000u);
+    } else if constexpr (std::is_same_v<T, jdouble>) {
+        auto bits = std::bit_cast<uint64_t>(value);
+        return bits ^ ((bits >> 63) ? 0xFFFFFFFFFFFFFFFFull : 0x8000000000000000ull);
+    } else {
+        using Unsigned = std::make_unsigned_t<T>;
+        constexpr Unsigned bias = std::is_signed_v<T> ? Unsigned(Unsigned(1) << (sizeof(T) * 8 - 1)) : Unsigned(0);
+        return Unsigned(Unsigned(value) ^ bias);
+    }
+}
+
+template<typename T>
+static constexpr bool sortLess(T a, T b) {
+    return sortKey(a) < sortKey(b);
+}
+
+/// Moves NaN values to the end of the range, where Java sorts them, returning the number of other values. Does not throw exceptions.
+template<typename T>
+static jint moveNaNsToEnd(T *data, jint length) {
+    jint end = length;
+    for (jint i = 0; i < end;) {
+        if (std::isnan(data[i]))
+            std::swap(data[i], data[--end]);
+        else
+            i++;
+    }
+    return end;
+}
+
+/// Sorts by counting the occurrences of each value, for types with a small range of values. Does not throw exceptions.
+template<typename T>
+static void countingSort(T *data, jint length) {
+    using Key = decltype(sortKey(T()));
+    constexpr size_t range = size_t(1) << (sizeof(T) * 8);
+    std::unique_ptr<jint[]> counts(new jint[range]());
+    for (jint i = 0; i < length; i++)
+        counts[sortKey(data[i])]++;
+    constexpr Key bias = sortKey(T());
+    jint index = 0;
+    for (size_t key = 0; key < range; key++)
+        for (jint count = counts[key]; count > 0; count--)
+            data[index++] = T(Key(Key(key) ^ bias));
+}
+
+/// Sorts with an LSD radix sort on the bytes of the sort keys, skipping bytes that are the same for every value.
+/// The buffer must be the same length as the range. Does not throw exceptions.
+template<typename T>
+static void radixSort(T *data, T *buffer, jint length) {
+    constexpr int passes = sizeof(T);
+    std::array<std::array<jint, 256>, passes> counts{};
+    for (jint i = 0; i < length; i++) {
+        auto key = sortKey(data[i]);
+        for (int pass = 0; pass < passes; pass++)
+            counts[pass][(key >> (pass * 8)) & 0xFF]++;
+    }
+
+    auto firstKey = sortKey(data[0]);
+    T *source = data;
+    T *target = buffer;
+    for (int pass = 0; pass < passes; pass++) {
+        auto &count = counts[pass];
+        if (count[(firstKey >> (pass * 8)) & 0xFF] == length)
+            continue;
+        std::array<jint, 256> offsets;
+        jint offset = 0;
+        for (int digit = 0; digit < 256; digit++) {
+            offsets[digit] = offset;
+            offset += count[digit];
+        }
+        for (jint i = 0; i < length; i++) {
+            T value = source[i];
+            target[offsets[(sortKey(value) >> (pass * 8)) & 0xFF]++] = value;
+        }
+        std::swap(source, target);
+    }
+    if (source != data)
+        memcpy(data, source, length * sizeof(T));
+}
+
+/// Sorts a range without NaN values on the current thread. Does not throw exceptions.
+template<typename T>
+static void sortValues(T *data, jint length) {
+    if constexpr (sizeof(T) <= 2) {
+        if (length >= (sizeof(T) == 1 ? BYTE_COUNTING_SORT_THRESHOLD : SHORT_COUNTING_SORT_THRESHOLD)) {
+            countingSort(data, length);
+            return;
+        }
+    } else if (length >= RADIX_SORT_THRESHOLD) {
+        std::unique_ptr<T[]> buffer(new T[length]);
+        radixSort(data, buffer.get(), length);
+        return;
+    }
+    std::sort(data, data + length, sortLess<T>);
+}
+
+/// Work shared by the threads running one parallel step, which claim task indices until all are taken
+struct SortBatch {
+    std::function<void(int)> task;
+    int count;
+    std::atomic_int nextIndex{0};
+    std::atomic_int remaining;
+    std::mutex lock;
+    std::condition_variable finished;
+};
+
+// Helper threads shared by all parallel sorts, started on first use and capped at the hardware concurrency
+static std::mutex sortPoolLock;
+static auto sortPoolCondition = new std::condition_variable; // Never destroyed, since destroying it at exit blocks on the idle helper threads
+static std::deque<std::shared_ptr<SortBatch>> sortPoolQueue;
+static std::atomic_int sortPoolThreads;
+
+/// Claims and runs tasks of a batch until none are left. Does not throw exceptions.
+static void runSortBatch(SortBatch &batch) {
+    for (int i; (i = batch.nextIndex++) < batch.count;) {
+        batch.task(i);
+        if (--batch.remaining == 0) {
+            std::lock_guard guard(batch.lock);
+            batch.finished.notify_all();
+        }
+    }
+}
+
+/// Entrypoint for sort helper threads, which run queued batches. Does not throw exceptions.
+static void sortHelperThreadFunc() {
+    while (true) {
+        std::shared_ptr<SortBatch> batch;
+        {
+            std::unique_lock guard(sortPoolLock);
+            sortPoolCondition->wait(guard, []{ return !sortPoolQueue.empty(); });
+            batch = std::move(sortPoolQueue.front());
+            sortPoolQueue.pop_front();
+        }
+        runSortBatch(*batch);
+    }
+}
+
+/// Starts the sort helper threads if they aren't already running. Throws OutOfMemoryError if no thread could be started.
+static void startSortPool(jcontext ctx) {
+    {
+        std::lock_guard guard(sortPoolLock);
+        int target = (int) std::max(1u, std::thread::hardware_concurrency()) - 1;
+        try {
+            while (sortPoolThreads < target) {
+                std::thread(sortHelperThreadFunc).detach();
+                sortPoolThreads++;
+            }
+        } catch (std::system_error &) {
+            // Sorts make do with the threads that could be started, since the calling thread also runs tasks
+        }
+        if (sortPoolThreads > 0 or target == 0)
+            return;
+    }
+    constructAndThrowMsg<&class_java_lang_OutOfMemoryError, init_java_lang_OutOfMemoryError_java_lang_String>(ctx, "Unable to create native thread");
+}
+
+/// Runs a task for each index from 0 to count on the sort helper threads, with the calling thread also claiming tasks,
+/// so a batch completes even while the helpers are busy with other sorts. Does not throw exceptions.
+template<typename F>
+static void runParallel(int count, F &&task) {
+    auto batch = std::make_shared<SortBatch>();
+    batch->task = std::ref(task);
+    batch->count = count;
+    batch->remaining = count;
+    {
+        std::lock_guard guard(sortPoolLock);
+        for (int i = 1; i < std::min(count, sortPoolThreads + 1); i++)
+            sortPoolQueue.push_back(batch);
+    }
+    sortPoolCondition->notify_all();
+    runSortBatch(*batch);
+    std::unique_lock guard(batch->lock);
+    batch->finished.wait(guard, [&]{ return batch->remaining == 0; });
+}
+
+/// Sorts a range without NaN values on several threads by sorting a chunk on each thread, then merging pairs of adjacent
+/// chunks in parallel until one remains. The bounds give the chunk of each thread. Does not throw exceptions.
+template<typename T>
+static void parallelMergeSortValues(T *data, jint length, const std::vector<jint> &bounds) {
+    int threads = (int) bounds.size() - 1;
+    runParallel(threads, [&](int i) {
+        sortValues(data + bounds[i], bounds[i + 1] - bounds[i]);
+    });
+
+    std::unique_ptr<T[]> buffer(new T[length]);
+    T *source = data;
+    T *target = buffer.get();
+    for (int width = 1; width < threads; width *= 2) {
+        runParallel((threads + width * 2 - 1) / (width * 2), [&](int i) {
+            int first = i * width * 2;
+            jint start = bounds[first];
+            jint middle = bounds[std::min(first + width, threads)];
+            jint end = bounds[std::min(first + width * 2, threads)];
+            std::merge(source + start, source + middle, source + middle, source + end, target + start, sortLess<T>);
+        });
+        std::swap(source, target);
+    }
+    if (source != data)
+        memcpy(data, source, length * sizeof(T));
+}
+
+/// Sorts a range without NaN values on several threads. Values are partitioned into buckets by the highest byte of their
+/// keys that differs across the range, then the buckets are sorted independently, so no merging is needed. Skewed values
+/// that would leave most of the range in one bucket are sorted by a parallel merge instead. Does not throw exceptions.
+template<typename T>
+static void parallelSortValues(T *data, jint length) {
+    using Key = decltype(sortKey(T()));
+    int threads = (int) std::min<jlong>(sortPoolThreads + 1, length / PARALLEL_SORT_GRANULARITY);
+    if (threads < 2) {
+        sortValues(data, length);
+        return;
+    }
+    std::vector<jint> bounds(threads + 1);
+    for (int i = 0; i <= threads; i++)
+        bounds[i] = (jint) ((jlong) length * i / threads);
+
+    std::vector<Key> lows(threads);
+    std::vector<Key> highs(threads);
+    runParallel(threads, [&](int i) {
+        Key low = std::numeric_limits<Key>::max();
+        Key high = 0;
+        for (jint j = bounds[i]; j < bounds[i + 1]; j++) {
+            Key key = sortKey(data[j]);
+            low = std::min(low, key);
+            high = std::max(high, key);
+        }
+        lows[i] = low;
+        highs[i] = high;
+    });
+    Key low = *std::min_element(lows.begin(), lows.end());
+    Key high = *std::max_element(highs.begin(), highs.end());
+    if (low == high)
+        return;
+    int shift = std::max(0, (int) std::bit_width(Key(low ^ high)) - 8);
+    Key base = low >> shift;
+    auto bucket = [&](T value) { return (int) ((sortKey(value) >> shift) - base); };
+
+    std::vector<std::array<jint, 256>> offsets(threads);
+    runParallel(threads, [&](int i) {
+        auto &counts = offsets[i];
+        counts.fill(0);
+        for (jint j = bounds[i]; j < bounds[i + 1]; j++)
+            counts[bucket(data[j])]++;
+    });
+    std::array<jint, 257> bucketStarts;
+    jint offset = 0;
+    jint largest = 0;
+    for (int digit = 0; digit < 256; digit++) {
+        bucketStarts[digit] = offset;
+        for (int i = 0; i < threads; i++) {
+            jint count = offsets[i][digit];
+            offsets[i][digit] = offset;
+            offset += count;
+        }
+        largest = std::max(largest, offset - bucketStarts[digit]);
+    }
+    bucketStarts[256] = length;
+
+    // A bucket well over the share of a thread would be sorted by a single thread while the others sit idle
+    if ((jlong) largest * threads * 2 > (jlong) length * 3) {
+        parallelMergeSortValues(data, length, bounds);
+        return;
+    }
+
+    std::unique_ptr<T[]> buffer(new T[length]);
+    runParallel(threads, [&](int i) {
+        auto &threadOffsets = offsets[i];
+        for (jint j = bounds[i]; j < bounds[i + 1]; j++)
+            buffer[threadOffsets[bucket(data[j])]++] = data[j];
+    });
+
+    std::atomic_int nextBucket{0};
+    runParallel(threads, [&](int) {
+        for (int digit; (digit = nextBucket++) < 256;) {
+            jint start = bucketStarts[digit];
+            jint size = bucketStarts[digit + 1] - start;
+            sortValues(buffer.get() + start, size);
+            memcpy(data + start, buffer.get() + start, size * sizeof(T));
+        }
+    });
+}
+
+/// Sorts a range of a primitive array in the Java order. Large sorts run in a safe region so they don't hold up the GC,
+/// which is fine since array data doesn't move and the caller keeps the array reachable. Parallel sorts throw
+/// OutOfMemoryError if the sort helper threads can't be started.
+template<typename T>
+static void sortArray(jcontext ctx, T *data, jint length, bool parallel) {
+    if (length < 2)
+        return;
+    if (parallel and length >= PARALLEL_SORT_GRANULARITY * 2)
+        startSortPool(ctx);
+    bool safeRegion = length >= RADIX_SORT_THRESHOLD;
+    if (safeRegion)
+        enterSafeRegion(ctx);
+    if constexpr (std::is_floating_point_v<T>)
+        length = moveNaNsToEnd(data, length);
+    if (parallel)
+        parallelSortValues(data, length);
+    else
+        sortValues(data, length);
+    if (safeRegion)
+        exitSafeRegion(ctx);
+}
+
+extern "C" {
+
+void SM_java_util_Arrays_sortImpl_Array1_byte_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jbyte *) ((jarray) NULL_CHECK(array))->data + start, end - start, false);
+}
+
+void SM_java_util_Arrays_sortImpl_Array1_char_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jchar *) ((jarray) NULL_CHECK(array))->data + start, end - start, false);
+}
+
+void SM_java_util_Arrays_sortImpl_Array1_short_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jshort *) ((jarray) NULL_CHECK(array))->data + start, end - start, false);
+}
+
+void SM_java_util_Arrays_sortImpl_Array1_int_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jint *) ((jarray) NULL_CHECK(array))->data + start, end - start, false);
+}
+
+void SM_java_util_Arrays_sortImpl_Array1_long_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jlong *) ((jarray) NULL_CHECK(array))->data + start, end - start, false);
+}
+
+void SM_java_util_Arrays_sortImpl_Array1_float_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jfloat *) ((jarray) NULL_CHECK(array))->data + start, end - start, false);
+}
+
+void SM_java_util_Arrays_sortImpl_Array1_double_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jdouble *) ((jarray) NULL_CHECK(array))->data + start, end - start, false);
+}
+
+void SM_java_util_Arrays_parallelSortImpl_Array1_int_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jint *) ((jarray) NULL_CHECK(array))->data + start, end - start, true);
+}
+
+void SM_java_util_Arrays_parallelSortImpl_Array1_long_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jlong *) ((jarray) NULL_CHECK(array))->data + start, end - start, true);
+}
+
+void SM_java_util_Arrays_parallelSortImpl_Array1_float_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jfloat *) ((jarray) NULL_CHECK(array))->data + start, end - start, true);
+}
+
+void SM_java_util_Arrays_parallelSortImpl_Array1_double_int_int(jcontext ctx, jobject array, jint start, jint end) {
+    sortArray(ctx, (jdouble *) ((jarray) NULL_CHECK(array))->data + start, end - start, true);
+}
+
+}
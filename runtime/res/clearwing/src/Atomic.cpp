@@ -0,0 +1,260 @@
+#include "java/util/concurrent/atomic/AtomicInteger.h"
+#include "java/util/concurrent/atomic/AtomicLong.h"
+#include "java/util/concurrent/atomic/AtomicBoolean.h"
+#include "java/util/concurrent/atomic/AtomicReference.h"
+#include "java/util/concurrent/atomic/AtomicIntegerArray.h"
+#include "java/util/concurrent/atomic/AtomicReferenceArray.h"
+#include "java/util/concurrent/atomic/AtomicFieldAccess.h"
+#include "java/lang/reflect/Field.h"
+
+#include <atomic>
+
+template<typename T>
+static inline std::atomic_ref<T> atomicField(volatile T &field) {
+    return std::atomic_ref<T>(const_cast<T &>(field));
+}
+
+template<typename T>
+static inline std::atomic_ref<T> atomicField(jobject object, jlong offset) {
+    return std::atomic_ref<T>(*(T *) ((char *) object + offset));
+}
+
+template<typename T>
+static inline std::atomic_ref<T> atomicElement(jcontext ctx, jobject object, jint index) {
+    auto array = (jarray) NULL_CHECK(object);
+    if (index < 0 or index >= array->length)
+        throwIndexOutOfBounds(ctx);
+    return std::atomic_ref<T>(((T *) array->data)[index]);
+}
+
+template<typename T>
+static inline T compareAndExchange(std::atomic_ref<T> ref, T expect, T update) {
+    ref.compare_exchange_strong(expect, update);
+    return expect;
+}
+
+extern "C" {
+
+jint M_java_util_concurrent_atomic_AtomicInteger_get_R_int(jcontext ctx, jobject self) {
+    return atomicField(((java_util_concurrent_atomic_AtomicInteger *) NULL_CHECK(self))->F_value).load();
+}
+
+void M_java_util_concurrent_atomic_AtomicInteger_set_int(jcontext ctx, jobject self, jint newValue) {
+    atomicField(((java_util_concurrent_atomic_AtomicInteger *) NULL_CHECK(self))->F_value).store(newValue);
+}
+
+void M_java_util_concurrent_atomic_AtomicInteger_lazySet_int(jcontext ctx, jobject self, jint newValue) {
+    atomicField(((java_util_concurrent_atomic_AtomicInteger *) NULL_CHECK(self))->F_value).store(newValue, std::memory_order_release);
+}
+
+jint M_java_util_concurrent_atomic_AtomicInteger_getAndSet_int_R_int(jcontext ctx, jobject self, jint newValue) {
+    return atomicField(((java_util_concurrent_atomic_AtomicInteger *) NULL_CHECK(self))->F_value).exchange(newValue);
+}
+
+jbool M_java_util_concurrent_atomic_AtomicInteger_compareAndSet_int_int_R_boolean(jcontext ctx, jobject self, jint expect, jint update) {
+    return atomicField(((java_util_concurrent_atomic_AtomicInteger *) NULL_CHECK(self))->F_value).compare_exchange_strong(expect, update);
+}
+
+jint M_java_util_concurrent_atomic_AtomicInteger_getAndAdd_int_R_int(jcontext ctx, jobject self, jint delta) {
+    return atomicField(((java_util_concurrent_atomic_AtomicInteger *) NULL_CHECK(self))->F_value).fetch_add(delta);
+}
+
+jint M_java_util_concurrent_atomic_AtomicInteger_addAndGet_int_R_int(jcontext ctx, jobject self, jint delta) {
+    return atomicField(((java_util_concurrent_atomic_AtomicInteger *) NULL_CHECK(self))->F_value).fetch_add(delta) + delta;
+}
+
+jlong M_java_util_concurrent_atomic_AtomicLong_get_R_long(jcontext ctx, jobject self) {
+    return atomicField(((java_util_concurrent_atomic_AtomicLong *) NULL_CHECK(self))->F_value).load();
+}
+
+void M_java_util_concurrent_atomic_AtomicLong_set_long(jcontext ctx, jobject self, jlong newValue) {
+    atomicField(((java_util_concurrent_atomic_AtomicLong *) NULL_CHECK(self))->F_value).store(newValue);
+}
+
+void M_java_util_concurrent_atomic_AtomicLong_lazySet_long(jcontext ctx, jobject self, jlong newValue) {
+    atomicField(((java_util_concurrent_atomic_AtomicLong *) NULL_CHECK(self))->F_value).store(newValue, std::memory_order_release);
+}
+
+jlong M_java_util_concurrent_atomic_AtomicLong_getAndSet_long_R_long(jcontext ctx, jobject self, jlong newValue) {
+    return atomicField(((java_util_concurrent_atomic_AtomicLong *) NULL_CHECK(self))->F_value).exchange(newValue);
+}
+
+jbool M_java_util_concurrent_atomic_AtomicLong_compareAndSet_long_long_R_boolean(jcontext ctx, jobject self, jlong expect, jlong update) {
+    return atomicField(((java_util_concurrent_atomic_AtomicLong *) NULL_CHECK(self))->F_value).compare_exchange_strong(expect, update);
+}
+
+jlong M_java_util_concurrent_atomic_AtomicLong_getAndAdd_long_R_long(jcontext ctx, jobject self, jlong delta) {
+    return atomicField(((java_util_concurrent_atomic_AtomicLong *) NULL_CHECK(self))->F_value).fetch_add(delta);
+}
+
+jlong M_java_util_concurrent_atomic_AtomicLong_addAndGet_long_R_long(jcontext ctx, jobject self, jlong delta) {
+    return atomicField(((java_util_concurrent_atomic_AtomicLong *) NULL_CHECK(self))->F_value).fetch_add(delta) + delta;
+}
+
+jbool M_java_util_concurrent_atomic_AtomicBoolean_get_R_boolean(jcontext ctx, jobject self) {
+    return atomicField(((java_util_concurrent_atomic_AtomicBoolean *) NULL_CHECK(self))->F_value).load();
+}
+
+void M_java_util_concurrent_atomic_AtomicBoolean_set_boolean(jcontext ctx, jobject self, jbool newValue) {
+    atomicField(((java_util_concurrent_atomic_AtomicBoolean *) NULL_CHECK(self))->F_value).store(newValue);
+}
+
+void M_java_util_concurrent_atomic_AtomicBoolean_lazySet_boolean(jcontext ctx, jobject self, jbool newValue) {
+    atomicField(((java_util_concurrent_atomic_AtomicBoolean *) NULL_CHECK(self))->F_value).store(newValue, std::memory_order_release);
+}
+
+jbool M_java_util_concurrent_atomic_AtomicBoolean_getAndSet_boolean_R_boolean(jcontext ctx, jobject self, jbool newValue) {
+    return atomicField(((java_util_concurrent_atomic_AtomicBoolean *) NULL_CHECK(self))->F_value).exchange(newValue);
+}
+
+jbool M_java_util_concurrent_atomic_AtomicBoolean_compareAndSet_boolean_boolean_R_boolean(jcontext ctx, jobject self, jbool expect, jbool update) {
+    return atomicField(((java_util_concurrent_atomic_AtomicBoolean *) NULL_CHECK(self))->F_value).compare_exchange_strong(expect, update);
+}
+
+jobject M_java_util_concurrent_atomic_AtomicReference_get_R_java_lang_Object(jcontext ctx, jobject self) {
+    return (jobject) atomicField(((java_util_concurrent_atomic_AtomicReference *) NULL_CHECK(self))->F_value).load();
+}
+
+void M_java_util_concurrent_atomic_AtomicReference_set_java_lang_Object(jcontext ctx, jobject self, jobject newValue) {
+    atomicField(((java_util_concurrent_atomic_AtomicReference *) NULL_CHECK(self))->F_value).store((jref) newValue);
+    writeBarrier(self, newValue);
+}
+
+void M_java_util_concurrent_atomic_AtomicReference_lazySet_java_lang_Object(jcontext ctx, jobject self, jobject newValue) {
+    atomicField(((java_util_concurrent_atomic_AtomicReference *) NULL_CHECK(self))->F_value).store((jref) newValue, std::memory_order_release);
+    writeBarrier(self, newValue);
+}
+
+jobject M_java_util_concurrent_atomic_AtomicReference_getAndSet_java_lang_Object_R_java_lang_Object(jcontext ctx, jobject self, jobject newValue) {
+    auto previous = (jobject) atomicField(((java_util_concurrent_atomic_AtomicReference *) NULL_CHECK(self))->F_value).exchange((jref) newValue);
+    writeBarrier(self, newValue);
+    return previous;
+}
+
+jbool M_java_util_concurrent_atomic_AtomicReference_compareAndSet_java_lang_Object_java_lang_Object_R_boolean(jcontext ctx, jobject self, jobject expect, jobject update) {
+    auto expected = (jref) expect;
+    writeBarrier(NULL_CHECK(self), update);
+    return atomicField(((java_util_concurrent_atomic_AtomicReference *) NULL_CHECK(self))->F_value).compare_exchange_strong(expected, (jref) update);
+}
+
+jint M_java_util_concurrent_atomic_AtomicIntegerArray_get_int_R_int(jcontext ctx, jobject self, jint i) {
+    return atomicElement<jint>(ctx, (jobject) ((java_util_concurrent_atomic_AtomicIntegerArray *) NULL_CHECK(self))->F_array, i).load();
+}
+
+void M_java_util_concurrent_atomic_AtomicIntegerArray_set_int_int(jcontext ctx, jobject self, jint i, jint newValue) {
+    atomicElement<jint>(ctx, (jobject) ((java_util_concurrent_atomic_AtomicIntegerArray *) NULL_CHECK(self))->F_array, i).store(newValue);
+}
+
+jint M_java_util_concurrent_atomic_AtomicIntegerArray_getAndSet_int_int_R_int(jcontext ctx, jobject self, jint i, jint newValue) {
+    return atomicElement<jint>(ctx, (jobject) ((java_util_concurrent_atomic_AtomicIntegerArray *) NULL_CHECK(self))->F_array, i).exchange(newValue);
+}
+
+jbool M_java_util_concurrent_atomic_AtomicIntegerArray_compareAndSet_int_int_int_R_boolean(jcontext ctx, jobject self, jint i, jint expectedValue, jint newValue) {
+    return atomicElement<jint>(ctx, (jobject) ((java_util_concurrent_atomic_AtomicIntegerArray *) NULL_CHECK(self))->F_array, i).compare_exchange_strong(expectedValue, newValue);
+}
+
+jint M_java_util_concurrent_atomic_AtomicIntegerArray_getAndAdd_int_int_R_int(jcontext ctx, jobject self, jint i, jint delta) {
+    return atomicElement<jint>(ctx, (jobject) ((java_util_concurrent_atomic_AtomicIntegerArray *) NULL_CHECK(self))->F_array, i).fetch_add(delta);
+}
+
+jint M_java_util_concurrent_atomic_AtomicIntegerArray_compareAndExchange_int_int_int_R_int(jcontext ctx, jobject self, jint i, jint expectedValue, jint newValue) {
+    return compareAndExchange(atomicElement<jint>(ctx, (jobject) ((java_util_concurrent_atomic_AtomicIntegerArray *) NULL_CHECK(self))->F_array, i), expectedValue, newValue);
+}
+
+jobject M_java_util_concurrent_atomic_AtomicReferenceArray_get_int_R_java_lang_Object(jcontext ctx, jobject self, jint i) {
+    return atomicElement<jobject>(ctx, (jobject) ((java_util_concurrent_atomic_AtomicReferenceArray *) NULL_CHECK(self))->F_array, i).load();
+}
+
+void M_java_util_concurrent_atomic_AtomicReferenceArray_set_int_java_lang_Object(jcontext ctx, jobject self, jint i, jobject newValue) {
+    auto array = (jobject) ((java_util_concurrent_atomic_AtomicReferenceArray *) NULL_CHECK(self))->F_array;
+    atomicElement<jobject>(ctx, array, i).store(newValue);
+    writeBarrier(array, newValue);
+}
+
+jobject M_java_util_concurrent_atomic_AtomicReferenceArray_getAndSet_int_java_lang_Object_R_java_lang_Object(jcontext ctx, jobject self, jint i, jobject newValue) {
+    auto array = (jobject) ((java_util_concurrent_atomic_AtomicReferenceArray *) NULL_CHECK(self))->F_array;
+    auto previous = atomicElement<jobject>(ctx, array, i).exchange(newValue);
+    writeBarrier(array, newValue);
+    return previous;
+}
+
+jbool M_java_util_concurrent_atomic_AtomicReferenceArray_compareAndSet_int_java_lang_Object_java_lang_Object_R_boolean(jcontext ctx, jobject self, jint i, jobject expectedValue, jobject newValue) {
+    auto array = (jobject) ((java_util_concurrent_atomic_AtomicReferenceArray *) NULL_CHECK(self))->F_array;
+    auto element = atomicElement<jobject>(ctx, array, i);
+    writeBarrier(array, newValue);
+    return element.compare_exchange_strong(expectedValue, newValue);
+}
+
+jobject M_java_util_concurrent_atomic_AtomicReferenceArray_compareAndExchange_int_java_lang_Object_java_lang_Object_R_java_lang_Object(jcontext ctx, jobject self, jint i, jobject expectedValue, jobject newValue) {
+    auto array = (jobject) ((java_util_concurrent_atomic_AtomicReferenceArray *) NULL_CHECK(self))->F_array;
+    auto element = atomicElement<jobject>(ctx, array, i);
+    writeBarrier(array, newValue);
+    return compareAndExchange(element, expectedValue, newValue);
+}
+
+jlong SM_java_util_concurrent_atomic_AtomicFieldAccess_objectFieldOffset_java_lang_reflect_Field_R_long(jcontext ctx, jobject field) {
+    return ((java_lang_reflect_Field *) NULL_CHECK(field))->F_offset;
+}
+
+jint SM_java_util_concurrent_atomic_AtomicFieldAccess_getIntVolatile_java_lang_Object_long_R_int(jcontext ctx, jobject obj, jlong offset) {
+    return atomicField<jint>(NULL_CHECK(obj), offset).load();
+}
+
+void SM_java_util_concurrent_atomic_AtomicFieldAccess_putIntVolatile_java_lang_Object_long_int(jcontext ctx, jobject obj, jlong offset, jint value) {
+    atomicField<jint>(NULL_CHECK(obj), offset).store(value);
+}
+
+jbool SM_java_util_concurrent_atomic_AtomicFieldAccess_compareAndSwapInt_java_lang_Object_long_int_int_R_boolean(jcontext ctx, jobject obj, jlong offset, jint expect, jint update) {
+    return atomicField<jint>(NULL_CHECK(obj), offset).compare_exchange_strong(expect, update);
+}
+
+jint SM_java_util_concurrent_atomic_AtomicFieldAccess_getAndSetInt_java_lang_Object_long_int_R_int(jcontext ctx, jobject obj, jlong offset, jint value) {
+    return atomicField<jint>(NULL_CHECK(obj), offset).exchange(value);
+}
+
+jint SM_java_util_concurrent_atomic_AtomicFieldAccess_getAndAddInt_java_lang_Object_long_int_R_int(jcontext ctx, jobject obj, jlong offset, jint delta) {
+    return atomicField<jint>(NULL_CHECK(obj), offset).fetch_add(delta);
+}
+
+jlong SM_java_util_concurrent_atomic_AtomicFieldAccess_getLongVolatile_java_lang_Object_long_R_long(jcontext ctx, jobject obj, jlong offset) {
+    return atomicField<jlong>(NULL_CHECK(obj), offset).load();
+}
+
+void SM_java_util_concurrent_atomic_AtomicFieldAccess_putLongVolatile_java_lang_Object_long_long(jcontext ctx, jobject obj, jlong offset, jlong value) {
+    atomicField<jlong>(NULL_CHECK(obj), offset).store(value);
+}
+
+jbool SM_java_util_concurrent_atomic_AtomicFieldAccess_compareAndSwapLong_java_lang_Object_long_long_long_R_boolean(jcontext ctx, jobject obj, jlong offset, jlong expect, jlong update) {
+    return atomicField<jlong>(NULL_CHECK(obj), offset).compare_exchange_strong(expect, update);
+}
+
+jlong SM_java_util_concurrent_atomic_AtomicFieldAccess_getAndSetLong_java_lang_Object_long_long_R_long(jcontext ctx, jobject obj, jlong offset, jlong value) {
+    return atomicField<jlong>(NULL_CHECK(obj), offset).exchange(value);
+}
+
+jlong SM_java_util_concurrent_atomic_AtomicFieldAccess_getAndAddLong_java_lang_Object_long_long_R_long(jcontext ctx, jobject obj, jlong offset, jlong delta) {
+    return atomicField<jlong>(NULL_CHECK(obj), offset).fetch_add(delta);
+}
+
+jobject SM_java_util_concurrent_atomic_AtomicFieldAccess_getObjectVolatile_java_lang_Object_long_R_java_lang_Object(jcontext ctx, jobject obj, jlong offset) {
+    return (jobject) atomicField<jref>(NULL_CHECK(obj), offset).load();
+}
+
+void SM_java_util_concurrent_atomic_AtomicFieldAccess_putObjectVolatile_java_lang_Object_long_java_lang_Object(jcontext ctx, jobject obj, jlong offset, jobject value) {
+    atomicField<jref>(NULL_CHECK(obj), offset).store((jref) value);
+    writeBarrier(obj, value);
+}
+
+jbool SM_java_util_concurrent_atomic_AtomicFieldAccess_compareAndSwapObject_java_lang_Object_long_java_lang_Object_java_lang_Object_R_boolean(jcontext ctx, jobject obj, jlong offset, jobject expect, jobject update) {
+    auto expected = (jref) expect;
+    writeBarrier(NULL_CHECK(obj), update);
+    return atomicField<jref>(obj, offset).compare_exchange_strong(expected, (jref) update);
+}
+
+jobject SM_java_util_concurrent_atomic_AtomicFieldAccess_getAndSetObject_java_lang_Object_long_java_lang_Object_R_java_lang_Object(jcontext ctx, jobject obj, jlong offset, jobject value) {
+    auto previous = (jobject) atomicField<jref>(NULL_CHECK(obj), offset).exchange((jref) value);
+    writeBarrier(obj, value);
+    return previous;
+}
+
+}
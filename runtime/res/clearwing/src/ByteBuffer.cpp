@@ -7,6 +7,7 @@
 #include "java/nio/DirectDoubleBuffer.h"
 #include "java/nio/BufferOverflowException.h"
 #include "java/nio/BufferUnderflowException.h"
+#include "java/nio/ReadOnlyBufferException.h"
 
 extern "C" {
 
@@ -18,6 +19,12 @@ static void throwBufferUnderflow(jcontext ctx) {
     constructAndThrow<&class_java_nio_BufferUnderflowException, init_java_nio_BufferUnderflowException>(ctx);
 }
 
+/// Throws if a byte buffer is read-only, before writing to it or a view of it, since read-only mappings fault on writes. Throws exceptions.
+static void checkWritable(jcontext ctx, jobject byteBuffer) {
+    if (((java_nio_ByteBuffer *) byteBuffer)->F_readOnly)
+        constructAndThrow<&class_java_nio_ReadOnlyBufferException, init_java_nio_ReadOnlyBufferException>(ctx);
+}
+
 jobject SM_java_nio_ByteBuffer_allocateDirect_int_R_java_nio_ByteBuffer(jcontext ctx, jint size) {
     auto buffer = gcAllocProtected(ctx, &class_java_nio_ByteBuffer);
     auto data = new char[size]{};
@@ -156,12 +163,14 @@ jbyte M_java_nio_ByteBuffer_get_int_R_byte(jcontext ctx, jobject self, jint i) {
 
 jobject M_java_nio_ByteBuffer_put_byte_R_java_nio_ByteBuffer(jcontext ctx, jobject self, jbyte byte) {
     auto buffer = (java_nio_Buffer *) NULL_CHECK(self);
+    checkWritable(ctx, self);
     *(jbyte *)(buffer->F_address + M_java_nio_Buffer_nextPutIndex_R_int(ctx, self)) = byte;
     return self;
 }
 
 jobject M_java_nio_ByteBuffer_put_int_byte_R_java_nio_ByteBuffer(jcontext ctx, jobject self, jint i, jbyte byte) {
     auto buffer = (java_nio_Buffer *) NULL_CHECK(self);
+    checkWritable(ctx, self);
     *(jbyte *)(buffer->F_address + M_java_nio_Buffer_checkIndex_int_R_int(ctx, self, i)) = byte;
     return self;
 }
@@ -189,6 +198,7 @@ jchar M_java_nio_DirectCharBuffer_getUnchecked_int_R_char(jcontext ctx, jobject
 
 jobject M_java_nio_DirectCharBuffer_put_char_R_java_nio_CharBuffer(jcontext ctx, jobject self, jchar x) {
     auto buffer = (java_nio_DirectCharBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     auto i = M_java_nio_Buffer_nextPutIndex_R_int(ctx, self);
     *(jchar *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectCharBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -196,6 +206,7 @@ jobject M_java_nio_DirectCharBuffer_put_char_R_java_nio_CharBuffer(jcontext ctx,
 
 jobject M_java_nio_DirectCharBuffer_put_int_char_R_java_nio_CharBuffer(jcontext ctx, jobject self, jint i, jchar x) {
     auto buffer = (java_nio_DirectCharBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     i = M_java_nio_Buffer_checkIndex_int_R_int(ctx, self, i);
     *(jchar *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectCharBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -219,6 +230,7 @@ jshort M_java_nio_DirectShortBuffer_get_int_R_short(jcontext ctx, jobject self,
 
 jobject M_java_nio_DirectShortBuffer_put_short_R_java_nio_ShortBuffer(jcontext ctx, jobject self, jshort x) {
     auto buffer = (java_nio_DirectShortBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     auto i = M_java_nio_Buffer_nextPutIndex_R_int(ctx, self);
     *(jshort *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectShortBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -226,6 +238,7 @@ jobject M_java_nio_DirectShortBuffer_put_short_R_java_nio_ShortBuffer(jcontext c
 
 jobject M_java_nio_DirectShortBuffer_put_int_short_R_java_nio_ShortBuffer(jcontext ctx, jobject self, jint i, jshort x) {
     auto buffer = (java_nio_DirectShortBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     i = M_java_nio_Buffer_checkIndex_int_R_int(ctx, self, i);
     *(jshort *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectShortBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -249,6 +262,7 @@ jint M_java_nio_DirectIntBuffer_get_int_R_int(jcontext ctx, jobject self, jint i
 
 jobject M_java_nio_DirectIntBuffer_put_int_R_java_nio_IntBuffer(jcontext ctx, jobject self, jint x) {
     auto buffer = (java_nio_DirectIntBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     auto i = M_java_nio_Buffer_nextPutIndex_R_int(ctx, self);
     *(jint *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectIntBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -256,6 +270,7 @@ jobject M_java_nio_DirectIntBuffer_put_int_R_java_nio_IntBuffer(jcontext ctx, jo
 
 jobject M_java_nio_DirectIntBuffer_put_int_int_R_java_nio_IntBuffer(jcontext ctx, jobject self, jint i, jint x) {
     auto buffer = (java_nio_DirectIntBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     i = M_java_nio_Buffer_checkIndex_int_R_int(ctx, self, i);
     *(jint *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectIntBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -279,6 +294,7 @@ jlong M_java_nio_DirectLongBuffer_get_int_R_long(jcontext ctx, jobject self, jin
 
 jobject M_java_nio_DirectLongBuffer_put_long_R_java_nio_LongBuffer(jcontext ctx, jobject self, jlong x) {
     auto buffer = (java_nio_DirectLongBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     auto i = M_java_nio_Buffer_nextPutIndex_R_int(ctx, self);
     *(jlong *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectLongBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -286,6 +302,7 @@ jobject M_java_nio_DirectLongBuffer_put_long_R_java_nio_LongBuffer(jcontext ctx,
 
 jobject M_java_nio_DirectLongBuffer_put_int_long_R_java_nio_LongBuffer(jcontext ctx, jobject self, jint i, jlong x) {
     auto buffer = (java_nio_DirectLongBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     i = M_java_nio_Buffer_checkIndex_int_R_int(ctx, self, i);
     *(jlong *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectLongBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -309,6 +326,7 @@ jfloat M_java_nio_DirectFloatBuffer_get_int_R_float(jcontext ctx, jobject self,
 
 jobject M_java_nio_DirectFloatBuffer_put_float_R_java_nio_FloatBuffer(jcontext ctx, jobject self, jfloat x) {
     auto buffer = (java_nio_DirectFloatBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     auto i = M_java_nio_Buffer_nextPutIndex_R_int(ctx, self);
     *(jfloat *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectFloatBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -316,6 +334,7 @@ jobject M_java_nio_DirectFloatBuffer_put_float_R_java_nio_FloatBuffer(jcontext c
 
 jobject M_java_nio_DirectFloatBuffer_put_int_float_R_java_nio_FloatBuffer(jcontext ctx, jobject self, jint i, jfloat x) {
     auto buffer = (java_nio_DirectFloatBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     i = M_java_nio_Buffer_checkIndex_int_R_int(ctx, self, i);
     *(jfloat *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectFloatBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -339,6 +358,7 @@ jdouble M_java_nio_DirectDoubleBuffer_get_int_R_double(jcontext ctx, jobject sel
 
 jobject M_java_nio_DirectDoubleBuffer_put_double_R_java_nio_DoubleBuffer(jcontext ctx, jobject self, jdouble x) {
     auto buffer = (java_nio_DirectDoubleBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     auto i = M_java_nio_Buffer_nextPutIndex_R_int(ctx, self);
     *(jdouble *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectDoubleBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
@@ -346,6 +366,7 @@ jobject M_java_nio_DirectDoubleBuffer_put_double_R_java_nio_DoubleBuffer(jcontex
 
 jobject M_java_nio_DirectDoubleBuffer_put_int_double_R_java_nio_DoubleBuffer(jcontext ctx, jobject self, jint i, jdouble x) {
     auto buffer = (java_nio_DirectDoubleBuffer *) NULL_CHECK(self);
+    checkWritable(ctx, (jobject) buffer->F_bb);
     i = M_java_nio_Buffer_checkIndex_int_R_int(ctx, self, i);
     *(jdouble *)(((java_nio_Buffer *) buffer->F_bb)->F_address + M_java_nio_DirectDoubleBuffer_ix_int_R_int(ctx, self, i)) = x;
     return self;
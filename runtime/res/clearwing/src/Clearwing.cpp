@@ -24,6 +24,8 @@
 #include "java/lang/Double.h"
 #include "java/lang/Boolean.h"
 #include "java/lang/Number.h"
+#include "java/lang/ref/Reference.h"
+#include "java/lang/ref/ReferenceQueue.h"
 #include <java/nio/ByteBuffer.h>
 
 #include <ankerl/unordered_dense.h>
@@ -37,38 +39,99 @@
 #include <locale>
 #include <codecvt>
 #include <atomic>
+#include <bit>
 #include <unordered_set>
 #include <cstdarg>
 #include <ranges>
 #include <chrono>
 #include <thread>
 
+#if defined(__linux__) || defined(__APPLE__)
+#include <time.h>
+#endif
+
 static_assert(sizeof(Class) == sizeof(java_lang_Class)); // Loosely ensure generated Class structure matches native representation
 static_assert(std::alignment_of<java_lang_Object>() == std::alignment_of<jlong>()); // Embedding Object in type struct should not add padding
 
 static ankerl::unordered_dense::set<jobject> *objects;
 static ankerl::unordered_dense::set<jobject> *rootObjects;
-static std::vector<jobject> collectedObjects;
+static std::vector<jobject> finalizeQueue; // Collected objects waiting to be finalized by the GC thread
+static std::vector<jobject> finalizingObjects; // Objects currently being finalized by the GC thread
+static std::vector<jobject> sweepQueue; // Collected objects waiting to be freed by the GC thread
+static std::vector<jobject> references; // Registered Reference objects, whose referents aren't traced
+static std::mutex referencesLock;
+static std::vector<jobject> pendingReferences; // Cleared references with queues waiting to be enqueued by the GC thread
+static std::vector<jobject> enqueueingReferences; // References currently being enqueued by the GC thread
 static std::mutex objectsLock;
+static std::condition_variable sweepCondition;
+static std::mutex safepointLock; // Guards suspendVM and context suspension transitions
+static std::condition_variable safepointCondition; // Signaled when the VM is resumed
+static std::condition_variable safepointReached; // Signaled when a thread reaches a safepoint
 static jthread collectionThread;
 static std::map<std::string, jclass> *classes;
 static std::recursive_mutex criticalLock;
 static std::mutex *registryMutex;
 static std::vector<jcontext> threadContexts;
-static std::vector<jobject> deepMarkedObjects;
+static std::map<char *, jchunk> nurseryChunks;
+static std::mutex nurseryLock;
+static std::vector<jchunk> reusableChunks; // Retired chunks with enough freed memory to allocate from again, guarded by nurseryLock
+static std::vector<jobject> rememberedObjects; // Old objects that may reference young objects, traced by minor collections
+static std::mutex rememberedLock;
+static GCStats gcStats;
 static volatile bool exiting;
+static std::vector<std::string> programArguments;
 
 std::atomic_int64_t heapUsage;
 std::atomic_int64_t allocationsSinceCollection;
 int64_t lastCollectionHeapUsage;
 
+struct FreeList {
+    std::mutex lock;
+    std::vector<char *> blocks;
+};
+
+static FreeList freeLists[GC_SIZE_CLASS_COUNT];
+
+struct MarkWorker {
+    std::vector<jobject> local; // Private mark stack, only accessed by the owning worker
+    std::mutex sharedLock;
+    std::vector<jobject> shared; // Work made available for stealing by idle workers
+    std::atomic_int sharedSize;
+};
+
+static MarkWorker markWorkers[GC_WORKER_THREADS];
+static thread_local MarkWorker *currentMarkWorker;
+static std::atomic_int activeMarkWorkers;
+static std::atomic_int sleepingMarkWorkers;
+static std::mutex markWorkLock;
+static auto markWorkCondition = new std::condition_variable; // Never destroyed, for the same reason as markPhaseCondition
+static std::mutex markPhaseLock;
+static auto markPhaseCondition = new std::condition_variable; // Never destroyed, since destroying it at exit blocks on the waiting helper threads
+static int markPhase;
+static int finishedMarkHelpers;
+static jint markPhaseMark;
+static bool minorMarking; // Whether the current mark phase only traces young objects, treating old objects as live
+
+struct NurseryChunk {
+    char *start;
+    char *top; // Bump pointer, only advanced by the owning thread
+    char *limit; // End of the free run that the bump pointer is in
+    char *end;
+    std::atomic_int32_t references; // Live objects in the chunk, plus one while owned by an allocating thread
+    std::atomic_uint64_t *objectStarts; // Bitmap of live object starts with a bit per 8 byte slot
+    int64_t freed; // Memory freed since the chunk was last owned, guarded by nurseryLock
+    bool owned; // Whether a thread allocates from the chunk, guarded by nurseryLock
+    bool reusable; // Whether the chunk is in reusableChunks, guarded by nurseryLock
+};
+
 extern "C" {
 
 bool volatile suspendVM;
 
 static void collectionThreadFunc(jcontext ctx);
+static void collect(jcontext ctx, bool major);
 
-static void markPrimitive(jobject object, jint mark, jint depth) {}
+static void markPrimitive(jobject object, jint mark) {}
 
 static void clinitPrimitive(jcontext ctx) {}
 
@@ -83,8 +146,13 @@ Class class_double { .nativeName = (intptr_t)"D", .size = sizeof(jdouble), .stat
 Class class_boolean { .nativeName = (intptr_t)"Z", .size = sizeof(jbool), .staticInitializer = (intptr_t) clinitPrimitive, .markFunction = (intptr_t) markPrimitive, .primitive = true, .access = 0x400 };
 Class class_void { .nativeName = (intptr_t)"V", .size = 0, .staticInitializer = (intptr_t) clinitPrimitive, .markFunction = (intptr_t) markPrimitive, .primitive = true, .access = 0x400 };
 
-void runVM(main_ptr entrypoint) {
+/// Runs the main entrypoint on the current thread, passing it the command line arguments after the program name.
+/// Does not throw exceptions.
+void runVM(main_ptr entrypoint, int argc, char **argv) {
     // Todo: Initialized flag to make this reusable
+    for (int i = 1; i < argc; i++)
+        programArguments.emplace_back(argv[i]);
+
     registerClass(&class_byte);
     registerClass(&class_char);
     registerClass(&class_short);
@@ -102,6 +170,7 @@ void runVM(main_ptr entrypoint) {
     collectionThread->F_nativeContext = (intptr_t) collectionCtx;
     collectionCtx->thread = collectionThread;
     collectionThread->F_started = true;
+    collectionThread->F_alive = true; // The GC thread owns a nursery, so collections must wait for it to reach a safepoint
     collectionThread->F_name = (intptr_t) stringFromNative(mainContext, "GC");
     collectionCtx->nativeThread = new std::thread;
     *collectionCtx->nativeThread = std::thread(collectionThreadFunc, collectionCtx);
@@ -110,35 +179,65 @@ void runVM(main_ptr entrypoint) {
     thread->F_nativeContext = (intptr_t) mainContext;
     mainContext->thread = thread;
     thread->F_entrypoint = (intptr_t) entrypoint;
+    thread->F_started = true;
+    thread->F_alive = true;
     thread->F_name = (intptr_t) stringFromNative(mainContext, "Main");
     threadEntrypoint(mainContext, thread);
 
     exitVM(mainContext, 0);
 }
 
+/// Creates the String array passed to the main entrypoint. Throws exceptions.
+jarray createProgramArguments(jcontext ctx) {
+    auto array = createArrayProtected(ctx, &class_java_lang_String, (int) programArguments.size());
+    for (int i = 0; i < (int) programArguments.size(); i++) {
+        auto string = (jobject) stringFromNativeProtected(ctx, programArguments[i].c_str());
+        ((jobject *) array->data)[i] = string;
+        writeBarrier((jobject) array, string);
+        unprotectObject(string);
+    }
+    unprotectObject((jobject) array);
+    return array;
+}
+
 void exitVM(jcontext ctx, int result) {
     if (exiting) return;
     exiting = true;
+    sweepCondition.notify_all();
     ctx->dead = true;
-    ctx->suspended = true;
-    auto timeout = std::chrono::system_clock::now() + std::chrono::seconds(10);
-    while (std::chrono::system_clock::now() < timeout) {
+    enterSafeRegion(ctx);
+    {
+        std::lock_guard lock(safepointLock);
         suspendVM = true;
+    }
+    safepointCondition.notify_all();
+    auto timeout = std::chrono::steady_clock::now() + std::chrono::seconds(10);
+    while (std::chrono::steady_clock::now() < timeout) {
         bool done = true;
         for (auto threadContext : threadContexts) { // Todo: Should be locked for
             if (threadContext->dead) continue;
             done = false;
             threadContext->lock.lock();
-            if (threadContext->blockedBy)
-                ((jmonitor) ((jobject) threadContext->blockedBy)->monitor)->condition.notify_all();
+            if (threadContext->blockedBy) {
+                auto monitor = inflateMonitor(threadContext->blockedBy);
+                monitor->condition.notify_all();
+                monitor->released.notify_all();
+            }
             threadContext->lock.unlock();
         }
         if (done)
             break;
+        std::unique_lock lock(safepointLock);
+        safepointReached.wait_for(lock, std::chrono::milliseconds(10));
     }
     exit(result);
 }
 
+/// Checks whether the VM is shutting down, so blocked threads can stop waiting. Does not throw exceptions.
+bool isExiting() {
+    return exiting;
+}
+
 /// Registers a class and populates its object fields. Does not throw exceptions.
 bool registerClass(jclass clazz) {
     extern void *vtable_java_lang_Class[];
@@ -153,19 +252,41 @@ bool registerClass(jclass clazz) {
             .clazz = (intptr_t) &class_java_lang_Class,
             .gcMark = GC_MARK_ETERNAL,
             .vtable = (intptr_t) vtable_java_lang_Class,
-            .monitor = (intptr_t) new ObjectMonitor,
     };
-    auto instanceCache = new std::set<jclass>;
+    // Build the superclass display for constant time class checks
+    int depth = 0;
+    for (auto cls = (jclass) clazz->parentClass; cls; cls = (jclass) cls->parentClass)
+        depth++;
+    auto display = new jclass[depth + 1];
+    clazz->hierarchyDepth = depth;
+    for (auto cls = clazz; cls; cls = (jclass) cls->parentClass)
+        display[depth--] = cls;
+    clazz->superDisplay = (intptr_t) display;
+    // Build the bitset of all implemented interfaces, assigning IDs to interfaces as they are encountered
+    static int interfaceCount;
+    std::vector<uint64_t> interfaceBits;
     std::function<void(jclass)> processClass;
     processClass = [&](jclass cls) {
-        instanceCache->emplace(cls);
+        if (cls->access & 0x200) { // ACC_INTERFACE
+            if (!cls->interfaceId)
+                cls->interfaceId = ++interfaceCount;
+            int id = cls->interfaceId - 1;
+            if ((int) interfaceBits.size() <= id / 64)
+                interfaceBits.resize(id / 64 + 1);
+            interfaceBits[id / 64] |= 1ull << (id % 64);
+        }
         if (cls->parentClass)
             processClass((jclass)cls->parentClass);
         for (int i = 0; i < cls->interfaceCount; i++)
             processClass(((jclass *)cls->nativeInterfaces)[i]);
     };
     processClass(clazz);
-    clazz->instanceOfCache = (intptr_t) instanceCache;
+    clazz->interfaceBitsetSize = (int) interfaceBits.size();
+    clazz->interfaceBitset = (intptr_t) (interfaceBits.empty() ? nullptr : new uint64_t[interfaceBits.size()]);
+    std::copy(interfaceBits.begin(), interfaceBits.end(), (uint64_t *) clazz->interfaceBitset);
+    // Only objects which override the default finalizer need to be finalized before being freed
+    clazz->finalizable = clazz->classVtable and clazz->vtableSize > VTABLE_java_lang_Object_finalize
+            and ((void **) clazz->classVtable)[VTABLE_java_lang_Object_finalize] != (void *) M_java_lang_Object_finalize;
     registryMutex->unlock();
     return true;
 }
@@ -179,7 +300,7 @@ jclass classForName(const char *name) {
     }
 }
 
-void instMultiANewArray(jcontext ctx, volatile jtype *&sp, jclass type, int dimensionCount) {
+void instMultiANewArray(jcontext ctx, FRAME_VOLATILE jtype *&sp, jclass type, int dimensionCount) {
     std::vector<int> dimensions;
     for (int i = 0; i < dimensionCount; i++)
         dimensions.push_back((int)(--sp)->i);
@@ -208,6 +329,7 @@ static jstring createString(jcontext ctx, const char *string, int length, bool p
     int encodedLength = (int)encoded.length();
     auto inst = (jstring) gcAllocProtected(ctx, &class_java_lang_String); // This leaks if createArray throws an exception
     inst->F_value = (intptr_t) createArray(ctx, &class_char, encodedLength);
+    writeBarrier((jobject) inst, (jobject) inst->F_value); // The string is old, since it was allocated protected
     if (!protect)
         unprotectObject((jobject)inst);
     inst->F_count = encodedLength;
@@ -299,7 +421,12 @@ bool isAssignableFrom(jcontext ctx, jclass type, jclass assignee) {
     if (type->arrayDimensions > 0 and assignee->arrayDimensions > 0)
         return isAssignableFrom(ctx, (jclass) type->componentClass, (jclass) assignee->componentClass);
 
-    return ((std::set<jclass> *)assignee->instanceOfCache)->contains(type);
+    if (type->access & 0x200) { // ACC_INTERFACE
+        int id = type->interfaceId - 1;
+        return id >= 0 and id / 64 < assignee->interfaceBitsetSize and (((uint64_t *) assignee->interfaceBitset)[id / 64] >> (id % 64) & 1);
+    }
+
+    return type->hierarchyDepth <= assignee->hierarchyDepth and ((jclass *) assignee->superDisplay)[type->hierarchyDepth] == type;
 }
 
 /// Checks whether an object is an instance or inherits from a given type. Does not throw exceptions.
@@ -309,51 +436,301 @@ bool isInstance(jcontext ctx, jobject object, jclass type) {
     return isAssignableFrom(ctx, type, (jclass) object->clazz);
 }
 
+/// Finds the interface table of a class, building it on first use. Lookups only take a lock when building a table. Does not throw exceptions.
+static InterfaceTable *findInterfaceTable(jclass clazz, jclass interface) {
+    std::atomic_ref<jlong> tables(clazz->interfaceTables);
+    for (auto table = (InterfaceTable *) tables.load(std::memory_order_acquire); table; table = table->next)
+        if (table->interface == interface)
+            return table;
+
+    static std::mutex lock;
+    std::lock_guard guard(lock);
+    for (auto table = (InterfaceTable *) tables.load(std::memory_order_acquire); table; table = table->next)
+        if (table->interface == interface)
+            return table;
+
+    auto table = new InterfaceTable{ clazz, interface, std::vector<int>(interface->methodCount), (InterfaceTable *) tables.load(std::memory_order_relaxed) };
+    for (int i = 0; i < interface->methodCount; i++) {
+        auto &metadata = ((MethodMetadata *) interface->nativeMethods)[i];
+        int found = -1;
+        if (!(metadata.access & 0x8)) { // ACC_STATIC
+            for (int j = 0; j < clazz->vtableSize; j++) {
+                auto entry = ((VtableEntry *) clazz->vtableEntries)[j];
+                if (strcmp(entry.name, metadata.name) != 0 or strcmp(entry.desc, metadata.desc) != 0)
+                    continue;
+                found = j;
+                break;
+            }
+        }
+        table->offsets[i] = found;
+    }
+    tables.store((jlong) (intptr_t) table, std::memory_order_release);
+    return table;
+}
+
+/// Resolves the interface table of an object's class for a call site cache, checking that the method is implemented. Throws exceptions.
+InterfaceTable *resolveInterfaceTable(jcontext ctx, jclass interface, int method, jobject object) {
+    nullCheck(ctx, object);
+    auto table = findInterfaceTable((jclass) object->clazz, interface);
+    if (method >= (int) table->offsets.size() or table->offsets[method] == -1)
+        constructAndThrow<&class_java_lang_NoSuchMethodError, init_java_lang_NoSuchMethodError>(ctx);
+    return table;
+}
+
 /// Resolves an interface in an object vtable. Method index must be an index into the method metadata array of this exact interface (Not a super class). Throws exceptions.
 void *resolveInterfaceMethod(jcontext ctx, jclass interface, int method, jobject object) {
-    NULL_CHECK(object);
-    static std::mutex lock;
-    static std::map<jclass, std::map<jclass, std::vector<int>>> mappings;
+    auto table = resolveInterfaceTable(ctx, interface, method, object);
+    return ((void **) object->vtable)[table->offsets[method]];
+}
+
+/// Creates a new zeroed nursery chunk owned by the calling thread. The whole chunk counts towards the heap usage until it
+/// is freed, since surviving objects keep it allocated. Does not throw exceptions.
+static jchunk createNurseryChunk() {
+    auto chunk = new NurseryChunk;
+    chunk->start = chunk->top = new char[NURSERY_CHUNK_SIZE]{};
+    chunk->limit = chunk->end = chunk->start + NURSERY_CHUNK_SIZE;
+    chunk->references = 1;
+    chunk->objectStarts = new std::atomic_uint64_t[NURSERY_CHUNK_SIZE / 8 / 64]{};
+    chunk->freed = 0;
+    chunk->owned = true;
+    chunk->reusable = false;
+    heapUsage += NURSERY_CHUNK_SIZE;
+    std::lock_guard guard(nurseryLock);
+    nurseryChunks[chunk->start] = chunk;
+    return chunk;
+}
+
+/// Drops a reference to a nursery chunk, freeing it once it is retired and all of its objects are collected. Does not throw exceptions.
+static void releaseNurseryChunk(jchunk chunk) {
+    if (--chunk->references > 0)
+        return;
+    {
+        std::lock_guard guard(nurseryLock);
+        nurseryChunks.erase(chunk->start);
+        if (chunk->reusable)
+            std::erase(reusableChunks, chunk);
+    }
+    heapUsage -= NURSERY_CHUNK_SIZE;
+    delete[] chunk->start;
+    delete[] chunk->objectStarts;
+    delete chunk;
+}
 
-    auto objectClass = (jclass) object->clazz;
+/// Queues a retired chunk to be allocated from again once enough of it has been freed. Caller must hold `nurseryLock`. Does not throw exceptions.
+static void queueReusableChunk(jchunk chunk) {
+    if (chunk->owned or chunk->reusable or chunk->freed < NURSERY_REUSE_THRESHOLD)
+        return;
+    chunk->reusable = true;
+    reusableChunks.emplace_back(chunk);
+}
+
+/// Finds the first live object start in a chunk at or after a slot, or the slot count if there is none. Does not throw exceptions.
+static int findNextObjectStart(jchunk chunk, int slot) {
+    constexpr int slots = NURSERY_CHUNK_SIZE / 8;
+    while (slot < slots) {
+        uint64_t bits = chunk->objectStarts[slot / 64].load(std::memory_order_relaxed) >> (slot % 64);
+        if (bits)
+            return slot + std::countr_zero(bits);
+        slot = (slot / 64 + 1) * 64;
+    }
+    return slots;
+}
+
+/// Moves the bump pointer of a chunk owned by the calling thread to the next zeroed hole after its current free run that
+/// fits an object. Caller must hold `nurseryLock`, so objects aren't erased by a sweep while their sizes are read. Does
+/// not throw exceptions.
+static bool findNurseryHole(jchunk chunk, int size) {
+    constexpr int slots = NURSERY_CHUNK_SIZE / 8;
+    int minSlots = std::max(size, NURSERY_MIN_HOLE_SIZE) / 8;
+    int slot = (int) ((chunk->limit - chunk->start) / 8);
+    while (slot < slots) {
+        int next = findNextObjectStart(chunk, slot);
+        if (next - slot >= minSlots) {
+            chunk->top = chunk->start + slot * 8;
+            chunk->limit = chunk->start + next * 8;
+            memset(chunk->top, 0, chunk->limit - chunk->top);
+            return true;
+        }
+        if (next == slots)
+            break;
+        slot = next + (((jclass) ((jobject) (chunk->start + next * 8))->clazz)->size + 7) / 8;
+    }
+    chunk->top = chunk->limit = chunk->end;
+    return false;
+}
 
-    int offset;
+/// Gives up ownership of the allocating thread's chunk, which is reused once enough of it has been freed. Does not throw exceptions.
+static void retireNurseryChunk(jchunk chunk) {
     {
-        std::lock_guard guard(lock);
+        std::lock_guard guard(nurseryLock);
+        chunk->owned = false;
+        queueReusableChunk(chunk);
+    }
+    releaseNurseryChunk(chunk);
+}
+
+/// Takes ownership of a retired chunk with a hole that fits an object, or creates a new chunk. Does not throw exceptions.
+static jchunk acquireNurseryChunk(int size) {
+    std::vector<jchunk> fragmented;
+    jchunk acquired = nullptr;
+    nurseryLock.lock();
+    while (!acquired and !reusableChunks.empty()) {
+        auto chunk = reusableChunks.back();
+        reusableChunks.pop_back();
+        chunk->reusable = false;
+        // A chunk without references is being freed by the thread that collected its last object
+        int32_t references = chunk->references;
+        while (references > 0 and !chunk->references.compare_exchange_weak(references, references + 1));
+        if (references == 0)
+            continue;
+        chunk->owned = true;
+        chunk->freed = 0;
+        chunk->limit = chunk->start;
+        if (findNurseryHole(chunk, size))
+            acquired = chunk;
+        else {
+            chunk->owned = false; // Freed memory is spread over holes too small to use, so wait for more to be freed
+            fragmented.emplace_back(chunk);
+        }
+    }
+    nurseryLock.unlock();
+    for (auto chunk : fragmented)
+        releaseNurseryChunk(chunk);
+    return acquired ? acquired : createNurseryChunk();
+}
 
-        std::map<jclass, std::vector<int>> &objectMappings = mappings[interface];
+/// Finds the nursery chunk containing an address. Caller must hold `nurseryLock`. Does not throw exceptions.
+static jchunk findNurseryChunk(const void *address) {
+    auto it = nurseryChunks.upper_bound((char *) address);
+    if (it == nurseryChunks.begin())
+        return nullptr;
+    auto chunk = (--it)->second;
+    return (char *) address < chunk->end ? chunk : nullptr;
+}
 
-        auto offsetsIt = objectMappings.find(objectClass);
-        if (offsetsIt == objectMappings.end()) {
-            std::vector<int> offsets(interface->methodCount);
-            for (int i = 0; i < interface->methodCount; i++) {
-                auto &metadata = ((MethodMetadata *) interface->nativeMethods)[i];
-                if (metadata.access & 0x8) { // ACC_STATIC
-                    offsets[i] = -1;
-                    continue;
-                }
-                int found = -1;
-                for (int j = 0; j < objectClass->vtableSize; j++) {
-                    auto entry = ((VtableEntry *) objectClass->vtableEntries)[j];
-                    if (strcmp(entry.name, metadata.name) != 0 or strcmp(entry.desc, metadata.desc) != 0)
-                        continue;
-                    found = j;
-                    break;
-                }
-                offsets[i] = found;
-            }
-            objectMappings[objectClass] = offsets;
-            offset = offsets[method];
-        } else {
-            auto &offsets = offsetsIt->second;
-            offset = (int)offsets.size() <= method ? -1 : offsets[method];
+/// Checks whether a value is a pointer to the start of a live nursery object. Caller must hold `nurseryLock`. Does not throw exceptions.
+static bool isNurseryObject(const void *address) {
+    auto chunk = findNurseryChunk(address);
+    if (!chunk)
+        return false;
+    auto offset = (char *) address - chunk->start;
+    if (offset % 8 != 0)
+        return false;
+    auto slot = offset / 8;
+    return chunk->objectStarts[slot / 64] & (1ull << (slot % 64));
+}
+
+/// Bump allocates zeroed object memory from the thread-local nursery, moving on to the next hole of the current chunk or
+/// another chunk when the current free run is used up. Does not throw exceptions.
+static jobject nurseryAlloc(jcontext ctx, int size) {
+    auto chunk = ctx->nurseryChunk;
+    if (!chunk || chunk->top + size > chunk->limit) {
+        bool found = false;
+        if (chunk) {
+            std::lock_guard guard(nurseryLock);
+            found = findNurseryHole(chunk, size);
+        }
+        if (!found) {
+            if (chunk)
+                retireNurseryChunk(chunk);
+            chunk = ctx->nurseryChunk = acquireNurseryChunk(size);
         }
     }
+    auto object = (jobject) chunk->top;
+    chunk->top += size;
+    chunk->references++;
+    auto slot = ((char *) object - chunk->start) / 8;
+    chunk->objectStarts[slot / 64] |= 1ull << (slot % 64);
+    ctx->youngObjects.emplace_back(object);
+    ctx->nurseryUsage += size;
+    return object;
+}
 
-    if (offset == -1)
-        constructAndThrow<&class_java_lang_NoSuchMethodError, init_java_lang_NoSuchMethodError>(ctx);
+static int getSizeClass(int size) {
+    return (size + GC_SIZE_CLASS_GRANULARITY - 1) / GC_SIZE_CLASS_GRANULARITY - 1;
+}
 
-    return ((void **) object->vtable)[offset];
+/// Allocates zeroed memory for an object outside of the nursery, reusing freed memory of the same size class. Does not throw exceptions.
+static char *allocObjectMemory(int size) {
+    if (size > GC_SIZE_CLASS_GRANULARITY * GC_SIZE_CLASS_COUNT)
+        return new char[size]{};
+    int sizeClass = getSizeClass(size);
+    int blockSize = (sizeClass + 1) * GC_SIZE_CLASS_GRANULARITY;
+    auto &freeList = freeLists[sizeClass];
+    char *block = nullptr;
+    freeList.lock.lock();
+    if (!freeList.blocks.empty()) {
+        block = freeList.blocks.back();
+        freeList.blocks.pop_back();
+    }
+    freeList.lock.unlock();
+    if (!block)
+        return new char[blockSize]{};
+    memset(block, 0, blockSize);
+    return block;
+}
+
+/// Frees collected objects, returning memory to nursery chunks or the size-class free lists in batches. Does not throw exceptions.
+static void sweepObjects(std::vector<jobject> &collected) {
+    static std::vector<char *> released[GC_SIZE_CLASS_COUNT];
+    static std::vector<jchunk> releasedChunks;
+
+    int64_t freed = 0;
+    nurseryLock.lock();
+    for (jobject obj : collected) {
+        int size = ((jclass) obj->clazz)->size;
+        bool nursery = obj->gcFlags & GC_FLAG_NURSERY;
+        if (!nursery) // Nursery memory is counted by chunk
+            freed += size;
+
+        if (obj->monitor && !(obj->monitor & MONITOR_THIN_FLAG)) {
+            delete (jmonitor) obj->monitor;
+            freed += (int64_t) sizeof(ObjectMonitor);
+        }
+
+        if (obj->gcFlags & GC_FLAG_REMEMBERED) { // Written to by its finalizer after the last collection
+            std::lock_guard guard(rememberedLock);
+            std::erase(rememberedObjects, obj);
+        }
+        memset(obj, 0, sizeof(java_lang_Object)); // Erase collected objects to make memory bugs easier to catch
+        obj->gcMark = GC_MARK_COLLECTED; // Set collected flag again
+
+        if (nursery) {
+            auto chunk = findNurseryChunk(obj);
+            auto slot = ((char *) obj - chunk->start) / 8;
+            chunk->objectStarts[slot / 64] &= ~(1ull << (slot % 64));
+            chunk->freed += (size + 7) & ~7;
+            queueReusableChunk(chunk);
+            releasedChunks.emplace_back(chunk);
+        } else if (size > GC_SIZE_CLASS_GRANULARITY * GC_SIZE_CLASS_COUNT)
+            delete[] (char *) obj;
+        else
+            released[getSizeClass(size)].emplace_back((char *) obj);
+    }
+    nurseryLock.unlock();
+    heapUsage -= freed;
+    collected.clear();
+
+    for (auto chunk : releasedChunks)
+        releaseNurseryChunk(chunk);
+    releasedChunks.clear();
+
+    for (int i = 0; i < GC_SIZE_CLASS_COUNT; i++) {
+        auto &blocks = released[i];
+        if (blocks.empty())
+            continue;
+        size_t maxBlocks = GC_FREE_LIST_MAX_SIZE / ((i + 1) * GC_SIZE_CLASS_GRANULARITY);
+        auto &freeList = freeLists[i];
+        freeList.lock.lock();
+        while (!blocks.empty() and freeList.blocks.size() < maxBlocks) {
+            freeList.blocks.emplace_back(blocks.back());
+            blocks.pop_back();
+        }
+        freeList.lock.unlock();
+        for (auto block : blocks)
+            delete[] block;
+        blocks.clear();
+    }
 }
 
 jobject gcAllocObject(jcontext ctx, jclass clazz, int mark) {
@@ -363,22 +740,32 @@ jobject gcAllocObject(jcontext ctx, jclass clazz, int mark) {
     }
 
     if (heapUsage > GC_HEAP_THRESHOLD || heapUsage - lastCollectionHeapUsage > GC_MEM_THRESHOLD || allocationsSinceCollection > GC_OBJECT_THRESHOLD)
-        runGC(ctx);
+        collect(ctx, true);
+    else if (ctx->nurseryUsage > NURSERY_THRESHOLD)
+        collect(ctx, false);
 
     if (heapUsage > GC_HEAP_THRESHOLD)
         constructAndThrow<&class_java_lang_OutOfMemoryError, init_java_lang_OutOfMemoryError>(ctx);
 
-    auto object = (jobject) new char[clazz->size]{};
-    heapUsage += clazz->size + (int64_t) sizeof(ObjectMonitor);
-    allocationsSinceCollection++;
+    // Short-lived objects are bump allocated from the thread-local nursery and only enter the global object set if they survive a collection
+    int size = (clazz->size + 7) & ~7;
+    bool young = mark == GC_MARK_START && size <= NURSERY_MAX_OBJECT_SIZE;
+    auto object = young ? nurseryAlloc(ctx, size) : (jobject) allocObjectMemory(clazz->size);
+    if (!young) // Nursery memory is counted by chunk
+        heapUsage += clazz->size;
 
     *object = {
         .clazz = (intptr_t) clazz,
         .gcMark = mark,
+        .gcFlags = young ? GC_FLAG_NURSERY : 0,
         .vtable = (intptr_t) clazz->classVtable,
-        .monitor = (intptr_t) new ObjectMonitor,
     };
 
+    if (young)
+        return object;
+
+    allocationsSinceCollection++;
+
     objectsLock.lock();
     if (mark == GC_MARK_START)
         objects->emplace(object);
@@ -424,7 +811,8 @@ static jobject makeRegular(jobject object, int mark) {
     }
     object->gcMark = GC_MARK_START;
     rootObjects->erase(object);
-    objects->emplace(object);
+    if (!(object->gcFlags & GC_FLAG_NURSERY) || (object->gcFlags & GC_FLAG_PROMOTED)) // Otherwise still tracked by a young list
+        objects->emplace(object);
     objectsLock.unlock();
     return object;
 }
@@ -458,155 +846,551 @@ jcontext createContext() {
 void destroyContext(jcontext context) {
     acquireCriticalLock();
     std::erase(threadContexts, context);
+    // Promote remaining young objects, since the nursery is no longer swept. They are remembered, since they could
+    // reference young objects of other threads without having gone through a write barrier as old objects.
+    objectsLock.lock();
+    for (auto obj : context->youngObjects) {
+        if (obj->gcMark == GC_MARK_COLLECTED)
+            continue;
+        std::atomic_ref(obj->gcFlags).fetch_or(GC_FLAG_PROMOTED);
+        rememberObject(obj);
+        if (obj->gcMark >= GC_MARK_START)
+            objects->emplace(obj);
+    }
+    objectsLock.unlock();
     releaseCriticalLock();
+    if (context->nurseryChunk)
+        retireNurseryChunk(context->nurseryChunk);
     delete context;
 }
 
 static void collectionThreadFunc(jcontext ctx) {
-    static std::vector<jobject> collected;
+    static std::vector<jobject> sweeping;
 
     try {
         FrameInfo frameInfo{ "GC:collect", 0 };
         auto frameRef = pushStackFrame(ctx, &frameInfo, nullptr, nullptr);
 
-        while (true) { // Todo
-            objectsLock.lock();
-            if (!collectedObjects.empty()) {
-                collected = collectedObjects;
-                collectedObjects.clear();
+        while (true) {
+            // Sleep until there is garbage to reclaim, considered at a safepoint since no objects are held
+            enterSafeRegion(ctx);
+            {
+                std::unique_lock lock(objectsLock);
+                sweepCondition.wait(lock, []{ return !finalizeQueue.empty() || !sweepQueue.empty() || !pendingReferences.empty() || exiting; });
             }
+            exitSafeRegion(ctx);
+
+            objectsLock.lock();
+            finalizingObjects.swap(finalizeQueue);
+            sweeping.swap(sweepQueue);
+            enqueueingReferences.swap(pendingReferences);
             objectsLock.unlock();
 
-            if (!collected.empty()) {
-                for (jobject obj : collected) {
-                    tryCatch(frameRef, [&]{
+            // Enqueue cleared references, in a single exception frame like finalizers
+            volatile size_t nextReference = 0;
+            while (nextReference < enqueueingReferences.size()) {
+                tryCatch(frameRef, [&]{
+                    while (nextReference < enqueueingReferences.size()) {
+                        auto reference = (java_lang_ref_Reference *) enqueueingReferences[nextReference++];
+                        if (reference->F_queue)
+                            M_java_lang_ref_ReferenceQueue_enqueue_java_lang_ref_Reference_R_boolean(ctx, (jobject) reference->F_queue, (jobject) reference);
+                    }
+                }, &class_java_lang_Throwable, [](jobject ignored){});
+            }
+            enqueueingReferences.clear();
+
+            // Finalizers run in a single exception frame, resuming after any finalizer that throws
+            volatile size_t next = 0;
+            while (next < finalizingObjects.size()) {
+                tryCatch(frameRef, [&]{
+                    while (next < finalizingObjects.size()) {
+                        auto obj = finalizingObjects[next++];
                         ((finalizer_ptr)((void **)obj->vtable)[VTABLE_java_lang_Object_finalize])(ctx, obj);
-                    }, &class_java_lang_Throwable, [](jobject ignored){});
-                }
+                    }
+                }, &class_java_lang_Throwable, [](jobject ignored){});
+            }
+            sweeping.insert(sweeping.end(), finalizingObjects.begin(), finalizingObjects.end());
+            finalizingObjects.clear();
 
-                for (jobject obj : collected) {
-                    objectsLock.lock();
-                    objects->erase(obj);
-                    objectsLock.unlock();
+            sweepObjects(sweeping);
+        }
+    } catch (ExitException &) { }
 
-                    heapUsage -= ((jclass) obj->clazz)->size + (int64_t) sizeof(ObjectMonitor);
+    ctx->dead = true;
+    enterSafeRegion(ctx);
+}
 
-                    delete (ObjectMonitor *) obj->monitor;
+/// Wakes idle mark workers that are blocked waiting for work. Does not throw exceptions.
+static void wakeMarkWorkers() {
+    if (sleepingMarkWorkers == 0)
+        return;
+    { // Synchronize with a worker between checking for work and blocking, so the notification can't be missed
+        std::lock_guard guard(markWorkLock);
+    }
+    markWorkCondition->notify_all();
+}
 
-                    memset(obj, 0, sizeof(java_lang_Object)); // Erase collected objects to make memory bugs easier to catch
-                    obj->gcMark = GC_MARK_COLLECTED; // Set collected flag again
+/// Marks a regular object as reachable and pushes it onto the current mark stack to be traced. Only called during the mark phase. Does not throw exceptions.
+void markObject(jobject object, jint mark) {
+    if (!object || (minorMarking && !isYoungObject(object)))
+        return;
+    std::atomic_ref<jint> gcMark(object->gcMark);
+    jint current = gcMark.load(std::memory_order_relaxed);
+    if (current < GC_MARK_START || current == mark || !gcMark.compare_exchange_strong(current, mark))
+        return;
+    auto worker = currentMarkWorker;
+    worker->local.emplace_back(object);
+    if ((int) worker->local.size() > GC_MARK_SHARE_THRESHOLD && worker->sharedSize == 0) {
+        // Share the oldest half of the stack, which tends to lead to larger subgraphs
+        std::lock_guard guard(worker->sharedLock);
+        auto half = worker->local.begin() + (int64_t) worker->local.size() / 2;
+        worker->shared.insert(worker->shared.end(), worker->local.begin(), half);
+        worker->local.erase(worker->local.begin(), half);
+        worker->sharedSize = (int) worker->shared.size();
+        wakeMarkWorkers();
+    }
+}
 
-                    delete[] (char *) obj;
-                }
+/// Adds an old object to the remembered set, so minor collections trace its children. Prefer `writeBarrier`, which only
+/// remembers objects that reference young objects. Does not throw exceptions.
+void rememberObject(jobject object) {
+    if (isYoungObject(object))
+        return;
+    if (std::atomic_ref(object->gcFlags).fetch_or(GC_FLAG_REMEMBERED) & GC_FLAG_REMEMBERED)
+        return;
+    std::lock_guard guard(rememberedLock);
+    rememberedObjects.emplace_back(object);
+}
 
-                collected.clear();
-            }
+/// Registers a Reference object, so its referent gets cleared when collected. Does not throw exceptions.
+void registerReference(jobject reference) {
+    std::lock_guard guard(referencesLock);
+    references.emplace_back(reference);
+}
 
-        std::this_thread::sleep_for(std::chrono::milliseconds(1));
+/// Moves shared work from a worker (Half when stealing from another worker) onto the local stack of the current worker. Does not throw exceptions.
+static bool takeMarkWork(MarkWorker *worker, MarkWorker *victim) {
+    if (victim->sharedSize == 0)
+        return false;
+    std::lock_guard guard(victim->sharedLock);
+    if (victim->shared.empty())
+        return false;
+    auto count = victim == worker ? (int64_t) victim->shared.size() : ((int64_t) victim->shared.size() + 1) / 2;
+    worker->local.insert(worker->local.end(), victim->shared.end() - count, victim->shared.end());
+    victim->shared.resize(victim->shared.size() - count);
+    victim->sharedSize = (int) victim->shared.size();
+    return true;
+}
+
+/// Attempts to steal work from any other worker. Does not throw exceptions.
+static bool stealMarkWork(MarkWorker *worker) {
+    for (auto &victim : markWorkers)
+        if (&victim != worker && takeMarkWork(worker, &victim))
+            return true;
+    return false;
+}
 
-            SAFEPOINT();
+/// Checks whether any worker has shared work that can be stolen. Does not throw exceptions.
+static bool isMarkWorkAvailable() {
+    for (auto &victim : markWorkers)
+        if (victim.sharedSize > 0)
+            return true;
+    return false;
+}
+
+/// Traces objects until every worker runs out of work. Does not throw exceptions.
+static void runMarkWorker(MarkWorker *worker, jint mark) {
+    currentMarkWorker = worker;
+    while (true) {
+        do {
+            while (!worker->local.empty()) {
+                auto object = worker->local.back();
+                worker->local.pop_back();
+                ((gc_mark_ptr) ((jclass) object->clazz)->markFunction)(object, mark);
+            }
+        } while (takeMarkWork(worker, worker) || stealMarkWork(worker));
+
+        // Idle until either all workers are idle (No more work can be produced) or there is work to steal
+        if (--activeMarkWorkers == 0)
+            wakeMarkWorkers();
+        for (int spins = 0;; spins++) {
+            if (activeMarkWorkers == 0) {
+                currentMarkWorker = nullptr;
+                return;
+            }
+            if (isMarkWorkAvailable()) {
+                activeMarkWorkers++;
+                if (stealMarkWork(worker))
+                    break;
+                if (--activeMarkWorkers == 0)
+                    wakeMarkWorkers();
+            }
+            if (spins < GC_MARK_SPIN_COUNT) {
+                std::this_thread::yield();
+                continue;
+            }
+            // Block rather than spin, since other workers may be busy for a while, such as while roots are scanned
+            sleepingMarkWorkers++;
+            {
+                std::unique_lock guard(markWorkLock);
+                markWorkCondition->wait(guard, []{ return activeMarkWorkers == 0 || isMarkWorkAvailable(); });
+            }
+            sleepingMarkWorkers--;
+            spins = 0;
         }
-    } catch (ExitException &) { }
+    }
+}
 
-    ctx->dead = true;
-    ctx->suspended = true;
+/// Entrypoint for GC mark helper threads, which participate in each mark phase. Does not throw exceptions.
+static void markHelperThreadFunc(int index) {
+    int phase = 0;
+    while (true) {
+        jint mark;
+        {
+            std::unique_lock guard(markPhaseLock);
+            markPhaseCondition->wait(guard, [&]{ return markPhase != phase; });
+            phase = markPhase;
+            mark = markPhaseMark;
+        }
+        runMarkWorker(&markWorkers[index], mark);
+        {
+            std::lock_guard guard(markPhaseLock);
+            finishedMarkHelpers++;
+        }
+        markPhaseCondition->notify_all();
+    }
+}
+
+/// Starts a parallel mark phase, with the calling thread acting as the first worker. Does not throw exceptions.
+static void beginMarkPhase(jint mark) {
+    static bool helpersStarted;
+    if (!helpersStarted) {
+        helpersStarted = true;
+        for (int i = 1; i < GC_WORKER_THREADS; i++)
+            std::thread(markHelperThreadFunc, i).detach();
+    }
+    activeMarkWorkers = GC_WORKER_THREADS;
+    {
+        std::lock_guard guard(markPhaseLock);
+        markPhase++;
+        markPhaseMark = mark;
+        finishedMarkHelpers = 0;
+    }
+    markPhaseCondition->notify_all();
+    currentMarkWorker = &markWorkers[0];
 }
 
-/// Runs the garbage collector
+/// Traces all pushed roots to completion and waits for the helper threads to finish. Does not throw exceptions.
+static void finishMarkPhase(jint mark) {
+    runMarkWorker(&markWorkers[0], mark);
+    std::unique_lock guard(markPhaseLock);
+    markPhaseCondition->wait(guard, []{ return finishedMarkHelpers == GC_WORKER_THREADS - 1; });
+}
+
+/// Runs a full garbage collection. Does not throw exceptions.
 void runGC(jcontext ctx) {
+    collect(ctx, true);
+}
+
+/// Returns a snapshot of the collection statistics. Does not throw exceptions.
+GCStats getGCStats() {
+    acquireCriticalLock();
+    auto stats = gcStats;
+    releaseCriticalLock();
+    return stats;
+}
+
+/// Runs the garbage collector. A minor collection only traces young objects, from the roots and the remembered set of old
+/// objects that were given references to young objects, then sweeps thread nurseries, promoting survivors to the old
+/// generation. Old objects are treated as live, so they keep any young objects they reference alive.
+static void collect(jcontext ctx, bool major) {
     static std::atomic_bool running;
-    static std::mutex suspendMutex;
 
     if (running.exchange(true))
         return;
 
-    FrameInfo frameInfo { "runGC", 0 };
+    FrameInfo frameInfo { major ? "runGC" : "runGC:minor", 0 };
     auto frameRef = pushStackFrame(ctx, &frameInfo, nullptr);
 
-    auto blockTime = std::chrono::system_clock::now();
+    auto blockTime = std::chrono::steady_clock::now();
 
     // Suspend all threads before collecting (Suspended threads must have all owned objects reachable)
+    int safepointThreads = 0;
     {
-        std::lock_guard lock(suspendMutex);
+        std::unique_lock lock(safepointLock);
         suspendVM = true;
+        safepointReached.wait(lock, [&]{
+            if (exiting)
+                return true;
+            int running = 0;
+            safepointThreads = 0;
+            acquireCriticalLock();
+            for (auto threadContext : threadContexts) {
+                if (threadContext == ctx)
+                    continue;
+                if (threadContext->suspended)
+                    safepointThreads++;
+                else if (threadContext->thread && !threadContext->dead) // Exiting threads run until their final safe region
+                    running++;
+            }
+            releaseCriticalLock();
+            return running == 0;
+        });
     }
-    while (true) {
-        if (exiting) throw ExitException();
-        bool blocked = false;
-        acquireCriticalLock();
-        for (auto threadContext : threadContexts) {
-            if (threadContext == ctx)
-                continue;
-            if (!threadContext->suspended && threadContext->thread->F_alive)
-                blocked = true;
-        }
-        releaseCriticalLock();
-        if (!blocked)
-            break;
-    }
+    if (exiting)
+        throw ExitException();
 
-    auto copyTime = std::chrono::system_clock::now();
+    auto copyTime = std::chrono::steady_clock::now();
 
     acquireCriticalLock();
 
+    auto timeToSafepoint = std::chrono::duration_cast<std::chrono::nanoseconds>(copyTime - blockTime).count();
+    gcStats.lastTimeToSafepoint = timeToSafepoint;
+    gcStats.maxTimeToSafepoint = std::max(gcStats.maxTimeToSafepoint, (int64_t) timeToSafepoint);
+    gcStats.lastSafepointThreads = safepointThreads;
+
     static jint mark;
     if (++mark > GC_MARK_END)
         mark = GC_MARK_START + 1;
 
-    deepMarkedObjects.clear();
+    // Helper threads start stealing from the root set while it is being scanned
+    minorMarking = !major;
+    beginMarkPhase(mark);
 
-    auto nonCollectableTime = std::chrono::system_clock::now();
+    auto nonCollectableTime = std::chrono::steady_clock::now();
 
     // Explicitly mark children of non-collectable objects
     for (auto object : *rootObjects)
-        ((gc_mark_ptr) ((jclass) object->clazz)->markFunction)(object, mark, GC_DEPTH_ALWAYS);
+        ((gc_mark_ptr) ((jclass) object->clazz)->markFunction)(object, mark);
+
+    // Objects pending finalization keep their children alive until they are freed
+    for (auto object : finalizeQueue)
+        ((gc_mark_ptr) ((jclass) object->clazz)->markFunction)(object, mark);
+    for (auto object : finalizingObjects)
+        ((gc_mark_ptr) ((jclass) object->clazz)->markFunction)(object, mark);
+
+    // Cleared references stay alive until they are enqueued
+    for (auto object : pendingReferences)
+        markObject(object, mark);
+    for (auto object : enqueueingReferences)
+        markObject(object, mark);
 
-    auto markClassesTime = std::chrono::system_clock::now();
+    auto markClassesTime = std::chrono::steady_clock::now();
 
     // Mark class objects (Not in `objects`) // Todo: Not needed once all eternal
     for (auto &pair : *classes)
-        mark_java_lang_Class((jobject) pair.second, mark, GC_DEPTH_ALWAYS);
+        mark_java_lang_Class((jobject) pair.second, mark);
 
-    auto markStaticFieldsTime = std::chrono::system_clock::now();
+    auto markStaticFieldsTime = std::chrono::steady_clock::now();
 
     // Mark static fields
     for (auto &pair : *classes)
-        ((gc_mark_ptr) pair.second->markFunction)(nullptr, mark, GC_DEPTH_ALWAYS);
+        ((gc_mark_ptr) pair.second->markFunction)(nullptr, mark);
 
-    auto markStackTime = std::chrono::system_clock::now();
+    auto markStackTime = std::chrono::steady_clock::now();
 
     // Mark stack objects
+    nurseryLock.lock();
     for (auto threadContext : threadContexts) {
         for (int i = 0; i < threadContext->stackDepth; i++) {
             const auto &frame = threadContext->frames[i];
+            const auto slots = frame.info->slots;
             for (int j = 0; j < (int)frame.info->size; j++) {
                 const auto obj = frame.frame[j].o;
-                if (objects->contains(obj))
-                    ((gc_mark_ptr) ((jclass) obj->clazz)->markFunction)(obj, mark, 0);
+                if (!obj || (slots && slots[j] == FRAME_SLOT_PRIMITIVE))
+                    continue;
+                if ((slots && slots[j] == FRAME_SLOT_REFERENCE) || (major && objects->contains(obj)) || isNurseryObject(obj))
+                    markObject(obj, mark);
             }
         }
     }
+    nurseryLock.unlock();
+
+    // Mark young children of old objects that were written since the last collection (The world is stopped)
+    if (!major) {
+        std::lock_guard guard(rememberedLock);
+        for (auto object : rememberedObjects)
+            ((gc_mark_ptr) ((jclass) object->clazz)->markFunction)(object, mark);
+    }
 
-    auto markDeepTime = std::chrono::system_clock::now();
+    auto traceTime = std::chrono::steady_clock::now();
 
-    // Specially mark deep object chains to avoid stack overflows
-    while (!deepMarkedObjects.empty()) {
-        auto deep = deepMarkedObjects;
-        deepMarkedObjects.clear();
-        for (auto obj : deep)
-            ((gc_mark_ptr) ((jclass) obj->clazz)->markFunction)(obj, mark, 0);
+    // Trace the object graph in parallel with explicit mark stacks, so deep object chains can't overflow the native stack
+    finishMarkPhase(mark);
+
+    auto collectTime = std::chrono::steady_clock::now();
+
+    // Whether an unmarked object gets freed by this collection (Old objects are only swept by major collections)
+    auto isCollectable = [&](jobject obj) {
+        return obj->gcMark >= GC_MARK_START && obj->gcMark != mark && (major || ((obj->gcFlags & GC_FLAG_NURSERY) && !(obj->gcFlags & GC_FLAG_PROMOTED)));
+    };
+
+    // Whether an object was reached by this collection's mark phase or is a root (Or is old, for minor collections)
+    auto isLive = [&](jobject obj) {
+        return obj->gcMark == mark || obj->gcMark == GC_MARK_PROTECTED || obj->gcMark == GC_MARK_ETERNAL || (!major && !isYoungObject(obj));
+    };
+
+    // Thread local values are only kept alive while their ThreadLocal is reachable, so a value referencing its own
+    // ThreadLocal doesn't keep either alive. Values can reach other ThreadLocals, so marking is repeated until no more
+    // values become reachable.
+    auto markThreadLocalValues = [&] {
+        while (true) {
+            bool marking = false;
+            for (auto threadContext : threadContexts)
+                for (auto &entry : threadContext->threadLocals)
+                    if (entry.key and entry.value and isLive(entry.key) and isCollectable(entry.value)) {
+                        if (!marking)
+                            beginMarkPhase(mark);
+                        marking = true;
+                        markObject(entry.value, mark);
+                    }
+            if (!marking)
+                break;
+            finishMarkPhase(mark);
+        }
+    };
+    markThreadLocalValues();
+
+    // The world is stopped, but registration isn't tied to safepoints, so the reference list is still accessed under its lock
+    std::unique_lock referencesGuard(referencesLock);
+
+    // Whether a soft reference keeps its referent alive, which it does only while it is reachable itself
+    auto isLiveSoftReference = [&](jobject object) {
+        auto reference = (java_lang_ref_Reference *) object;
+        return reference->F_soft && reference->F_referent && isLive(object);
+    };
+
+    // Soft referents are kept alive unless the heap is under pressure. Referents can reach other soft references, so
+    // marking is repeated until no more soft references become live.
+    if (heapUsage <= GC_SOFT_REFERENCE_THRESHOLD) {
+        int64_t liveSoftReferences = -1;
+        while (true) {
+            int64_t count = std::count_if(references.begin(), references.end(), isLiveSoftReference);
+            if (count == liveSoftReferences)
+                break;
+            liveSoftReferences = count;
+            beginMarkPhase(mark);
+            for (auto object : references)
+                if (isLiveSoftReference(object))
+                    markObject((jobject) ((java_lang_ref_Reference *) object)->F_referent, mark);
+            finishMarkPhase(mark);
+            markThreadLocalValues();
+        }
     }
 
-    auto collectTime = std::chrono::system_clock::now();
+    // Clear the entries of unreachable ThreadLocals before finalizers can revive them, so their slots can be recycled
+    for (auto threadContext : threadContexts)
+        for (auto &entry : threadContext->threadLocals)
+            if (entry.key and !isLive(entry.key))
+                entry = {};
+
+    // Keep objects reachable from unreachable finalizable objects alive until the finalizers have run (Old objects are
+    // only collected by major collections, and minor collections already trace their young children through the remembered set).
+    // Array finalizers only free the array data, so the elements of unreachable arrays aren't kept alive.
+    auto isFinalizableGarbage = [&](jobject obj) {
+        return isCollectable(obj) && ((jclass) obj->clazz)->finalizable && ((jclass) obj->clazz)->arrayDimensions == 0;
+    };
+    static std::vector<jobject> finalizable;
+    if (major)
+        for (jobject obj : *objects)
+            if (isFinalizableGarbage(obj))
+                finalizable.emplace_back(obj);
+    for (auto threadContext : threadContexts)
+        for (jobject obj : threadContext->youngObjects)
+            if (isFinalizableGarbage(obj))
+                finalizable.emplace_back(obj);
+    if (!finalizable.empty()) {
+        beginMarkPhase(mark);
+        for (jobject obj : finalizable)
+            ((gc_mark_ptr) ((jclass) obj->clazz)->markFunction)(obj, mark);
+        finishMarkPhase(mark);
+        finalizable.clear();
+    }
 
-    // Collect unreachable objects
-    for (jobject obj : *objects) {
-        if ((obj->gcMark > GC_MARK_COLLECTED && obj->gcMark < GC_MARK_START) || obj->gcMark == mark)
-            continue;
+    // Queues an unreachable object for the GC thread to finalize (If needed) and free
+    auto collectObject = [&](jobject obj) {
         obj->gcMark = GC_MARK_COLLECTED;
-        collectedObjects.emplace_back(obj);
+        (((jclass) obj->clazz)->finalizable ? finalizeQueue : sweepQueue).emplace_back(obj);
+    };
+
+    objectsLock.lock();
+
+    // Clear references to collected objects and queue live references with queues to be enqueued. References that are
+    // collected themselves are unregistered. Finalizable referents are cleared before they are finalized, as with Java.
+    std::erase_if(references, [&](jobject object) {
+        auto reference = (java_lang_ref_Reference *) object;
+        auto referent = (jobject) reference->F_referent;
+        bool collected = isCollectable(object);
+        if (referent && (collected || isCollectable(referent))) {
+            reference->F_referent = 0;
+            if (isLive(object) && reference->F_queue)
+                pendingReferences.emplace_back(object);
+        }
+        return collected;
+    });
+    referencesGuard.unlock();
+
+    // Collect unreachable old objects, removing them from the object set in a single pass
+    if (major) {
+        std::erase_if(*objects, [&](jobject obj) {
+            if ((obj->gcMark >= GC_MARK_COLLECTED && obj->gcMark < GC_MARK_START) || obj->gcMark == mark)
+                return false;
+            collectObject(obj);
+            return true;
+        });
+    }
+
+    // Sweep nurseries, promoting survivors and collecting the rest (Protected objects are tracked as roots instead)
+    int64_t youngCount = 0;
+    int64_t survivorCount = 0;
+    for (auto threadContext : threadContexts) {
+        for (jobject obj : threadContext->youngObjects) {
+            youngCount++;
+            if (obj->gcMark == GC_MARK_COLLECTED)
+                continue;
+            obj->gcFlags |= GC_FLAG_PROMOTED;
+            if (obj->gcMark < GC_MARK_START)
+                continue;
+            if (obj->gcMark == mark) {
+                objects->emplace(obj);
+                survivorCount++;
+                continue;
+            }
+            collectObject(obj);
+        }
+        threadContext->youngObjects.clear();
+        threadContext->nurseryUsage = 0;
     }
 
+    // Every young object has now been promoted or collected, so no old object references a young object
+    {
+        std::lock_guard guard(rememberedLock);
+        gcStats.lastRememberedObjects = (int64_t) rememberedObjects.size();
+        for (auto obj : rememberedObjects)
+            obj->gcFlags &= ~GC_FLAG_REMEMBERED;
+        rememberedObjects.clear();
+    }
+
+    objectsLock.unlock();
+    sweepCondition.notify_one();
+
+    if (major)
+        gcStats.majorCollections++;
+    else
+        gcStats.minorCollections++;
+    gcStats.youngAllocations += youngCount;
+    gcStats.youngSurvivors += survivorCount;
+    gcStats.lastSurvivorRate = youngCount > 0 ? (double) survivorCount / (double) youngCount : 0;
+    allocationsSinceCollection += survivorCount;
+
+#ifdef GC_LOG_STATS
+    printf("GC %s collection: %i/%i young objects survived (%.1f%%), %i remembered objects, %lli minor and %lli major collections total\n",
+           major ? "major" : "minor", (int) survivorCount, (int) youngCount, gcStats.lastSurvivorRate * 100, (int) gcStats.lastRememberedObjects,
+           (long long) gcStats.minorCollections, (long long) gcStats.majorCollections);
+    printf("GC safepoint: %i threads parked in %lli ns (max %lli ns)\n", gcStats.lastSafepointThreads,
+           (long long) gcStats.lastTimeToSafepoint, (long long) gcStats.maxTimeToSafepoint);
+#endif
+
 #if false // Todo: Use macro
     std::map<jclass, int> usage;
     std::map<jclass, int> counts;
@@ -625,7 +1409,7 @@ void runGC(jcontext ctx) {
                 usage[cls] += buffer->parent.F_capacity;
         }
     }
-    printf("GC collected %i objects after %i allocations and %i bytes (%i bytes and %i objects total)\n", (int)collectedObjects.size(), (int)allocationsSinceCollection, (int)heapUsage - (int)lastCollectionHeapUsage, (int)heapUsage, (int)objectsSet->size());
+    printf("GC collected %i objects after %i allocations and %i bytes (%i bytes and %i objects total)\n", (int)(finalizeQueue.size() + sweepQueue.size()), (int)allocationsSinceCollection, (int)heapUsage - (int)lastCollectionHeapUsage, (int)heapUsage, (int)objectsSet->size());
     for (auto &pair : usage)
         usageMap.emplace(pair.second, pair.first);
     int loggedUsages = 0;
@@ -639,7 +1423,7 @@ void runGC(jcontext ctx) {
     usage.clear();
     counts.clear();
     usageMap.clear();
-    for (jobject o : collectedObjects) {
+    for (jobject o : sweepQueue) {
         auto cls = (jclass)o->clazz;
         counts[cls]++;
         usage[cls] += cls->size;
@@ -665,16 +1449,18 @@ void runGC(jcontext ctx) {
     printf("\n");
 #endif
 
-    allocationsSinceCollection = 0;
+    if (major)
+        allocationsSinceCollection = 0;
 
     releaseCriticalLock();
     {
-        std::lock_guard lock(suspendMutex);
+        std::lock_guard lock(safepointLock);
         suspendVM = false;
     }
+    safepointCondition.notify_all();
 
 #if false // Todo: Use macro
-    auto finishTime = std::chrono::system_clock::now();
+    auto finishTime = std::chrono::steady_clock::now();
 
     printf("\nGC Timings:\n");
     printf("Block Time: %i\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(copyTime - blockTime).count());
@@ -682,23 +1468,20 @@ void runGC(jcontext ctx) {
     printf("Non-Collectable Time: %i\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(markClassesTime - nonCollectableTime).count());
     printf("Classes Time: %i\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(markStaticFieldsTime - markClassesTime).count());
     printf("Fields Time: %i\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(markStackTime - markStaticFieldsTime).count());
-    printf("Stack Time: %i\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(markDeepTime - markStackTime).count());
-    printf("Deep Time: %i\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(collectTime - markDeepTime).count());
+    printf("Stack Time: %i\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(traceTime - markStackTime).count());
+    printf("Trace Time: %i\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(collectTime - traceTime).count());
     printf("Collect Time: %i\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(finishTime - collectTime).count());
     printf("Total Time: %i\n\n", (int)std::chrono::duration_cast<std::chrono::milliseconds>(finishTime - blockTime).count());
 #endif
 
-    lastCollectionHeapUsage = heapUsage;
+    if (major)
+        lastCollectionHeapUsage = heapUsage;
 
     running = false;
 
     popStackFrame(ctx, nullptr);
 }
 
-void markDeepObject(jobject obj) {
-    deepMarkedObjects.emplace_back(obj);
-}
-
 int64_t getHeapUsage() {
     return heapUsage;
 }
@@ -708,6 +1491,25 @@ void adjustHeapUsage(int64_t amount) {
     heapUsage += amount;
 }
 
+/// Get the time in nanoseconds from a monotonic clock with an arbitrary origin. Does not throw exceptions.
+int64_t getMonotonicNanos() {
+    return std::chrono::duration_cast<std::chrono::nanoseconds>(std::chrono::steady_clock::now().time_since_epoch()).count();
+}
+
+/// Get the time in nanoseconds from a cheaper monotonic clock with a resolution of a few milliseconds, where the platform
+/// provides one, otherwise the precise clock. Does not share an origin with getMonotonicNanos. Does not throw exceptions.
+int64_t getCoarseMonotonicNanos() {
+#if defined(__linux__) && defined(CLOCK_MONOTONIC_COARSE)
+    timespec time{};
+    clock_gettime(CLOCK_MONOTONIC_COARSE, &time);
+    return (int64_t)time.tv_sec * 1000000000 + time.tv_nsec;
+#elif defined(__APPLE__)
+    return (int64_t)clock_gettime_nsec_np(CLOCK_MONOTONIC_RAW_APPROX);
+#else
+    return getMonotonicNanos();
+#endif
+}
+
 // Acquires the global critical lock. Does not throw exceptions.
 void acquireCriticalLock() {
     criticalLock.lock();
@@ -718,16 +1520,33 @@ void releaseCriticalLock() {
     criticalLock.unlock();
 }
 
-/// Suspends a thread while the VM is suspended. Does not throw exceptions.
+/// Parks a thread while the VM is suspended. Does not throw exceptions.
 void safepointSuspend(jcontext ctx) {
-    ctx->suspended = true;
-    while (suspendVM) {
-        if (exiting)
-            throw ExitException();
+    enterSafeRegion(ctx);
+    exitSafeRegion(ctx);
+}
+
+/// Marks a thread as being at a safepoint before blocking, where it must not access VM objects until calling `exitSafeRegion`. Does not throw exceptions.
+void enterSafeRegion(jcontext ctx) {
+    {
+        std::lock_guard lock(safepointLock);
+        ctx->suspended = true;
     }
-    ctx->suspended = false;
+    safepointReached.notify_all();
 }
 
+/// Leaves a safepoint, parking until the VM is resumed if it is suspended. Does not throw exceptions.
+void exitSafeRegion(jcontext ctx) {
+    {
+        std::unique_lock lock(safepointLock);
+        safepointCondition.wait(lock, []{ return !suspendVM || exiting; });
+        ctx->suspended = false;
+    }
+    if (exiting)
+        throw ExitException();
+}
+
+#if !USE_CPP_EXCEPTIONS
 /// Pushes an exception frame onto the given stack frame. `type` can be null. Does not throw exceptions.
 jmp_buf *pushExceptionFrame(jframe frame, jclass type) {
     if ((int)frame->exceptionFrames.size() < frame->exceptionFrameDepth + 1)
@@ -736,6 +1555,7 @@ jmp_buf *pushExceptionFrame(jframe frame, jclass type) {
     exceptionFrame.type = type;
     return &exceptionFrame.landingPad;
 }
+#endif
 
 /// Pops an exception frame then returns and clears the current exception. Does not throw exceptions.
 jobject popExceptionFrame(jframe frame) {
@@ -765,7 +1585,11 @@ void throwException(jcontext ctx, jobject exception) {
             auto &exceptionFrame = frame.exceptionFrames[frame.exceptionFrameDepth - 1];
             if (!exceptionFrame.type or isInstance(ctx, exception, exceptionFrame.type)) {
                 frame.exception = exception;
+#if USE_CPP_EXCEPTIONS
+                throw ExceptionUnwind{&frame, exceptionFrame.handler};
+#else
                 longjmp(exceptionFrame.landingPad, 1);
+#endif
             }
             frame.exceptionFrameDepth--;
         }
@@ -815,28 +1639,64 @@ void throwRuntimeException(jcontext ctx, const char *message) {
     constructAndThrow<&class_java_lang_RuntimeException, init_java_lang_RuntimeException>(ctx);
 }
 
+/// Returns the inflated monitor for an object, inflating a thin or unlocked monitor word if needed. Does not throw exceptions.
+jmonitor inflateMonitor(jobject object) {
+    std::atomic_ref<jref> word(object->monitor);
+    jref current = word.load();
+    while (true) {
+        if (current && !(current & MONITOR_THIN_FLAG))
+            return (jmonitor) current;
+        auto monitor = new ObjectMonitor;
+        if (current) { // Transfer ownership of a thin lock, since the owner's thin lock operations will fail once inflated
+            monitor->owner = (jcontext) (intptr_t) (current & MONITOR_THIN_OWNER_MASK & ~MONITOR_THIN_FLAG);
+            monitor->depth = (int) (current >> MONITOR_THIN_COUNT_SHIFT) + 1;
+        }
+        if (word.compare_exchange_weak(current, (jref) (intptr_t) monitor)) {
+            heapUsage += (int64_t) sizeof(ObjectMonitor);
+            return monitor;
+        }
+        delete monitor;
+    }
+}
+
 /// Lock on a monitor. Throws exceptions.
 void monitorEnter(jcontext ctx, jobject object) {
     NULL_CHECK(object);
-    auto monitor = (jmonitor) object->monitor;
+    std::atomic_ref<jref> word(object->monitor);
+    const jref thin = (jref) (intptr_t) ctx | MONITOR_THIN_FLAG;
 
-    // Race condition here is fine, fall back to slower/blocking acquire
-    if (monitor->lock.try_lock()) {
-        monitor->owner = ctx;
+    // Fast path for uncontended and recursive thin locks, unless the context pointer has tag bits that don't fit in the owner bits
+    if (!((intptr_t) ctx & ~MONITOR_THIN_OWNER_MASK)) {
+        jref current = 0;
+        if (word.compare_exchange_strong(current, thin))
+            return;
+        while ((current & MONITOR_THIN_OWNER_MASK) == thin and (current >> MONITOR_THIN_COUNT_SHIFT) < MONITOR_THIN_MAX_COUNT)
+            if (word.compare_exchange_weak(current, current + (1ll << MONITOR_THIN_COUNT_SHIFT)))
+                return;
+    }
+
+    // Contended, recursion overflow, or already inflated
+    auto monitor = inflateMonitor(object);
+    std::unique_lock guard(monitor->mutex);
+    if (monitor->owner == ctx) {
         monitor->depth++;
         return;
     }
-
-    // Suspend thread to avoid deadlock blocking GC and deadlocking system
-    ctx->blockedBy = object;
-    ctx->suspended = true;
-
-    monitor->lock.lock();
+    if (monitor->owner) {
+        // Suspend thread to avoid deadlock blocking GC and deadlocking system
+        ctx->blockedBy = object;
+        enterSafeRegion(ctx);
+        monitor->released.wait(guard, [&]{ return !monitor->owner or exiting; });
+        monitor->owner = ctx;
+        monitor->depth = 1;
+        guard.unlock();
+        ctx->blockedBy = nullptr;
+        exitSafeRegion(ctx);
+        return;
+    }
     monitor->owner = ctx;
-    monitor->depth++;
-
-    ctx->blockedBy = nullptr;
-    ctx->suspended = false;
+    monitor->depth = 1;
+    guard.unlock();
 
     SAFEPOINT();
 }
@@ -844,17 +1704,36 @@ void monitorEnter(jcontext ctx, jobject object) {
 /// Unlock on a monitor. Throws exceptions.
 void monitorExit(jcontext ctx, jobject object) {
     NULL_CHECK(object);
-    auto monitor = (jmonitor) object->monitor;
+    std::atomic_ref<jref> word(object->monitor);
+    const jref thin = (jref) (intptr_t) ctx | MONITOR_THIN_FLAG;
+
+    jref current = word.load();
+    while (current & MONITOR_THIN_FLAG) {
+        if ((current & MONITOR_THIN_OWNER_MASK) != thin)
+            constructAndThrow<&class_java_lang_IllegalMonitorStateException, init_java_lang_IllegalMonitorStateException>(ctx);
+        if (word.compare_exchange_weak(current, current >> MONITOR_THIN_COUNT_SHIFT ? current - (1ll << MONITOR_THIN_COUNT_SHIFT) : 0))
+            return;
+    }
+
     monitorOwnerCheck(ctx, object);
-    if (--monitor->depth == 0)
+    auto monitor = (jmonitor) current;
+    monitor->mutex.lock();
+    if (--monitor->depth == 0) {
         monitor->owner = nullptr;
-    monitor->lock.unlock();
+        monitor->released.notify_one();
+    }
+    monitor->mutex.unlock();
 }
 
 /// Checks if the current thread owns a given monitor. Throws exceptions.
 void monitorOwnerCheck(jcontext ctx, jobject object) {
-    auto monitor = (jmonitor) object->monitor;
-    if (!monitor->owner or monitor->owner != ctx)
+    jref current = std::atomic_ref<jref>(object->monitor).load();
+    bool owned;
+    if (current & MONITOR_THIN_FLAG)
+        owned = (current & MONITOR_THIN_OWNER_MASK) == ((jref) (intptr_t) ctx | MONITOR_THIN_FLAG);
+    else
+        owned = current and ((jmonitor) current)->owner == ctx;
+    if (!owned)
         constructAndThrow<&class_java_lang_IllegalMonitorStateException, init_java_lang_IllegalMonitorStateException>(ctx);
 }
 
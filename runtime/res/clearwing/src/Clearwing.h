@@ -18,6 +18,13 @@ typedef int64_t intptr_t;
 #define false 0
 #endif
 
+// Branch hint for conditions that are almost never true, where the compiler supports one
+#if defined(__GNUC__) || defined(__clang__)
+#define UNLIKELY(condition) __builtin_expect(!!(condition), 0)
+#else
+#define UNLIKELY(condition) (condition)
+#endif
+
 #ifdef __cplusplus
 extern "C" {
 #endif
@@ -27,10 +34,45 @@ extern "C" {
 #define GC_MARK_PROTECTED (-1)
 #define GC_MARK_ETERNAL (-2)
 #define GC_MARK_COLLECTED (-3)
-#define GC_DEPTH_ALWAYS (-1)
 
-#ifndef MAX_GC_MARK_DEPTH
-#define MAX_GC_MARK_DEPTH 1000
+#define GC_FLAG_NURSERY 0x1 // Object memory is owned by a thread-local nursery chunk
+#define GC_FLAG_PROMOTED 0x2 // Nursery object that is no longer tracked by its thread's young list
+#define GC_FLAG_REMEMBERED 0x4 // Old object in the remembered set, which may reference young objects
+
+// Object monitor words are either zero (Unlocked), an inflated ObjectMonitor pointer, or a thin lock holding the owning
+// context pointer tagged with MONITOR_THIN_FLAG and the recursion count in the upper bits. Contexts with pointer tag bits
+// above MONITOR_THIN_OWNER_MASK (Top-byte tagging, MTE, or 57-bit addresses) always inflate instead of taking thin locks
+#define MONITOR_THIN_FLAG 0x1
+#define MONITOR_THIN_COUNT_SHIFT 48
+#define MONITOR_THIN_OWNER_MASK ((1ll << MONITOR_THIN_COUNT_SHIFT) - 1)
+#define MONITOR_THIN_MAX_COUNT 0x7FFF
+
+// Granularity and count of the size classes used to reuse freed memory for objects outside of the nursery
+#ifndef GC_SIZE_CLASS_GRANULARITY
+#define GC_SIZE_CLASS_GRANULARITY 16
+#endif
+#ifndef GC_SIZE_CLASS_COUNT
+#define GC_SIZE_CLASS_COUNT 256
+#endif
+
+// Max memory retained by each size class free list
+#ifndef GC_FREE_LIST_MAX_SIZE
+#define GC_FREE_LIST_MAX_SIZE 1000000
+#endif
+
+// Number of threads used for the mark phase, including the thread running the collection
+#ifndef GC_WORKER_THREADS
+#define GC_WORKER_THREADS 4
+#endif
+
+// Local mark stack size past which a GC worker makes half of its work available for stealing
+#ifndef GC_MARK_SHARE_THRESHOLD
+#define GC_MARK_SHARE_THRESHOLD 64
+#endif
+
+// Times an idle GC worker checks for work to steal before blocking until work is shared or marking ends
+#ifndef GC_MARK_SPIN_COUNT
+#define GC_MARK_SPIN_COUNT 64
 #endif
 
 // Max number of object allocations between collections
@@ -48,6 +90,36 @@ extern "C" {
 #define GC_HEAP_THRESHOLD 2000000000
 #endif
 
+// Heap usage past which soft references are cleared when their referents are only softly reachable
+#ifndef GC_SOFT_REFERENCE_THRESHOLD
+#define GC_SOFT_REFERENCE_THRESHOLD (GC_HEAP_THRESHOLD - 2 * GC_MEM_THRESHOLD)
+#endif
+
+// Size of the thread-local chunks that young objects are bump allocated from
+#ifndef NURSERY_CHUNK_SIZE
+#define NURSERY_CHUNK_SIZE 262144
+#endif
+
+// Max object size to bump allocate in the nursery, larger objects are allocated directly into the old generation
+#ifndef NURSERY_MAX_OBJECT_SIZE
+#define NURSERY_MAX_OBJECT_SIZE 1024
+#endif
+
+// Max nursery memory allocated by a thread before running a minor collection
+#ifndef NURSERY_THRESHOLD
+#define NURSERY_THRESHOLD 8000000
+#endif
+
+// Memory freed from a retired nursery chunk before its holes are allocated from again
+#ifndef NURSERY_REUSE_THRESHOLD
+#define NURSERY_REUSE_THRESHOLD (NURSERY_CHUNK_SIZE / 4)
+#endif
+
+// Min size of a hole between surviving objects in a reused nursery chunk to bump allocate from
+#ifndef NURSERY_MIN_HOLE_SIZE
+#define NURSERY_MIN_HOLE_SIZE 256
+#endif
+
 #ifndef MAX_STACK_DEPTH
 #define MAX_STACK_DEPTH 1000
 #endif
@@ -68,6 +140,7 @@ typedef struct Context *jcontext;
 typedef struct StackFrame *jframe;
 typedef struct ObjectMonitor *jmonitor;
 typedef struct Class *jclass;
+typedef struct NurseryChunk *jchunk;
 
 typedef struct java_lang_Object *jobject;
 typedef struct java_lang_String *jstring;
@@ -76,7 +149,7 @@ typedef struct java_lang_Thread *jthread;
 typedef void (*static_init_ptr)(jcontext ctx);
 typedef void (*init_annotations_ptr)(jcontext ctx);
 typedef void (*finalizer_ptr)(jcontext ctx, jobject self);
-typedef void (*gc_mark_ptr)(jobject object, jint mark, int depth);
+typedef void (*gc_mark_ptr)(jobject object, jint mark);
 typedef void (*main_ptr)(jcontext ctx, jobject args);
 
 typedef struct VtableEntry {
@@ -99,16 +172,23 @@ typedef struct MethodMetadata {
     int access;
 } MethodMetadata;
 
+// Frame slot kinds for FrameInfo, where mixed slots are checked against the object set
+#define FRAME_SLOT_PRIMITIVE 'P'
+#define FRAME_SLOT_REFERENCE 'R'
+#define FRAME_SLOT_MIXED 'M'
+
 typedef struct FrameInfo {
     const char *method; // Qualified method name
     int size; // Size of frame data (Number of jlong/StackEntry words)
+    const char *slots; // The FRAME_SLOT kind of each frame word, or null to treat all as mixed
 } FrameInfo;
 
 typedef struct java_lang_Object {
     jref clazz;
     jint gcMark;
+    jint gcFlags; // Occupies existing padding, so object layout is unchanged
     jref vtable;
-    jref monitor;
+    jref monitor; // Thin lock word or inflated monitor, see MONITOR_THIN_FLAG
 } java_lang_Object;
 
 typedef struct Array {
@@ -145,7 +225,13 @@ typedef struct Class {
     jlong vtableEntries;
     jbool anonymous;
     jbool synthetic;
-    jlong instanceOfCache;
+    jint hierarchyDepth; // Number of superclasses
+    jlong superDisplay; // Superclasses indexed by depth, ending with this class
+    jint interfaceId; // Interface bit index plus one, or zero if not an interface
+    jint interfaceBitsetSize; // Number of words in the interface bitset
+    jlong interfaceBitset; // Bitset of implemented interface IDs
+    jbool finalizable; // Whether instances override the default finalizer
+    jlong interfaceTables; // Lazily built InterfaceTable list, published without locking
     // Lazy-init fields start here
     jbool initialized;
     jref name;
@@ -162,6 +248,18 @@ typedef struct {
     int length;
 } StringLiteral;
 
+typedef struct GCStats {
+    int64_t minorCollections; // Collections that only swept the nursery
+    int64_t majorCollections; // Collections that swept the whole heap
+    int64_t youngAllocations; // Total objects allocated in the nursery
+    int64_t youngSurvivors; // Total nursery objects promoted to the old generation
+    double lastSurvivorRate; // Fraction of nursery objects that survived the last collection
+    int64_t lastRememberedObjects; // Old objects given references to young objects between the last two collections
+    int64_t lastTimeToSafepoint; // Nanoseconds taken to bring all threads to a safepoint for the last collection
+    int64_t maxTimeToSafepoint; // Longest time to safepoint in nanoseconds
+    int lastSafepointThreads; // Number of other threads parked at a safepoint for the last collection
+} GCStats;
+
 typedef union {
     jobject o;
     jint i;
@@ -177,7 +275,8 @@ extern void init_java_lang_NullPointerException(jcontext ctx, jobject object);
 
 extern volatile bool suspendVM;
 
-void runVM(main_ptr entrypoint);
+void runVM(main_ptr entrypoint, int argc = 0, char **argv = nullptr);
+jarray createProgramArguments(jcontext ctx);
 void threadEntrypoint(jcontext ctx, jthread thread);
 
 const char *getOSLanguage();
@@ -188,6 +287,7 @@ jclass classForName(const char *name);
 bool isAssignableFrom(jcontext ctx, jclass type, jclass assignee);
 bool isInstance(jcontext ctx, jobject object, jclass type);
 void *resolveInterfaceMethod(jcontext ctx, jclass interface, int method, jobject object);
+struct InterfaceTable *resolveInterfaceTable(jcontext ctx, jclass interface, int method, jobject object);
 jobject gcAlloc(jcontext ctx, jclass clazz);
 jobject gcAllocProtected(jcontext ctx, jclass clazz);
 jobject gcAllocEternal(jcontext ctx, jclass clazz);
@@ -196,10 +296,14 @@ jobject makeEphemeral(jobject object);
 jobject protectObject(jobject object);
 jobject unprotectObject(jobject object);
 void runGC(jcontext ctx);
-void markDeepObject(jobject obj);
+GCStats getGCStats();
+void markObject(jobject object, jint mark);
+void rememberObject(jobject object);
+void registerReference(jobject reference);
 jcontext createContext();
 void destroyContext(jcontext ctx);
 void exitVM(jcontext ctx, int result);
+bool isExiting();
 
 jclass getArrayClass(jclass componentType, int dimensions);
 jarray createArray(jcontext ctx, jclass type, int length);
@@ -216,18 +320,25 @@ jstring concatStringsRecipe(jcontext ctx, const char *recipe, int argCount, ...)
 void acquireCriticalLock();
 void releaseCriticalLock();
 void safepointSuspend(jcontext ctx);
+void enterSafeRegion(jcontext ctx);
+void exitSafeRegion(jcontext ctx);
 
+#if !USE_CPP_EXCEPTIONS
 jmp_buf *pushExceptionFrame(jframe frame, jclass type);
+#endif
 jobject popExceptionFrame(jframe frame);
 void popExceptionFrames(jframe frame, int count);
 jobject clearCurrentException(jframe frame);
 
+jmonitor inflateMonitor(jobject object);
 void monitorEnter(jcontext ctx, jobject object);
 void monitorExit(jcontext ctx, jobject object);
 void monitorOwnerCheck(jcontext ctx, jobject object);
 void interruptedCheck(jcontext ctx);
 int64_t getHeapUsage();
 void adjustHeapUsage(int64_t amount);
+int64_t getMonotonicNanos();
+int64_t getCoarseMonotonicNanos();
 
 NORETURN void throwException(jcontext ctx, jobject exception);
 NORETURN void throwDivisionByZero(jcontext ctx);
@@ -256,7 +367,14 @@ jfloat unboxFloat(jcontext ctx, jobject boxed);
 jdouble unboxDouble(jcontext ctx, jobject boxed);
 jbool unboxBoolean(jcontext ctx, jobject boxed);
 
-void instMultiANewArray(jcontext ctx, volatile jtype * &sp, jclass type, int dimensions);
+// Frame values only need to be volatile to keep their values across a longjmp
+#if USE_CPP_EXCEPTIONS
+#define FRAME_VOLATILE
+#else
+#define FRAME_VOLATILE volatile
+#endif
+
+void instMultiANewArray(jcontext ctx, FRAME_VOLATILE jtype * &sp, jclass type, int dimensions);
 jint floatCompare(jfloat value1, jfloat value2, jint nanValue);
 jint doubleCompare(jdouble value1, jdouble value2, jint nanValue);
 jint longCompare(jlong value1, jlong value2);
@@ -267,6 +385,26 @@ jint longCompare(jlong value1, jlong value2);
 #define CONCAT_INNER_(a, b) a ## b
 #define ex_CATCH_ ,ex,
 #define CATCH(pair) ,pair##_CATCH_
+#if USE_CPP_EXCEPTIONS
+#define TRY_CATCH(block, type, name, except) \
+    { int CONCAT_(try_handler_, __LINE__) = -1 - frameRef->exceptionFrameDepth; \
+    pushExceptionFrame(frameRef, &class_##type, CONCAT_(try_handler_, __LINE__)); \
+    try { \
+        block; \
+        popExceptionFrame(frameRef); \
+        goto CONCAT_(try_done_, __LINE__); \
+    } catch (const ExceptionUnwind &unwind) { \
+        if (unwind.frame != frameRef or unwind.handler != CONCAT_(try_handler_, __LINE__)) \
+            throw; \
+    } \
+    { jobject name = popExceptionFrame(frameRef); \
+    protectObject(name); \
+    except; \
+    unprotectObject(name); } } \
+    CONCAT_(try_done_, __LINE__):
+#define TRY_(block, type, name, except) TRY_CATCH(block, type, name, except)
+#define TRY(args) TRY_(args)
+#else
 #define TRY_(block, type, name, except) \
     if (setjmp(*pushExceptionFrame(frameRef, &class_##type))) \
         goto CONCAT_(catch_target_, __LINE__); \
@@ -292,6 +430,7 @@ jint longCompare(jlong value1, jlong value2);
     block; \
     popExceptionFrame(frameRef); \
     CONCAT_(try_done_, __LINE__):
+#endif
 
 #define CONSTRUCT_OBJECT(clazz, constructor, ...) \
     ({ jobject object = gcAllocNative(ctx, clazz); \
@@ -306,13 +445,23 @@ jint longCompare(jlong value1, jlong value2);
     ((func_##func) ((void **) NULL_CHECK(obj)->vtable)[VTABLE_##func])(ctx, obj __VA_OPT__(,) __VA_ARGS__)
 
 #define INVOKE_INTERFACE(clazz, func, obj, ...) \
-    ((func_##clazz##_##func) resolveInterfaceMethod(ctx, &class_##clazz, INDEX_##clazz##_##func, obj))(ctx, obj __VA_OPT__(,) __VA_ARGS__)
+    ((func_##clazz##_##func) resolveInterfaceMethodCached(ctx, INTERFACE_CACHE(), &class_##clazz, INDEX_##clazz##_##func, obj))(ctx, obj __VA_OPT__(,) __VA_ARGS__)
+
+// A static inline cache for an interface call site
+#define INTERFACE_CACHE() \
+    ({ static InterfaceCache cache; &cache; })
 
 // When calling this, all objects must be safely stored, either on a stack frame, a class/object field, or have the mark value set to one of the special constants
 #define SAFEPOINT() \
     if (suspendVM)\
         safepointSuspend(ctx)
 
+// Emitted on loop back-edges, with the same requirements as SAFEPOINT. This is a load and a branch on the suspendVM flag
+// hinted as not taken, rather than a protected poll page, since a fault handler can't portably park the thread.
+#define SAFEPOINT_POLL() \
+    if (UNLIKELY(suspendVM)) \
+        safepointSuspend(ctx)
+
 #define POP_N(count) \
     sp -= count
 
@@ -327,7 +476,7 @@ jint longCompare(jlong value1, jlong value2);
     sp[-1].o = ARRAY_ACCESS(jobject, sp[-1].o, sp[0].i)
 
 #define INST_AASTORE() \
-    ARRAY_ACCESS(jobject, sp[-3].o, sp[-2].i) = sp[-1].o; \
+    STORE_ARRAY_REFERENCE(sp[-3].o, sp[-2].i, sp[-1].o); \
     sp -= 3
 
 #define INST_ACONST_NULL() \
@@ -413,6 +562,9 @@ jint longCompare(jlong value1, jlong value2);
 #define INST_DLOAD(local) \
     (sp++)->d = frame[local].d
 
+#define INST_DLOAD_LOCAL(var) \
+    (sp++)->d = var
+
 #define INST_DMUL() \
     sp--; \
     sp[-1].d = sp[-1].d * sp[0].d
@@ -427,6 +579,9 @@ jint longCompare(jlong value1, jlong value2);
 #define INST_DSTORE(local) \
     frame[local].d = (--sp)->d
 
+#define INST_DSTORE_LOCAL(var) \
+    var = (--sp)->d
+
 #define INST_DSUB() \
     sp--; \
     sp[-1].d = sp[-1].d - sp[0].d
@@ -542,6 +697,9 @@ jint longCompare(jlong value1, jlong value2);
 #define INST_FLOAD(local) \
     (sp++)->f = frame[local].f
 
+#define INST_FLOAD_LOCAL(var) \
+    (sp++)->f = var
+
 #define INST_FMUL() \
     sp--; \
     sp[-1].f = sp[-1].f * sp[0].f
@@ -556,6 +714,9 @@ jint longCompare(jlong value1, jlong value2);
 #define INST_FSTORE(local) \
     frame[local].f = (--sp)->f
 
+#define INST_FSTORE_LOCAL(var) \
+    var = (--sp)->f
+
 #define INST_FSUB() \
     sp--; \
     sp[-1].f = sp[-1].f - sp[0].f
@@ -605,9 +766,15 @@ jint longCompare(jlong value1, jlong value2);
 #define INST_IINC(local, amount) \
     frame[local].i += amount
 
+#define INST_IINC_LOCAL(var, amount) \
+    var += amount
+
 #define INST_ILOAD(local) \
     (sp++)->i = frame[local].i
 
+#define INST_ILOAD_LOCAL(var) \
+    (sp++)->i = var
+
 #define INST_IMUL() \
     sp--; \
     sp[-1].i = sp[-1].i * sp[0].i
@@ -638,6 +805,9 @@ jint longCompare(jlong value1, jlong value2);
 #define INST_ISTORE(local) \
     frame[local].i = (--sp)->i
 
+#define INST_ISTORE_LOCAL(var) \
+    var = (--sp)->i
+
 #define INST_ISUB() \
     sp--; \
     sp[-1].i = sp[-1].i - sp[0].i
@@ -690,6 +860,9 @@ jint longCompare(jlong value1, jlong value2);
 #define INST_LLOAD(local) \
     (sp++)->l = frame[local].l
 
+#define INST_LLOAD_LOCAL(var) \
+    (sp++)->l = var
+
 #define INST_LMUL() \
     sp--; \
     sp[-1].l = sp[-1].l * sp[0].l
@@ -717,6 +890,9 @@ jint longCompare(jlong value1, jlong value2);
 #define INST_LSTORE(local) \
     frame[local].l = (--sp)->l
 
+#define INST_LSTORE_LOCAL(var) \
+    var = (--sp)->l
+
 #define INST_LSUB() \
     sp--; \
     sp[-1].l = sp[-1].l - sp[0].l
@@ -802,6 +978,7 @@ jint longCompare(jlong value1, jlong value2);
 #include <condition_variable>
 #include <bit>
 #include <functional>
+#include <chrono>
 
 using std::bit_cast;
 
@@ -823,6 +1000,12 @@ using std::bit_cast;
 #define ARRAY_ACCESS(type, obj, index) (((type *) ((jarray) obj)->data)[index])
 #endif
 
+// Stores a reference into a field or object array element, recording old objects that now reference young objects
+#define STORE_FIELD_REFERENCE(type, obj, field, value) \
+    { auto holder_ = (type *) NULL_CHECK(obj); writeBarrier((jobject) holder_, (jobject) (holder_->field = (jref) (value))); }
+#define STORE_ARRAY_REFERENCE(obj, index, value) \
+    { auto holder_ = (jobject) (obj); writeBarrier(holder_, ARRAY_ACCESS(jobject, holder_, index) = (value)); }
+
 #ifdef USE_LINE_NUMBERS
 #define LINE_NUMBER(line) frameRef->lineNumber = line
 #else
@@ -835,17 +1018,38 @@ public:
 };
 
 struct ObjectMonitor {
-    std::recursive_mutex lock;
-    std::atomic_int32_t depth;
+    std::mutex mutex; // Guards the owner and depth
     std::atomic<jcontext> owner;
-    std::condition_variable condition;
-    std::mutex conditionMutex;
+    int depth{};
+    std::condition_variable released; // Signaled when the owner fully exits the monitor
+    std::condition_variable condition; // Used by Object wait/notify
+};
+
+struct InterfaceTable {
+    jclass clazz;
+    jclass interface;
+    std::vector<int> offsets; // Vtable offset of each interface method, or -1 if not implemented
+    InterfaceTable *next; // The next table for the class, tables are never freed
 };
 
+typedef std::atomic<InterfaceTable *> InterfaceCache;
+
 struct ExceptionFrame {
     jclass type;
+#if USE_CPP_EXCEPTIONS
+    int handler; // Identifies the try block within the method that catches the exception
+#else
     jmp_buf landingPad;
+#endif
+};
+
+#if USE_CPP_EXCEPTIONS
+/// Thrown as a C++ exception to unwind to the frame with the exception handler that caught a Java exception
+struct ExceptionUnwind {
+    jframe frame;
+    int handler;
 };
+#endif
 
 struct StackFrame {
     const FrameInfo *info{}; // Static information about frame
@@ -857,15 +1061,41 @@ struct StackFrame {
     jobject exception{}; // The currently thrown exception
 };
 
+#if USE_CPP_EXCEPTIONS
+/// Pushes an exception frame onto the given stack frame. `type` can be null. Does not throw exceptions.
+inline void pushExceptionFrame(jframe frame, jclass type, int handler) {
+    if ((int)frame->exceptionFrames.size() < frame->exceptionFrameDepth + 1)
+        frame->exceptionFrames.resize(frame->exceptionFrameDepth + 1);
+    auto &exceptionFrame = frame->exceptionFrames[frame->exceptionFrameDepth++];
+    exceptionFrame.type = type;
+    exceptionFrame.handler = handler;
+}
+#endif
+
+// A ThreadLocal value in a thread's table. The GC holds the ThreadLocal weakly and only keeps the value alive while the
+// ThreadLocal is reachable, then clears the entry.
+struct ThreadLocalEntry {
+    jobject key; // The ThreadLocal that set the entry, or null if unset
+    jlong id; // Unique ID of the ThreadLocal, so an entry left in a recycled slot never matches a new ThreadLocal
+    jobject value;
+};
+
 struct Context {
     jthread thread{};
     std::thread *nativeThread; // Null for main thread
     StackFrame frames[MAX_STACK_DEPTH];
     int stackDepth{};
-    volatile bool suspended{}; // Considered at safepoint, must check for suspendVM flag when un-suspending
+    volatile bool suspended{}; // Considered at safepoint, only changed by enterSafeRegion and exitSafeRegion
     std::recursive_mutex lock; // Lock on changing the stack or blocking monitor
     std::atomic<jobject> blockedBy; // Object monitor blocking the current thread, or null
+    std::mutex parkLock; // Lock on the park permit
+    std::condition_variable parkCondition; // Signaled when the park permit is made available
+    bool parkPermit{}; // LockSupport permit, consumed by parking
     bool dead{};
+    jchunk nurseryChunk{}; // Current thread-local allocation chunk
+    std::vector<jobject> youngObjects; // Objects allocated in the nursery since the last collection
+    int64_t nurseryUsage{}; // Nursery memory allocated since the last collection
+    std::vector<ThreadLocalEntry> threadLocals; // Indexed by ThreadLocal slot, only accessed by this thread or the GC with the world stopped
 };
 
 /// Checks if an object is null. Throws exceptions.
@@ -876,6 +1106,28 @@ T *nullCheck(jcontext ctx, T *object) {
     return object;
 }
 
+/// Checks whether an object is in a thread nursery and hasn't survived a collection yet. Does not throw exceptions.
+inline bool isYoungObject(jobject object) {
+    return (object->gcFlags & (GC_FLAG_NURSERY | GC_FLAG_PROMOTED)) == GC_FLAG_NURSERY;
+}
+
+/// Records a reference store, adding the holder to the remembered set if it is an old object now referencing a young
+/// object, so minor collections can trace from it instead of the whole old generation. Does not throw exceptions.
+inline void writeBarrier(jobject holder, jobject value) {
+    if (value && isYoungObject(value) && !isYoungObject(holder) && !(holder->gcFlags & GC_FLAG_REMEMBERED))
+        rememberObject(holder);
+}
+
+/// Get the monotonic clock deadline for a Java timeout, saturating for timeouts too long to represent. Does not throw exceptions.
+inline std::chrono::steady_clock::time_point timeoutDeadline(jlong millis, jint nanos) {
+    auto now = std::chrono::steady_clock::now();
+    auto remaining = std::chrono::steady_clock::time_point::max() - now;
+    auto timeout = std::chrono::duration<double, std::nano>((double)millis * 1000000 + nanos);
+    if (timeout >= remaining)
+        return std::chrono::steady_clock::time_point::max();
+    return now + std::chrono::duration_cast<std::chrono::steady_clock::duration>(timeout);
+}
+
 inline jobject checkCast(jcontext ctx, jclass type, jobject object) {
     if (object && !isInstance(ctx, object, type))
         throwClassCast(ctx);
@@ -1003,6 +1255,22 @@ void tryCatch(jcontext ctx, const char *method, B block, jclass clazz, E except)
 
 template <typename B, typename E>
 void tryCatch(jframe frameRef, B block, jclass clazz, E except) requires std::invocable<B> and std::invocable<E, jobject> {
+#if USE_CPP_EXCEPTIONS
+    int handler = -1 - frameRef->exceptionFrameDepth; // Negative to not collide with the try blocks of transpiled methods
+    pushExceptionFrame(frameRef, clazz, handler);
+    try {
+        block();
+        popExceptionFrame(frameRef);
+        return;
+    } catch (const ExceptionUnwind &unwind) {
+        if (unwind.frame != frameRef or unwind.handler != handler)
+            throw;
+    }
+    auto ex = popExceptionFrame(frameRef);
+    protectObject(ex);
+    except(ex);
+    unprotectObject(ex);
+#else
     if (setjmp(*pushExceptionFrame(frameRef, clazz))) {
         auto ex = popExceptionFrame(frameRef);
         protectObject(ex); // Doesn't cause a leak if exception is rethrow in except block, since it will be re-caught and fixed there
@@ -1012,6 +1280,7 @@ void tryCatch(jframe frameRef, B block, jclass clazz, E except) requires std::in
     }
     block();
     popExceptionFrame(frameRef);
+#endif
 }
 
 template <typename F, int I, typename ...P>
@@ -1019,9 +1288,20 @@ auto invokeVirtual(jcontext ctx, jobject obj, P... params) {
     return ((F) ((void **) NULL_CHECK(obj)->vtable)[I])(ctx, obj, params...);
 }
 
+/// Resolves an interface method through a call site cache, only looking up the interface table of the class on a miss. Throws exceptions.
+inline void *resolveInterfaceMethodCached(jcontext ctx, InterfaceCache *cache, jclass interface, int method, jobject object) {
+    auto table = cache->load(std::memory_order_acquire);
+    if (!object or !table or table->clazz != (jclass) object->clazz) [[unlikely]] {
+        table = resolveInterfaceTable(ctx, interface, method, object);
+        cache->store(table, std::memory_order_release);
+    }
+    return ((void **) object->vtable)[table->offsets[method]];
+}
+
 template <typename F, auto C, int I, typename ...P>
 auto invokeInterface(jcontext ctx, jobject obj, P... params) {
-    return ((F) resolveInterfaceMethod(ctx, C, I, obj))(ctx, obj, params...);
+    static InterfaceCache cache;
+    return ((F) resolveInterfaceMethodCached(ctx, &cache, C, I, obj))(ctx, obj, params...);
 }
 
 template <jclass T, auto C, typename ...P>
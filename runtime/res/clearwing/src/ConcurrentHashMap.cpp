@@ -0,0 +1,25 @@
+#include "java/util/concurrent/ConcurrentHashMap.h"
+
+#include <atomic>
+
+static inline std::atomic_ref<jobject> bin(jobject tab, jint i) {
+    return std::atomic_ref<jobject>(((jobject *) ((jarray) tab)->data)[i]);
+}
+
+extern "C" {
+
+jobject SM_java_util_concurrent_ConcurrentHashMap_tabAt_Array1_java_util_concurrent_ConcurrentHashMap$Node_int_R_java_util_concurrent_ConcurrentHashMap$Node(jcontext ctx, jobject tab, jint i) {
+    return bin(tab, i).load(std::memory_order_acquire);
+}
+
+jbool SM_java_util_concurrent_ConcurrentHashMap_casTabAt_Array1_java_util_concurrent_ConcurrentHashMap$Node_int_java_util_concurrent_ConcurrentHashMap$Node_java_util_concurrent_ConcurrentHashMap$Node_R_boolean(jcontext ctx, jobject tab, jint i, jobject c, jobject v) {
+    writeBarrier(tab, v);
+    return bin(tab, i).compare_exchange_strong(c, v);
+}
+
+void SM_java_util_concurrent_ConcurrentHashMap_setTabAt_Array1_java_util_concurrent_ConcurrentHashMap$Node_int_java_util_concurrent_ConcurrentHashMap$Node(jcontext ctx, jobject tab, jint i, jobject v) {
+    bin(tab, i).store(v, std::memory_order_release);
+    writeBarrier(tab, v);
+}
+
+}
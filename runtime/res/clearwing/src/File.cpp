@@ -79,7 +79,7 @@ jobject M_java_io_File_list_R_Array1_java_lang_String(jcontext ctx, jobject self
     }
     auto array = createArray(ctx, &class_java_lang_String, (int)collected.size());
     for (int i = 0; i < (int)collected.size(); i++)
-        ((jobject *)array->data)[i] = (jobject) stringFromNative(ctx, collected[i]);
+        writeBarrier((jobject) array, ((jobject *)array->data)[i] = (jobject) stringFromNative(ctx, collected[i]));
     return (jobject) array;
 }
 
@@ -108,6 +108,7 @@ jobject SM_java_io_File_listRoots_R_Array1_java_io_File(jcontext ctx) {
         auto file = gcAllocProtected(ctx, &class_java_io_File);
         init_java_io_File_java_lang_String(ctx, file, string);
         ((jobject *)array->data)[i] = file;
+        writeBarrier((jobject) array, file);
         unprotectObject(string);
         unprotectObject(file);
     }
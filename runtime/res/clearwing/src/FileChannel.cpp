@@ -0,0 +1,304 @@
+#include "java/nio/channels/FileChannel.h"
+#include "java/nio/MappedByteBuffer.h"
+
+#include <algorithm>
+#include <cerrno>
+#include <cstring>
+#include <vector>
+#include <sys/stat.h>
+#include <unistd.h>
+
+#if defined(__WIN32__) || defined(__WINRT__)
+#include <io.h>
+#else
+#include <sys/mman.h>
+#include <sys/uio.h>
+#include <climits>
+#endif
+
+#if defined(__linux__)
+#include <sys/sendfile.h>
+#endif
+
+#if defined(__APPLE__)
+typedef char mincore_vec_t;
+#else
+typedef unsigned char mincore_vec_t;
+#endif
+
+#if defined(__WIN32__) || defined(__WINRT__)
+static ssize_t pread(int fd, void *buffer, size_t count, off_t offset) {
+    auto current = _lseeki64(fd, 0, SEEK_CUR);
+    if (current < 0 or _lseeki64(fd, offset, SEEK_SET) < 0)
+        return -1;
+    auto result = read(fd, buffer, (unsigned) count);
+    _lseeki64(fd, current, SEEK_SET);
+    return result;
+}
+
+static ssize_t pwrite(int fd, const void *buffer, size_t count, off_t offset) {
+    auto current = _lseeki64(fd, 0, SEEK_CUR);
+    if (current < 0 or _lseeki64(fd, offset, SEEK_SET) < 0)
+        return -1;
+    auto result = write(fd, buffer, (unsigned) count);
+    _lseeki64(fd, current, SEEK_SET);
+    return result;
+}
+#endif
+
+static int getFd(jcontext ctx, jobject self) {
+    return ((java_nio_channels_FileChannel *) NULL_CHECK(self))->F_fd;
+}
+
+static char *bufferData(jcontext ctx, jobject buffer) {
+    auto object = (java_nio_Buffer *) NULL_CHECK(buffer);
+    return (char *) object->F_address + object->F_position;
+}
+
+static jint bufferRemaining(jcontext ctx, jobject buffer) {
+    auto object = (java_nio_Buffer *) NULL_CHECK(buffer);
+    return std::max(object->F_limit - object->F_position, 0);
+}
+
+/// Performs a blocking operation in a safe region, retrying when interrupted by a signal. The operation must not access
+/// VM objects, so buffer addresses are resolved beforehand, which is fine since buffer memory doesn't move and the
+/// caller keeps the buffers reachable. Throws exceptions.
+template<typename F>
+static jlong blockingIO(jcontext ctx, F operation) {
+    enterSafeRegion(ctx);
+    jlong result;
+    do
+        result = (jlong) operation();
+    while (result < 0 and errno == EINTR);
+    auto error = errno;
+    exitSafeRegion(ctx);
+    if (result < 0)
+        throwIOException(ctx, strerror(error));
+    return result;
+}
+
+#if !defined(__WIN32__) && !defined(__WINRT__)
+/// Collects the remaining regions of the buffers for vectored I/O. Throws exceptions.
+static std::vector<iovec> collectRegions(jcontext ctx, jobject buffers, jint offset, jint length) {
+    auto array = (jobject *) ((jarray) NULL_CHECK(buffers))->data;
+    std::vector<iovec> regions;
+    regions.reserve(length);
+    for (int i = offset; i < offset + length and regions.size() < IOV_MAX; i++)
+        if (bufferRemaining(ctx, array[i]) > 0)
+            regions.push_back(iovec{bufferData(ctx, array[i]), (size_t) bufferRemaining(ctx, array[i])});
+    return regions;
+}
+#else
+/// Collects the remaining regions of the buffers for looped I/O. Throws exceptions.
+static std::vector<std::pair<char *, jint>> collectRegions(jcontext ctx, jobject buffers, jint offset, jint length) {
+    auto array = (jobject *) ((jarray) NULL_CHECK(buffers))->data;
+    std::vector<std::pair<char *, jint>> regions;
+    regions.reserve(length);
+    for (int i = offset; i < offset + length; i++)
+        if (bufferRemaining(ctx, array[i]) > 0)
+            regions.emplace_back(bufferData(ctx, array[i]), bufferRemaining(ctx, array[i]));
+    return regions;
+}
+#endif
+
+extern "C" {
+
+jint M_java_nio_channels_FileChannel_read0_java_nio_ByteBuffer_long_R_int(jcontext ctx, jobject self, jobject dst, jlong position) {
+    auto fd = getFd(ctx, self);
+    auto data = bufferData(ctx, dst);
+    auto count = (size_t) bufferRemaining(ctx, dst);
+    if (count == 0)
+        return 0;
+    auto read = blockingIO(ctx, [&]{ return position < 0 ? ::read(fd, data, count) : pread(fd, data, count, (off_t) position); });
+    return read ? (jint) read : -1;
+}
+
+jint M_java_nio_channels_FileChannel_write0_java_nio_ByteBuffer_long_R_int(jcontext ctx, jobject self, jobject src, jlong position) {
+    auto fd = getFd(ctx, self);
+    auto data = bufferData(ctx, src);
+    auto count = (size_t) bufferRemaining(ctx, src);
+    jlong written = 0;
+    while (written < (jlong) count) {
+        auto offset = position + written;
+        written += blockingIO(ctx, [&]{ return position < 0 ? ::write(fd, data + written, count - written) : pwrite(fd, data + written, count - written, (off_t) offset); });
+    }
+    return (jint) written;
+}
+
+jlong M_java_nio_channels_FileChannel_readv0_Array1_java_nio_ByteBuffer_int_int_R_long(jcontext ctx, jobject self, jobject dsts, jint offset, jint length) {
+    auto fd = getFd(ctx, self);
+    auto regions = collectRegions(ctx, dsts, offset, length);
+    if (regions.empty())
+        return 0;
+#if defined(__WIN32__) || defined(__WINRT__)
+    jlong total = 0;
+    for (auto &[data, count] : regions) {
+        auto read = blockingIO(ctx, [&]{ return ::read(fd, data, (unsigned) count); });
+        if (read == 0)
+            return total ? total : -1;
+        total += read;
+        if (read < count)
+            break;
+    }
+    return total;
+#else
+    auto read = blockingIO(ctx, [&]{ return readv(fd, regions.data(), (int) regions.size()); });
+    return read ? read : -1;
+#endif
+}
+
+jlong M_java_nio_channels_FileChannel_writev0_Array1_java_nio_ByteBuffer_int_int_R_long(jcontext ctx, jobject self, jobject srcs, jint offset, jint length) {
+    auto fd = getFd(ctx, self);
+    auto regions = collectRegions(ctx, srcs, offset, length);
+    if (regions.empty())
+        return 0;
+#if defined(__WIN32__) || defined(__WINRT__)
+    jlong total = 0;
+    for (auto &[data, count] : regions) {
+        jlong written = 0;
+        while (written < count)
+            written += blockingIO(ctx, [&]{ return ::write(fd, data + written, (unsigned) (count - written)); });
+        total += written;
+    }
+    return total;
+#else
+    return blockingIO(ctx, [&]{ return writev(fd, regions.data(), (int) regions.size()); });
+#endif
+}
+
+jlong M_java_nio_channels_FileChannel_position0_long_R_long(jcontext ctx, jobject self, jlong newPosition) {
+    auto result = newPosition < 0 ? lseek(getFd(ctx, self), 0, SEEK_CUR) : lseek(getFd(ctx, self), (off_t) newPosition, SEEK_SET);
+    if (result < 0)
+        throwIOException(ctx, strerror(errno));
+    return result;
+}
+
+jlong M_java_nio_channels_FileChannel_size0_R_long(jcontext ctx, jobject self) {
+    struct stat info{};
+    if (fstat(getFd(ctx, self), &info))
+        throwIOException(ctx, strerror(errno));
+    return info.st_size;
+}
+
+void M_java_nio_channels_FileChannel_truncate0_long(jcontext ctx, jobject self, jlong size) {
+    if (ftruncate(getFd(ctx, self), (off_t) size))
+        throwIOException(ctx, strerror(errno));
+}
+
+void M_java_nio_channels_FileChannel_force0_boolean(jcontext ctx, jobject self, jbool metaData) {
+    auto fd = getFd(ctx, self);
+#if defined(__WIN32__) || defined(__WINRT__)
+    blockingIO(ctx, [&]{ return _commit(fd); });
+#elif defined(__linux__)
+    blockingIO(ctx, [&]{ return metaData ? fsync(fd) : fdatasync(fd); });
+#else
+    blockingIO(ctx, [&]{ return fsync(fd); });
+#endif
+}
+
+jlong M_java_nio_channels_FileChannel_transferTo0_long_long_int_R_long(jcontext ctx, jobject self, jlong position, jlong count, jint targetFd) {
+#if defined(__linux__)
+    auto fd = getFd(ctx, self);
+    auto offset = (off_t) position;
+    ssize_t result = -1;
+    enterSafeRegion(ctx);
+#if defined(__GLIBC__)
+    result = copy_file_range(fd, &offset, targetFd, nullptr, (size_t) count, 0);
+    if (result < 0 and (errno == EXDEV or errno == EINVAL or errno == ENOSYS or errno == EOPNOTSUPP))
+#endif
+        result = sendfile(targetFd, fd, &offset, (size_t) count);
+    auto error = errno;
+    exitSafeRegion(ctx);
+    if (result >= 0)
+        return result;
+    if (error != EINVAL and error != ENOSYS)
+        throwIOException(ctx, strerror(error));
+#endif
+    return -2;
+}
+
+jlong M_java_nio_channels_FileChannel_transferFrom0_int_long_long_R_long(jcontext ctx, jobject self, jint srcFd, jlong position, jlong count) {
+#if defined(__linux__) && defined(__GLIBC__)
+    auto fd = getFd(ctx, self);
+    auto offset = (off_t) position;
+    enterSafeRegion(ctx);
+    auto copied = copy_file_range(srcFd, nullptr, fd, &offset, (size_t) count, 0);
+    auto error = errno;
+    exitSafeRegion(ctx);
+    if (copied >= 0)
+        return copied;
+    if (error != EXDEV and error != EINVAL and error != ENOSYS and error != EOPNOTSUPP)
+        throwIOException(ctx, strerror(error));
+#endif
+    return -2;
+}
+
+jobject M_java_nio_channels_FileChannel_mapImpl_int_long_int_R_java_nio_MappedByteBuffer(jcontext ctx, jobject self, jint mode, jlong position, jint size) {
+    auto channel = (java_nio_channels_FileChannel *) NULL_CHECK(self);
+#if defined(__WIN32__) || defined(__WINRT__)
+    throwIOException(ctx, "Memory mapping is unsupported on this platform");
+#else
+    struct stat info{};
+    if (fstat(channel->F_fd, &info))
+        throwIOException(ctx, strerror(errno));
+    if (info.st_size < position + size) {
+        if (!channel->F_writable)
+            throwIOException(ctx, "Channel not open for writing - cannot extend file to required size");
+        if (ftruncate(channel->F_fd, position + size))
+            throwIOException(ctx, strerror(errno));
+    }
+
+    bool readOnly = mode == 0;
+    if (size == 0)
+        return constructObject<&class_java_nio_MappedByteBuffer, init_java_nio_MappedByteBuffer_long_int_long_long_boolean>(ctx, (jlong) 0, 0, (jlong) 0, (jlong) 0, readOnly);
+
+    static const auto pageSize = (jlong) sysconf(_SC_PAGESIZE);
+    auto offset = position % pageSize;
+    auto mappingSize = (size_t) (size + offset);
+    auto mapping = mmap(nullptr, mappingSize, readOnly ? PROT_READ : PROT_READ | PROT_WRITE, mode == 2 ? MAP_PRIVATE : MAP_SHARED, channel->F_fd, (off_t) (position - offset));
+    if (mapping == MAP_FAILED)
+        throwIOException(ctx, strerror(errno));
+
+    return constructObject<&class_java_nio_MappedByteBuffer, init_java_nio_MappedByteBuffer_long_int_long_long_boolean>(ctx, (jlong) mapping + offset, size, (jlong) mapping, (jlong) mappingSize, readOnly);
+#endif
+}
+
+void M_java_nio_MappedByteBuffer_unmap(jcontext ctx, jobject self) {
+#if !defined(__WIN32__) && !defined(__WINRT__)
+    auto buffer = (java_nio_MappedByteBuffer *) self;
+    munmap((void *) buffer->F_mapping, (size_t) buffer->F_mappingSize);
+#endif
+}
+
+jbool M_java_nio_MappedByteBuffer_isLoaded0_R_boolean(jcontext ctx, jobject self) {
+#if defined(__WIN32__) || defined(__WINRT__)
+    return false;
+#else
+    auto buffer = (java_nio_MappedByteBuffer *) NULL_CHECK(self);
+    static const auto pageSize = (jlong) sysconf(_SC_PAGESIZE);
+    std::vector<mincore_vec_t> pages((buffer->F_mappingSize + pageSize - 1) / pageSize);
+    if (mincore((void *) buffer->F_mapping, (size_t) buffer->F_mappingSize, pages.data()))
+        return false;
+    for (auto page : pages)
+        if (!(page & 1))
+            return false;
+    return true;
+#endif
+}
+
+void M_java_nio_MappedByteBuffer_load0(jcontext ctx, jobject self) {
+#if !defined(__WIN32__) && !defined(__WINRT__)
+    auto buffer = (java_nio_MappedByteBuffer *) NULL_CHECK(self);
+    madvise((void *) buffer->F_mapping, (size_t) buffer->F_mappingSize, MADV_WILLNEED);
+#endif
+}
+
+void M_java_nio_MappedByteBuffer_force0(jcontext ctx, jobject self) {
+#if !defined(__WIN32__) && !defined(__WINRT__)
+    auto buffer = (java_nio_MappedByteBuffer *) NULL_CHECK(self);
+    if (msync((void *) buffer->F_mapping, (size_t) buffer->F_mappingSize, MS_SYNC))
+        throwIOException(ctx, strerror(errno));
+#endif
+}
+
+}
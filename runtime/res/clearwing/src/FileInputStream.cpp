@@ -1,74 +1,84 @@
 #include "java/io/FileInputStream.h"
 #include "java/io/FileNotFoundException.h"
+#include "java/nio/channels/FileChannel.h"
+
+#include <algorithm>
+#include <cerrno>
+#include <cstring>
+#include <fcntl.h>
+#include <sys/stat.h>
+#include <unistd.h>
+
+#ifndef O_BINARY
+#define O_BINARY 0
+#endif
+
+// File streams use raw descriptors rather than stdio so that channels share their position
+static int getFd(jcontext ctx, jobject self) {
+    auto fd = ((java_io_FileInputStream *) NULL_CHECK(self))->F_fd;
+    if (fd < 0)
+        throwIOException(ctx, "File closed");
+    return fd;
+}
 
 extern "C" {
 
 void M_java_io_FileInputStream_open_java_lang_String(jcontext ctx, jobject self, jobject nameObj) {
     auto stream = (java_io_FileInputStream *) NULL_CHECK(self);
     auto name = stringToNative(ctx, (jstring) NULL_CHECK(nameObj));
-    auto f = fopen(name, "rb");
-    if (f)
-        stream->F_file = (jlong) f;
-    else
+    auto fd = open(name, O_RDONLY | O_BINARY);
+    if (fd < 0)
         constructAndThrow<&class_java_io_FileNotFoundException, init_java_io_FileNotFoundException>(ctx);
+    stream->F_fd = fd;
 }
 
 jint M_java_io_FileInputStream_read_R_int(jcontext ctx, jobject self) {
-    auto stream = (java_io_FileInputStream *) NULL_CHECK(self);
-    auto f = (FILE *) stream->F_file;
-    if (f)
-        return fgetc(f);
-    else
-        throwIOException(ctx, "File closed");
-    return 0;
+    unsigned char value;
+    auto count = read(getFd(ctx, self), &value, 1);
+    if (count < 0)
+        throwIOException(ctx, strerror(errno));
+    return count ? value : -1;
 }
 
 jint M_java_io_FileInputStream_readBytes_Array1_byte_int_int_R_int(jcontext ctx, jobject self, jobject bytes, jint off, jint len) {
-    auto stream = (java_io_FileInputStream *) NULL_CHECK(self);
-    auto f = (FILE *) stream->F_file;
-    if (f) {
-        auto array = (jarray) NULL_CHECK(bytes);
-        auto read = fread((char *) array->data + off, 1, len, f);
-        if (!read)
-            return -1;
-        return (jint) read;
-    } else
-        throwIOException(ctx, "File closed");
-    return 0;
+    auto fd = getFd(ctx, self);
+    auto array = (jarray) NULL_CHECK(bytes);
+    auto count = read(fd, (char *) array->data + off, len);
+    if (count < 0)
+        throwIOException(ctx, strerror(errno));
+    return count ? (jint) count : -1;
 }
 
 jlong M_java_io_FileInputStream_skip_long_R_long(jcontext ctx, jobject self, jlong n) {
-    auto stream = (java_io_FileInputStream *) NULL_CHECK(self);
-    auto f = (FILE *) stream->F_file;
-    if (!f)
-        throwIOException(ctx, "File closed");
-    auto pos = ftell(f);
-    auto result = fseek(f, n, SEEK_CUR);
+    auto fd = getFd(ctx, self);
+    auto pos = lseek(fd, 0, SEEK_CUR);
+    auto result = pos < 0 ? pos : lseek(fd, (off_t) n, SEEK_CUR);
     if (result < 0)
-        throwIOException(ctx, nullptr);
+        throwIOException(ctx, strerror(errno));
     return result - pos;
 }
 
 jint M_java_io_FileInputStream_available_R_int(jcontext ctx, jobject self) {
+    auto fd = getFd(ctx, self);
+    struct stat info{};
+    if (fstat(fd, &info))
+        throwIOException(ctx, strerror(errno));
+    return (jint) std::max((jlong) info.st_size - (jlong) lseek(fd, 0, SEEK_CUR), (jlong) 0);
+}
+
+jobject M_java_io_FileInputStream_openChannel_R_java_nio_channels_FileChannel(jcontext ctx, jobject self) {
     auto stream = (java_io_FileInputStream *) NULL_CHECK(self);
-    auto f = (FILE *) stream->F_file;
-    if (!f)
-        throwIOException(ctx, "File closed");
-    auto pos = ftell(f);
-    fseek(f, 0, SEEK_END);
-    auto len = ftell(f);
-    fseek(f, pos, SEEK_SET);
-    return (jint) (len - pos);
+    return constructObject<&class_java_nio_channels_FileChannel, init_java_nio_channels_FileChannel_int_boolean_boolean_java_io_Closeable>(ctx, stream->F_fd, true, false, self);
 }
 
 void M_java_io_FileInputStream_close0(jcontext ctx, jobject self) {
     auto stream = (java_io_FileInputStream *) NULL_CHECK(self);
-    auto f = (FILE *) stream->F_file;
-    if (!f)
+    if (stream->F_fd < 0)
         return;
-    if (fclose(f))
-        throwIOException(ctx, nullptr);
-    stream->F_file = 0;
+    auto fd = stream->F_fd;
+    stream->F_fd = -1;
+    if (close(fd))
+        throwIOException(ctx, strerror(errno));
 }
 
 }
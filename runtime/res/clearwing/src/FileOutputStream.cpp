@@ -1,52 +1,66 @@
 #include "java/io/FileOutputStream.h"
 #include "java/io/FileNotFoundException.h"
+#include "java/nio/channels/FileChannel.h"
+
+#include <cerrno>
+#include <cstring>
+#include <fcntl.h>
+#include <unistd.h>
+
+#ifndef O_BINARY
+#define O_BINARY 0
+#endif
+
+// File streams use raw descriptors rather than stdio so that channels share their position
+static int getFd(jcontext ctx, jobject self) {
+    auto fd = ((java_io_FileOutputStream *) NULL_CHECK(self))->F_fd;
+    if (fd < 0)
+        throwIOException(ctx, "File closed");
+    return fd;
+}
 
 extern "C" {
 
 void M_java_io_FileOutputStream_open_java_lang_String_boolean(jcontext ctx, jobject self, jobject nameObj, jbool append) {
     auto stream = (java_io_FileOutputStream *) NULL_CHECK(self);
     auto name = stringToNative(ctx, (jstring) NULL_CHECK(nameObj));
-    auto f = fopen(name, append ? "ab" : "wb");
-    if (f)
-        stream->F_file = (jlong) f;
-    else
+    auto fd = open(name, O_WRONLY | O_CREAT | O_BINARY | (append ? O_APPEND : O_TRUNC), 0666);
+    if (fd < 0)
         constructAndThrow<&class_java_io_FileNotFoundException, init_java_io_FileNotFoundException>(ctx);
+    stream->F_fd = fd;
 }
 
 void M_java_io_FileOutputStream_write_int_boolean(jcontext ctx, jobject self, jint b, jbool append) {
-    auto stream = (java_io_FileOutputStream *) NULL_CHECK(self);
-    auto f = (FILE *) stream->F_file;
-    if (!f)
-        throwIOException(ctx, "File closed");
-    auto byte = (char) b;
-    if (append)
-        fseek(f, 0, SEEK_END);
-    auto written = fwrite(&byte, 1, 1, f);
-    if (written != 1)
-        throwIOException(ctx, nullptr);
+    auto value = (unsigned char) b;
+    if (write(getFd(ctx, self), &value, 1) != 1)
+        throwIOException(ctx, strerror(errno));
 }
 
 void M_java_io_FileOutputStream_writeBytes_Array1_byte_int_int_boolean(jcontext ctx, jobject self, jobject b, jint off, jint len, jbool append) {
+    auto fd = getFd(ctx, self);
+    auto data = (char *) ((jarray) NULL_CHECK(b))->data + off;
+    while (len > 0) {
+        auto count = write(fd, data, len);
+        if (count < 0)
+            throwIOException(ctx, strerror(errno));
+        data += count;
+        len -= (jint) count;
+    }
+}
+
+jobject M_java_io_FileOutputStream_openChannel_R_java_nio_channels_FileChannel(jcontext ctx, jobject self) {
     auto stream = (java_io_FileOutputStream *) NULL_CHECK(self);
-    auto f = (FILE *) stream->F_file;
-    if (!f)
-        throwIOException(ctx, "File closed");
-    if (append)
-        fseek(f, 0, SEEK_END);
-    auto bytes = (char *) ((jarray) b)->data;
-    auto written = (jint) fwrite(bytes + off, 1, len, f);
-    if (written != len)
-        throwIOException(ctx, nullptr);
+    return constructObject<&class_java_nio_channels_FileChannel, init_java_nio_channels_FileChannel_int_boolean_boolean_java_io_Closeable>(ctx, stream->F_fd, false, true, self);
 }
 
 void M_java_io_FileOutputStream_close0(jcontext ctx, jobject self) {
     auto stream = (java_io_FileOutputStream *) NULL_CHECK(self);
-    auto f = (FILE *) stream->F_file;
-    if (!f)
+    if (stream->F_fd < 0)
         return;
-    if (fclose(f))
-        throwIOException(ctx, nullptr);
-    stream->F_file = 0;
+    auto fd = stream->F_fd;
+    stream->F_fd = -1;
+    if (close(fd))
+        throwIOException(ctx, strerror(errno));
 }
 
 }
@@ -0,0 +1,49 @@
+#include "java/util/concurrent/locks/LockSupport.h"
+#include "java/lang/Thread.h"
+
+extern "C" {
+
+void SM_java_util_concurrent_locks_LockSupport_parkImpl_boolean_long(jcontext ctx, jbool absolute, jlong time) {
+    if ((!absolute and time < 0) or ctx->thread->F_interrupted) // Parking returns immediately while interrupted
+        return;
+    enterSafeRegion(ctx);
+    {
+        std::unique_lock lock(ctx->parkLock);
+        auto permitted = [&]{ return ctx->parkPermit or ctx->thread->F_interrupted; };
+        if (absolute)
+            ctx->parkCondition.wait_until(lock, std::chrono::system_clock::time_point(std::chrono::milliseconds(time)), permitted);
+        else if (time > 0) {
+            auto deadline = timeoutDeadline(time / 1000000, (jint) (time % 1000000));
+            if (deadline != std::chrono::steady_clock::time_point::max())
+                ctx->parkCondition.wait_until(lock, deadline, permitted);
+            else
+                ctx->parkCondition.wait(lock, permitted);
+        }
+        else
+            ctx->parkCondition.wait(lock, permitted);
+        ctx->parkPermit = false;
+    }
+    exitSafeRegion(ctx);
+}
+
+void SM_java_util_concurrent_locks_LockSupport_unparkImpl_java_lang_Thread(jcontext ctx, jobject thread) {
+    auto threadCtx = (jcontext) ((jthread) thread)->F_nativeContext;
+    if (!threadCtx) // Not started yet
+        return;
+    {
+        std::lock_guard lock(threadCtx->parkLock);
+        threadCtx->parkPermit = true;
+    }
+    threadCtx->parkCondition.notify_one();
+}
+
+void SM_java_util_concurrent_locks_LockSupport_setBlocker_java_lang_Thread_java_lang_Object(jcontext ctx, jobject thread, jobject blocker) {
+    ((jthread) thread)->F_parkBlocker = (jref) blocker;
+    writeBarrier(thread, blocker);
+}
+
+jobject SM_java_util_concurrent_locks_LockSupport_getBlockerImpl_java_lang_Thread_R_java_lang_Object(jcontext ctx, jobject thread) {
+    return (jobject) ((jthread) thread)->F_parkBlocker;
+}
+
+}
@@ -56,4 +56,8 @@ jobject SM_java_nio_NativeUtils_getArrayClass_java_lang_Class_int_R_java_lang_Cl
     return (jobject) getArrayClass((jclass) NULL_CHECK(type), dimensions);
 }
 
+jlong SM_java_nio_NativeUtils_coarseNanoTime_R_long(jcontext ctx) {
+    return getCoarseMonotonicNanos();
+}
+
 }
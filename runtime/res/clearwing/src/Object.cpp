@@ -12,9 +12,7 @@ extern "C" {
 void clinit_java_lang_Object(jcontext ctx) {
 }
 
-void mark_java_lang_Object(jobject object, jint mark, jint depth) {
-    if (object and object->gcMark >= GC_MARK_START)
-        object->gcMark = mark;
+void mark_java_lang_Object(jobject object, jint mark) {
 }
 
 void init_java_lang_Object(jcontext ctx, jobject self) {
@@ -33,6 +31,7 @@ jobject M_java_lang_Object_clone_R_java_lang_Object(jcontext ctx, jobject self)
         constructAndThrow<&class_java_lang_CloneNotSupportedException, init_java_lang_CloneNotSupportedException>(ctx);
     auto cloned = gcAlloc(ctx, (jclass)self->clazz);
     memcpy((char *)cloned + sizeof(java_lang_Object), (char *)self + sizeof(java_lang_Object), ((jclass)self->clazz)->size - sizeof(java_lang_Object));
+    rememberObject(cloned); // Large objects are allocated in the old generation, but could have copied young references
     return cloned;
 }
 
@@ -50,64 +49,59 @@ void M_java_lang_Object_finalize(jcontext ctx, jobject self) {
 
 void M_java_lang_Object_notify(jcontext ctx, jobject self) {
     monitorOwnerCheck(ctx, self);
-    ((jmonitor) self->monitor)->condition.notify_one();
+    inflateMonitor(self)->condition.notify_one();
 }
 
 void M_java_lang_Object_notifyAll(jcontext ctx, jobject self) {
     monitorOwnerCheck(ctx, self);
-    ((jmonitor) self->monitor)->condition.notify_all();
+    inflateMonitor(self)->condition.notify_all();
 }
 
-void M_java_lang_Object_wait(jcontext ctx, jobject self) {
+/// Fully releases the monitor, waits to be notified or for the timeout (Zero waits indefinitely), then reacquires it. Throws exceptions.
+static void waitOnMonitor(jcontext ctx, jobject self, jlong millis, jint nanos) {
+    if (millis < 0 or nanos < 0 or nanos > 999999)
+        throwIllegalArgument(ctx);
     monitorOwnerCheck(ctx, self);
     interruptedCheck(ctx);
+    auto monitor = inflateMonitor(self); // Waiting always requires an inflated monitor
     ctx->lock.lock();
     ctx->blockedBy = self;
     ctx->lock.unlock();
-    monitorExit(ctx, self);
 
-    ctx->suspended = true;
-    auto monitor = (jmonitor) self->monitor;
+    enterSafeRegion(ctx);
     {
-        std::unique_lock<std::mutex> lock(monitor->conditionMutex);
-        monitor->condition.wait(lock);
+        std::unique_lock<std::mutex> lock(monitor->mutex);
+        int depth = monitor->depth;
+        monitor->owner = nullptr;
+        monitor->depth = 0;
+        monitor->released.notify_one();
+        auto deadline = millis > 0 or nanos > 0 ? timeoutDeadline(millis, nanos) : std::chrono::steady_clock::time_point::max();
+        if (deadline != std::chrono::steady_clock::time_point::max())
+            monitor->condition.wait_until(lock, deadline);
+        else
+            monitor->condition.wait(lock);
+        monitor->released.wait(lock, [&]{ return !monitor->owner or isExiting(); });
+        monitor->owner = ctx;
+        monitor->depth = depth;
     }
-    ctx->suspended = false;
-    SAFEPOINT();
+    exitSafeRegion(ctx);
 
-    monitorEnter(ctx, self);
     ctx->lock.lock();
     ctx->blockedBy = nullptr;
     ctx->lock.unlock();
     interruptedCheck(ctx);
 }
 
+void M_java_lang_Object_wait(jcontext ctx, jobject self) {
+    waitOnMonitor(ctx, self, 0, 0);
+}
+
 void M_java_lang_Object_wait_long(jcontext ctx, jobject self, jlong millis) {
     M_java_lang_Object_wait_long_int(ctx, self, millis, 0);
 }
 
 void M_java_lang_Object_wait_long_int(jcontext ctx, jobject self, jlong millis, jint nanos) {
-    monitorOwnerCheck(ctx, self);
-    interruptedCheck(ctx);
-    ctx->lock.lock();
-    ctx->blockedBy = self;
-    ctx->lock.unlock();
-    monitorExit(ctx, self);
-
-    ctx->suspended = true;
-    auto monitor = (jmonitor) self->monitor;
-    {
-        std::unique_lock<std::mutex> lock(monitor->conditionMutex);
-        monitor->condition.wait_for(lock, std::chrono::milliseconds(millis) + std::chrono::nanoseconds(nanos));
-    }
-    ctx->suspended = false;
-    SAFEPOINT();
-
-    monitorEnter(ctx, self);
-    ctx->lock.lock();
-    ctx->blockedBy = nullptr;
-    ctx->lock.unlock();
-    interruptedCheck(ctx);
+    waitOnMonitor(ctx, self, millis, nanos);
 }
 
 static void *vtable_java_lang_Object[] {
@@ -14,6 +14,10 @@
 #include <asmjit/x86.h>
 #include <asmjit/a64.h>
 
+#if USE_CPP_EXCEPTIONS
+#include <ffi.h>
+#endif
+
 using namespace asmjit;
 
 struct ProxyClass {
@@ -46,39 +50,57 @@ static TypeId mapType(jclass type) {
 }
 
 static jobject setByteArg(jcontext ctx, jarray args, int index, jbyte value) {
-    return ((jobject *)args->data)[index] = boxByte(ctx, value);
+    auto boxed = ((jobject *)args->data)[index] = boxByte(ctx, value);
+    writeBarrier((jobject) args, boxed);
+    return boxed;
 }
 
 static jobject setCharacterArg(jcontext ctx, jarray args, int index, jchar value) {
-    return ((jobject *)args->data)[index] = boxCharacter(ctx, value);
+    auto boxed = ((jobject *)args->data)[index] = boxCharacter(ctx, value);
+    writeBarrier((jobject) args, boxed);
+    return boxed;
 }
 
 static jobject addShortArg(jcontext ctx, jarray args, int index, jshort value) {
-    return ((jobject *)args->data)[index] = boxShort(ctx, value);
+    auto boxed = ((jobject *)args->data)[index] = boxShort(ctx, value);
+    writeBarrier((jobject) args, boxed);
+    return boxed;
 }
 
 static jobject setIntegerArg(jcontext ctx, jarray args, int index, jint value) {
-    return ((jobject *)args->data)[index] = boxInteger(ctx, value);
+    auto boxed = ((jobject *)args->data)[index] = boxInteger(ctx, value);
+    writeBarrier((jobject) args, boxed);
+    return boxed;
 }
 
 static jobject setLongArg(jcontext ctx, jarray args, int index, jlong value) {
-    return ((jobject *)args->data)[index] = boxLong(ctx, value);
+    auto boxed = ((jobject *)args->data)[index] = boxLong(ctx, value);
+    writeBarrier((jobject) args, boxed);
+    return boxed;
 }
 
 static jobject setFloatArg(jcontext ctx, jarray args, int index, jfloat value) {
-    return ((jobject *)args->data)[index] = boxFloat(ctx, value);
+    auto boxed = ((jobject *)args->data)[index] = boxFloat(ctx, value);
+    writeBarrier((jobject) args, boxed);
+    return boxed;
 }
 
 static jobject setDoubleArg(jcontext ctx, jarray args, int index, jdouble value) {
-    return ((jobject *)args->data)[index] = boxDouble(ctx, value);
+    auto boxed = ((jobject *)args->data)[index] = boxDouble(ctx, value);
+    writeBarrier((jobject) args, boxed);
+    return boxed;
 }
 
 static jobject setBooleanArg(jcontext ctx, jarray args, int index, jbool value) {
-    return ((jobject *)args->data)[index] = boxBoolean(ctx, value);
+    auto boxed = ((jobject *)args->data)[index] = boxBoolean(ctx, value);
+    writeBarrier((jobject) args, boxed);
+    return boxed;
 }
 
 static jobject setObjectArg(jcontext ctx, jarray args, int index, jobject value) {
-    return ((jobject *)args->data)[index] = value;
+    auto boxed = ((jobject *)args->data)[index] = value;
+    writeBarrier((jobject) args, boxed);
+    return boxed;
 }
 
 static void *getSetArgFunc(jclass type) {
@@ -128,13 +150,98 @@ static jarray createArgArray(jcontext ctx, int size) {
 static jobject invoke(jcontext ctx, jobject self, jarray args, int methodIndex) {
     auto proxy = (java_lang_reflect_Proxy *)NULL_CHECK(self);
     auto method = ((jobject *)((jarray)((jclass)self->clazz)->methods)->data)[methodIndex];
-    jobject ret = INVOKE_INTERFACE(java_lang_reflect_InvocationHandler, invoke_java_lang_Object_java_lang_reflect_Method_Array1_java_lang_Object_R_java_lang_Object, (jobject)proxy->F_h, self, method, (jobject)args);
-    unprotectObject((jobject)args);
+    jobject ret{};
+    tryFinally(ctx, "Proxy.invoke", [&]{
+        ret = INVOKE_INTERFACE(java_lang_reflect_InvocationHandler, invoke_java_lang_Object_java_lang_reflect_Method_Array1_java_lang_Object_R_java_lang_Object, (jobject)proxy->F_h, self, method, (jobject)args);
+    }, [&]{
+        unprotectObject((jobject)args);
+    });
     return ret;
 }
 
+#if USE_CPP_EXCEPTIONS
+
+struct ProxyClosure {
+    ffi_cif cif{};
+    std::vector<ffi_type *> argTypes;
+    std::vector<jclass> paramTypes;
+    jclass returnType;
+    int methodIndex;
+};
+
+static ffi_type *typeToFFI(jclass type) {
+    if (type == &class_byte) return &ffi_type_sint8;
+    else if (type == &class_short) return &ffi_type_sint16;
+    else if (type == &class_char) return &ffi_type_uint16;
+    else if (type == &class_int) return &ffi_type_sint32;
+    else if (type == &class_long) return &ffi_type_sint64;
+    else if (type == &class_float) return &ffi_type_float;
+    else if (type == &class_double) return &ffi_type_double;
+    else if (type == &class_boolean) return &ffi_type_uint8;
+    else if (type == &class_void) return &ffi_type_void;
+    else return &ffi_type_pointer;
+}
+
+/// Handles a call to a proxy method through a libFFI closure, which unlike JIT functions has unwind tables, so exceptions
+/// thrown by the invocation handler can propagate to the caller. Throws exceptions.
+static void invokeClosure(ffi_cif *cif, void *ret, void **values, void *userData) {
+    auto closure = (ProxyClosure *) userData;
+    auto ctx = *(jcontext *) values[0];
+    auto self = *(jobject *) values[1];
+    auto args = createArgArray(ctx, (int) closure->paramTypes.size());
+    for (int i = 0; i < (int) closure->paramTypes.size(); i++) {
+        auto type = closure->paramTypes[i];
+        auto value = values[i + 2];
+        if (type == &class_boolean) setBooleanArg(ctx, args, i, *(jbool *) value);
+        else if (type == &class_byte) setByteArg(ctx, args, i, *(jbyte *) value);
+        else if (type == &class_short) addShortArg(ctx, args, i, *(jshort *) value);
+        else if (type == &class_char) setCharacterArg(ctx, args, i, *(jchar *) value);
+        else if (type == &class_int) setIntegerArg(ctx, args, i, *(jint *) value);
+        else if (type == &class_long) setLongArg(ctx, args, i, *(jlong *) value);
+        else if (type == &class_float) setFloatArg(ctx, args, i, *(jfloat *) value);
+        else if (type == &class_double) setDoubleArg(ctx, args, i, *(jdouble *) value);
+        else setObjectArg(ctx, args, i, *(jobject *) value);
+    }
+
+    auto result = invoke(ctx, self, args, closure->methodIndex);
+
+    // Integral return values narrower than a register are widened, as libFFI requires
+    auto type = closure->returnType;
+    if (type == &class_void) return;
+    else if (type == &class_boolean) *(ffi_arg *) ret = unboxBoolean(ctx, result);
+    else if (type == &class_byte) *(ffi_sarg *) ret = unboxByte(ctx, result);
+    else if (type == &class_short) *(ffi_sarg *) ret = unboxShort(ctx, result);
+    else if (type == &class_char) *(ffi_arg *) ret = unboxCharacter(ctx, result);
+    else if (type == &class_int) *(ffi_sarg *) ret = unboxInteger(ctx, result);
+    else if (type == &class_long) *(jlong *) ret = unboxLong(ctx, result);
+    else if (type == &class_float) *(jfloat *) ret = unboxFloat(ctx, result);
+    else if (type == &class_double) *(jdouble *) ret = unboxDouble(ctx, result);
+    else *(jobject *) ret = result;
+}
+
+#endif
+
 static void *createProxyFunc(jclass *proxyArgTypes, int proxyArgCount, jclass retType, int methodIndex) {
-#ifdef ASMJIT_NO_JIT
+#if USE_CPP_EXCEPTIONS
+    // JIT functions have no unwind tables, so C++ exceptions can't propagate through them
+    auto closure = new ProxyClosure{ .returnType = retType, .methodIndex = methodIndex };
+    closure->argTypes.push_back(&ffi_type_pointer);
+    closure->argTypes.push_back(&ffi_type_pointer);
+    for (int i = 0; i < proxyArgCount; i++) {
+        closure->paramTypes.push_back(proxyArgTypes[i]);
+        closure->argTypes.push_back(typeToFFI(proxyArgTypes[i]));
+    }
+    void *func;
+    auto ffiClosure = (ffi_closure *) ffi_closure_alloc(sizeof(ffi_closure), &func);
+    if (!ffiClosure || ffi_prep_cif(&closure->cif, FFI_DEFAULT_ABI, (int) closure->argTypes.size(), typeToFFI(retType), closure->argTypes.data()) != FFI_OK
+        || ffi_prep_closure_loc(ffiClosure, &closure->cif, invokeClosure, closure, func) != FFI_OK) {
+        if (ffiClosure)
+            ffi_closure_free(ffiClosure);
+        delete closure;
+        return nullptr;
+    }
+    return func;
+#elif defined(ASMJIT_NO_JIT)
     return nullptr;
 #else
     static JitRuntime rt;
@@ -341,3 +448,10 @@ jobject SM_java_lang_reflect_Proxy_getProxyClass_java_lang_ClassLoader_Array1_ja
 
     return (jobject)proxy->cls;
 }
+
+jobject SM_java_lang_reflect_Proxy_newInstance_java_lang_Class_java_lang_reflect_InvocationHandler_R_java_lang_reflect_Proxy(jcontext ctx, jobject proxyClass, jobject handler) {
+    M_java_lang_Class_ensureInitialized(ctx, NULL_CHECK(proxyClass));
+    auto proxy = gcAlloc(ctx, (jclass) proxyClass);
+    STORE_FIELD_REFERENCE(java_lang_reflect_Proxy, proxy, F_h, handler);
+    return proxy;
+}
@@ -0,0 +1,116 @@
+#include "java/io/RandomAccessFile.h"
+#include "java/io/FileNotFoundException.h"
+#include "java/nio/channels/FileChannel.h"
+
+#include <cerrno>
+#include <cstring>
+#include <fcntl.h>
+#include <sys/stat.h>
+#include <unistd.h>
+
+#ifndef O_BINARY
+#define O_BINARY 0
+#endif
+
+static int getFd(jcontext ctx, jobject self) {
+    auto fd = ((java_io_RandomAccessFile *) NULL_CHECK(self))->F_fd;
+    if (fd < 0)
+        throwIOException(ctx, "File closed");
+    return fd;
+}
+
+extern "C" {
+
+void M_java_io_RandomAccessFile_open_java_lang_String_boolean_boolean(jcontext ctx, jobject self, jobject nameObj, jbool writable, jbool sync) {
+    auto file = (java_io_RandomAccessFile *) NULL_CHECK(self);
+    auto name = stringToNative(ctx, (jstring) NULL_CHECK(nameObj));
+    int flags = O_BINARY | (writable ? O_RDWR | O_CREAT : O_RDONLY);
+#ifdef O_SYNC
+    if (sync)
+        flags |= O_SYNC;
+#endif
+    auto fd = open(name, flags, 0666);
+    if (fd < 0)
+        constructAndThrowMsg<&class_java_io_FileNotFoundException, init_java_io_FileNotFoundException_java_lang_String>(ctx, strerror(errno));
+    file->F_fd = fd;
+}
+
+jint M_java_io_RandomAccessFile_read_R_int(jcontext ctx, jobject self) {
+    unsigned char value;
+    auto count = read(getFd(ctx, self), &value, 1);
+    if (count < 0)
+        throwIOException(ctx, strerror(errno));
+    return count ? value : -1;
+}
+
+jint M_java_io_RandomAccessFile_readBytes_Array1_byte_int_int_R_int(jcontext ctx, jobject self, jobject bytes, jint off, jint len) {
+    auto fd = getFd(ctx, self);
+    auto array = (jarray) NULL_CHECK(bytes);
+    auto count = read(fd, (char *) array->data + off, len);
+    if (count < 0)
+        throwIOException(ctx, strerror(errno));
+    return count ? (jint) count : -1;
+}
+
+void M_java_io_RandomAccessFile_write_int(jcontext ctx, jobject self, jint b) {
+    auto value = (unsigned char) b;
+    if (write(getFd(ctx, self), &value, 1) != 1)
+        throwIOException(ctx, strerror(errno));
+}
+
+void M_java_io_RandomAccessFile_writeBytes_Array1_byte_int_int(jcontext ctx, jobject self, jobject bytes, jint off, jint len) {
+    auto fd = getFd(ctx, self);
+    auto data = (char *) ((jarray) NULL_CHECK(bytes))->data + off;
+    while (len > 0) {
+        auto count = write(fd, data, len);
+        if (count < 0)
+            throwIOException(ctx, strerror(errno));
+        data += count;
+        len -= (jint) count;
+    }
+}
+
+jlong M_java_io_RandomAccessFile_getFilePointer_R_long(jcontext ctx, jobject self) {
+    auto pos = lseek(getFd(ctx, self), 0, SEEK_CUR);
+    if (pos < 0)
+        throwIOException(ctx, strerror(errno));
+    return pos;
+}
+
+void M_java_io_RandomAccessFile_seek0_long(jcontext ctx, jobject self, jlong pos) {
+    if (lseek(getFd(ctx, self), (off_t) pos, SEEK_SET) < 0)
+        throwIOException(ctx, strerror(errno));
+}
+
+jlong M_java_io_RandomAccessFile_length_R_long(jcontext ctx, jobject self) {
+    struct stat info{};
+    if (fstat(getFd(ctx, self), &info))
+        throwIOException(ctx, strerror(errno));
+    return info.st_size;
+}
+
+void M_java_io_RandomAccessFile_setLength_long(jcontext ctx, jobject self, jlong newLength) {
+    auto fd = getFd(ctx, self);
+    auto pos = lseek(fd, 0, SEEK_CUR);
+    if (ftruncate(fd, (off_t) newLength))
+        throwIOException(ctx, strerror(errno));
+    if (pos > newLength)
+        lseek(fd, (off_t) newLength, SEEK_SET);
+}
+
+jobject M_java_io_RandomAccessFile_openChannel_R_java_nio_channels_FileChannel(jcontext ctx, jobject self) {
+    auto file = (java_io_RandomAccessFile *) NULL_CHECK(self);
+    return constructObject<&class_java_nio_channels_FileChannel, init_java_nio_channels_FileChannel_int_boolean_boolean_java_io_Closeable>(ctx, file->F_fd, true, file->F_writable, self);
+}
+
+void M_java_io_RandomAccessFile_close0(jcontext ctx, jobject self) {
+    auto file = (java_io_RandomAccessFile *) NULL_CHECK(self);
+    if (file->F_fd < 0)
+        return;
+    auto fd = file->F_fd;
+    file->F_fd = -1;
+    if (close(fd))
+        throwIOException(ctx, strerror(errno));
+}
+
+}
@@ -0,0 +1,22 @@
+#include "java/lang/ref/Reference.h"
+
+extern "C" {
+
+void M_java_lang_ref_Reference_initReferent_java_lang_Object(jcontext ctx, jobject self, jobject referent) {
+    ((java_lang_ref_Reference *) self)->F_referent = (jlong) referent;
+    registerReference(self);
+}
+
+void M_java_lang_ref_Reference_clear(jcontext ctx, jobject self) {
+    ((java_lang_ref_Reference *) NULL_CHECK(self))->F_referent = 0;
+}
+
+jobject M_java_lang_ref_Reference_get_R_java_lang_Object(jcontext ctx, jobject self) {
+    return (jobject) ((java_lang_ref_Reference *) NULL_CHECK(self))->F_referent;
+}
+
+jbool M_java_lang_ref_Reference_refersTo_java_lang_Object_R_boolean(jcontext ctx, jobject self, jobject object) {
+    return (jobject) ((java_lang_ref_Reference *) NULL_CHECK(self))->F_referent == object;
+}
+
+}
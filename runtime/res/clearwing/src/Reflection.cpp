@@ -18,9 +18,10 @@ void SM_java_lang_reflect_Array_set_java_lang_Object_int_java_lang_Object(jconte
     if (index >= array->length or index < 0)
         throwIndexOutOfBounds(ctx);
     auto clazz = (jclass)((jclass) arrayObj->clazz)->componentClass;
-    if (!clazz->primitive)
+    if (!clazz->primitive) {
         ((jobject *) array->data)[index] = value;
-    else if (clazz == &class_byte)
+        writeBarrier(arrayObj, value);
+    } else if (clazz == &class_byte)
         ((jbyte *) array->data)[index] = unboxByte(ctx, value);
     else if (clazz == &class_short)
         ((jshort *) array->data)[index] = unboxShort(ctx, value);
@@ -102,8 +103,11 @@ void M_java_lang_reflect_Field_set_java_lang_Object_java_lang_Object(jcontext ct
         NULL_CHECK(object);
     auto ptr = isStatic ? (char *) field->F_offset : ((char *) object) + field->F_offset;
     auto fieldClass = (jclass) field->F_type;
-    if (!fieldClass->primitive) *(jobject *) ptr = value;
-    else if (fieldClass == &class_byte) *(jbyte *) ptr = unboxByte(ctx, value);
+    if (!fieldClass->primitive) {
+        *(jobject *) ptr = value;
+        if (!isStatic)
+            writeBarrier(object, value);
+    } else if (fieldClass == &class_byte) *(jbyte *) ptr = unboxByte(ctx, value);
     else if (fieldClass == &class_short) *(jshort *) ptr = unboxShort(ctx, value);
     else if (fieldClass == &class_char) *(jchar *) ptr = unboxCharacter(ctx, value);
     else if (fieldClass == &class_int) *(jint *) ptr = unboxInteger(ctx, value);
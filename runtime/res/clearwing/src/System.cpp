@@ -23,12 +23,19 @@ void SM_java_lang_System_arraycopy_java_lang_Object_int_java_lang_Object_int_int
         memmove((char *) dstArray->data + dstOffset * size, (char *) srcArray->data + srcOffset * size, length * size);
     else
         memcpy((char *) dstArray->data + dstOffset * size, (char *) srcArray->data + srcOffset * size, length * size);
+    if (!dstType->primitive)
+        for (int i = 0; i < length; i++)
+            writeBarrier(dst, ((jobject *) dstArray->data)[dstOffset + i]);
 }
 
 jlong SM_java_lang_System_currentTimeMillis_R_long(jcontext ctx) {
     return std::chrono::duration_cast<std::chrono::milliseconds>(std::chrono::system_clock::now().time_since_epoch()).count();
 }
 
+jlong SM_java_lang_System_nanoTime_R_long(jcontext ctx) {
+    return getMonotonicNanos();
+}
+
 void SM_java_lang_System_exit0_int(jcontext ctx, jint code) {
     exitVM(ctx, code);
 }
@@ -6,6 +6,7 @@
 #include "java/lang/String.h"
 #include "java/lang/Object.h"
 #include "java/lang/Throwable.h"
+#include "java/util/concurrent/locks/LockSupport.h"
 
 extern "C" {
 
@@ -15,12 +16,9 @@ void threadEntrypoint(jcontext ctx, jthread thread) {
         FrameInfo frameInfo { "java/lang/Thread:threadEntrypoint", 1 };
         auto frameRef = pushStackFrame(ctx, &frameInfo, frame);
 
-        thread->F_started = true;
-        thread->F_alive = true;
-
         tryCatch(frameRef, [&]{
             if (thread->F_entrypoint) {
-                frame[0].o = (jobject) createArray(ctx, &class_java_lang_String, 0);
+                frame[0].o = (jobject) createProgramArguments(ctx);
                 ((main_ptr) thread->F_entrypoint)(ctx, frame[0].o);
             }
             else
@@ -38,9 +36,21 @@ void threadEntrypoint(jcontext ctx, jthread thread) {
         popStackFrame(ctx);
     } catch (ExitException &) { }
 
+    // Cleared while the thread still counts as running, since a collection reads the table while the thread is suspended
+    ctx->threadLocals.clear();
+
+    // Wake joining threads, holding the monitor so the notification can't be missed between their check and wait
+    try {
+        if (!isExiting()) {
+            monitorEnter(ctx, (jobject) thread);
+            thread->F_alive = false;
+            M_java_lang_Object_notifyAll(ctx, (jobject) thread);
+            monitorExit(ctx, (jobject) thread);
+        }
+    } catch (ExitException &) { }
     thread->F_alive = false;
-    ctx->suspended = true;
     ctx->dead = true;
+    enterSafeRegion(ctx);
 
     unprotectObject((jobject)thread);
 }
@@ -50,16 +60,13 @@ jobject SM_java_lang_Thread_currentThread_R_java_lang_Thread(jcontext ctx) {
 }
 
 void SM_java_lang_Thread_sleepImpl_long_int(jcontext ctx, jlong millis, jint nanos) {
-    auto end = std::chrono::system_clock::now() + std::chrono::milliseconds(millis) + std::chrono::nanoseconds(nanos);
+    auto end = timeoutDeadline(millis, nanos);
     interruptedCheck(ctx);
     auto thread = (jobject) ctx->thread;
-    while (std::chrono::system_clock::now() < end) {
-        auto remaining = end - std::chrono::system_clock::now();
-        auto remainingNanos = duration_cast<std::chrono::nanoseconds>(remaining);
-        auto remainingMillis = std::chrono::round<std::chrono::milliseconds>(remaining);
-        remainingNanos -= remainingMillis;
+    for (auto now = std::chrono::steady_clock::now(); now < end; now = std::chrono::steady_clock::now()) {
+        auto remaining = std::chrono::duration_cast<std::chrono::nanoseconds>(end - now).count();
         monitorEnter(ctx, thread);
-        M_java_lang_Object_wait_long_int(ctx, thread, remainingMillis.count(), (int) remainingNanos.count());
+        M_java_lang_Object_wait_long_int(ctx, thread, remaining / 1000000, (jint) (remaining % 1000000));
         monitorExit(ctx, thread);
         interruptedCheck(ctx);
     }
@@ -69,6 +76,8 @@ void M_java_lang_Thread_start(jcontext ctx, jobject self) {
     auto newContext = createContext();
     auto thread = (jthread) self;
     protectObject((jobject)thread);
+    thread->F_started = true;
+    thread->F_alive = true; // Set before the thread runs, so joining right after starting waits for it
     thread->F_nativeContext = (intptr_t) newContext;
     newContext->thread = thread;
     newContext->nativeThread = new std::thread;
@@ -80,8 +89,9 @@ void M_java_lang_Thread_interrupt(jcontext ctx, jobject self) {
     threadCtx->lock.lock();
     threadCtx->thread->F_interrupted = true;
     if (threadCtx->blockedBy)
-        ((jmonitor) ((jobject) threadCtx->blockedBy)->monitor)->condition.notify_all();
+        inflateMonitor(threadCtx->blockedBy)->condition.notify_all();
     threadCtx->lock.unlock();
+    SM_java_util_concurrent_locks_LockSupport_unparkImpl_java_lang_Thread(ctx, self); // Parking returns on interrupt
 }
 
 void M_java_lang_Thread_finalize(jcontext ctx, jobject selfObj) {
@@ -107,7 +117,9 @@ jobject M_java_lang_Thread_getStackTrace_R_Array1_java_lang_StackTraceElement(jc
         frame[1].o = (jobject)stringFromNative(ctx, separator != std::string_view::npos ? method.substr(0, separator) : "Unknown");
         frame[2].o = (jobject)stringFromNative(ctx, separator != std::string_view::npos ? method.substr(separator + 1) : "unknown");
         frame[3].o = frame[1].o;
-        ((jobject *)trace->data)[ctx->stackDepth - 1 - i] = constructObject<&class_java_lang_StackTraceElement, init_java_lang_StackTraceElement_java_lang_String_java_lang_String_java_lang_String_int>(ctx, frame[1].o, frame[2].o, frame[3].o, stackFrame->lineNumber);
+        auto element = constructObject<&class_java_lang_StackTraceElement, init_java_lang_StackTraceElement_java_lang_String_java_lang_String_java_lang_String_int>(ctx, frame[1].o, frame[2].o, frame[3].o, stackFrame->lineNumber);
+        ((jobject *)trace->data)[ctx->stackDepth - 1 - i] = element;
+        writeBarrier((jobject) trace, element);
     }
 
     popStackFrame(ctx);
@@ -0,0 +1,26 @@
+#include "java/lang/ThreadLocal.h"
+
+extern "C" {
+
+jobject M_java_lang_ThreadLocal_getImpl_java_lang_Object_R_java_lang_Object(jcontext ctx, jobject self, jobject absent) {
+    auto threadLocal = (java_lang_ThreadLocal *) self;
+    if (threadLocal->F_index >= (jint) ctx->threadLocals.size())
+        return absent;
+    auto &entry = ctx->threadLocals[threadLocal->F_index];
+    return entry.id == threadLocal->F_id ? entry.value : absent;
+}
+
+void M_java_lang_ThreadLocal_setImpl_java_lang_Object(jcontext ctx, jobject self, jobject value) {
+    auto threadLocal = (java_lang_ThreadLocal *) self;
+    if (threadLocal->F_index >= (jint) ctx->threadLocals.size())
+        ctx->threadLocals.resize(std::max(16, (int) std::bit_ceil((unsigned) threadLocal->F_index + 1)));
+    ctx->threadLocals[threadLocal->F_index] = { self, threadLocal->F_id, value };
+}
+
+void M_java_lang_ThreadLocal_removeImpl(jcontext ctx, jobject self) {
+    auto threadLocal = (java_lang_ThreadLocal *) self;
+    if (threadLocal->F_index < (jint) ctx->threadLocals.size() and ctx->threadLocals[threadLocal->F_index].id == threadLocal->F_id)
+        ctx->threadLocals[threadLocal->F_index] = {};
+}
+
+}
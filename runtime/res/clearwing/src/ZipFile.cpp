@@ -15,6 +15,7 @@ jlong SM_java_util_zip_ZipFile_open_java_lang_String_java_util_ArrayList_R_long(
     while (zzip_dir_read(zip, &dirent)) {
         auto entry = (java_util_zip_ZipEntry *) gcAllocProtected(ctx, &class_java_util_zip_ZipEntry);
         entry->F_name = (jref) stringFromNative(ctx, dirent.d_name); // Stored on protected object
+        writeBarrier((jobject) entry, (jobject) entry->F_name);
         entry->F_csize = dirent.d_csize;
         entry->F_size = dirent.st_size;
         entry->F_method = dirent.d_compr;
@@ -46,7 +46,7 @@ import java.nio.channels.FileChannel;
 public
 class FileInputStream extends InputStream
 {
-	private long file;
+	private int fd = -1;
 
 	/**
 	 * The path of the referenced file
@@ -57,6 +57,8 @@ class FileInputStream extends InputStream
 	private final Object closeLock = new Object();
 	private volatile boolean closed = true;
 
+	private FileChannel channel;
+
 	/**
 	 * Creates a <code>FileInputStream</code> by
 	 * opening a connection to an actual file,
@@ -255,11 +257,19 @@ class FileInputStream extends InputStream
 				return;
 			closed = true;
 		}
+		if (channel != null)
+			channel.close();
 		close0();
 	}
 
+	private native FileChannel openChannel();
+
 	public FileChannel getChannel() {
-		return null;
+		synchronized (this) {
+			if (channel == null)
+				channel = openChannel();
+			return channel;
+		}
 	}
 
 	private native void close0() throws IOException;
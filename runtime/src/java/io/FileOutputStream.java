@@ -51,7 +51,7 @@ import java.nio.channels.FileChannel;
 public
 class FileOutputStream extends OutputStream
 {
-	private long file;
+	private int fd = -1;
 
 	/**
 	 * True if the file is opened for append.
@@ -67,6 +67,8 @@ class FileOutputStream extends OutputStream
 	private final Object closeLock = new Object();
 	private volatile boolean closed = false;
 
+	private FileChannel channel;
+
 	/**
 	 * Creates a file output stream to write to the file with the
 	 * specified name. A new <code>FileDescriptor</code> object is
@@ -279,11 +281,19 @@ class FileOutputStream extends OutputStream
 			closed = true;
 		}
 
+		if (channel != null)
+			channel.close();
 		close0();
 	}
 
+	private native FileChannel openChannel();
+
 	public FileChannel getChannel() {
-		return null;
+		synchronized (this) {
+			if (channel == null)
+				channel = openChannel();
+			return channel;
+		}
 	}
 
 	/**
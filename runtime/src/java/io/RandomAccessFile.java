@@ -2,18 +2,140 @@ package java.io;
 
 import java.nio.channels.FileChannel;
 
+/**
+ * A file opened with a native file descriptor supporting random access reads and writes
+ */
 public class RandomAccessFile implements Closeable {
 
-	public RandomAccessFile (File file, String mode) {
-		throw new UnsupportedOperationException();
+	private int fd = -1;
+
+	private final String path;
+	private final boolean writable;
+
+	private final Object closeLock = new Object();
+	private volatile boolean closed = true;
+
+	private FileChannel channel;
+
+	public RandomAccessFile (String name, String mode) throws FileNotFoundException {
+		this(name != null ? new File(name) : null, mode);
+	}
+
+	public RandomAccessFile (File file, String mode) throws FileNotFoundException {
+		String name = (file != null ? file.getPath() : null);
+		boolean sync = false;
+		if (mode.equals("r"))
+			writable = false;
+		else if (mode.equals("rw"))
+			writable = true;
+		else if (mode.equals("rws") || mode.equals("rwd")) {
+			writable = true;
+			sync = true;
+		} else
+			throw new IllegalArgumentException("Illegal mode \"" + mode + "\" must be one of \"r\", \"rw\", \"rws\", or \"rwd\"");
+		if (name == null)
+			throw new NullPointerException();
+		if (file.isInvalid())
+			throw new FileNotFoundException("Invalid file path");
+		path = name;
+		open(name, writable, sync);
+		closed = false;
+	}
+
+	private native void open (String name, boolean writable, boolean sync) throws FileNotFoundException;
+
+	public native int read () throws IOException;
+
+	private native int readBytes (byte[] b, int off, int len) throws IOException;
+
+	public int read (byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || len > b.length - off)
+			throw new IndexOutOfBoundsException();
+		if (len == 0)
+			return 0;
+		return readBytes(b, off, len);
+	}
+
+	public int read (byte[] b) throws IOException {
+		return read(b, 0, b.length);
+	}
+
+	public final void readFully (byte[] b) throws IOException {
+		readFully(b, 0, b.length);
+	}
+
+	public final void readFully (byte[] b, int off, int len) throws IOException {
+		int n = 0;
+		while (n < len) {
+			int count = read(b, off + n, len - n);
+			if (count < 0)
+				throw new EOFException();
+			n += count;
+		}
 	}
 
-	public final FileChannel getChannel() {
-		return null;
+	public int skipBytes (int n) throws IOException {
+		if (n <= 0)
+			return 0;
+		long pos = getFilePointer();
+		long newPos = Math.min(pos + n, length());
+		seek(newPos);
+		return (int) (newPos - pos);
+	}
+
+	public native void write (int b) throws IOException;
+
+	private native void writeBytes (byte[] b, int off, int len) throws IOException;
+
+	public void write (byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || len > b.length - off)
+			throw new IndexOutOfBoundsException();
+		writeBytes(b, off, len);
+	}
+
+	public void write (byte[] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	public native long getFilePointer () throws IOException;
+
+	private native void seek0 (long pos) throws IOException;
+
+	public void seek (long pos) throws IOException {
+		if (pos < 0)
+			throw new IOException("Negative seek offset");
+		seek0(pos);
+	}
+
+	public native long length () throws IOException;
+
+	public native void setLength (long newLength) throws IOException;
+
+	private native FileChannel openChannel ();
+
+	public final FileChannel getChannel () {
+		synchronized (this) {
+			if (channel == null)
+				channel = openChannel();
+			return channel;
+		}
 	}
 
 	@Override
 	public void close () throws IOException {
+		synchronized (closeLock) {
+			if (closed)
+				return;
+			closed = true;
+		}
+		if (channel != null)
+			channel.close();
+		close0();
+	}
+
+	private native void close0 () throws IOException;
 
+	protected void finalize () throws IOException {
+		close();
 	}
 }
@@ -63,7 +63,13 @@ public final class Class<T> implements java.lang.reflect.Type {
     private long nativeVtableEntries;
     private boolean anonymous;
     private boolean synthetic;
-    private long instanceOfCache;
+    private int hierarchyDepth;
+    private long superDisplay;
+    private int interfaceId;
+    private int interfaceBitsetSize;
+    private long interfaceBitset;
+    private boolean finalizable;
+    private long interfaceTables;
 
     // Lazy-init fields start here
     private boolean initialized;
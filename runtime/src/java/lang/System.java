@@ -113,9 +113,11 @@ public final class System {
      */
     public static native int identityHashCode(java.lang.Object x);
 
-    public static long nanoTime() {
-        return currentTimeMillis() * 1000000;
-    }
+    /**
+     * Returns the value of a monotonic high-resolution clock in nanoseconds, for measuring elapsed time.
+     * The origin is arbitrary, so values are only meaningful when compared with each other.
+     */
+    public static native long nanoTime();
     
     public static SecurityManager getSecurityManager() {
         return null;
@@ -58,6 +58,7 @@ public class Thread implements java.lang.Runnable{
     private long entrypoint;
     private static volatile int activeThreads;
     private volatile boolean interrupted;
+    private volatile Object parkBlocker;
     private long id;
     private volatile boolean started;
     private long nativeContext;
@@ -191,10 +192,10 @@ public class Thread implements java.lang.Runnable{
             return;
         }
         long delay = millis;
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         do {
             wait(delay);
-        } while (alive && (delay = millis - (System.currentTimeMillis() - start)) > 0);
+        } while (alive && (delay = millis - (System.nanoTime() - start) / 1000000) > 0);
     }
 
     public final void join(long millis, int nanos) throws java.lang.InterruptedException {
@@ -5,49 +5,73 @@
  */
 package java.lang;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-
 /**
+ * Thread local values are stored in a native table on each thread, indexed by a slot assigned to each ThreadLocal
+ * instance, so accesses don't need locking. Entries hold their ThreadLocal weakly and the GC only keeps a value alive
+ * while its ThreadLocal is reachable, so a value that references its own ThreadLocal doesn't keep either alive. Entries
+ * of collected ThreadLocals are cleared by the GC in every thread before the slot is recycled, and each entry also
+ * records the unique ID of the ThreadLocal that set it, so a recycled slot never returns a stale value. Tables are
+ * cleared when their thread exits.
  *
  * @author shannah
  */
 public class ThreadLocal<T> extends Object {
 
-    private Map<Thread,T> value = new HashMap<Thread,T>();
-    private Set<Thread> _initialized = new HashSet<Thread>();
+    private static final Object lock = new Object();
+    private static final Object absent = new Object();
+    private static long nextId = 1;
+    private static int nextIndex;
+    private static int[] freeIndices = new int[16];
+    private static int freeCount;
+
+    private final long id;
+    private final int index;
 
     public ThreadLocal() {
         super();
+        synchronized (lock) {
+            id = nextId++;
+            index = freeCount > 0 ? freeIndices[--freeCount] : nextIndex++;
+        }
     }
 
     protected T initialValue() {
         return null;
     }
 
-    public synchronized T get() {
-        Thread t = Thread.currentThread();
-        if (!_initialized.contains(t)) {
-            _initialized.add(t);
-            value.put(t, initialValue());
-        }
-        return value.get(t);
-        
-        
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Object value = getImpl(absent);
+        if (value != absent)
+            return (T) value;
+        T initial = initialValue();
+        setImpl(initial);
+        return initial;
+    }
+
+    public void set(T value) {
+        setImpl(value);
     }
 
-    public synchronized void set(T value) {
-        Thread t = Thread.currentThread();
-        
-        _initialized.add(t);
-        this.value.put(t, value);
+    public void remove() {
+        removeImpl();
     }
 
-    public synchronized void remove() {
-        Thread t = Thread.currentThread();
-        _initialized.remove(t);
-        value.remove(t);
+    private native Object getImpl(Object absent);
+
+    private native void setImpl(Object value);
+
+    private native void removeImpl();
+
+    @Override
+    protected void finalize() throws Throwable {
+        synchronized (lock) {
+            if (freeCount == freeIndices.length) {
+                int[] newIndices = new int[freeCount * 2];
+                System.arraycopy(freeIndices, 0, newIndices, 0, freeCount);
+                freeIndices = newIndices;
+            }
+            freeIndices[freeCount++] = index;
+        }
     }
 }
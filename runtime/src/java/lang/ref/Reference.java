@@ -24,18 +24,58 @@
 package java.lang.ref;
 /**
  * Abstract base class for reference objects. This class defines the operations common to all reference objects. Because reference objects are implemented in close cooperation with the garbage collector, this class may not be subclassed directly.
+ * The referent is stored as a raw pointer so the GC doesn't trace it. References are registered with the GC on construction,
+ * which clears the referent once it's collected and passes references with queues to the GC thread to be enqueued.
  * Since: JDK1.2, CLDC 1.1
  */
 public abstract class Reference<T>{
+    private long referent;
+    private final boolean soft;
+    volatile ReferenceQueue<? super T> queue;
+    Reference<?> queueNext;
+    boolean enqueued;
+
+    Reference(T referent, ReferenceQueue<? super T> queue, boolean soft) {
+        this.queue = queue;
+        this.soft = soft;
+        initReferent(referent);
+    }
+
+    /**
+     * Stores the referent and registers this reference with the GC
+     */
+    private native void initReferent(Object referent);
+
     /**
      * Clears this reference object.
      */
-    public abstract void clear();
+    public native void clear();
 
     /**
      * Returns this reference object's referent. If this reference object has been cleared, either by the program or by the garbage collector, then this method returns null.
      */
-    public abstract T get();
+    public native T get();
+
+    public final native boolean refersTo(T obj);
 
-    public abstract boolean refersTo(T obj);
+    /**
+     * Tells whether or not this reference object has been enqueued, either by the program or by the garbage collector. If this reference object was not registered with a queue when it was created, then this method will always return false.
+     */
+    public boolean isEnqueued() {
+        ReferenceQueue<? super T> q = queue;
+        if (q == null)
+            return false;
+        synchronized (q) {
+            return enqueued && queue == q;
+        }
+    }
+
+    /**
+     * Clears this reference object and adds it to the queue with which it is registered, if any.
+     */
+    public boolean enqueue() {
+        clear();
+        ReferenceQueue<? super T> q = queue;
+        return q != null && q.enqueue(this);
+    }
 }
@@ -17,8 +17,6 @@
 
 package java.lang.ref;
 
-import java.io.UnsupportedOperationException;
-
 /**
  * The {@code ReferenceQueue} is the container on which reference objects are
  * enqueued when the garbage collector detects the reachability type specified
@@ -46,24 +44,16 @@ public class ReferenceQueue<T> {
      */
     @SuppressWarnings("unchecked")
     public synchronized Reference<? extends T> poll() {
-        return null;
-//        if (head == null) {
-//            return null;
-//        }
-//
-//        Reference<? extends T> ret;
-//
-//        ret = head;
-//
-//        if (head == head.queueNext) {
-//            head = null;
-//        } else {
-//            head = head.queueNext;
-//        }
-//
-//        ret.queueNext = null;
-//
-//        return ret;
+        if (head == null) {
+            return null;
+        }
+
+        Reference<? extends T> ret = head;
+        head = (Reference<? extends T>) ret.queueNext;
+        ret.queueNext = null;
+        ret.queue = null;
+
+        return ret;
     }
 
     /**
@@ -135,31 +125,14 @@ public class ReferenceQueue<T> {
      * @param reference
      *            reference object to be enqueued.
      */
-    synchronized void enqueue(Reference<? extends T> reference) {
-        throw new UnsupportedOperationException();
-//        if (head == null) {
-//            reference.queueNext = reference;
-//        } else {
-//            reference.queueNext = head;
-//        }
-//        head = reference;
-//        notify();
-    }
-
-    /** @hide */
-    public static Reference<?> unenqueued = null;
-
-    static void add(Reference<?> list) {
-        throw new UnsupportedOperationException();
-//        synchronized (ReferenceQueue.class) {
-//            if (unenqueued == null) {
-//                unenqueued = list;
-//            } else {
-//                Reference<?> next = unenqueued.pendingNext;
-//                unenqueued.pendingNext = list.pendingNext;
-//                list.pendingNext = next;
-//            }
-//            ReferenceQueue.class.notifyAll();
-//        }
+    synchronized boolean enqueue(Reference<? extends T> reference) {
+        if (reference.enqueued || reference.queue != this) {
+            return false;
+        }
+        reference.enqueued = true;
+        reference.queueNext = head;
+        head = reference;
+        notifyAll();
+        return true;
     }
 }
@@ -75,7 +75,7 @@ package java.lang.ref;
  * cleared and enqueued until the runtime must reclaim memory to satisfy an
  * allocation.
  */
-public class SoftReference<T> extends WeakReference<T> {
+public class SoftReference<T> extends Reference<T> {
 
     /**
      * Constructs a new soft reference to the given referent. The newly created
@@ -84,7 +84,7 @@ public class SoftReference<T> extends WeakReference<T> {
      * @param r the referent to track
      */
     public SoftReference(T r) {
-        super(r);
+        super(r, null, true);
     }
 
     /**
@@ -97,6 +97,6 @@ public class SoftReference<T> extends WeakReference<T> {
      *          queue.
      */
     public SoftReference(T r, ReferenceQueue<? super T> q) {
-        super(r);
+        super(r, q, true);
     }
 }
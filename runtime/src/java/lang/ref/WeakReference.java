@@ -23,41 +23,23 @@
 
 package java.lang.ref;
 
-// Todo: This is just a placeholder
-
 /**
  * This class provides support for weak references. Weak references are most often used to implement canonicalizing mappings. Suppose that the garbage collector determines at a certain point in time that an object is weakly reachable. At that time it will atomically clear all the weak references to that object and all weak references to any other weakly- reachable objects from which that object is reachable through a chain of strong and weak references.
  * Since: JDK1.2, CLDC 1.1
  */
 public class WeakReference<T> extends java.lang.ref.Reference<T>{
-//    private long reference;
-    private Object reference;
-    
+
     /**
      * Creates a new weak reference that refers to the given object.
      */
     public WeakReference(T ref){
-        reference = ref;
-//         reference = create(ref);
-    }
-
-//    private native long create(T ref);
-
-    @Override
-    public T get() {
-        return (T) reference;
+        super(ref, null, false);
     }
 
-    @Override
-    public void clear() {
-        reference = null;
-    }
-
-    @Override
-    public boolean refersTo(T o) {
-        return o == reference;
+    /**
+     * Creates a new weak reference that refers to the given object and is registered with the given queue.
+     */
+    public WeakReference(T ref, ReferenceQueue<? super T> q){
+        super(ref, q, false);
     }
-
-//    @Override
-//    protected native void finalize() throws Throwable;
 }
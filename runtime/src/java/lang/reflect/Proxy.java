@@ -28,13 +28,17 @@ public class Proxy {
     public static native Class<?> getProxyClass(ClassLoader loader, Class<?>... interfaces) throws IllegalArgumentException;
     
     public static Object newProxyInstance(ClassLoader loader, Class<?>[] interfaces, InvocationHandler h) throws IllegalArgumentException {
-        try {
-            return getProxyClass(loader, interfaces).getConstructor(InvocationHandler.class).newInstance(h);
-        } catch (ReflectiveOperationException | IllegalAccessException e) {
-            return null;
-        }
+        if (h == null)
+            throw new NullPointerException();
+        return newInstance(getProxyClass(loader, interfaces), h);
     }
 
+    /**
+     * Allocates a proxy and sets its handler directly, since the protected constructor can't be looked up through
+     * reflection and is removed by method trimming when nothing else calls it
+     */
+    private static native Proxy newInstance(Class<?> proxyClass, InvocationHandler h);
+
     public static boolean isProxyClass(Class<?> cl) {
         return Proxy.class.isAssignableFrom(cl);
     }
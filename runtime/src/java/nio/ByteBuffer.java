@@ -30,6 +30,7 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	private final ByteBuffer owner;
 	private final byte[] array;
 	private final boolean isOwner;
+	boolean readOnly;
 
 	ByteBuffer (ByteBuffer owner, int mark, int pos, int lim, int cap, int off) {
 		super(mark, pos, lim, cap);
@@ -37,6 +38,7 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 		isOwner = false;
 		address = owner.address + off;
 		array = null;
+		readOnly = owner.readOnly;
 	}
 
 	ByteBuffer (long address, int cap) {
@@ -92,7 +94,9 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer asReadOnlyBuffer () {
-		throw new UnsupportedOperationException();
+		ByteBuffer buffer = duplicate();
+		buffer.readOnly = true;
+		return buffer;
 	}
 
 	public ByteBuffer clear() {
@@ -102,7 +106,15 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 
 	@Override
 	public boolean isReadOnly () {
-		return false;
+		return readOnly;
+	}
+
+	/**
+	 * Checks for writes to read-only buffers and the views of them, since writes to read-only mappings would fault
+	 */
+	final void checkWritable () {
+		if (readOnly)
+			throw new ReadOnlyBufferException();
 	}
 
 	private long ix (int i) {
@@ -122,6 +134,7 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}*/
 
 	public native ByteBuffer put (byte b);/* {
+		checkWritable();
 		NativeUtils.putByte(ix(nextPutIndex()), b);
 		return this;
 	}*/
@@ -131,6 +144,7 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}*/
 
 	public native ByteBuffer put (int index, byte b);/* {
+		checkWritable();
 		NativeUtils.putByte(ix(checkIndex(index)), b);
 		return this;
 	}*/
@@ -163,6 +177,7 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer put (byte[] src, int offset, int length) {
+		checkWritable();
 		checkBounds(offset, length, src.length);
 		if (length > remaining())
 			throw new BufferOverflowException();
@@ -225,6 +240,7 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer compact () {
+		checkWritable();
 		int pos = position();
 		int lim = limit();
 		assert (pos <= lim);
@@ -338,10 +354,12 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer putChar (char x) {
+		checkWritable();
 		return putChar(ix(nextPutIndex((1 << 1))), x);
 	}
 
 	public ByteBuffer putChar (int i, char x) {
+		checkWritable();
 		return putChar(ix(checkIndex(i, (1 << 1))), x);
 	}
 
@@ -375,10 +393,12 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer putShort (short x) {
+		checkWritable();
 		return putShort(ix(nextPutIndex((1 << 1))), x);
 	}
 
 	public ByteBuffer putShort (int i, short x) {
+		checkWritable();
 		return putShort(ix(checkIndex(i, (1 << 1))), x);
 	}
 
@@ -412,10 +432,12 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer putInt (int x) {
+		checkWritable();
 		return putInt(ix(nextPutIndex((1 << 2))), x);
 	}
 
 	public ByteBuffer putInt (int i, int x) {
+		checkWritable();
 		return putInt(ix(checkIndex(i, (1 << 2))), x);
 	}
 
@@ -449,10 +471,12 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer putLong (long x) {
+		checkWritable();
 		return putLong(ix(nextPutIndex((1 << 3))), x);
 	}
 
 	public ByteBuffer putLong (int i, long x) {
+		checkWritable();
 		return putLong(ix(checkIndex(i, (1 << 3))), x);
 	}
 
@@ -487,10 +511,12 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer putFloat (float x) {
+		checkWritable();
 		return putFloat(ix(nextPutIndex((1 << 2))), x);
 	}
 
 	public ByteBuffer putFloat (int i, float x) {
+		checkWritable();
 		return putFloat(ix(checkIndex(i, (1 << 2))), x);
 	}
 
@@ -525,10 +551,12 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer putDouble (double x) {
+		checkWritable();
 		return putDouble(ix(nextPutIndex((1 << 3))), x);
 	}
 
 	public ByteBuffer putDouble (int i, double x) {
+		checkWritable();
 		return putDouble(ix(checkIndex(i, (1 << 3))), x);
 	}
 
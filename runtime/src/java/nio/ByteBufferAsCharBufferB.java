@@ -89,6 +89,7 @@ class ByteBufferAsCharBufferB
 
 	public CharBuffer put (char x) {
 
+		bb.checkWritable();
 		Bits.putCharB(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -96,6 +97,7 @@ class ByteBufferAsCharBufferB
 
 	public CharBuffer put (int i, char x) {
 
+		bb.checkWritable();
 		Bits.putCharB(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -126,7 +128,7 @@ class ByteBufferAsCharBufferB
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public String toString (int start, int end) {
@@ -85,6 +85,7 @@ class ByteBufferAsDoubleBufferB
 
 	public DoubleBuffer put (double x) {
 
+		bb.checkWritable();
 		Bits.putDoubleB(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -92,6 +93,7 @@ class ByteBufferAsDoubleBufferB
 
 	public DoubleBuffer put (int i, double x) {
 
+		bb.checkWritable();
 		Bits.putDoubleB(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -122,7 +124,7 @@ class ByteBufferAsDoubleBufferB
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
@@ -85,6 +85,7 @@ class ByteBufferAsFloatBufferB
 
 	public FloatBuffer put (float x) {
 
+		bb.checkWritable();
 		Bits.putFloatB(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -92,6 +93,7 @@ class ByteBufferAsFloatBufferB
 
 	public FloatBuffer put (int i, float x) {
 
+		bb.checkWritable();
 		Bits.putFloatB(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -122,7 +124,7 @@ class ByteBufferAsFloatBufferB
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
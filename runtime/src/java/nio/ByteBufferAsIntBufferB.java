@@ -86,6 +86,7 @@ class ByteBufferAsIntBufferB
 
 	public IntBuffer put (int x) {
 
+		bb.checkWritable();
 		Bits.putIntB(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -93,6 +94,7 @@ class ByteBufferAsIntBufferB
 
 	public IntBuffer put (int i, int x) {
 
+		bb.checkWritable();
 		Bits.putIntB(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -123,7 +125,7 @@ class ByteBufferAsIntBufferB
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
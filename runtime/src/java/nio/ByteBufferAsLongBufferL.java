@@ -85,6 +85,7 @@ class ByteBufferAsLongBufferL
 
 	public LongBuffer put (long x) {
 
+		bb.checkWritable();
 		Bits.putLongL(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -92,6 +93,7 @@ class ByteBufferAsLongBufferL
 
 	public LongBuffer put (int i, long x) {
 
+		bb.checkWritable();
 		Bits.putLongL(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -122,7 +124,7 @@ class ByteBufferAsLongBufferL
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
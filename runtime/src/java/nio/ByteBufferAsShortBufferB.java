@@ -85,6 +85,7 @@ class ByteBufferAsShortBufferB
 
 	public ShortBuffer put (short x) {
 
+		bb.checkWritable();
 		Bits.putShortB(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -92,6 +93,7 @@ class ByteBufferAsShortBufferB
 
 	public ShortBuffer put (int i, short x) {
 
+		bb.checkWritable();
 		Bits.putShortB(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -122,7 +124,7 @@ class ByteBufferAsShortBufferB
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
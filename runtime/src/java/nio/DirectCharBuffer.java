@@ -88,6 +88,7 @@ class DirectCharBuffer extends CharBuffer {
 
 	public native CharBuffer put (char x);/* {
 
+		bb.checkWritable();
 		Bits.putCharB(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -95,6 +96,7 @@ class DirectCharBuffer extends CharBuffer {
 
 	public native CharBuffer put (int i, char x);/* {
 
+		bb.checkWritable();
 		Bits.putCharB(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -125,7 +127,7 @@ class DirectCharBuffer extends CharBuffer {
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public String toString (int start, int end) {
@@ -84,6 +84,7 @@ class DirectDoubleBuffer extends DoubleBuffer {
 
 	public native DoubleBuffer put (double x);/* {
 
+		bb.checkWritable();
 		Bits.putDoubleL(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -91,6 +92,7 @@ class DirectDoubleBuffer extends DoubleBuffer {
 
 	public native DoubleBuffer put (int i, double x);/* {
 
+		bb.checkWritable();
 		Bits.putDoubleL(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -121,7 +123,7 @@ class DirectDoubleBuffer extends DoubleBuffer {
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
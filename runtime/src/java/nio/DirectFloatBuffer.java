@@ -84,6 +84,7 @@ class DirectFloatBuffer extends FloatBuffer {
 
 	public native FloatBuffer put (float x);/* {
 
+		bb.checkWritable();
 		Bits.putFloatL(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -91,6 +92,7 @@ class DirectFloatBuffer extends FloatBuffer {
 
 	public native FloatBuffer put (int i, float x);/* {
 
+		bb.checkWritable();
 		Bits.putFloatL(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -121,7 +123,7 @@ class DirectFloatBuffer extends FloatBuffer {
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
@@ -85,6 +85,7 @@ class DirectIntBuffer extends IntBuffer {
 
 	public native IntBuffer put (int x);/* {
 
+		bb.checkWritable();
 		Bits.putIntL(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -92,6 +93,7 @@ class DirectIntBuffer extends IntBuffer {
 
 	public native IntBuffer put (int i, int x);/* {
 
+		bb.checkWritable();
 		Bits.putIntL(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -122,7 +124,7 @@ class DirectIntBuffer extends IntBuffer {
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
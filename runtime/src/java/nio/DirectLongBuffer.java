@@ -84,6 +84,7 @@ class DirectLongBuffer extends LongBuffer {
 
 	public native LongBuffer put (long x);/* {
 
+		bb.checkWritable();
 		Bits.putLongL(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -91,6 +92,7 @@ class DirectLongBuffer extends LongBuffer {
 
 	public native LongBuffer put (int i, long x);/* {
 
+		bb.checkWritable();
 		Bits.putLongL(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -121,7 +123,7 @@ class DirectLongBuffer extends LongBuffer {
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
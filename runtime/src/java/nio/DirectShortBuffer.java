@@ -84,6 +84,7 @@ class DirectShortBuffer extends ShortBuffer {
 
 	public native ShortBuffer put (short x);/* {
 
+		bb.checkWritable();
 		Bits.putShortL(bb, ix(nextPutIndex()), x);
 		return this;
 
@@ -91,6 +92,7 @@ class DirectShortBuffer extends ShortBuffer {
 
 	public native ShortBuffer put (int i, short x);/* {
 
+		bb.checkWritable();
 		Bits.putShortL(bb, ix(checkIndex(i)), x);
 		return this;
 
@@ -121,7 +123,7 @@ class DirectShortBuffer extends ShortBuffer {
 	}
 
 	public boolean isReadOnly () {
-		return false;
+		return bb.isReadOnly();
 	}
 
 	public ByteOrder order () {
@@ -1,9 +1,49 @@
 package java.nio;
 
+/**
+ * A direct byte buffer over a memory mapped file region, which is unmapped when the buffer is collected.
+ * Mappings aren't counted towards the heap usage, since the pages are backed by the file. Read-only mappings
+ * throw ReadOnlyBufferException on writes, from this buffer and any slices or views of it.
+ */
 public class MappedByteBuffer extends ByteBuffer {
 
-	MappedByteBuffer () {
-		super(0, 0);
-		throw new UnsupportedOperationException();
+	private final long mapping;
+	private final long mappingSize;
+
+	MappedByteBuffer (long address, int cap, long mapping, long mappingSize, boolean readOnly) {
+		super(address, cap, false);
+		this.mapping = mapping;
+		this.mappingSize = mappingSize;
+		this.readOnly = readOnly;
+	}
+
+	private native void unmap();
+
+	private native boolean isLoaded0();
+
+	private native void load0();
+
+	private native void force0();
+
+	public final boolean isLoaded () {
+		return mapping == 0 || isLoaded0();
+	}
+
+	public final MappedByteBuffer load () {
+		if (mapping != 0)
+			load0();
+		return this;
+	}
+
+	public final MappedByteBuffer force () {
+		if (mapping != 0 && !readOnly)
+			force0();
+		return this;
+	}
+
+	@Override
+	protected void finalize () {
+		if (mapping != 0)
+			unmap();
 	}
 }
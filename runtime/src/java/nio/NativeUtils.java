@@ -35,4 +35,10 @@ public class NativeUtils {
 	}
 
 	public static native Class<?> getArrayClass(Class<?> type, int dimensions);
+
+	/**
+	 * Returns the value of a cheaper monotonic clock in nanoseconds with a resolution of a few milliseconds, where the platform
+	 * provides one. Suited to frequent timestamps where precision doesn't matter. Values aren't comparable with {@link System#nanoTime()}.
+	 */
+	public static native long coarseNanoTime();
 }
@@ -210,12 +210,12 @@ public final class Channels {
 
     public static ReadableByteChannel newChannel(InputStream in) {
         Objects.requireNonNull(in, "in");
-        return (ReadableByteChannel)(in.getClass() == FileInputStream.class ? ((FileInputStream)in).getChannel() : new ReadableByteChannelImpl(in));
+        return in.getClass() == FileInputStream.class ? ((FileInputStream)in).getChannel() : new ReadableByteChannelImpl(in);
     }
 
     public static WritableByteChannel newChannel(OutputStream out) {
         Objects.requireNonNull(out, "out");
-        return (WritableByteChannel)(out.getClass() == FileOutputStream.class ? ((FileOutputStream)out).getChannel() : new WritableByteChannelImpl(out));
+        return out.getClass() == FileOutputStream.class ? ((FileOutputStream)out).getChannel() : new WritableByteChannelImpl(out);
     }
 
     public static Reader newReader(ReadableByteChannel ch, CharsetDecoder dec, int minBufferCap) {
@@ -1,12 +1,341 @@
 package java.nio.channels;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 
-public class FileChannel {
+/**
+ * A channel over the native file descriptor of a file stream or {@link java.io.RandomAccessFile}.
+ * Transfers operate directly on buffer memory, using positional and vectored I/O where possible.
+ */
+public class FileChannel implements SeekableByteChannel, GatheringByteChannel, ScatteringByteChannel {
+
+	private static final int MAP_READ_ONLY = 0;
+	private static final int MAP_READ_WRITE = 1;
+	private static final int MAP_PRIVATE = 2;
+
+	private static final int TRANSFER_BUFFER_SIZE = 8192;
+
+	private final int fd;
+	private final boolean readable;
+	private final boolean writable;
+	private final Closeable parent;
+	private final Object positionLock = new Object();
+	private volatile boolean open = true;
+
+	FileChannel(int fd, boolean readable, boolean writable, Closeable parent) {
+		this.fd = fd;
+		this.readable = readable;
+		this.writable = writable;
+		this.parent = parent;
+	}
+
+	private void ensureOpen() throws IOException {
+		if (!open)
+			throw new ClosedChannelException();
+	}
+
+	private void ensureReadable() throws IOException {
+		ensureOpen();
+		if (!readable)
+			throw new NonReadableChannelException();
+	}
+
+	private void ensureWritable() throws IOException {
+		ensureOpen();
+		if (!writable)
+			throw new NonWritableChannelException();
+	}
+
+	private static void checkBuffers(ByteBuffer[] buffers, int offset, int length) {
+		if (offset < 0 || length < 0 || offset > buffers.length - length)
+			throw new IndexOutOfBoundsException();
+		for (int i = offset; i < offset + length; i++)
+			if (buffers[i] == null)
+				throw new NullPointerException();
+	}
+
+	private static void advance(ByteBuffer[] buffers, int offset, int length, long count) {
+		for (int i = offset; i < offset + length && count > 0; i++) {
+			ByteBuffer buffer = buffers[i];
+			int n = (int)Math.min(buffer.remaining(), count);
+			buffer.position(buffer.position() + n);
+			count -= n;
+		}
+	}
+
+	/**
+	 * Reads into the remaining space of the buffer at the position, or the current file position if negative.
+	 * Returns -1 on end of file. The buffer position is not updated.
+	 */
+	private native int read0(ByteBuffer dst, long position) throws IOException;
+
+	/**
+	 * Writes the remaining bytes of the buffer at the position, or the current file position if negative.
+	 * The buffer position is not updated.
+	 */
+	private native int write0(ByteBuffer src, long position) throws IOException;
+
+	private native long readv0(ByteBuffer[] dsts, int offset, int length) throws IOException;
+
+	private native long writev0(ByteBuffer[] srcs, int offset, int length) throws IOException;
+
+	private native long position0(long newPosition) throws IOException;
+
+	private native long size0() throws IOException;
+
+	private native void truncate0(long size) throws IOException;
+
+	private native void force0(boolean metaData) throws IOException;
+
+	/**
+	 * Copies within the kernel from this file at the position to the current position of the target descriptor.
+	 * Returns -2 if unsupported for the descriptors, in which case buffered copying is used instead.
+	 */
+	private native long transferTo0(long position, long count, int targetFd) throws IOException;
+
+	/**
+	 * Copies within the kernel from the current position of the source descriptor to this file at the position.
+	 * Returns -2 if unsupported for the descriptors, in which case buffered copying is used instead.
+	 */
+	private native long transferFrom0(int srcFd, long position, long count) throws IOException;
+
+	private native MappedByteBuffer mapImpl(int mode, long position, int size) throws IOException;
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		ensureReadable();
+		if (dst.isReadOnly())
+			throw new IllegalArgumentException("Read-only buffer");
+		synchronized (positionLock) {
+			int n = read0(dst, -1);
+			if (n > 0)
+				dst.position(dst.position() + n);
+			return n;
+		}
+	}
+
+	public int read(ByteBuffer dst, long position) throws IOException {
+		if (position < 0)
+			throw new IllegalArgumentException("Negative position");
+		ensureReadable();
+		if (dst.isReadOnly())
+			throw new IllegalArgumentException("Read-only buffer");
+		int n = read0(dst, position);
+		if (n > 0)
+			dst.position(dst.position() + n);
+		return n;
+	}
+
+	@Override
+	public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+		checkBuffers(dsts, offset, length);
+		ensureReadable();
+		for (int i = offset; i < offset + length; i++)
+			if (dsts[i].isReadOnly())
+				throw new IllegalArgumentException("Read-only buffer");
+		synchronized (positionLock) {
+			long n = readv0(dsts, offset, length);
+			if (n > 0)
+				advance(dsts, offset, length, n);
+			return n;
+		}
+	}
+
+	@Override
+	public final long read(ByteBuffer[] dsts) throws IOException {
+		return read(dsts, 0, dsts.length);
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+		ensureWritable();
+		synchronized (positionLock) {
+			int n = write0(src, -1);
+			src.position(src.position() + n);
+			return n;
+		}
+	}
+
+	public int write(ByteBuffer src, long position) throws IOException {
+		if (position < 0)
+			throw new IllegalArgumentException("Negative position");
+		ensureWritable();
+		int n = write0(src, position);
+		src.position(src.position() + n);
+		return n;
+	}
+
+	@Override
+	public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+		checkBuffers(srcs, offset, length);
+		ensureWritable();
+		synchronized (positionLock) {
+			long n = writev0(srcs, offset, length);
+			advance(srcs, offset, length, n);
+			return n;
+		}
+	}
+
+	@Override
+	public final long write(ByteBuffer[] srcs) throws IOException {
+		return write(srcs, 0, srcs.length);
+	}
+
+	@Override
+	public long position() throws IOException {
+		ensureOpen();
+		synchronized (positionLock) {
+			return position0(-1);
+		}
+	}
+
+	@Override
+	public FileChannel position(long newPosition) throws IOException {
+		if (newPosition < 0)
+			throw new IllegalArgumentException("Negative position");
+		ensureOpen();
+		synchronized (positionLock) {
+			position0(newPosition);
+		}
+		return this;
+	}
+
+	@Override
+	public long size() throws IOException {
+		ensureOpen();
+		return size0();
+	}
+
+	@Override
+	public FileChannel truncate(long size) throws IOException {
+		if (size < 0)
+			throw new IllegalArgumentException("Negative size");
+		ensureWritable();
+		synchronized (positionLock) {
+			if (size < size0())
+				truncate0(size);
+			if (position0(-1) > size)
+				position0(size);
+		}
+		return this;
+	}
+
+	public void force(boolean metaData) throws IOException {
+		ensureOpen();
+		force0(metaData);
+	}
+
+	public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+		if (position < 0 || count < 0)
+			throw new IllegalArgumentException();
+		ensureReadable();
+		if (!target.isOpen())
+			throw new ClosedChannelException();
+		long size = size0();
+		if (position > size)
+			return 0;
+		count = Math.min(count, size - position);
+		if (count == 0)
+			return 0;
+
+		if (target instanceof FileChannel) {
+			FileChannel channel = (FileChannel)target;
+			channel.ensureWritable();
+			long n;
+			synchronized (channel.positionLock) {
+				n = transferTo0(position, count, channel.fd);
+			}
+			if (n >= 0)
+				return n;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int)Math.min(count, TRANSFER_BUFFER_SIZE));
+		long transferred = 0;
+		while (transferred < count) {
+			buffer.clear();
+			buffer.limit((int)Math.min(buffer.capacity(), count - transferred));
+			int read = read(buffer, position + transferred);
+			if (read <= 0)
+				break;
+			buffer.flip();
+			int written = target.write(buffer);
+			transferred += written;
+			if (written < read)
+				break;
+		}
+		return transferred;
+	}
+
+	public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+		if (position < 0 || count < 0)
+			throw new IllegalArgumentException();
+		ensureWritable();
+		if (!src.isOpen())
+			throw new ClosedChannelException();
+		if (position > size0() || count == 0)
+			return 0;
+
+		if (src instanceof FileChannel) {
+			FileChannel channel = (FileChannel)src;
+			channel.ensureReadable();
+			long n;
+			synchronized (channel.positionLock) {
+				n = transferFrom0(channel.fd, position, count);
+			}
+			if (n >= 0)
+				return n;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int)Math.min(count, TRANSFER_BUFFER_SIZE));
+		long transferred = 0;
+		while (transferred < count) {
+			buffer.clear();
+			buffer.limit((int)Math.min(buffer.capacity(), count - transferred));
+			int read = src.read(buffer);
+			if (read <= 0)
+				break;
+			buffer.flip();
+			while (buffer.hasRemaining())
+				transferred += write(buffer, position + transferred);
+		}
+		return transferred;
+	}
 
 	public MappedByteBuffer map(FileChannel.MapMode mode, long position, long size) throws IOException {
-		return null;
+		ensureOpen();
+		if (mode == null)
+			throw new NullPointerException("Mode is null");
+		if (position < 0L)
+			throw new IllegalArgumentException("Negative position");
+		if (size < 0L)
+			throw new IllegalArgumentException("Negative size");
+		if (position + size < 0)
+			throw new IllegalArgumentException("Position + size overflow");
+		if (size > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Size exceeds Integer.MAX_VALUE");
+		if (mode != MapMode.READ_ONLY && !writable)
+			throw new NonWritableChannelException();
+		if (!readable)
+			throw new NonReadableChannelException();
+		int nativeMode = mode == MapMode.READ_ONLY ? MAP_READ_ONLY : mode == MapMode.READ_WRITE ? MAP_READ_WRITE : MAP_PRIVATE;
+		return mapImpl(nativeMode, position, (int)size);
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (!open)
+				return;
+			open = false;
+		}
+		parent.close();
 	}
 
 	public static class MapMode {
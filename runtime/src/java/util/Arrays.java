@@ -19,6 +19,13 @@ package java.util;
 
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * {@code Arrays} contains static methods which operate on arrays.
@@ -30,6 +37,9 @@ public class Arrays {
     /* Specifies when to switch to insertion sort */
     private static final int SIMPLE_LENGTH = 7;
 
+    /* Specifies the smallest range that parallel object sorts split across tasks */
+    private static final int MIN_PARALLEL_SORT_LENGTH = 1 << 13;
+
     /**
      * Checks that the range described by {@code offset} and {@code count} doesn't exceed
      * {@code arrayLength}.
@@ -1825,48 +1835,6 @@ public class Arrays {
         return double1 < double2;
     }
 
-    private static int med3(byte[] array, int a, int b, int c) {
-        byte x = array[a], y = array[b], z = array[c];
-        return x < y ? (y < z ? b : (x < z ? c : a)) : (y > z ? b : (x > z ? c
-                : a));
-    }
-
-    private static int med3(char[] array, int a, int b, int c) {
-        char x = array[a], y = array[b], z = array[c];
-        return x < y ? (y < z ? b : (x < z ? c : a)) : (y > z ? b : (x > z ? c
-                : a));
-    }
-
-    private static int med3(double[] array, int a, int b, int c) {
-        double x = array[a], y = array[b], z = array[c];
-        return lessThan(x, y) ? (lessThan(y, z) ? b : (lessThan(x, z) ? c : a))
-                : (lessThan(z, y) ? b : (lessThan(z, x) ? c : a));
-    }
-
-    private static int med3(float[] array, int a, int b, int c) {
-        float x = array[a], y = array[b], z = array[c];
-        return lessThan(x, y) ? (lessThan(y, z) ? b : (lessThan(x, z) ? c : a))
-                : (lessThan(z, y) ? b : (lessThan(z, x) ? c : a));
-    }
-
-    private static int med3(int[] array, int a, int b, int c) {
-        int x = array[a], y = array[b], z = array[c];
-        return x < y ? (y < z ? b : (x < z ? c : a)) : (y > z ? b : (x > z ? c
-                : a));
-    }
-
-    private static int med3(long[] array, int a, int b, int c) {
-        long x = array[a], y = array[b], z = array[c];
-        return x < y ? (y < z ? b : (x < z ? c : a)) : (y > z ? b : (x > z ? c
-                : a));
-    }
-
-    private static int med3(short[] array, int a, int b, int c) {
-        short x = array[a], y = array[b], z = array[c];
-        return x < y ? (y < z ? b : (x < z ? c : a)) : (y > z ? b : (x > z ? c
-                : a));
-    }
-
     /**
      * Sorts the specified array in ascending numerical order.
      * 
@@ -1874,7 +1842,7 @@ public class Arrays {
      *            the {@code byte} array to be sorted.
      */
     public static void sort(byte[] array) {
-        sort(0, array.length, array);
+        sortImpl(array, 0, array.length);
     }
 
     /**
@@ -1896,7 +1864,7 @@ public class Arrays {
             throw new NullPointerException();
         }
         checkBounds(array.length, start, end);
-        sort(start, end, array);
+        sortImpl(array, start, end);
     }
 
     private static void checkBounds(int arrLength, int start, int end) {
@@ -1914,83 +1882,32 @@ public class Arrays {
         }
     }
 
-    private static void sort(int start, int end, byte[] array) {
-        byte temp;
-        int length = end - start;
-        if (length < 7) {
-            for (int i = start + 1; i < end; i++) {
-                for (int j = i; j > start && array[j - 1] > array[j]; j--) {
-                    temp = array[j];
-                    array[j] = array[j - 1];
-                    array[j - 1] = temp;
-                }
-            }
-            return;
-        }
-        int middle = (start + end) / 2;
-        if (length > 7) {
-            int bottom = start;
-            int top = end - 1;
-            if (length > 40) {
-                length /= 8;
-                bottom = med3(array, bottom, bottom + length, bottom
-                        + (2 * length));
-                middle = med3(array, middle - length, middle, middle + length);
-                top = med3(array, top - (2 * length), top - length, top);
-            }
-            middle = med3(array, bottom, middle, top);
-        }
-        byte partionValue = array[middle];
-        int a, b, c, d;
-        a = b = start;
-        c = d = end - 1;
-        while (true) {
-            while (b <= c && array[b] <= partionValue) {
-                if (array[b] == partionValue) {
-                    temp = array[a];
-                    array[a++] = array[b];
-                    array[b] = temp;
-                }
-                b++;
-            }
-            while (c >= b && array[c] >= partionValue) {
-                if (array[c] == partionValue) {
-                    temp = array[c];
-                    array[c] = array[d];
-                    array[d--] = temp;
-                }
-                c--;
-            }
-            if (b > c) {
-                break;
-            }
-            temp = array[b];
-            array[b++] = array[c];
-            array[c--] = temp;
-        }
-        length = a - start < b - a ? a - start : b - a;
-        int l = start;
-        int h = b - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        length = d - c < end - 1 - d ? d - c : end - 1 - d;
-        l = b;
-        h = end - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        if ((length = b - a) > 0) {
-            sort(start, start + length, array);
-        }
-        if ((length = d - c) > 0) {
-            sort(end - length, end, array);
-        }
-    }
+    /*
+     * Primitive sorts are implemented natively on the array data, using radix and counting sorts for large ranges.
+     * Floating point values are sorted in the order of compareTo, with -0.0 before 0.0 and NaN values last.
+     */
+
+    private static native void sortImpl(byte[] array, int start, int end);
+
+    private static native void sortImpl(char[] array, int start, int end);
+
+    private static native void sortImpl(short[] array, int start, int end);
+
+    private static native void sortImpl(int[] array, int start, int end);
+
+    private static native void sortImpl(long[] array, int start, int end);
+
+    private static native void sortImpl(float[] array, int start, int end);
+
+    private static native void sortImpl(double[] array, int start, int end);
+
+    private static native void parallelSortImpl(int[] array, int start, int end);
+
+    private static native void parallelSortImpl(long[] array, int start, int end);
+
+    private static native void parallelSortImpl(float[] array, int start, int end);
+
+    private static native void parallelSortImpl(double[] array, int start, int end);
 
     /**
      * Sorts the specified array in ascending numerical order.
@@ -1999,7 +1916,7 @@ public class Arrays {
      *            the {@code char} array to be sorted.
      */
     public static void sort(char[] array) {
-        sort(0, array.length, array);
+        sortImpl(array, 0, array.length);
     }
 
     /**
@@ -2021,85 +1938,7 @@ public class Arrays {
             throw new NullPointerException();
         }
         checkBounds(array.length, start, end);
-        sort(start, end, array);
-    }
-
-    private static void sort(int start, int end, char[] array) {
-        char temp;
-        int length = end - start;
-        if (length < 7) {
-            for (int i = start + 1; i < end; i++) {
-                for (int j = i; j > start && array[j - 1] > array[j]; j--) {
-                    temp = array[j];
-                    array[j] = array[j - 1];
-                    array[j - 1] = temp;
-                }
-            }
-            return;
-        }
-        int middle = (start + end) / 2;
-        if (length > 7) {
-            int bottom = start;
-            int top = end - 1;
-            if (length > 40) {
-                length /= 8;
-                bottom = med3(array, bottom, bottom + length, bottom
-                        + (2 * length));
-                middle = med3(array, middle - length, middle, middle + length);
-                top = med3(array, top - (2 * length), top - length, top);
-            }
-            middle = med3(array, bottom, middle, top);
-        }
-        char partionValue = array[middle];
-        int a, b, c, d;
-        a = b = start;
-        c = d = end - 1;
-        while (true) {
-            while (b <= c && array[b] <= partionValue) {
-                if (array[b] == partionValue) {
-                    temp = array[a];
-                    array[a++] = array[b];
-                    array[b] = temp;
-                }
-                b++;
-            }
-            while (c >= b && array[c] >= partionValue) {
-                if (array[c] == partionValue) {
-                    temp = array[c];
-                    array[c] = array[d];
-                    array[d--] = temp;
-                }
-                c--;
-            }
-            if (b > c) {
-                break;
-            }
-            temp = array[b];
-            array[b++] = array[c];
-            array[c--] = temp;
-        }
-        length = a - start < b - a ? a - start : b - a;
-        int l = start;
-        int h = b - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        length = d - c < end - 1 - d ? d - c : end - 1 - d;
-        l = b;
-        h = end - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        if ((length = b - a) > 0) {
-            sort(start, start + length, array);
-        }
-        if ((length = d - c) > 0) {
-            sort(end - length, end, array);
-        }
+        sortImpl(array, start, end);
     }
 
     /**
@@ -2110,7 +1949,7 @@ public class Arrays {
      * @see #sort(double[], int, int)
      */
     public static void sort(double[] array) {
-        sort(0, array.length, array);
+        sortImpl(array, 0, array.length);
     }
 
     /**
@@ -2134,85 +1973,7 @@ public class Arrays {
             throw new NullPointerException();
         }
         checkBounds(array.length, start, end);
-        sort(start, end, array);
-    }
-
-    private static void sort(int start, int end, double[] array) {
-        double temp;
-        int length = end - start;
-        if (length < 7) {
-            for (int i = start + 1; i < end; i++) {
-                for (int j = i; j > start && lessThan(array[j], array[j - 1]); j--) {
-                    temp = array[j];
-                    array[j] = array[j - 1];
-                    array[j - 1] = temp;
-                }
-            }
-            return;
-        }
-        int middle = (start + end) / 2;
-        if (length > 7) {
-            int bottom = start;
-            int top = end - 1;
-            if (length > 40) {
-                length /= 8;
-                bottom = med3(array, bottom, bottom + length, bottom
-                        + (2 * length));
-                middle = med3(array, middle - length, middle, middle + length);
-                top = med3(array, top - (2 * length), top - length, top);
-            }
-            middle = med3(array, bottom, middle, top);
-        }
-        double partionValue = array[middle];
-        int a, b, c, d;
-        a = b = start;
-        c = d = end - 1;
-        while (true) {
-            while (b <= c && !lessThan(partionValue, array[b])) {
-                if (isSame(array[b], partionValue)) {
-                    temp = array[a];
-                    array[a++] = array[b];
-                    array[b] = temp;
-                }
-                b++;
-            }
-            while (c >= b && !lessThan(array[c], partionValue)) {
-                if (isSame(array[c], partionValue)) {
-                    temp = array[c];
-                    array[c] = array[d];
-                    array[d--] = temp;
-                }
-                c--;
-            }
-            if (b > c) {
-                break;
-            }
-            temp = array[b];
-            array[b++] = array[c];
-            array[c--] = temp;
-        }
-        length = a - start < b - a ? a - start : b - a;
-        int l = start;
-        int h = b - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        length = d - c < end - 1 - d ? d - c : end - 1 - d;
-        l = b;
-        h = end - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        if ((length = b - a) > 0) {
-            sort(start, start + length, array);
-        }
-        if ((length = d - c) > 0) {
-            sort(end - length, end, array);
-        }
+        sortImpl(array, start, end);
     }
 
     /**
@@ -2223,7 +1984,7 @@ public class Arrays {
      * @see #sort(float[], int, int)
      */
     public static void sort(float[] array) {
-        sort(0, array.length, array);
+        sortImpl(array, 0, array.length);
     }
 
     /**
@@ -2247,85 +2008,7 @@ public class Arrays {
             throw new NullPointerException();
         }
         checkBounds(array.length, start, end);
-        sort(start, end, array);
-    }
-
-    private static void sort(int start, int end, float[] array) {
-        float temp;
-        int length = end - start;
-        if (length < 7) {
-            for (int i = start + 1; i < end; i++) {
-                for (int j = i; j > start && lessThan(array[j], array[j - 1]); j--) {
-                    temp = array[j];
-                    array[j] = array[j - 1];
-                    array[j - 1] = temp;
-                }
-            }
-            return;
-        }
-        int middle = (start + end) / 2;
-        if (length > 7) {
-            int bottom = start;
-            int top = end - 1;
-            if (length > 40) {
-                length /= 8;
-                bottom = med3(array, bottom, bottom + length, bottom
-                        + (2 * length));
-                middle = med3(array, middle - length, middle, middle + length);
-                top = med3(array, top - (2 * length), top - length, top);
-            }
-            middle = med3(array, bottom, middle, top);
-        }
-        float partionValue = array[middle];
-        int a, b, c, d;
-        a = b = start;
-        c = d = end - 1;
-        while (true) {
-            while (b <= c && !lessThan(partionValue, array[b])) {
-                if (isSame(array[b], partionValue)) {
-                    temp = array[a];
-                    array[a++] = array[b];
-                    array[b] = temp;
-                }
-                b++;
-            }
-            while (c >= b && !lessThan(array[c], partionValue)) {
-                if (isSame(array[c], partionValue)) {
-                    temp = array[c];
-                    array[c] = array[d];
-                    array[d--] = temp;
-                }
-                c--;
-            }
-            if (b > c) {
-                break;
-            }
-            temp = array[b];
-            array[b++] = array[c];
-            array[c--] = temp;
-        }
-        length = a - start < b - a ? a - start : b - a;
-        int l = start;
-        int h = b - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        length = d - c < end - 1 - d ? d - c : end - 1 - d;
-        l = b;
-        h = end - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        if ((length = b - a) > 0) {
-            sort(start, start + length, array);
-        }
-        if ((length = d - c) > 0) {
-            sort(end - length, end, array);
-        }
+        sortImpl(array, start, end);
     }
 
     /**
@@ -2335,7 +2018,7 @@ public class Arrays {
      *            the {@code int} array to be sorted.
      */
     public static void sort(int[] array) {
-        sort(0, array.length, array);
+        sortImpl(array, 0, array.length);
     }
 
     /**
@@ -2357,85 +2040,7 @@ public class Arrays {
             throw new NullPointerException();
         }
         checkBounds(array.length, start, end);
-        sort(start, end, array);
-    }
-
-    private static void sort(int start, int end, int[] array) {
-        int temp;
-        int length = end - start;
-        if (length < 7) {
-            for (int i = start + 1; i < end; i++) {
-                for (int j = i; j > start && array[j - 1] > array[j]; j--) {
-                    temp = array[j];
-                    array[j] = array[j - 1];
-                    array[j - 1] = temp;
-                }
-            }
-            return;
-        }
-        int middle = (start + end) / 2;
-        if (length > 7) {
-            int bottom = start;
-            int top = end - 1;
-            if (length > 40) {
-                length /= 8;
-                bottom = med3(array, bottom, bottom + length, bottom
-                        + (2 * length));
-                middle = med3(array, middle - length, middle, middle + length);
-                top = med3(array, top - (2 * length), top - length, top);
-            }
-            middle = med3(array, bottom, middle, top);
-        }
-        int partionValue = array[middle];
-        int a, b, c, d;
-        a = b = start;
-        c = d = end - 1;
-        while (true) {
-            while (b <= c && array[b] <= partionValue) {
-                if (array[b] == partionValue) {
-                    temp = array[a];
-                    array[a++] = array[b];
-                    array[b] = temp;
-                }
-                b++;
-            }
-            while (c >= b && array[c] >= partionValue) {
-                if (array[c] == partionValue) {
-                    temp = array[c];
-                    array[c] = array[d];
-                    array[d--] = temp;
-                }
-                c--;
-            }
-            if (b > c) {
-                break;
-            }
-            temp = array[b];
-            array[b++] = array[c];
-            array[c--] = temp;
-        }
-        length = a - start < b - a ? a - start : b - a;
-        int l = start;
-        int h = b - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        length = d - c < end - 1 - d ? d - c : end - 1 - d;
-        l = b;
-        h = end - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        if ((length = b - a) > 0) {
-            sort(start, start + length, array);
-        }
-        if ((length = d - c) > 0) {
-            sort(end - length, end, array);
-        }
+        sortImpl(array, start, end);
     }
 
     /**
@@ -2445,7 +2050,7 @@ public class Arrays {
      *            the {@code long} array to be sorted.
      */
     public static void sort(long[] array) {
-        sort(0, array.length, array);
+        sortImpl(array, 0, array.length);
     }
 
     /**
@@ -2467,85 +2072,7 @@ public class Arrays {
             throw new NullPointerException();
         }
         checkBounds(array.length, start, end);
-        sort(start, end, array);
-    }
-
-    private static void sort(int start, int end, long[] array) {
-        long temp;
-        int length = end - start;
-        if (length < 7) {
-            for (int i = start + 1; i < end; i++) {
-                for (int j = i; j > start && array[j - 1] > array[j]; j--) {
-                    temp = array[j];
-                    array[j] = array[j - 1];
-                    array[j - 1] = temp;
-                }
-            }
-            return;
-        }
-        int middle = (start + end) / 2;
-        if (length > 7) {
-            int bottom = start;
-            int top = end - 1;
-            if (length > 40) {
-                length /= 8;
-                bottom = med3(array, bottom, bottom + length, bottom
-                        + (2 * length));
-                middle = med3(array, middle - length, middle, middle + length);
-                top = med3(array, top - (2 * length), top - length, top);
-            }
-            middle = med3(array, bottom, middle, top);
-        }
-        long partionValue = array[middle];
-        int a, b, c, d;
-        a = b = start;
-        c = d = end - 1;
-        while (true) {
-            while (b <= c && array[b] <= partionValue) {
-                if (array[b] == partionValue) {
-                    temp = array[a];
-                    array[a++] = array[b];
-                    array[b] = temp;
-                }
-                b++;
-            }
-            while (c >= b && array[c] >= partionValue) {
-                if (array[c] == partionValue) {
-                    temp = array[c];
-                    array[c] = array[d];
-                    array[d--] = temp;
-                }
-                c--;
-            }
-            if (b > c) {
-                break;
-            }
-            temp = array[b];
-            array[b++] = array[c];
-            array[c--] = temp;
-        }
-        length = a - start < b - a ? a - start : b - a;
-        int l = start;
-        int h = b - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        length = d - c < end - 1 - d ? d - c : end - 1 - d;
-        l = b;
-        h = end - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        if ((length = b - a) > 0) {
-            sort(start, start + length, array);
-        }
-        if ((length = d - c) > 0) {
-            sort(end - length, end, array);
-        }
+        sortImpl(array, start, end);
     }
 
     /**
@@ -3132,7 +2659,7 @@ public class Arrays {
      *            the {@code short} array to be sorted.
      */
     public static void sort(short[] array) {
-        sort(0, array.length, array);
+        sortImpl(array, 0, array.length);
     }
 
     /**
@@ -3154,85 +2681,7 @@ public class Arrays {
             throw new NullPointerException();
         }
         checkBounds(array.length, start, end);
-        sort(start, end, array);
-    }
-
-    private static void sort(int start, int end, short[] array) {
-        short temp;
-        int length = end - start;
-        if (length < 7) {
-            for (int i = start + 1; i < end; i++) {
-                for (int j = i; j > start && array[j - 1] > array[j]; j--) {
-                    temp = array[j];
-                    array[j] = array[j - 1];
-                    array[j - 1] = temp;
-                }
-            }
-            return;
-        }
-        int middle = (start + end) / 2;
-        if (length > 7) {
-            int bottom = start;
-            int top = end - 1;
-            if (length > 40) {
-                length /= 8;
-                bottom = med3(array, bottom, bottom + length, bottom
-                        + (2 * length));
-                middle = med3(array, middle - length, middle, middle + length);
-                top = med3(array, top - (2 * length), top - length, top);
-            }
-            middle = med3(array, bottom, middle, top);
-        }
-        short partionValue = array[middle];
-        int a, b, c, d;
-        a = b = start;
-        c = d = end - 1;
-        while (true) {
-            while (b <= c && array[b] <= partionValue) {
-                if (array[b] == partionValue) {
-                    temp = array[a];
-                    array[a++] = array[b];
-                    array[b] = temp;
-                }
-                b++;
-            }
-            while (c >= b && array[c] >= partionValue) {
-                if (array[c] == partionValue) {
-                    temp = array[c];
-                    array[c] = array[d];
-                    array[d--] = temp;
-                }
-                c--;
-            }
-            if (b > c) {
-                break;
-            }
-            temp = array[b];
-            array[b++] = array[c];
-            array[c--] = temp;
-        }
-        length = a - start < b - a ? a - start : b - a;
-        int l = start;
-        int h = b - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        length = d - c < end - 1 - d ? d - c : end - 1 - d;
-        l = b;
-        h = end - length;
-        while (length-- > 0) {
-            temp = array[l];
-            array[l++] = array[h];
-            array[h++] = temp;
-        }
-        if ((length = b - a) > 0) {
-            sort(start, start + length, array);
-        }
-        if ((length = d - c) > 0) {
-            sort(end - length, end, array);
-        }
+        sortImpl(array, start, end);
     }
 
     /**
@@ -4085,6 +3534,179 @@ public class Arrays {
         return copyOfRange(original, 0, len);
     }
 
+    /**
+     * Sorts the specified array in ascending numerical order. Byte, char, and short arrays are sorted with a counting
+     * sort, which is already limited by memory bandwidth, so they are sorted on the calling thread.
+     */
+    public static void parallelSort(byte[] array) {
+        sort(array);
+    }
+
+    public static void parallelSort(byte[] array, int start, int end) {
+        sort(array, start, end);
+    }
+
+    public static void parallelSort(char[] array) {
+        sort(array);
+    }
+
+    public static void parallelSort(char[] array, int start, int end) {
+        sort(array, start, end);
+    }
+
+    public static void parallelSort(short[] array) {
+        sort(array);
+    }
+
+    public static void parallelSort(short[] array, int start, int end) {
+        sort(array, start, end);
+    }
+
+    /**
+     * Sorts the specified array in ascending numerical order, splitting the work across native threads for large arrays.
+     */
+    public static void parallelSort(int[] array) {
+        parallelSortImpl(array, 0, array.length);
+    }
+
+    public static void parallelSort(int[] array, int start, int end) {
+        checkBounds(array.length, start, end);
+        parallelSortImpl(array, start, end);
+    }
+
+    public static void parallelSort(long[] array) {
+        parallelSortImpl(array, 0, array.length);
+    }
+
+    public static void parallelSort(long[] array, int start, int end) {
+        checkBounds(array.length, start, end);
+        parallelSortImpl(array, start, end);
+    }
+
+    public static void parallelSort(float[] array) {
+        parallelSortImpl(array, 0, array.length);
+    }
+
+    public static void parallelSort(float[] array, int start, int end) {
+        checkBounds(array.length, start, end);
+        parallelSortImpl(array, start, end);
+    }
+
+    public static void parallelSort(double[] array) {
+        parallelSortImpl(array, 0, array.length);
+    }
+
+    public static void parallelSort(double[] array, int start, int end) {
+        checkBounds(array.length, start, end);
+        parallelSortImpl(array, start, end);
+    }
+
+    /**
+     * Sorts the specified array in ascending natural order. Large arrays are split into ranges that are sorted by
+     * {@link ForkJoinPool#commonPool()} tasks and merged, keeping the sort stable.
+     */
+    public static <T extends Comparable<? super T>> void parallelSort(T[] array) {
+        parallelSort(array, 0, array.length, null);
+    }
+
+    public static <T extends Comparable<? super T>> void parallelSort(T[] array, int start, int end) {
+        parallelSort(array, start, end, null);
+    }
+
+    public static <T> void parallelSort(T[] array, Comparator<? super T> comparator) {
+        parallelSort(array, 0, array.length, comparator);
+    }
+
+    public static <T> void parallelSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        checkBounds(array.length, start, end);
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int length = end - start;
+        if (parallelism <= 1 || length <= MIN_PARALLEL_SORT_LENGTH) {
+            sort(start, end, array, comparator);
+            return;
+        }
+        int granularity = Math.max(length / (parallelism << 2), MIN_PARALLEL_SORT_LENGTH);
+        ForkJoinPool.commonPool().invoke(new ParallelMergeSort<>(array, new Object[length], start, start, end, comparator, granularity));
+    }
+
+    /**
+     * Sorts halves of a range in parallel and merges them through a buffer, sorting ranges below the granularity on
+     * the current thread. The buffer covers the range being sorted, starting at its offset, and each merge only uses
+     * the part of it covering its own left half.
+     */
+    private static final class ParallelMergeSort<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final T[] array;
+        private final Object[] buffer;
+        private final int offset;
+        private final int start;
+        private final int end;
+        private final Comparator<? super T> comparator;
+        private final int granularity;
+
+        ParallelMergeSort(T[] array, Object[] buffer, int offset, int start, int end, Comparator<? super T> comparator, int granularity) {
+            this.array = array;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.start = start;
+            this.end = end;
+            this.comparator = comparator;
+            this.granularity = granularity;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(Object a, Object b) {
+            return comparator == null ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((T) a, (T) b);
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= granularity) {
+                sort(start, end);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new ParallelMergeSort<>(array, buffer, offset, start, middle, comparator, granularity),
+                    new ParallelMergeSort<>(array, buffer, offset, middle, end, comparator, granularity));
+            merge(start, middle, end);
+        }
+
+        private void sort(int from, int to) {
+            if (to - from <= SIMPLE_LENGTH) {
+                for (int i = from + 1; i < to; i++) {
+                    T current = array[i];
+                    int j = i;
+                    for (; j > from && compare(current, array[j - 1]) < 0; j--)
+                        array[j] = array[j - 1];
+                    array[j] = current;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            sort(from, middle);
+            sort(middle, to);
+            merge(from, middle, to);
+        }
+
+        /**
+         * Merges from a copy of the left half, so the output never overtakes the unread right half
+         */
+        @SuppressWarnings("unchecked")
+        private void merge(int from, int middle, int to) {
+            if (compare(array[middle - 1], array[middle]) <= 0)
+                return;
+            System.arraycopy(array, from, buffer, from - offset, middle - from);
+            int left = from - offset;
+            int leftEnd = middle - offset;
+            int right = middle;
+            int out = from;
+            while (left < leftEnd && right < to)
+                array[out++] = compare(array[right], buffer[left]) < 0 ? array[right++] : (T) buffer[left++];
+            System.arraycopy(buffer, left, array, out, leftEnd - left);
+        }
+    }
+
     public static <T> Spliterator<T> spliterator(T[] array) {
         return Spliterators.spliterator(array, 1040);
     }
@@ -4116,4 +3738,36 @@ public class Arrays {
     public static Spliterator.OfDouble spliterator(double[] array, int startInclusive, int endExclusive) {
         return Spliterators.spliterator(array, startInclusive, endExclusive, 1040);
     }
+
+    public static <T> Stream<T> stream(T[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static <T> Stream<T> stream(T[] array, int startInclusive, int endExclusive) {
+        return StreamSupport.stream(spliterator(array, startInclusive, endExclusive), false);
+    }
+
+    public static IntStream stream(int[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static IntStream stream(int[] array, int startInclusive, int endExclusive) {
+        return StreamSupport.intStream(spliterator(array, startInclusive, endExclusive), false);
+    }
+
+    public static LongStream stream(long[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static LongStream stream(long[] array, int startInclusive, int endExclusive) {
+        return StreamSupport.longStream(spliterator(array, startInclusive, endExclusive), false);
+    }
+
+    public static DoubleStream stream(double[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static DoubleStream stream(double[] array, int startInclusive, int endExclusive) {
+        return StreamSupport.doubleStream(spliterator(array, startInclusive, endExclusive), false);
+    }
 }
@@ -17,6 +17,9 @@
 
 package java.util;
 
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * {@code Collection} is the root of the collection hierarchy. It defines operations on
  * data collections and the behavior that they will have in all implementations
@@ -316,4 +319,12 @@ public interface Collection<E> extends java.lang.Iterable<E> {
     default Spliterator<E> spliterator() {
         return Spliterators.spliterator(this, 0);
     }
+
+    default Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    default Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
 }
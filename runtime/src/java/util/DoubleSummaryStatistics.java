@@ -0,0 +1,71 @@
+package java.util;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Collects the count, sum, min, max, and average of double values. The sum uses compensated summation to reduce
+ * rounding error.
+ */
+public class DoubleSummaryStatistics implements DoubleConsumer {
+
+    private long count;
+    private double sum;
+    private double compensation;
+    private double simpleSum; // Used when the compensated sum is NaN, as with infinite values
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public DoubleSummaryStatistics() {
+    }
+
+    @Override
+    public void accept(double value) {
+        count++;
+        simpleSum += value;
+        addCompensated(value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void combine(DoubleSummaryStatistics other) {
+        count += other.count;
+        simpleSum += other.simpleSum;
+        addCompensated(other.sum);
+        addCompensated(-other.compensation);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    private void addCompensated(double value) {
+        double corrected = value - compensation;
+        double total = sum + corrected;
+        compensation = (total - sum) - corrected;
+        sum = total;
+    }
+
+    public final long getCount() {
+        return count;
+    }
+
+    public final double getSum() {
+        double total = sum - compensation;
+        return Double.isNaN(total) && Double.isInfinite(simpleSum) ? simpleSum : total;
+    }
+
+    public final double getMin() {
+        return min;
+    }
+
+    public final double getMax() {
+        return max;
+    }
+
+    public final double getAverage() {
+        return count > 0 ? getSum() / count : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "DoubleSummaryStatistics{count=" + count + ", sum=" + getSum() + ", min=" + min + ", average=" + getAverage() + ", max=" + max + "}";
+    }
+}
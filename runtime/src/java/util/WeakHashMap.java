@@ -174,6 +174,11 @@ public class WeakHashMap<K,V>
      */
     private final float loadFactor;
 
+    /**
+     * Reference queue for cleared WeakEntries
+     */
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
     /**
      * The number of times this WeakHashMap has been structurally modified.
      * Structural modifications are those that change the number of
@@ -310,7 +315,32 @@ public class WeakHashMap<K,V>
      * Expunges stale entries from the table.
      */
     private void expungeStaleEntries() {
-        // Doesn't do anything, since this isn't really weak
+        for (Object x; (x = queue.poll()) != null; ) {
+            synchronized (queue) {
+                @SuppressWarnings("unchecked")
+                    Entry<K,V> e = (Entry<K,V>) x;
+                int i = indexFor(e.hash, table.length);
+
+                Entry<K,V> prev = table[i];
+                Entry<K,V> p = prev;
+                while (p != null) {
+                    Entry<K,V> next = p.next;
+                    if (p == e) {
+                        if (prev == e)
+                            table[i] = next;
+                        else
+                            prev.next = next;
+                        // Must not null out e.next;
+                        // stale entries may be in use by a HashIterator
+                        e.value = null; // Help GC
+                        size--;
+                        break;
+                    }
+                    prev = p;
+                    p = next;
+                }
+            }
+        }
     }
 
     /**
@@ -432,7 +462,7 @@ public class WeakHashMap<K,V>
 
         modCount++;
         Entry<K,V> e = tab[i];
-        tab[i] = new Entry<>(k, value, h, e);
+        tab[i] = new Entry<>(k, value, queue, h, e);
         if (++size >= threshold)
             resize(tab.length * 2);
         return null;
@@ -668,8 +698,9 @@ public class WeakHashMap<K,V>
          * Creates new entry.
          */
         Entry(Object key, V value,
+              ReferenceQueue<Object> queue,
               int hash, Entry<K,V> next) {
-            super(key);
+            super(key, queue);
             this.value = value;
             this.hash  = hash;
             this.next  = next;
@@ -1,108 +1,1289 @@
 package java.util.concurrent;
 
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
- * Totally not sketchy ConcurrentHashMap implementation
+ * Hash table with lock-free retrievals and concurrent updates, following the design of the OpenJDK 8 implementation.
+ * Bins are read with atomic array loads and updated either by CAS for empty bins or under the monitor of the first
+ * node in the bin. Resizing is shared by every thread that writes while a resize is in progress, with moved bins
+ * replaced by forwarding nodes so readers and iterators never block. The size is kept in a base counter that spills
+ * into per-thread striped counters under contention. Iterators are weakly consistent. Unlike OpenJDK, long bins stay
+ * linked lists rather than being converted into trees, so lookups of keys with colliding hashes take linear time in the
+ * size of their bin.
  */
-public class ConcurrentHashMap<K,V> extends HashMap<K,V> implements ConcurrentMap<K,V> {
+public class ConcurrentHashMap<K,V> extends AbstractMap<K,V> implements ConcurrentMap<K,V>, Serializable {
+    private static final long serialVersionUID = 7249069246763182397L;
 
-    public ConcurrentHashMap() {
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_TRANSFER_STRIDE = 16;
+    private static final int RESIZE_STAMP_BITS = 16;
+    private static final int MAX_RESIZERS = (1 << (32 - RESIZE_STAMP_BITS)) - 1;
+    private static final int RESIZE_STAMP_SHIFT = 32 - RESIZE_STAMP_BITS;
+
+    static final int MOVED = -1; // Hash for forwarding nodes
+    static final int RESERVED = -3; // Hash for reservation nodes
+    static final int HASH_BITS = 0x7fffffff;
+
+    static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The bin array, lazily initialized on first insertion, with a power of two size
+     */
+    transient volatile Node<K,V>[] table;
+
+    /**
+     * The next table to use, non-null only while resizing
+     */
+    private transient volatile Node<K,V>[] nextTable;
+
+    /**
+     * Table initialization and resizing control. When negative, the table is being initialized (-1) or resized
+     * (resize stamp in the high bits plus one more than the number of active resizing threads). Otherwise, holds the
+     * initial table size to use or the element count at which to resize next.
+     */
+    private final AtomicInteger sizeCtl = new AtomicInteger();
+
+    /**
+     * The next table index (plus one) to split while resizing
+     */
+    private final AtomicInteger transferIndex = new AtomicInteger();
+
+    /**
+     * Base element count, used when there is no contention
+     */
+    private final AtomicLong baseCount = new AtomicLong();
+
+    /**
+     * Striped element counts, created on the first failed base count update
+     */
+    private transient volatile AtomicLong[] counterCells;
+
+    private transient KeySetView<K,V> keySet;
+    private transient ValuesView<K,V> values;
+    private transient EntrySetView<K,V> entrySet;
+
+    static class Node<K,V> implements Map.Entry<K,V> {
+        final int hash;
+        final K key;
+        volatile V val;
+        volatile Node<K,V> next;
+
+        Node(int hash, K key, V val) {
+            this.hash = hash;
+            this.key = key;
+            this.val = val;
+        }
+
+        Node(int hash, K key, V val, Node<K,V> next) {
+            this(hash, key, val);
+            this.next = next;
+        }
+
+        public final K getKey() {
+            return key;
+        }
+
+        public final V getValue() {
+            return val;
+        }
+
+        public final int hashCode() {
+            return key.hashCode() ^ val.hashCode();
+        }
+
+        public final String toString() {
+            return key + "=" + val;
+        }
+
+        public final V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        public final boolean equals(Object o) {
+            Object k, v, u;
+            Map.Entry<?,?> e;
+            return ((o instanceof Map.Entry) &&
+                    (k = (e = (Map.Entry<?,?>)o).getKey()) != null &&
+                    (v = e.getValue()) != null &&
+                    (k == key || k.equals(key)) &&
+                    (v == (u = val) || v.equals(u)));
+        }
+
+        Node<K,V> find(int h, Object k) {
+            Node<K,V> e = this;
+            if (k != null) {
+                do {
+                    K ek;
+                    if (e.hash == h && ((ek = e.key) == k || (ek != null && k.equals(ek))))
+                        return e;
+                } while ((e = e.next) != null);
+            }
+            return null;
+        }
     }
 
-    public ConcurrentHashMap(int initialCapacity, float loadFactor, int concurrencyLevel) {
+    /**
+     * Placed at the head of bins that have already been moved to the next table during a resize
+     */
+    static final class ForwardingNode<K,V> extends Node<K,V> {
+        final Node<K,V>[] nextTable;
+
+        ForwardingNode(Node<K,V>[] tab) {
+            super(MOVED, null, null);
+            this.nextTable = tab;
+        }
+
+        Node<K,V> find(int h, Object k) {
+            // Loop instead of recursing to avoid deep chains of forwarding nodes
+            outer: for (Node<K,V>[] tab = nextTable;;) {
+                Node<K,V> e;
+                int n;
+                if (k == null || tab == null || (n = tab.length) == 0 || (e = tabAt(tab, (n - 1) & h)) == null)
+                    return null;
+                for (;;) {
+                    int eh;
+                    K ek;
+                    if ((eh = e.hash) == h && ((ek = e.key) == k || (ek != null && k.equals(ek))))
+                        return e;
+                    if (eh < 0) {
+                        if (e instanceof ForwardingNode) {
+                            tab = ((ForwardingNode<K,V>)e).nextTable;
+                            continue outer;
+                        }
+                        else
+                            return e.find(h, k);
+                    }
+                    if ((e = e.next) == null)
+                        return null;
+                }
+            }
+        }
     }
 
-    public ConcurrentHashMap(int initialCapacity, float loadFactor) {
+    /**
+     * Placeholder for an empty bin while computing its value, locked by the computing thread
+     */
+    static final class ReservationNode<K,V> extends Node<K,V> {
+        ReservationNode() {
+            super(RESERVED, null, null);
+        }
+
+        Node<K,V> find(int h, Object k) {
+            return null;
+        }
+    }
+
+    static final int spread(int h) {
+        return (h ^ (h >>> 16)) & HASH_BITS;
+    }
+
+    private static final int tableSizeFor(int c) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(c - 1);
+        return (n < 0) ? 1 : (n >= MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY : n + 1;
+    }
+
+    static final int resizeStamp(int n) {
+        return Integer.numberOfLeadingZeros(n) | (1 << (RESIZE_STAMP_BITS - 1));
+    }
+
+    static final native <K,V> Node<K,V> tabAt(Node<K,V>[] tab, int i);
+
+    static final native <K,V> boolean casTabAt(Node<K,V>[] tab, int i, Node<K,V> c, Node<K,V> v);
+
+    static final native <K,V> void setTabAt(Node<K,V>[] tab, int i, Node<K,V> v);
+
+    public ConcurrentHashMap() {
     }
 
     public ConcurrentHashMap(int initialCapacity) {
+        this(initialCapacity, LOAD_FACTOR, 1);
     }
 
     public ConcurrentHashMap(Map<? extends K, ? extends V> m) {
+        sizeCtl.set(DEFAULT_CAPACITY);
         putAll(m);
     }
-    
+
+    public ConcurrentHashMap(int initialCapacity, float loadFactor) {
+        this(initialCapacity, loadFactor, 1);
+    }
+
+    public ConcurrentHashMap(int initialCapacity, float loadFactor, int concurrencyLevel) {
+        if (!(loadFactor > 0.0f) || initialCapacity < 0 || concurrencyLevel <= 0)
+            throw new IllegalArgumentException();
+        if (initialCapacity < concurrencyLevel)
+            initialCapacity = concurrencyLevel;
+        long size = (long)(1.0 + (long)initialCapacity / loadFactor);
+        sizeCtl.set((size >= (long)MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY : tableSizeFor((int)size));
+    }
+
+    @Override
+    public int size() {
+        long n = sumCount();
+        return ((n < 0L) ? 0 : (n > (long)Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int)n);
+    }
+
+    /**
+     * Returns the number of mappings, which may exceed {@code Integer.MAX_VALUE}
+     */
+    public long mappingCount() {
+        long n = sumCount();
+        return (n < 0L) ? 0L : n;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return sumCount() <= 0L;
+    }
+
     @Override
-    public synchronized boolean isEmpty () {
-        return super.isEmpty();
+    public V get(Object key) {
+        Node<K,V>[] tab;
+        Node<K,V> e, p;
+        int n, eh;
+        K ek;
+        int h = spread(key.hashCode());
+        if ((tab = table) != null && (n = tab.length) > 0 && (e = tabAt(tab, (n - 1) & h)) != null) {
+            if ((eh = e.hash) == h) {
+                if ((ek = e.key) == key || (ek != null && key.equals(ek)))
+                    return e.val;
+            }
+            else if (eh < 0)
+                return (p = e.find(h, key)) != null ? p.val : null;
+            while ((e = e.next) != null) {
+                if (e.hash == h && ((ek = e.key) == key || (ek != null && key.equals(ek))))
+                    return e.val;
+            }
+        }
+        return null;
     }
 
     @Override
-    public synchronized V get (Object key) {
-        return super.get(key);
+    public V getOrDefault(Object key, V defaultValue) {
+        V v;
+        return (v = get(key)) == null ? defaultValue : v;
     }
 
     @Override
-    public synchronized boolean containsKey (Object key) {
-        return super.containsKey(key);
+    public boolean containsKey(Object key) {
+        return get(key) != null;
     }
 
     @Override
-    public synchronized V put (K key, V value) {
-        return super.put(key, value);
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        Traverser<K,V> it = new Traverser<K,V>(table);
+        for (Node<K,V> p; (p = it.advance()) != null; ) {
+            V v;
+            if ((v = p.val) == value || (v != null && value.equals(v)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Legacy equivalent of {@link #containsValue}
+     */
+    public boolean contains(Object value) {
+        return containsValue(value);
     }
 
     @Override
-    public synchronized void putAll (Map<? extends K, ? extends V> m) {
-        super.putAll(m);
+    public V put(K key, V value) {
+        return putVal(key, value, false);
+    }
+
+    final V putVal(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        int hash = spread(key.hashCode());
+        int binCount = 0;
+        for (Node<K,V>[] tab = table;;) {
+            Node<K,V> f;
+            int n, i, fh;
+            K fk;
+            V fv;
+            if (tab == null || (n = tab.length) == 0)
+                tab = initTable();
+            else if ((f = tabAt(tab, i = (n - 1) & hash)) == null) {
+                if (casTabAt(tab, i, null, new Node<K,V>(hash, key, value)))
+                    break;
+            }
+            else if ((fh = f.hash) == MOVED)
+                tab = helpTransfer(tab, f);
+            else if (onlyIfAbsent && fh == hash && ((fk = f.key) == key || (fk != null && key.equals(fk))) && (fv = f.val) != null)
+                return fv;
+            else {
+                V oldVal = null;
+                synchronized (f) {
+                    if (tabAt(tab, i) == f) {
+                        if (fh >= 0) {
+                            binCount = 1;
+                            for (Node<K,V> e = f;; ++binCount) {
+                                K ek;
+                                if (e.hash == hash && ((ek = e.key) == key || (ek != null && key.equals(ek)))) {
+                                    oldVal = e.val;
+                                    if (!onlyIfAbsent)
+                                        e.val = value;
+                                    break;
+                                }
+                                Node<K,V> pred = e;
+                                if ((e = e.next) == null) {
+                                    pred.next = new Node<K,V>(hash, key, value);
+                                    break;
+                                }
+                            }
+                        }
+                        else if (f instanceof ReservationNode)
+                            throw new IllegalStateException("Recursive update");
+                    }
+                }
+                if (binCount != 0) {
+                    if (oldVal != null)
+                        return oldVal;
+                    break;
+                }
+            }
+        }
+        addCount(1L, binCount);
+        return null;
     }
 
     @Override
-    public synchronized V remove (Object key) {
-        return super.remove(key);
+    public void putAll(Map<? extends K, ? extends V> m) {
+        tryPresize(m.size());
+        for (Map.Entry<? extends K, ? extends V> e : m.entrySet())
+            putVal(e.getKey(), e.getValue(), false);
     }
 
     @Override
-    public synchronized void clear () {
-        super.clear();
+    public V remove(Object key) {
+        return replaceNode(key, null, null);
+    }
+
+    /**
+     * Replaces the value of a node with {@code value}, or removes it if null, if the current value matches {@code cv}
+     * or {@code cv} is null
+     */
+    final V replaceNode(Object key, V value, Object cv) {
+        int hash = spread(key.hashCode());
+        for (Node<K,V>[] tab = table;;) {
+            Node<K,V> f;
+            int n, i, fh;
+            if (tab == null || (n = tab.length) == 0 || (f = tabAt(tab, i = (n - 1) & hash)) == null)
+                break;
+            else if ((fh = f.hash) == MOVED)
+                tab = helpTransfer(tab, f);
+            else {
+                V oldVal = null;
+                boolean validated = false;
+                synchronized (f) {
+                    if (tabAt(tab, i) == f) {
+                        if (fh >= 0) {
+                            validated = true;
+                            for (Node<K,V> e = f, pred = null;;) {
+                                K ek;
+                                if (e.hash == hash && ((ek = e.key) == key || (ek != null && key.equals(ek)))) {
+                                    V ev = e.val;
+                                    if (cv == null || cv == ev || (ev != null && cv.equals(ev))) {
+                                        oldVal = ev;
+                                        if (value != null)
+                                            e.val = value;
+                                        else if (pred != null)
+                                            pred.next = e.next;
+                                        else
+                                            setTabAt(tab, i, e.next);
+                                    }
+                                    break;
+                                }
+                                pred = e;
+                                if ((e = e.next) == null)
+                                    break;
+                            }
+                        }
+                        else if (f instanceof ReservationNode)
+                            throw new IllegalStateException("Recursive update");
+                    }
+                }
+                if (validated) {
+                    if (oldVal != null) {
+                        if (value == null)
+                            addCount(-1L, -1);
+                        return oldVal;
+                    }
+                    break;
+                }
+            }
+        }
+        return null;
     }
 
     @Override
-    public synchronized boolean containsValue (Object value) {
-        return super.containsValue(value);
+    public void clear() {
+        long delta = 0L;
+        int i = 0;
+        Node<K,V>[] tab = table;
+        while (tab != null && i < tab.length) {
+            int fh;
+            Node<K,V> f = tabAt(tab, i);
+            if (f == null)
+                ++i;
+            else if ((fh = f.hash) == MOVED) {
+                tab = helpTransfer(tab, f);
+                i = 0;
+            }
+            else {
+                synchronized (f) {
+                    if (tabAt(tab, i) == f) {
+                        for (Node<K,V> p = fh >= 0 ? f : null; p != null; p = p.next)
+                            --delta;
+                        setTabAt(tab, i++, null);
+                    }
+                }
+            }
+        }
+        if (delta != 0L)
+            addCount(delta, -1);
     }
 
     @Override
-    public synchronized Set<K> keySet () {
-        return new HashMap<>(this).keySet();
+    public V putIfAbsent(K key, V value) {
+        return putVal(key, value, true);
     }
 
     @Override
-    public synchronized Collection<V> values () {
-        return new HashMap<>(this).values();
+    public boolean remove(Object key, Object value) {
+        if (key == null)
+            throw new NullPointerException();
+        return value != null && replaceNode(key, null, value) != null;
     }
 
     @Override
-    public synchronized Set<Entry<K, V>> entrySet () {
-        return new HashMap<>(this).entrySet();
+    public boolean replace(K key, V oldValue, V newValue) {
+        if (key == null || oldValue == null || newValue == null)
+            throw new NullPointerException();
+        return replaceNode(key, newValue, oldValue) != null;
     }
 
     @Override
-    public synchronized V putIfAbsent (K key, V value) {
-        return super.putIfAbsent(key, value);
+    public V replace(K key, V value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        return replaceNode(key, value, null);
     }
 
     @Override
-    public synchronized boolean remove (Object key, Object value) {
-        return super.remove(key, value);
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null)
+            throw new NullPointerException();
+        Traverser<K,V> it = new Traverser<K,V>(table);
+        for (Node<K,V> p; (p = it.advance()) != null; )
+            action.accept(p.key, p.val);
     }
 
     @Override
-    public synchronized boolean replace (K key, V oldValue, V newValue) {
-        return super.replace(key, oldValue, newValue);
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        if (function == null)
+            throw new NullPointerException();
+        Traverser<K,V> it = new Traverser<K,V>(table);
+        for (Node<K,V> p; (p = it.advance()) != null; ) {
+            V oldValue = p.val;
+            for (K key = p.key;;) {
+                V newValue = function.apply(key, oldValue);
+                if (newValue == null)
+                    throw new NullPointerException();
+                if (replaceNode(key, newValue, oldValue) != null || (oldValue = get(key)) == null)
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Computes a value for an absent key. The function runs while holding only the lock of the key's bin, so it must
+     * be short and must not update other mappings of this map.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (key == null || mappingFunction == null)
+            throw new NullPointerException();
+        int h = spread(key.hashCode());
+        V val = null;
+        int binCount = 0;
+        for (Node<K,V>[] tab = table;;) {
+            Node<K,V> f;
+            int n, i, fh;
+            K fk;
+            V fv;
+            if (tab == null || (n = tab.length) == 0)
+                tab = initTable();
+            else if ((f = tabAt(tab, i = (n - 1) & h)) == null) {
+                Node<K,V> r = new ReservationNode<K,V>();
+                synchronized (r) {
+                    if (casTabAt(tab, i, null, r)) {
+                        binCount = 1;
+                        Node<K,V> node = null;
+                        try {
+                            if ((val = mappingFunction.apply(key)) != null)
+                                node = new Node<K,V>(h, key, val);
+                        } finally {
+                            setTabAt(tab, i, node);
+                        }
+                    }
+                }
+                if (binCount != 0)
+                    break;
+            }
+            else if ((fh = f.hash) == MOVED)
+                tab = helpTransfer(tab, f);
+            else if (fh == h && ((fk = f.key) == key || (fk != null && key.equals(fk))) && (fv = f.val) != null)
+                return fv;
+            else {
+                boolean added = false;
+                synchronized (f) {
+                    if (tabAt(tab, i) == f) {
+                        if (fh >= 0) {
+                            binCount = 1;
+                            for (Node<K,V> e = f;; ++binCount) {
+                                K ek;
+                                if (e.hash == h && ((ek = e.key) == key || (ek != null && key.equals(ek)))) {
+                                    val = e.val;
+                                    break;
+                                }
+                                Node<K,V> pred = e;
+                                if ((e = e.next) == null) {
+                                    if ((val = mappingFunction.apply(key)) != null) {
+                                        if (pred.next != null)
+                                            throw new IllegalStateException("Recursive update");
+                                        added = true;
+                                        pred.next = new Node<K,V>(h, key, val);
+                                    }
+                                    break;
+                                }
+                            }
+                        }
+                        else if (f instanceof ReservationNode)
+                            throw new IllegalStateException("Recursive update");
+                    }
+                }
+                if (binCount != 0) {
+                    if (!added)
+                        return val;
+                    break;
+                }
+            }
+        }
+        if (val != null)
+            addCount(1L, binCount);
+        return val;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (key == null || remappingFunction == null)
+            throw new NullPointerException();
+        return compute(key, (k, v) -> v == null ? null : remappingFunction.apply(k, v));
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (key == null || remappingFunction == null)
+            throw new NullPointerException();
+        int h = spread(key.hashCode());
+        V val = null;
+        int delta = 0;
+        int binCount = 0;
+        for (Node<K,V>[] tab = table;;) {
+            Node<K,V> f;
+            int n, i, fh;
+            if (tab == null || (n = tab.length) == 0)
+                tab = initTable();
+            else if ((f = tabAt(tab, i = (n - 1) & h)) == null) {
+                Node<K,V> r = new ReservationNode<K,V>();
+                synchronized (r) {
+                    if (casTabAt(tab, i, null, r)) {
+                        binCount = 1;
+                        Node<K,V> node = null;
+                        try {
+                            if ((val = remappingFunction.apply(key, null)) != null) {
+                                delta = 1;
+                                node = new Node<K,V>(h, key, val);
+                            }
+                        } finally {
+                            setTabAt(tab, i, node);
+                        }
+                    }
+                }
+                if (binCount != 0)
+                    break;
+            }
+            else if ((fh = f.hash) == MOVED)
+                tab = helpTransfer(tab, f);
+            else {
+                synchronized (f) {
+                    if (tabAt(tab, i) == f) {
+                        if (fh >= 0) {
+                            binCount = 1;
+                            for (Node<K,V> e = f, pred = null;; ++binCount) {
+                                K ek;
+                                if (e.hash == h && ((ek = e.key) == key || (ek != null && key.equals(ek)))) {
+                                    val = remappingFunction.apply(key, e.val);
+                                    if (val != null)
+                                        e.val = val;
+                                    else {
+                                        delta = -1;
+                                        if (pred != null)
+                                            pred.next = e.next;
+                                        else
+                                            setTabAt(tab, i, e.next);
+                                    }
+                                    break;
+                                }
+                                pred = e;
+                                if ((e = e.next) == null) {
+                                    val = remappingFunction.apply(key, null);
+                                    if (val != null) {
+                                        if (pred.next != null)
+                                            throw new IllegalStateException("Recursive update");
+                                        delta = 1;
+                                        pred.next = new Node<K,V>(h, key, val);
+                                    }
+                                    break;
+                                }
+                            }
+                        }
+                        else if (f instanceof ReservationNode)
+                            throw new IllegalStateException("Recursive update");
+                    }
+                }
+                if (binCount != 0)
+                    break;
+            }
+        }
+        if (delta != 0)
+            addCount(delta, binCount);
+        return val;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (key == null || value == null || remappingFunction == null)
+            throw new NullPointerException();
+        return compute(key, (k, v) -> v == null ? value : remappingFunction.apply(v, value));
+    }
+
+    @Override
+    public KeySetView<K,V> keySet() {
+        KeySetView<K,V> ks;
+        if ((ks = keySet) != null)
+            return ks;
+        return keySet = new KeySetView<K,V>(this, null);
+    }
+
+    /**
+     * Returns a key set view where added keys are mapped to {@code mappedValue}
+     */
+    public KeySetView<K,V> keySet(V mappedValue) {
+        if (mappedValue == null)
+            throw new NullPointerException();
+        return new KeySetView<K,V>(this, mappedValue);
+    }
+
+    /**
+     * Creates a concurrent set backed by a ConcurrentHashMap
+     */
+    public static <K> KeySetView<K,Boolean> newKeySet() {
+        return new KeySetView<K,Boolean>(new ConcurrentHashMap<K,Boolean>(), Boolean.TRUE);
+    }
+
+    public static <K> KeySetView<K,Boolean> newKeySet(int initialCapacity) {
+        return new KeySetView<K,Boolean>(new ConcurrentHashMap<K,Boolean>(initialCapacity), Boolean.TRUE);
     }
 
     @Override
-    public synchronized V replace (K key, V value) {
-        return super.replace(key, value);
+    public Collection<V> values() {
+        ValuesView<K,V> vs;
+        if ((vs = values) != null)
+            return vs;
+        return values = new ValuesView<K,V>(this);
     }
 
     @Override
-    public synchronized Object clone () throws CloneNotSupportedException {
-        return super.clone();
+    public Set<Map.Entry<K,V>> entrySet() {
+        EntrySetView<K,V> es;
+        if ((es = entrySet) != null)
+            return es;
+        return entrySet = new EntrySetView<K,V>(this);
+    }
+
+    public Enumeration<K> keys() {
+        return new KeyIterator<K,V>(table, this);
+    }
+
+    public Enumeration<V> elements() {
+        return new ValueIterator<K,V>(table, this);
+    }
+
+    private final Node<K,V>[] initTable() {
+        Node<K,V>[] tab;
+        int sc;
+        while ((tab = table) == null || tab.length == 0) {
+            if ((sc = sizeCtl.get()) < 0)
+                Thread.yield();
+            else if (sizeCtl.compareAndSet(sc, -1)) {
+                try {
+                    if ((tab = table) == null || tab.length == 0) {
+                        int n = (sc > 0) ? sc : DEFAULT_CAPACITY;
+                        @SuppressWarnings("unchecked")
+                        Node<K,V>[] nt = (Node<K,V>[])new Node<?,?>[n];
+                        table = tab = nt;
+                        sc = n - (n >>> 2);
+                    }
+                } finally {
+                    sizeCtl.set(sc);
+                }
+                break;
+            }
+        }
+        return tab;
+    }
+
+    private final int counterIndex(int length) {
+        long id = Thread.currentThread().getId();
+        return (int)(id ^ (id >>> 32)) & (length - 1);
+    }
+
+    private final AtomicLong[] initCounterCells() {
+        AtomicLong[] cells;
+        synchronized (baseCount) {
+            if ((cells = counterCells) == null) {
+                int n = 2;
+                while (n < NCPU && n < (1 << 16))
+                    n <<= 1;
+                cells = new AtomicLong[n];
+                for (int i = 0; i < n; i++)
+                    cells[i] = new AtomicLong();
+                counterCells = cells;
+            }
+        }
+        return cells;
+    }
+
+    final long sumCount() {
+        AtomicLong[] cells = counterCells;
+        long sum = baseCount.get();
+        if (cells != null)
+            for (AtomicLong c : cells)
+                sum += c.get();
+        return sum;
+    }
+
+    /**
+     * Adds to the count, and if the table is too small and not already resizing, starts or helps a resize. Resizing
+     * is only checked on uncontended updates that found at least one other node in the bin, or removals when negative.
+     */
+    private final void addCount(long x, int check) {
+        AtomicLong[] cells = counterCells;
+        boolean contended = false;
+        if (cells == null) {
+            long b = baseCount.get();
+            if (!baseCount.compareAndSet(b, b + x)) {
+                contended = true;
+                cells = initCounterCells();
+            }
+        }
+        if (cells != null)
+            cells[counterIndex(cells.length)].getAndAdd(x);
+        if (check < 0 || (contended && check <= 1))
+            return;
+        long s = sumCount();
+        Node<K,V>[] tab, nt;
+        int n, sc;
+        while (s >= (long)(sc = sizeCtl.get()) && (tab = table) != null && (n = tab.length) < MAXIMUM_CAPACITY) {
+            int rs = resizeStamp(n) << RESIZE_STAMP_SHIFT;
+            if (sc < 0) {
+                if (sc == rs + MAX_RESIZERS || sc == rs + 1 || (nt = nextTable) == null || transferIndex.get() <= 0)
+                    break;
+                if (sizeCtl.compareAndSet(sc, sc + 1))
+                    transfer(tab, nt);
+            }
+            else if (sizeCtl.compareAndSet(sc, rs + 2))
+                transfer(tab, null);
+            s = sumCount();
+        }
+    }
+
+    /**
+     * Helps transfer bins if a resize is in progress
+     */
+    final Node<K,V>[] helpTransfer(Node<K,V>[] tab, Node<K,V> f) {
+        Node<K,V>[] nextTab;
+        int sc;
+        if (tab != null && (f instanceof ForwardingNode) && (nextTab = ((ForwardingNode<K,V>)f).nextTable) != null) {
+            int rs = resizeStamp(tab.length) << RESIZE_STAMP_SHIFT;
+            while (nextTab == nextTable && table == tab && (sc = sizeCtl.get()) < 0) {
+                if (sc == rs + MAX_RESIZERS || sc == rs + 1 || transferIndex.get() <= 0)
+                    break;
+                if (sizeCtl.compareAndSet(sc, sc + 1)) {
+                    transfer(tab, nextTab);
+                    break;
+                }
+            }
+            return nextTab;
+        }
+        return table;
+    }
+
+    /**
+     * Tries to presize the table to hold the given number of elements
+     */
+    private final void tryPresize(int size) {
+        int c = (size >= (MAXIMUM_CAPACITY >>> 1)) ? MAXIMUM_CAPACITY : tableSizeFor(size + (size >>> 1) + 1);
+        int sc;
+        while ((sc = sizeCtl.get()) >= 0) {
+            Node<K,V>[] tab = table;
+            int n;
+            if (tab == null || (n = tab.length) == 0) {
+                n = (sc > c) ? sc : c;
+                if (sizeCtl.compareAndSet(sc, -1)) {
+                    try {
+                        if (table == tab) {
+                            @SuppressWarnings("unchecked")
+                            Node<K,V>[] nt = (Node<K,V>[])new Node<?,?>[n];
+                            table = nt;
+                            sc = n - (n >>> 2);
+                        }
+                    } finally {
+                        sizeCtl.set(sc);
+                    }
+                }
+            }
+            else if (c <= sc || n >= MAXIMUM_CAPACITY)
+                break;
+            else if (tab == table) {
+                int rs = resizeStamp(n);
+                if (sizeCtl.compareAndSet(sc, (rs << RESIZE_STAMP_SHIFT) + 2))
+                    transfer(tab, null);
+            }
+        }
+    }
+
+    /**
+     * Moves the nodes of each bin to the next table. Threads claim strides of bins starting from the end of the
+     * table, and each moved bin is replaced with a forwarding node.
+     */
+    private final void transfer(Node<K,V>[] tab, Node<K,V>[] nextTab) {
+        int n = tab.length, stride;
+        if ((stride = (NCPU > 1) ? (n >>> 3) / NCPU : n) < MIN_TRANSFER_STRIDE)
+            stride = MIN_TRANSFER_STRIDE;
+        if (nextTab == null) {
+            try {
+                @SuppressWarnings("unchecked")
+                Node<K,V>[] nt = (Node<K,V>[])new Node<?,?>[n << 1];
+                nextTab = nt;
+            } catch (Throwable ex) {
+                sizeCtl.set(Integer.MAX_VALUE);
+                return;
+            }
+            nextTable = nextTab;
+            transferIndex.set(n);
+        }
+        int nextn = nextTab.length;
+        ForwardingNode<K,V> fwd = new ForwardingNode<K,V>(nextTab);
+        boolean advance = true;
+        boolean finishing = false; // Recheck all bins before committing the next table
+        for (int i = 0, bound = 0;;) {
+            Node<K,V> f;
+            int fh;
+            while (advance) {
+                int nextIndex, nextBound;
+                if (--i >= bound || finishing)
+                    advance = false;
+                else if ((nextIndex = transferIndex.get()) <= 0) {
+                    i = -1;
+                    advance = false;
+                }
+                else if (transferIndex.compareAndSet(nextIndex, nextBound = (nextIndex > stride ? nextIndex - stride : 0))) {
+                    bound = nextBound;
+                    i = nextIndex - 1;
+                    advance = false;
+                }
+            }
+            if (i < 0 || i >= n || i + n >= nextn) {
+                int sc;
+                if (finishing) {
+                    nextTable = null;
+                    table = nextTab;
+                    sizeCtl.set((n << 1) - (n >>> 1));
+                    return;
+                }
+                if (sizeCtl.compareAndSet(sc = sizeCtl.get(), sc - 1)) {
+                    if ((sc - 2) != resizeStamp(n) << RESIZE_STAMP_SHIFT)
+                        return;
+                    finishing = advance = true;
+                    i = n;
+                }
+            }
+            else if ((f = tabAt(tab, i)) == null)
+                advance = casTabAt(tab, i, null, fwd);
+            else if ((fh = f.hash) == MOVED)
+                advance = true;
+            else {
+                synchronized (f) {
+                    if (tabAt(tab, i) == f) {
+                        if (fh >= 0) {
+                            // Reuse the trailing run of nodes that all land in the same bin
+                            int runBit = fh & n;
+                            Node<K,V> lastRun = f;
+                            for (Node<K,V> p = f.next; p != null; p = p.next) {
+                                int b = p.hash & n;
+                                if (b != runBit) {
+                                    runBit = b;
+                                    lastRun = p;
+                                }
+                            }
+                            Node<K,V> ln = runBit == 0 ? lastRun : null;
+                            Node<K,V> hn = runBit == 0 ? null : lastRun;
+                            for (Node<K,V> p = f; p != lastRun; p = p.next) {
+                                int ph = p.hash;
+                                K pk = p.key;
+                                V pv = p.val;
+                                if ((ph & n) == 0)
+                                    ln = new Node<K,V>(ph, pk, pv, ln);
+                                else
+                                    hn = new Node<K,V>(ph, pk, pv, hn);
+                            }
+                            setTabAt(nextTab, i, ln);
+                            setTabAt(nextTab, i + n, hn);
+                            setTabAt(tab, i, fwd);
+                            advance = true;
+                        }
+                        else if (f instanceof ReservationNode)
+                            throw new IllegalStateException("Recursive update");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the bins of a table, following forwarding nodes into the next table for bins that were already moved
+     */
+    static class Traverser<K,V> {
+        private final Node<K,V>[] tab;
+        private final ArrayList<Object> pending = new ArrayList<>(); // Pairs of table and index from forwarded bins
+        private Node<K,V> next;
+        private int index;
+
+        Traverser(Node<K,V>[] tab) {
+            this.tab = tab;
+        }
+
+        @SuppressWarnings("unchecked")
+        final Node<K,V> advance() {
+            Node<K,V> e;
+            if ((e = next) != null)
+                e = e.next;
+            for (;;) {
+                if (e != null)
+                    return next = e;
+                Node<K,V>[] t;
+                int i;
+                if (!pending.isEmpty()) {
+                    i = (Integer)pending.remove(pending.size() - 1);
+                    t = (Node<K,V>[])pending.remove(pending.size() - 1);
+                }
+                else if (tab != null && index < tab.length) {
+                    t = tab;
+                    i = index++;
+                }
+                else
+                    return next = null;
+                if ((e = tabAt(t, i)) != null && e.hash < 0) {
+                    if (e instanceof ForwardingNode) {
+                        Node<K,V>[] nt = ((ForwardingNode<K,V>)e).nextTable;
+                        pending.add(nt);
+                        pending.add(i + t.length);
+                        pending.add(nt);
+                        pending.add(i);
+                    }
+                    e = null;
+                }
+            }
+        }
+    }
+
+    static class BaseIterator<K,V> extends Traverser<K,V> {
+        final ConcurrentHashMap<K,V> map;
+        Node<K,V> lastReturned;
+        Node<K,V> nextNode;
+
+        BaseIterator(Node<K,V>[] tab, ConcurrentHashMap<K,V> map) {
+            super(tab);
+            this.map = map;
+            nextNode = advance();
+        }
+
+        public final boolean hasNext() {
+            return nextNode != null;
+        }
+
+        public final boolean hasMoreElements() {
+            return nextNode != null;
+        }
+
+        final Node<K,V> nextNode() {
+            Node<K,V> p;
+            if ((p = nextNode) == null)
+                throw new NoSuchElementException();
+            lastReturned = p;
+            nextNode = advance();
+            return p;
+        }
+
+        public final void remove() {
+            Node<K,V> p;
+            if ((p = lastReturned) == null)
+                throw new IllegalStateException();
+            lastReturned = null;
+            map.replaceNode(p.key, null, null);
+        }
+    }
+
+    static final class KeyIterator<K,V> extends BaseIterator<K,V> implements Iterator<K>, Enumeration<K> {
+        KeyIterator(Node<K,V>[] tab, ConcurrentHashMap<K,V> map) {
+            super(tab, map);
+        }
+
+        public final K next() {
+            return nextNode().key;
+        }
+
+        public final K nextElement() {
+            return next();
+        }
+    }
+
+    static final class ValueIterator<K,V> extends BaseIterator<K,V> implements Iterator<V>, Enumeration<V> {
+        ValueIterator(Node<K,V>[] tab, ConcurrentHashMap<K,V> map) {
+            super(tab, map);
+        }
+
+        public final V next() {
+            return nextNode().val;
+        }
+
+        public final V nextElement() {
+            return next();
+        }
+    }
+
+    static final class EntryIterator<K,V> extends BaseIterator<K,V> implements Iterator<Map.Entry<K,V>> {
+        EntryIterator(Node<K,V>[] tab, ConcurrentHashMap<K,V> map) {
+            super(tab, map);
+        }
+
+        public final Map.Entry<K,V> next() {
+            Node<K,V> p = nextNode();
+            return new MapEntry<K,V>(p.key, p.val, map);
+        }
+    }
+
+    /**
+     * Entry exported by iterators, which writes through to the map
+     */
+    static final class MapEntry<K,V> extends AbstractMap.SimpleEntry<K,V> {
+        private final ConcurrentHashMap<K,V> map;
+
+        MapEntry(K key, V value, ConcurrentHashMap<K,V> map) {
+            super(key, value);
+            this.map = map;
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (value == null)
+                throw new NullPointerException();
+            V v = super.setValue(value);
+            map.put(getKey(), value);
+            return v;
+        }
+    }
+
+    public static final class KeySetView<K,V> extends AbstractSet<K> implements Serializable {
+        private static final long serialVersionUID = 7249069246763182397L;
+        private final ConcurrentHashMap<K,V> map;
+        private final V value;
+
+        KeySetView(ConcurrentHashMap<K,V> map, V value) {
+            this.map = map;
+            this.value = value;
+        }
+
+        public ConcurrentHashMap<K,V> getMap() {
+            return map;
+        }
+
+        public V getMappedValue() {
+            return value;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new KeyIterator<K,V>(map.table, map);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return map.remove(o) != null;
+        }
+
+        @Override
+        public boolean add(K e) {
+            V v;
+            if ((v = value) == null)
+                throw new UnsupportedOperationException();
+            return map.putVal(e, v, true) == null;
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends K> c) {
+            boolean added = false;
+            for (K e : c)
+                if (add(e))
+                    added = true;
+            return added;
+        }
+    }
+
+    static final class ValuesView<K,V> extends AbstractCollection<V> implements Serializable {
+        private static final long serialVersionUID = 2249069246763182397L;
+        private final ConcurrentHashMap<K,V> map;
+
+        ValuesView(ConcurrentHashMap<K,V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator<K,V>(map.table, map);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsValue(o);
+        }
+
+        @Override
+        public boolean add(V e) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    static final class EntrySetView<K,V> extends AbstractSet<Map.Entry<K,V>> implements Serializable {
+        private static final long serialVersionUID = 2249069246763182397L;
+        private final ConcurrentHashMap<K,V> map;
+
+        EntrySetView(ConcurrentHashMap<K,V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K,V>> iterator() {
+            return new EntryIterator<K,V>(map.table, map);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Object k, v, r;
+            Map.Entry<?,?> e;
+            return ((o instanceof Map.Entry) &&
+                    (k = (e = (Map.Entry<?,?>)o).getKey()) != null &&
+                    (r = map.get(k)) != null &&
+                    (v = e.getValue()) != null &&
+                    (v == r || v.equals(r)));
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            Object k, v;
+            Map.Entry<?,?> e;
+            return ((o instanceof Map.Entry) &&
+                    (k = (e = (Map.Entry<?,?>)o).getKey()) != null &&
+                    (v = e.getValue()) != null &&
+                    map.remove(k, v));
+        }
+
+        @Override
+        public boolean add(Map.Entry<K,V> e) {
+            return map.putVal(e.getKey(), e.getValue(), false) == null;
+        }
     }
 }
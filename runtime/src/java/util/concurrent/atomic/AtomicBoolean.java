@@ -11,35 +11,19 @@ public class AtomicBoolean implements java.io.Serializable {
 	public AtomicBoolean() {
 	}
 
-	public synchronized final boolean get() {
-		return value;
-	}
+	public final native boolean get();
 
-	public synchronized final boolean compareAndSet(boolean expect, boolean update) {
-		if (value == expect) {
-			value = update;
-			return true;
-		}
-		return false;
-	}
+	public final native boolean compareAndSet(boolean expect, boolean update);
 
 	public boolean weakCompareAndSet(boolean expect, boolean update) {
 		return compareAndSet(expect, update);
 	}
 
-	public synchronized final void set(boolean newValue) {
-		value = newValue;
-	}
+	public final native void set(boolean newValue);
 
-	public final void lazySet(boolean newValue) {
-		set(newValue);
-	}
+	public final native void lazySet(boolean newValue);
 
-	public synchronized final boolean getAndSet(boolean newValue) {
-		boolean got = value;
-		value = newValue;
-		return got;
-	}
+	public final native boolean getAndSet(boolean newValue);
 
 	public String toString() {
 		return Boolean.toString(get());
@@ -0,0 +1,42 @@
+package java.util.concurrent.atomic;
+
+import java.lang.reflect.Field;
+
+/**
+ * Atomic operations on instance field storage used by the field updaters
+ */
+final class AtomicFieldAccess {
+
+    private AtomicFieldAccess() {
+    }
+
+    static native long objectFieldOffset(Field field);
+
+    static native int getIntVolatile(Object obj, long offset);
+
+    static native void putIntVolatile(Object obj, long offset, int value);
+
+    static native boolean compareAndSwapInt(Object obj, long offset, int expect, int update);
+
+    static native int getAndSetInt(Object obj, long offset, int value);
+
+    static native int getAndAddInt(Object obj, long offset, int delta);
+
+    static native long getLongVolatile(Object obj, long offset);
+
+    static native void putLongVolatile(Object obj, long offset, long value);
+
+    static native boolean compareAndSwapLong(Object obj, long offset, long expect, long update);
+
+    static native long getAndSetLong(Object obj, long offset, long value);
+
+    static native long getAndAddLong(Object obj, long offset, long delta);
+
+    static native Object getObjectVolatile(Object obj, long offset);
+
+    static native void putObjectVolatile(Object obj, long offset, Object value);
+
+    static native boolean compareAndSwapObject(Object obj, long offset, Object expect, Object update);
+
+    static native Object getAndSetObject(Object obj, long offset, Object value);
+}
@@ -89,9 +89,7 @@ public class AtomicIntegerArray implements java.io.Serializable {
      * @param i the index
      * @return the current value
      */
-    public synchronized final int get(int i) {
-        return array[i];
-    }
+    public final native int get(int i);
 
     /**
      * Sets the element at index {@code i} to {@code newValue},
@@ -100,9 +98,7 @@ public class AtomicIntegerArray implements java.io.Serializable {
      * @param i the index
      * @param newValue the new value
      */
-    public synchronized final void set(int i, int newValue) {
-        array[i] = newValue;
-    }
+    public final native void set(int i, int newValue);
 
     /**
      * Sets the element at index {@code i} to {@code newValue},
@@ -125,11 +121,7 @@ public class AtomicIntegerArray implements java.io.Serializable {
      * @param newValue the new value
      * @return the previous value
      */
-    public synchronized final int getAndSet(int i, int newValue) {
-        int value = get(i);
-        set(i, newValue);
-        return value;
-    }
+    public final native int getAndSet(int i, int newValue);
 
     /**
      * Atomically sets the element at index {@code i} to {@code
@@ -142,13 +134,7 @@ public class AtomicIntegerArray implements java.io.Serializable {
      * @return {@code true} if successful. False return indicates that
      * the actual value was not equal to the expected value.
      */
-    public synchronized final boolean compareAndSet(int i, int expectedValue, int newValue) {
-        int value = get(i);
-        if (value != expectedValue)
-            return false;
-        set(i, newValue);
-        return true;
-    }
+    public final native boolean compareAndSet(int i, int expectedValue, int newValue);
 
     /**
      * Possibly atomically sets the element at index {@code i} to
@@ -221,11 +207,7 @@ public class AtomicIntegerArray implements java.io.Serializable {
      * @param delta the value to add
      * @return the previous value
      */
-    public synchronized final int getAndAdd(int i, int delta) {
-        int value = get(i);
-        set(i, value + delta);
-        return value;
-    }
+    public final native int getAndAdd(int i, int delta);
 
     /**
      * Atomically increments the value of the element at index {@code i},
@@ -480,13 +462,7 @@ public class AtomicIntegerArray implements java.io.Serializable {
      * expected value if successful
      * @since 9
      */
-    public synchronized final int compareAndExchange(int i, int expectedValue, int newValue) {
-        int value = get(i);
-        if (value != expectedValue)
-            return value;
-        set(i, newValue);
-        return newValue;
-    }
+    public final native int compareAndExchange(int i, int expectedValue, int newValue);
 
     /**
      * Atomically sets the element at index {@code i} to {@code newValue}
@@ -377,6 +377,7 @@ public abstract class AtomicIntegerFieldUpdater<T> {
         /** class holding the field */
         private final Class<T> tclass;
         private final Field field;
+        private final long offset;
 
         AtomicIntegerFieldUpdaterImpl(final Class<T> tclass,
                                       final String fieldName) {
@@ -403,6 +404,7 @@ public abstract class AtomicIntegerFieldUpdater<T> {
             // narrowed to the type of the accessing class.
             this.cclass = tclass;
             this.tclass = tclass;
+            this.offset = AtomicFieldAccess.objectFieldOffset(field);
         }
 
         /**
@@ -448,55 +450,37 @@ public abstract class AtomicIntegerFieldUpdater<T> {
                                         obj.getClass().getName()));
         }
 
-        public synchronized final boolean compareAndSet(T obj, int expect, int update) {
+        public final boolean compareAndSet(T obj, int expect, int update) {
             accessCheck(obj);
-            int value = get(obj);
-            if (value != expect)
-                return false;
-            set(obj, update);
-            return true;
+            return AtomicFieldAccess.compareAndSwapInt(obj, offset, expect, update);
         }
 
         public final boolean weakCompareAndSet(T obj, int expect, int update) {
-            accessCheck(obj);
             return compareAndSet(obj, expect, update);
         }
 
-        public synchronized final void set(T obj, int newValue) {
+        public final void set(T obj, int newValue) {
             accessCheck(obj);
-            try {
-                field.set(obj, newValue);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException(e);
-            }
+            AtomicFieldAccess.putIntVolatile(obj, offset, newValue);
         }
 
         public final void lazySet(T obj, int newValue) {
-            accessCheck(obj);
             set(obj, newValue);
         }
 
-        public synchronized final int get(T obj) {
+        public final int get(T obj) {
             accessCheck(obj);
-            try {
-                return (int)field.get(obj);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException(e);
-            }
+            return AtomicFieldAccess.getIntVolatile(obj, offset);
         }
 
-        public synchronized final int getAndSet(T obj, int newValue) {
+        public final int getAndSet(T obj, int newValue) {
             accessCheck(obj);
-            int value = get(obj);
-            set(obj, newValue);
-            return value;
+            return AtomicFieldAccess.getAndSetInt(obj, offset, newValue);
         }
 
-        public synchronized final int getAndAdd(T obj, int delta) {
+        public final int getAndAdd(T obj, int delta) {
             accessCheck(obj);
-            int value = get(obj);
-            set(obj, value + delta);
-            return value;
+            return AtomicFieldAccess.getAndAddInt(obj, offset, delta);
         }
 
         public final int getAndIncrement(T obj) {
@@ -83,7 +83,7 @@ public abstract class AtomicLongFieldUpdater<T> {
      */
     public static <U> AtomicLongFieldUpdater<U> newUpdater(Class<U> tclass,
                                                            String fieldName) {
-        return new LockedUpdater<U>(tclass, fieldName);
+        return new CASUpdater<U>(tclass, fieldName);
     }
 
     /**
@@ -363,8 +363,9 @@ public abstract class AtomicLongFieldUpdater<T> {
         return next;
     }
 
-    private static final class LockedUpdater<T> extends AtomicLongFieldUpdater<T> {
+    private static final class CASUpdater<T> extends AtomicLongFieldUpdater<T> {
         private final Field field;
+        private final long offset;
         /**
          * if field is protected, the subclass constructing updater, else
          * the same as tclass
@@ -373,7 +374,7 @@ public abstract class AtomicLongFieldUpdater<T> {
         /** class holding the field */
         private final Class<T> tclass;
 
-        LockedUpdater(final Class<T> tclass, final String fieldName) {
+        CASUpdater(final Class<T> tclass, final String fieldName) {
             final int modifiers;
             try {
                 field = tclass.getDeclaredField(fieldName);;
@@ -396,7 +397,8 @@ public abstract class AtomicLongFieldUpdater<T> {
             // outside the current package, the receiver argument will be
             // narrowed to the type of the accessing class.
             this.cclass = tclass;
-            this.tclass = tclass;;
+            this.tclass = tclass;
+            this.offset = AtomicFieldAccess.objectFieldOffset(field);
         }
 
         /**
@@ -428,13 +430,7 @@ public abstract class AtomicLongFieldUpdater<T> {
 
         public final boolean compareAndSet(T obj, long expect, long update) {
             accessCheck(obj);
-            synchronized (this) {
-                long v = get(obj);
-                if (v != expect)
-                    return false;
-                set(obj, update);
-                return true;
-            }
+            return AtomicFieldAccess.compareAndSwapLong(obj, offset, expect, update);
         }
 
         public final boolean weakCompareAndSet(T obj, long expect, long update) {
@@ -443,13 +439,7 @@ public abstract class AtomicLongFieldUpdater<T> {
 
         public final void set(T obj, long newValue) {
             accessCheck(obj);
-            synchronized (this) {
-                try {
-                    field.set(obj, newValue);
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+            AtomicFieldAccess.putLongVolatile(obj, offset, newValue);
         }
 
         public final void lazySet(T obj, long newValue) {
@@ -458,13 +448,37 @@ public abstract class AtomicLongFieldUpdater<T> {
 
         public final long get(T obj) {
             accessCheck(obj);
-            synchronized (this) {
-                try {
-                    return field.getLong(obj);
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+            return AtomicFieldAccess.getLongVolatile(obj, offset);
+        }
+
+        public final long getAndSet(T obj, long newValue) {
+            accessCheck(obj);
+            return AtomicFieldAccess.getAndSetLong(obj, offset, newValue);
+        }
+
+        public final long getAndAdd(T obj, long delta) {
+            accessCheck(obj);
+            return AtomicFieldAccess.getAndAddLong(obj, offset, delta);
+        }
+
+        public final long getAndIncrement(T obj) {
+            return getAndAdd(obj, 1);
+        }
+
+        public final long getAndDecrement(T obj) {
+            return getAndAdd(obj, -1);
+        }
+
+        public final long incrementAndGet(T obj) {
+            return getAndAdd(obj, 1) + 1;
+        }
+
+        public final long decrementAndGet(T obj) {
+            return getAndAdd(obj, -1) - 1;
+        }
+
+        public final long addAndGet(T obj, long delta) {
+            return getAndAdd(obj, delta) + delta;
         }
     }
-}
\ No newline at end of file
+}
@@ -93,10 +93,7 @@ public class AtomicReferenceArray<E> implements java.io.Serializable {
      * @param i the index
      * @return the current value
      */
-    @SuppressWarnings("unchecked")
-    public synchronized final E get(int i) {
-        return (E)array[i];
-    }
+    public final native E get(int i);
 
     /**
      * Sets the element at index {@code i} to {@code newValue},
@@ -105,9 +102,7 @@ public class AtomicReferenceArray<E> implements java.io.Serializable {
      * @param i the index
      * @param newValue the new value
      */
-    public synchronized final void set(int i, E newValue) {
-        array[i] = newValue;
-    }
+    public final native void set(int i, E newValue);
 
     /**
      * Sets the element at index {@code i} to {@code newValue},
@@ -130,12 +125,7 @@ public class AtomicReferenceArray<E> implements java.io.Serializable {
      * @param newValue the new value
      * @return the previous value
      */
-    @SuppressWarnings("unchecked")
-    public synchronized final E getAndSet(int i, E newValue) {
-        E value = get(i);
-        set(i, newValue);
-        return value;
-    }
+    public final native E getAndSet(int i, E newValue);
 
     /**
      * Atomically sets the element at index {@code i} to {@code newValue}
@@ -148,13 +138,7 @@ public class AtomicReferenceArray<E> implements java.io.Serializable {
      * @return {@code true} if successful. False return indicates that
      * the actual value was not equal to the expected value.
      */
-    public synchronized final boolean compareAndSet(int i, E expectedValue, E newValue) {
-        E value = get(i);
-        if (value != expectedValue)
-            return false;
-        set(i, newValue);
-        return true;
-    }
+    public final native boolean compareAndSet(int i, E expectedValue, E newValue);
 
     /**
      * Possibly atomically sets the element at index {@code i} to
@@ -408,13 +392,7 @@ public class AtomicReferenceArray<E> implements java.io.Serializable {
      * expected value if successful
      * @since 9
      */
-    public synchronized final E compareAndExchange(int i, E expectedValue, E newValue) {
-        E value = get(i);
-        if (value != expectedValue)
-            return value;
-        set(i, newValue);
-        return newValue;
-    }
+    public final native E compareAndExchange(int i, E expectedValue, E newValue);
 
     /**
      * Atomically sets the element at index {@code i} to {@code newValue}
@@ -286,6 +286,7 @@ public abstract class AtomicReferenceFieldUpdater<T,V> {
 		private final Class<V> vclass;
 
 		private final Field field;
+		private final long offset;
 
 		/*
 		 * Internal type checks within all update methods contain
@@ -329,6 +330,7 @@ public abstract class AtomicReferenceFieldUpdater<T,V> {
 			this.cclass = tclass;
 			this.tclass = tclass;
 			this.vclass = vclass;
+			this.offset = AtomicFieldAccess.objectFieldOffset(field);
 		}
 
 		/**
@@ -367,66 +369,38 @@ public abstract class AtomicReferenceFieldUpdater<T,V> {
 			throw new ClassCastException();
 		}
 
-		public synchronized boolean compareAndSet(T obj, V expect, V update) {
+		public final boolean compareAndSet(T obj, V expect, V update) {
 			accessCheck(obj);
 			valueCheck(update);
-			try {
-				if (field.get(obj) == expect) {
-					field.set(obj, update);
-					return true;
-				}
-//				return U.compareAndSwapObject(obj, offset, expect, update);
-			} catch (IllegalAccessException ignored) {}
-			return false;
+			return AtomicFieldAccess.compareAndSwapObject(obj, offset, expect, update);
 		}
 
-		public synchronized boolean weakCompareAndSet(T obj, V expect, V update) {
+		public final boolean weakCompareAndSet(T obj, V expect, V update) {
 			// same implementation as strong form for now
-			accessCheck(obj);
-			valueCheck(update);
 			return compareAndSet(obj, expect, update);
-//			return U.compareAndSwapObject(obj, offset, expect, update);
 		}
 
-		public synchronized void set(T obj, V newValue) {
+		public final void set(T obj, V newValue) {
 			accessCheck(obj);
 			valueCheck(newValue);
-			try {
-				field.set(obj, newValue);
-			} catch (IllegalAccessException ignored) {}
-//			U.putObjectVolatile(obj, offset, newValue);
+			AtomicFieldAccess.putObjectVolatile(obj, offset, newValue);
 		}
 
-		public synchronized void lazySet(T obj, V newValue) {
-			accessCheck(obj);
-			valueCheck(newValue);
-//			U.putOrderedObject(obj, offset, newValue);
+		public final void lazySet(T obj, V newValue) {
 			set(obj, newValue);
 		}
 
 		@SuppressWarnings("unchecked")
-		public synchronized V get(T obj) {
+		public final V get(T obj) {
 			accessCheck(obj);
-//			return (V)U.getObjectVolatile(obj, offset);
-			try {
-				return (V)field.get(obj);
-			} catch (IllegalAccessException e) {
-				throw new RuntimeException(e);
-			}
+			return (V)AtomicFieldAccess.getObjectVolatile(obj, offset);
 		}
 
 		@SuppressWarnings("unchecked")
-		public synchronized V getAndSet(T obj, V newValue) {
+		public final V getAndSet(T obj, V newValue) {
 			accessCheck(obj);
 			valueCheck(newValue);
-			try {
-				V old = (V)field.get(obj);
-				field.set(obj, newValue);
-				return old;
-			} catch (IllegalAccessException e) {
-				throw new RuntimeException(e);
-			}
-//			return (V)U.getAndSetObject(obj, offset, newValue);
+			return (V)AtomicFieldAccess.getAndSetObject(obj, offset, newValue);
 		}
 	}
 }
@@ -119,10 +119,7 @@ package java.util.concurrent.locks;
 public class LockSupport {
     private LockSupport () {} // Cannot be instantiated.
 
-    private static void setBlocker(Thread t, Object arg) {
-        // Even though volatile, hotspot doesn't need a write barrier here.
-//        UNSAFE.putObject(t, parkBlockerOffset, arg);
-    }
+    private static native void setBlocker(Thread t, Object arg);
 
     /**
      * Makes available the permit for the given thread, if it
@@ -136,8 +133,8 @@ public class LockSupport {
      *        this operation has no effect
      */
     public static void unpark(Thread thread) {
-//        if (thread != null)
-//            UNSAFE.unpark(thread);
+        if (thread != null)
+            unparkImpl(thread);
     }
 
     /**
@@ -171,7 +168,7 @@ public class LockSupport {
     public static void park(Object blocker) {
         Thread t = Thread.currentThread();
         setBlocker(t, blocker);
-//        UNSAFE.park(false, 0L);
+        parkImpl(false, 0L);
         setBlocker(t, null);
     }
 
@@ -211,7 +208,7 @@ public class LockSupport {
         if (nanos > 0) {
             Thread t = Thread.currentThread();
             setBlocker(t, blocker);
-//            UNSAFE.park(false, nanos);
+            parkImpl(false, nanos);
             setBlocker(t, null);
         }
     }
@@ -252,7 +249,7 @@ public class LockSupport {
     public static void parkUntil(Object blocker, long deadline) {
         Thread t = Thread.currentThread();
         setBlocker(t, blocker);
-//        UNSAFE.park(true, deadline);
+        parkImpl(true, deadline);
         setBlocker(t, null);
     }
 
@@ -271,8 +268,7 @@ public class LockSupport {
     public static Object getBlocker(Thread t) {
         if (t == null)
             throw new NullPointerException();
-//        return UNSAFE.getObjectVolatile(t, parkBlockerOffset);
-		return null;
+        return getBlockerImpl(t);
     }
 
     /**
@@ -301,7 +297,7 @@ public class LockSupport {
      * for example, the interrupt status of the thread upon return.
      */
     public static void park() {
-//        UNSAFE.park(false, 0L);
+        parkImpl(false, 0L);
     }
 
     /**
@@ -334,8 +330,8 @@ public class LockSupport {
      * @param nanos the maximum number of nanoseconds to wait
      */
     public static void parkNanos(long nanos) {
-//        if (nanos > 0)
-//            UNSAFE.park(false, nanos);
+        if (nanos > 0)
+            parkImpl(false, nanos);
     }
 
     /**
@@ -369,11 +365,11 @@ public class LockSupport {
      *        to wait until
      */
     public static void parkUntil(long deadline) {
-//        UNSAFE.park(true, deadline);
+        parkImpl(true, deadline);
     }
 
     static final long getThreadId(Thread thread) {
-        return 0;
+        return thread.getId();
     }
 
     /**
@@ -395,6 +391,17 @@ public class LockSupport {
 		return 0;
     }
 
+    /**
+     * Blocks the current thread until its permit is available, it is interrupted, or the timeout elapses. The time
+     * is a relative timeout in nanoseconds, or an absolute deadline in milliseconds since the epoch if
+     * {@code absolute} is set, where a relative time of zero waits indefinitely.
+     */
+    private static native void parkImpl(boolean absolute, long time);
+
+    private static native void unparkImpl(Thread thread);
+
+    private static native Object getBlockerImpl(Thread t);
+
 //    // Hotspot implementation via intrinsics API
 //    private static final Unsafe UNSAFE;
 //    private static final long parkBlockerOffset;
@@ -0,0 +1,291 @@
+package java.util.stream;
+
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The base of the stream implementations, where each intermediate operation adds a stage linked to the previous one.
+ * Nothing runs until a terminal operation, which wraps its sink with the sink of every stage from last to first and
+ * pushes the source elements through the resulting chain, so the whole pipeline is fused into a single pass without
+ * intermediate collections. Parallel streams split the source and run the fused chain on each piece in the common
+ * ForkJoinPool, combining the partial results in encounter order. Pipelines with stateful operations like sorted, distinct,
+ * limit, and skip, and terminal operations without a combiner, are evaluated sequentially.
+ *
+ * @param <E_OUT> The type of the elements output by this stage
+ * @param <S> The type of stream implemented by this stage
+ */
+abstract class AbstractPipeline<E_OUT, S extends BaseStream<E_OUT, S>> implements BaseStream<E_OUT, S> {
+
+    static final int SHAPE_REFERENCE = 0;
+    static final int SHAPE_INT = 1;
+    static final int SHAPE_LONG = 2;
+    static final int SHAPE_DOUBLE = 3;
+
+    private final AbstractPipeline<?, ?> sourceStage;
+    private final AbstractPipeline<?, ?> previousStage;
+    private final int depth;
+    private boolean linked;
+
+    // Only used on the source stage
+    private Spliterator<?> sourceSpliterator;
+    private final int sourceShape;
+    private boolean parallel;
+    private boolean stateful;
+    private boolean shortCircuit;
+    private Runnable closeHandler;
+
+    AbstractPipeline(Spliterator<?> source, int shape, boolean parallel) {
+        sourceStage = this;
+        previousStage = null;
+        depth = 0;
+        sourceSpliterator = source;
+        sourceShape = shape;
+        this.parallel = parallel;
+    }
+
+    AbstractPipeline(AbstractPipeline<?, ?> previous, boolean stateful, boolean shortCircuit) {
+        if (previous.linked)
+            throw new IllegalStateException("stream has already been operated upon or closed");
+        previous.linked = true;
+        sourceStage = previous.sourceStage;
+        previousStage = previous;
+        depth = previous.depth + 1;
+        sourceShape = sourceStage.sourceShape;
+        sourceStage.stateful |= stateful;
+        sourceStage.shortCircuit |= shortCircuit;
+    }
+
+    /**
+     * A stage after the source, which has an operation of its own. Every stage other than the source implements this.
+     *
+     * @param <E_OUT> The type of the elements output by the stage
+     */
+    interface IntermediateStage<E_OUT> {
+
+        /**
+         * Wraps the sink of the following stage with the sink of this stage's operation, which accepts the elements of
+         * the previous stage
+         */
+        Sink<?> opWrapSink(Sink<E_OUT> sink);
+    }
+
+    /**
+     * Whether a stage of the pipeline or its terminal operation can stop before consuming all elements
+     */
+    final boolean isShortCircuit() {
+        return sourceStage.shortCircuit;
+    }
+
+    final int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Builds the fused sink chain that accepts source elements and ends with the given sink
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    final Sink<?> wrapSink(Sink<E_OUT> sink) {
+        Sink wrapped = sink;
+        for (AbstractPipeline pipeline = this; pipeline.depth > 0; pipeline = pipeline.previousStage)
+            wrapped = ((IntermediateStage) pipeline).opWrapSink(wrapped);
+        return wrapped;
+    }
+
+    /**
+     * Takes the source spliterator for a terminal operation, which can only happen once
+     */
+    final Spliterator<?> consumeSource() {
+        if (linked)
+            throw new IllegalStateException("stream has already been operated upon or closed");
+        linked = true;
+        Spliterator<?> spliterator = sourceStage.sourceSpliterator;
+        if (spliterator == null)
+            throw new IllegalStateException("source already consumed or closed");
+        sourceStage.sourceSpliterator = null;
+        return spliterator;
+    }
+
+    /**
+     * The exact number of output elements if nothing follows the source and its size is known, otherwise -1
+     */
+    final long exactOutputSizeIfKnown() {
+        if (depth > 0 || linked || sourceSpliterator == null)
+            return -1;
+        return sourceSpliterator.getExactSizeIfKnown();
+    }
+
+    /**
+     * Pushes one source element into a sink chain, returning false if the source is exhausted
+     */
+    @SuppressWarnings("unchecked")
+    final boolean tryAdvance(Spliterator<?> spliterator, Sink<?> sink) {
+        switch (sourceShape) {
+            case SHAPE_INT:
+                return ((Spliterator.OfInt) spliterator).tryAdvance((IntConsumer) sink);
+            case SHAPE_LONG:
+                return ((Spliterator.OfLong) spliterator).tryAdvance((LongConsumer) sink);
+            case SHAPE_DOUBLE:
+                return ((Spliterator.OfDouble) spliterator).tryAdvance((DoubleConsumer) sink);
+            default:
+                return ((Spliterator<Object>) spliterator).tryAdvance((Sink<Object>) sink);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void forEachRemaining(Spliterator<?> spliterator, Sink<?> sink) {
+        switch (sourceShape) {
+            case SHAPE_INT:
+                ((Spliterator.OfInt) spliterator).forEachRemaining((IntConsumer) sink);
+                break;
+            case SHAPE_LONG:
+                ((Spliterator.OfLong) spliterator).forEachRemaining((LongConsumer) sink);
+                break;
+            case SHAPE_DOUBLE:
+                ((Spliterator.OfDouble) spliterator).forEachRemaining((DoubleConsumer) sink);
+                break;
+            default:
+                ((Spliterator<Object>) spliterator).forEachRemaining((Sink<Object>) sink);
+        }
+    }
+
+    /**
+     * Pushes all source elements from a spliterator through a sink chain, stopping early if the chain requests it
+     */
+    final void copyInto(Sink<?> sink, Spliterator<?> spliterator) {
+        sink.begin(spliterator.getExactSizeIfKnown());
+        if (isShortCircuit()) {
+            while (!sink.cancellationRequested() && tryAdvance(spliterator, sink)) {
+            }
+        } else
+            forEachRemaining(spliterator, sink);
+        sink.end();
+    }
+
+    /**
+     * Runs a terminal operation. Each piece of the source gets its own terminal sink from the factory, and the results of
+     * adjacent pieces are merged by the combiner in encounter order. A null combiner forces sequential evaluation.
+     */
+    final <R> R evaluate(boolean shortCircuit, Supplier<? extends Sink.Terminal<E_OUT, R>> factory, BinaryOperator<R> combiner) {
+        sourceStage.shortCircuit |= shortCircuit;
+        Spliterator<?> spliterator = consumeSource();
+        if (isParallel() && combiner != null && !sourceStage.stateful && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            long size = spliterator.estimateSize();
+            long threshold = Math.max(1, size / (ForkJoinPool.getCommonPoolParallelism() * 4L));
+            return ForkJoinPool.commonPool().invoke(new EvaluateTask<>(this, spliterator, threshold, factory, combiner));
+        }
+        Sink.Terminal<E_OUT, R> sink = factory.get();
+        copyInto(wrapSink(sink), spliterator);
+        return sink.get();
+    }
+
+    /**
+     * Evaluates a piece of the source in parallel, forking off prefixes while the piece is above the split threshold
+     */
+    private static final class EvaluateTask<E_OUT, R> extends ForkJoinTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final AbstractPipeline<E_OUT, ?> pipeline;
+        private final Spliterator<?> spliterator;
+        private final long threshold;
+        private final Supplier<? extends Sink.Terminal<E_OUT, R>> factory;
+        private final BinaryOperator<R> combiner;
+        private R result;
+
+        EvaluateTask(AbstractPipeline<E_OUT, ?> pipeline, Spliterator<?> spliterator, long threshold,
+                     Supplier<? extends Sink.Terminal<E_OUT, R>> factory, BinaryOperator<R> combiner) {
+            this.pipeline = pipeline;
+            this.spliterator = spliterator;
+            this.threshold = threshold;
+            this.factory = factory;
+            this.combiner = combiner;
+        }
+
+        @Override
+        public R getRawResult() {
+            return result;
+        }
+
+        @Override
+        protected void setRawResult(R value) {
+            result = value;
+        }
+
+        @Override
+        protected boolean exec() {
+            ArrayList<EvaluateTask<E_OUT, R>> prefixes = new ArrayList<>();
+            Spliterator<?> remaining = spliterator;
+            Spliterator<?> prefix;
+            while (remaining.estimateSize() > threshold && (prefix = remaining.trySplit()) != null) {
+                EvaluateTask<E_OUT, R> task = new EvaluateTask<>(pipeline, prefix, threshold, factory, combiner);
+                task.fork();
+                prefixes.add(task);
+            }
+
+            Sink.Terminal<E_OUT, R> sink = factory.get();
+            pipeline.copyInto(pipeline.wrapSink(sink), remaining);
+
+            if (prefixes.isEmpty()) {
+                result = sink.get();
+                return true;
+            }
+            R combined = prefixes.get(0).join();
+            for (int i = 1; i < prefixes.size(); i++)
+                combined = combiner.apply(combined, prefixes.get(i).join());
+            result = combiner.apply(combined, sink.get());
+            return true;
+        }
+    }
+
+    @Override
+    public final boolean isParallel() {
+        return sourceStage.parallel;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public S sequential() {
+        sourceStage.parallel = false;
+        return (S) this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public S parallel() {
+        sourceStage.parallel = true;
+        return (S) this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public S unordered() {
+        return (S) this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public S onClose(Runnable closeHandler) {
+        if (linked)
+            throw new IllegalStateException("stream has already been operated upon or closed");
+        Runnable existing = sourceStage.closeHandler;
+        sourceStage.closeHandler = existing == null ? closeHandler : Streams.composeHandlers(existing, closeHandler);
+        return (S) this;
+    }
+
+    @Override
+    public void close() {
+        linked = true;
+        sourceStage.sourceSpliterator = null;
+        Runnable handler = sourceStage.closeHandler;
+        if (handler != null) {
+            sourceStage.closeHandler = null;
+            handler.run();
+        }
+    }
+}
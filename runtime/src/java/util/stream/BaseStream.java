@@ -0,0 +1,27 @@
+package java.util.stream;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+
+/**
+ * Base interface for streams, which are sequences of elements supporting sequential and parallel aggregate operations.
+ */
+public interface BaseStream<T, S extends BaseStream<T, S>> extends AutoCloseable {
+
+    Iterator<T> iterator();
+
+    Spliterator<T> spliterator();
+
+    boolean isParallel();
+
+    S sequential();
+
+    S parallel();
+
+    S unordered();
+
+    S onClose(Runnable closeHandler);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,53 @@
+package java.util.stream;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A mutable reduction operation that accumulates input elements into a mutable result container, optionally
+ * transforming the accumulated result into a final representation after all input elements have been processed.
+ */
+public interface Collector<T, A, R> {
+
+    Supplier<A> supplier();
+
+    BiConsumer<A, T> accumulator();
+
+    BinaryOperator<A> combiner();
+
+    Function<A, R> finisher();
+
+    Set<Characteristics> characteristics();
+
+    static <T, R> Collector<T, R, R> of(Supplier<R> supplier, BiConsumer<R, T> accumulator, BinaryOperator<R> combiner, Characteristics... characteristics) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        Set<Characteristics> set = new HashSet<>();
+        Collections.addAll(set, characteristics);
+        set.add(Characteristics.IDENTITY_FINISH);
+        return new Collectors.CollectorImpl<>(supplier, accumulator, combiner, Collectors.castingIdentity(), Collections.unmodifiableSet(set));
+    }
+
+    static <T, A, R> Collector<T, A, R> of(Supplier<A> supplier, BiConsumer<A, T> accumulator, BinaryOperator<A> combiner, Function<A, R> finisher, Characteristics... characteristics) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        Objects.requireNonNull(finisher);
+        Set<Characteristics> set = new HashSet<>();
+        Collections.addAll(set, characteristics);
+        return new Collectors.CollectorImpl<>(supplier, accumulator, combiner, finisher, Collections.unmodifiableSet(set));
+    }
+
+    enum Characteristics {
+        CONCURRENT,
+        UNORDERED,
+        IDENTITY_FINISH
+    }
+}
@@ -0,0 +1,353 @@
+package java.util.stream;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Implementations of {@link Collector} that implement various useful reduction operations, such as accumulating elements
+ * into collections, summarizing elements according to various criteria, etc.
+ */
+public final class Collectors {
+
+    private static final Set<Collector.Characteristics> CH_ID = Collections.unmodifiableSet(new HashSet<>(Collections.singletonList(Collector.Characteristics.IDENTITY_FINISH)));
+    private static final Set<Collector.Characteristics> CH_UNORDERED_ID = Collections.unmodifiableSet(new HashSet<>(java.util.Arrays.asList(Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH)));
+    private static final Set<Collector.Characteristics> CH_NOID = Collections.emptySet();
+
+    private Collectors() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <I, R> Function<I, R> castingIdentity() {
+        return i -> (R) i;
+    }
+
+    static class CollectorImpl<T, A, R> implements Collector<T, A, R> {
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, T> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final Function<A, R> finisher;
+        private final Set<Characteristics> characteristics;
+
+        CollectorImpl(Supplier<A> supplier, BiConsumer<A, T> accumulator, BinaryOperator<A> combiner, Function<A, R> finisher, Set<Characteristics> characteristics) {
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.finisher = finisher;
+            this.characteristics = characteristics;
+        }
+
+        CollectorImpl(Supplier<A> supplier, BiConsumer<A, T> accumulator, BinaryOperator<A> combiner, Set<Characteristics> characteristics) {
+            this(supplier, accumulator, combiner, castingIdentity(), characteristics);
+        }
+
+        @Override
+        public Supplier<A> supplier() {
+            return supplier;
+        }
+
+        @Override
+        public BiConsumer<A, T> accumulator() {
+            return accumulator;
+        }
+
+        @Override
+        public BinaryOperator<A> combiner() {
+            return combiner;
+        }
+
+        @Override
+        public Function<A, R> finisher() {
+            return finisher;
+        }
+
+        @Override
+        public Set<Characteristics> characteristics() {
+            return characteristics;
+        }
+    }
+
+    public static <T, C extends Collection<T>> Collector<T, ?, C> toCollection(Supplier<C> collectionFactory) {
+        return new CollectorImpl<>(collectionFactory, Collection::add, (r1, r2) -> {
+            r1.addAll(r2);
+            return r1;
+        }, CH_ID);
+    }
+
+    public static <T> Collector<T, ?, List<T>> toList() {
+        return new CollectorImpl<>((Supplier<List<T>>) ArrayList::new, List::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        }, CH_ID);
+    }
+
+    public static <T> Collector<T, ?, Set<T>> toSet() {
+        return new CollectorImpl<>((Supplier<Set<T>>) HashSet::new, Set::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        }, CH_UNORDERED_ID);
+    }
+
+    public static Collector<CharSequence, ?, String> joining() {
+        return new CollectorImpl<CharSequence, StringBuilder, String>(StringBuilder::new, StringBuilder::append, (r1, r2) -> {
+            r1.append(r2);
+            return r1;
+        }, StringBuilder::toString, CH_NOID);
+    }
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter) {
+        return joining(delimiter, "", "");
+    }
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter, CharSequence prefix, CharSequence suffix) {
+        return new CollectorImpl<>(() -> new StringJoiner(delimiter, prefix, suffix), StringJoiner::add, StringJoiner::merge, StringJoiner::toString, CH_NOID);
+    }
+
+    public static <T, U, A, R> Collector<T, ?, R> mapping(Function<? super T, ? extends U> mapper, Collector<? super U, A, R> downstream) {
+        BiConsumer<A, ? super U> downstreamAccumulator = downstream.accumulator();
+        return new CollectorImpl<>(downstream.supplier(), (A r, T t) -> downstreamAccumulator.accept(r, mapper.apply(t)),
+                downstream.combiner(), downstream.finisher(), downstream.characteristics());
+    }
+
+    public static <T, A, R, RR> Collector<T, A, RR> collectingAndThen(Collector<T, A, R> downstream, Function<R, RR> finisher) {
+        Set<Collector.Characteristics> characteristics = downstream.characteristics();
+        if (characteristics.contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            if (characteristics.size() == 1)
+                characteristics = CH_NOID;
+            else {
+                characteristics = new HashSet<>(characteristics);
+                characteristics.remove(Collector.Characteristics.IDENTITY_FINISH);
+                characteristics = Collections.unmodifiableSet(characteristics);
+            }
+        }
+        return new CollectorImpl<>(downstream.supplier(), downstream.accumulator(), downstream.combiner(),
+                downstream.finisher().andThen(finisher), characteristics);
+    }
+
+    public static <T> Collector<T, ?, Long> counting() {
+        return summingLong(e -> 1L);
+    }
+
+    public static <T> Collector<T, ?, Optional<T>> minBy(Comparator<? super T> comparator) {
+        return reducing(BinaryOperator.minBy(comparator));
+    }
+
+    public static <T> Collector<T, ?, Optional<T>> maxBy(Comparator<? super T> comparator) {
+        return reducing(BinaryOperator.maxBy(comparator));
+    }
+
+    public static <T> Collector<T, ?, Integer> summingInt(ToIntFunction<? super T> mapper) {
+        return new CollectorImpl<T, int[], Integer>(() -> new int[1], (a, t) -> a[0] += mapper.applyAsInt(t), (a, b) -> {
+            a[0] += b[0];
+            return a;
+        }, a -> a[0], CH_NOID);
+    }
+
+    public static <T> Collector<T, ?, Long> summingLong(ToLongFunction<? super T> mapper) {
+        return new CollectorImpl<T, long[], Long>(() -> new long[1], (a, t) -> a[0] += mapper.applyAsLong(t), (a, b) -> {
+            a[0] += b[0];
+            return a;
+        }, a -> a[0], CH_NOID);
+    }
+
+    public static <T> Collector<T, ?, Double> summingDouble(ToDoubleFunction<? super T> mapper) {
+        return new CollectorImpl<T, DoubleSummaryStatistics, Double>(DoubleSummaryStatistics::new, (a, t) -> a.accept(mapper.applyAsDouble(t)), (a, b) -> {
+            a.combine(b);
+            return a;
+        }, DoubleSummaryStatistics::getSum, CH_NOID);
+    }
+
+    public static <T> Collector<T, ?, Double> averagingInt(ToIntFunction<? super T> mapper) {
+        return new CollectorImpl<T, long[], Double>(() -> new long[2], (a, t) -> {
+            a[0] += mapper.applyAsInt(t);
+            a[1]++;
+        }, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+            return a;
+        }, a -> a[1] == 0 ? 0.0d : (double) a[0] / a[1], CH_NOID);
+    }
+
+    public static <T> Collector<T, ?, Double> averagingLong(ToLongFunction<? super T> mapper) {
+        return new CollectorImpl<T, long[], Double>(() -> new long[2], (a, t) -> {
+            a[0] += mapper.applyAsLong(t);
+            a[1]++;
+        }, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+            return a;
+        }, a -> a[1] == 0 ? 0.0d : (double) a[0] / a[1], CH_NOID);
+    }
+
+    public static <T> Collector<T, ?, Double> averagingDouble(ToDoubleFunction<? super T> mapper) {
+        return new CollectorImpl<T, DoubleSummaryStatistics, Double>(DoubleSummaryStatistics::new, (a, t) -> a.accept(mapper.applyAsDouble(t)), (a, b) -> {
+            a.combine(b);
+            return a;
+        }, DoubleSummaryStatistics::getAverage, CH_NOID);
+    }
+
+    public static <T> Collector<T, ?, T> reducing(T identity, BinaryOperator<T> op) {
+        return new CollectorImpl<T, Object[], T>(() -> new Object[] { identity }, (a, t) -> a[0] = op.apply(castElement(a[0]), t), (a, b) -> {
+            a[0] = op.apply(castElement(a[0]), castElement(b[0]));
+            return a;
+        }, a -> castElement(a[0]), CH_NOID);
+    }
+
+    public static <T> Collector<T, ?, Optional<T>> reducing(BinaryOperator<T> op) {
+        return new CollectorImpl<T, Object[], Optional<T>>(() -> new Object[2], (a, t) -> {
+            if (a[1] == null) {
+                a[0] = t;
+                a[1] = Boolean.TRUE;
+            } else
+                a[0] = op.apply(castElement(a[0]), t);
+        }, (a, b) -> {
+            if (b[1] == null)
+                return a;
+            if (a[1] == null)
+                return b;
+            a[0] = op.apply(castElement(a[0]), castElement(b[0]));
+            return a;
+        }, a -> a[1] == null ? Optional.empty() : Optional.of(castElement(a[0])), CH_NOID);
+    }
+
+    public static <T, U> Collector<T, ?, U> reducing(U identity, Function<? super T, ? extends U> mapper, BinaryOperator<U> op) {
+        return new CollectorImpl<T, Object[], U>(() -> new Object[] { identity }, (a, t) -> a[0] = op.apply(castElement(a[0]), mapper.apply(t)), (a, b) -> {
+            a[0] = op.apply(castElement(a[0]), castElement(b[0]));
+            return a;
+        }, a -> castElement(a[0]), CH_NOID);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T castElement(Object value) {
+        return (T) value;
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> groupingBy(Function<? super T, ? extends K> classifier) {
+        return groupingBy(classifier, toList());
+    }
+
+    public static <T, K, A, D> Collector<T, ?, Map<K, D>> groupingBy(Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream) {
+        return groupingBy(classifier, HashMap::new, downstream);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T, K, D, A, M extends Map<K, D>> Collector<T, ?, M> groupingBy(Function<? super T, ? extends K> classifier, Supplier<M> mapFactory, Collector<? super T, A, D> downstream) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        BiConsumer<Map<K, A>, T> accumulator = (m, t) -> {
+            K key = Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
+            downstreamAccumulator.accept(m.computeIfAbsent(key, k -> downstreamSupplier.get()), t);
+        };
+        BinaryOperator<Map<K, A>> merger = (m1, m2) -> {
+            for (Map.Entry<K, A> e : m2.entrySet())
+                m1.merge(e.getKey(), e.getValue(), downstreamCombiner);
+            return m1;
+        };
+        Supplier<Map<K, A>> mangledFactory = (Supplier<Map<K, A>>) mapFactory;
+        if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH))
+            return new CollectorImpl<>(mangledFactory, accumulator, merger, CH_ID);
+        Function<A, A> downstreamFinisher = (Function<A, A>) downstream.finisher();
+        Function<Map<K, A>, M> finisher = intermediate -> {
+            intermediate.replaceAll((k, v) -> downstreamFinisher.apply(v));
+            return (M) intermediate;
+        };
+        return new CollectorImpl<>(mangledFactory, accumulator, merger, finisher, CH_NOID);
+    }
+
+    public static <T> Collector<T, ?, Map<Boolean, List<T>>> partitioningBy(Predicate<? super T> predicate) {
+        return partitioningBy(predicate, toList());
+    }
+
+    public static <T, D, A> Collector<T, ?, Map<Boolean, D>> partitioningBy(Predicate<? super T> predicate, Collector<? super T, A, D> downstream) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        return new CollectorImpl<T, Object[], Map<Boolean, D>>(() -> new Object[] { downstreamSupplier.get(), downstreamSupplier.get() },
+                (a, t) -> downstreamAccumulator.accept(castElement(a[predicate.test(t) ? 1 : 0]), t), (a, b) -> {
+            a[0] = downstreamCombiner.apply(castElement(a[0]), castElement(b[0]));
+            a[1] = downstreamCombiner.apply(castElement(a[1]), castElement(b[1]));
+            return a;
+        }, a -> {
+            Map<Boolean, D> map = new HashMap<>();
+            map.put(false, downstreamFinisher.apply(castElement(a[0])));
+            map.put(true, downstreamFinisher.apply(castElement(a[1])));
+            return map;
+        }, CH_NOID);
+    }
+
+    public static <T, K, U> Collector<T, ?, Map<K, U>> toMap(Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends U> valueMapper) {
+        return new CollectorImpl<T, Map<K, U>, Map<K, U>>(HashMap::new, (map, element) -> {
+            K key = keyMapper.apply(element);
+            U value = Objects.requireNonNull(valueMapper.apply(element));
+            U existing = map.putIfAbsent(key, value);
+            if (existing != null)
+                throw duplicateKeyException(key, existing, value);
+        }, (m1, m2) -> {
+            for (Map.Entry<K, U> e : m2.entrySet()) {
+                U existing = m1.putIfAbsent(e.getKey(), e.getValue());
+                if (existing != null)
+                    throw duplicateKeyException(e.getKey(), existing, e.getValue());
+            }
+            return m1;
+        }, CH_ID);
+    }
+
+    private static IllegalStateException duplicateKeyException(Object key, Object existing, Object value) {
+        return new IllegalStateException("Duplicate key " + key + " (attempted merging values " + existing + " and " + value + ")");
+    }
+
+    public static <T, K, U> Collector<T, ?, Map<K, U>> toMap(Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends U> valueMapper, BinaryOperator<U> mergeFunction) {
+        return toMap(keyMapper, valueMapper, mergeFunction, HashMap::new);
+    }
+
+    public static <T, K, U, M extends Map<K, U>> Collector<T, ?, M> toMap(Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends U> valueMapper, BinaryOperator<U> mergeFunction, Supplier<M> mapFactory) {
+        return new CollectorImpl<T, M, M>(mapFactory, (map, element) -> map.merge(keyMapper.apply(element), valueMapper.apply(element), mergeFunction), (m1, m2) -> {
+            for (Map.Entry<K, U> e : m2.entrySet())
+                m1.merge(e.getKey(), e.getValue(), mergeFunction);
+            return m1;
+        }, CH_ID);
+    }
+
+    public static <T> Collector<T, ?, IntSummaryStatistics> summarizingInt(ToIntFunction<? super T> mapper) {
+        return new CollectorImpl<T, IntSummaryStatistics, IntSummaryStatistics>(IntSummaryStatistics::new, (r, t) -> r.accept(mapper.applyAsInt(t)), (l, r) -> {
+            l.combine(r);
+            return l;
+        }, CH_ID);
+    }
+
+    public static <T> Collector<T, ?, LongSummaryStatistics> summarizingLong(ToLongFunction<? super T> mapper) {
+        return new CollectorImpl<T, LongSummaryStatistics, LongSummaryStatistics>(LongSummaryStatistics::new, (r, t) -> r.accept(mapper.applyAsLong(t)), (l, r) -> {
+            l.combine(r);
+            return l;
+        }, CH_ID);
+    }
+
+    public static <T> Collector<T, ?, DoubleSummaryStatistics> summarizingDouble(ToDoubleFunction<? super T> mapper) {
+        return new CollectorImpl<T, DoubleSummaryStatistics, DoubleSummaryStatistics>(DoubleSummaryStatistics::new, (r, t) -> r.accept(mapper.applyAsDouble(t)), (l, r) -> {
+            l.combine(r);
+            return l;
+        }, CH_ID);
+    }
+}
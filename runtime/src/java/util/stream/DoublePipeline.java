@@ -0,0 +1,508 @@
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A stage of a stream of double values, which are passed between stages without boxing
+ */
+abstract class DoublePipeline extends AbstractPipeline<Double, DoubleStream> implements DoubleStream {
+
+    DoublePipeline(Spliterator.OfDouble source, boolean parallel) {
+        super(source, SHAPE_DOUBLE, parallel);
+    }
+
+    private DoublePipeline(AbstractPipeline<?, ?> previous, boolean stateful, boolean shortCircuit) {
+        super(previous, stateful, shortCircuit);
+    }
+
+    @Override
+    public DoubleStream filter(DoublePredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                return new Sink.Chained<Double, Double>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(double t) {
+                        if (predicate.test(t))
+                            downstream.accept(t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream map(DoubleUnaryOperator mapper) {
+        Objects.requireNonNull(mapper);
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                return new Sink.Chained<Double, Double>(sink) {
+                    @Override
+                    public void accept(double t) {
+                        downstream.accept(mapper.applyAsDouble(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public <U> Stream<U> mapToObj(DoubleFunction<? extends U> mapper) {
+        Objects.requireNonNull(mapper);
+        return new ReferencePipeline.Op<U>(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<U> sink) {
+                return new Sink.Chained<Double, U>(sink) {
+                    @Override
+                    public void accept(double t) {
+                        downstream.accept(mapper.apply(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream mapToInt(DoubleToIntFunction mapper) {
+        Objects.requireNonNull(mapper);
+        return new IntPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                return new Sink.Chained<Double, Integer>(sink) {
+                    @Override
+                    public void accept(double t) {
+                        downstream.accept(mapper.applyAsInt(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream mapToLong(DoubleToLongFunction mapper) {
+        Objects.requireNonNull(mapper);
+        return new LongPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                return new Sink.Chained<Double, Long>(sink) {
+                    @Override
+                    public void accept(double t) {
+                        downstream.accept(mapper.applyAsLong(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream flatMap(DoubleFunction<? extends DoubleStream> mapper) {
+        Objects.requireNonNull(mapper);
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<Double, Double>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(double t) {
+                        try (DoubleStream result = mapper.apply(t)) {
+                            if (result == null)
+                                return;
+                            if (!shortCircuit)
+                                result.sequential().forEach(downstream);
+                            else {
+                                Spliterator.OfDouble spliterator = result.sequential().spliterator();
+                                while (!downstream.cancellationRequested() && spliterator.tryAdvance((DoubleConsumer) downstream)) {
+                                }
+                            }
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream distinct() {
+        return boxed().distinct().mapToDouble(Double::doubleValue);
+    }
+
+    @Override
+    public DoubleStream sorted() {
+        return new DoublePipeline.Op(this, true, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<Double, Double>(sink) {
+                    private Streams.DoubleBuffer buffer;
+
+                    @Override
+                    public void begin(long size) {
+                        buffer = new Streams.DoubleBuffer(size);
+                    }
+
+                    @Override
+                    public void end() {
+                        double[] array = buffer.array;
+                        int size = buffer.size;
+                        buffer = null;
+                        Arrays.sort(array, 0, size);
+                        downstream.begin(size);
+                        for (int i = 0; i < size && !(shortCircuit && downstream.cancellationRequested()); i++)
+                            downstream.accept(array[i]);
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(double t) {
+                        buffer.accept(t);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream peek(DoubleConsumer action) {
+        Objects.requireNonNull(action);
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                return new Sink.Chained<Double, Double>(sink) {
+                    @Override
+                    public void accept(double t) {
+                        action.accept(t);
+                        downstream.accept(t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream limit(long maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        return slice(0, maxSize);
+    }
+
+    @Override
+    public DoubleStream skip(long n) {
+        if (n < 0)
+            throw new IllegalArgumentException(Long.toString(n));
+        if (n == 0)
+            return this;
+        return slice(n, -1);
+    }
+
+    private DoubleStream slice(long skip, long limit) {
+        return new DoublePipeline.Op(this, true, limit >= 0) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                return new Streams.SliceSink<>(sink, skip, limit);
+            }
+        };
+    }
+
+    @Override
+    public void forEach(DoubleConsumer action) {
+        Objects.requireNonNull(action);
+        evaluate(false, () -> new Sink.Terminal<Double, Void>() {
+            @Override
+            public void accept(double t) {
+                action.accept(t);
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, (a, b) -> null);
+    }
+
+    @Override
+    public void forEachOrdered(DoubleConsumer action) {
+        Objects.requireNonNull(action);
+        evaluate(false, () -> new Sink.Terminal<Double, Void>() {
+            @Override
+            public void accept(double t) {
+                action.accept(t);
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, null);
+    }
+
+    @Override
+    public double[] toArray() {
+        return evaluate(false, () -> new Sink.Terminal<Double, Streams.DoubleBuffer>() {
+            private Streams.DoubleBuffer buffer;
+
+            @Override
+            public void begin(long size) {
+                buffer = new Streams.DoubleBuffer(size);
+            }
+
+            @Override
+            public void accept(double t) {
+                buffer.accept(t);
+            }
+
+            @Override
+            public Streams.DoubleBuffer get() {
+                return buffer;
+            }
+        }, Streams.DoubleBuffer::addAll).toArray();
+    }
+
+    @Override
+    public double reduce(double identity, DoubleBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return evaluate(false, () -> new Sink.Terminal<Double, Double>() {
+            private double state = identity;
+
+            @Override
+            public void accept(double t) {
+                state = op.applyAsDouble(state, t);
+            }
+
+            @Override
+            public Double get() {
+                return state;
+            }
+        }, op::applyAsDouble);
+    }
+
+    @Override
+    public OptionalDouble reduce(DoubleBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return evaluate(false, () -> new Sink.Terminal<Double, OptionalDouble>() {
+            private boolean empty = true;
+            private double state;
+
+            @Override
+            public void accept(double t) {
+                if (empty) {
+                    empty = false;
+                    state = t;
+                } else
+                    state = op.applyAsDouble(state, t);
+            }
+
+            @Override
+            public OptionalDouble get() {
+                return empty ? OptionalDouble.empty() : OptionalDouble.of(state);
+            }
+        }, (a, b) -> a.isPresent() ? b.isPresent() ? OptionalDouble.of(op.applyAsDouble(a.getAsDouble(), b.getAsDouble())) : a : b);
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        return evaluate(false, () -> new Sink.Terminal<Double, R>() {
+            private final R container = supplier.get();
+
+            @Override
+            public void accept(double t) {
+                accumulator.accept(container, t);
+            }
+
+            @Override
+            public R get() {
+                return container;
+            }
+        }, (a, b) -> {
+            combiner.accept(a, b);
+            return a;
+        });
+    }
+
+    @Override
+    public double sum() {
+        return summaryStatistics().getSum();
+    }
+
+    @Override
+    public OptionalDouble average() {
+        DoubleSummaryStatistics statistics = summaryStatistics();
+        return statistics.getCount() > 0 ? OptionalDouble.of(statistics.getAverage()) : OptionalDouble.empty();
+    }
+
+    @Override
+    public OptionalDouble min() {
+        return reduce(Math::min);
+    }
+
+    @Override
+    public OptionalDouble max() {
+        return reduce(Math::max);
+    }
+
+    @Override
+    public long count() {
+        long size = exactOutputSizeIfKnown();
+        if (size >= 0) {
+            consumeSource();
+            return size;
+        }
+        return evaluate(false, Streams.CountSink<Double>::new, Long::sum);
+    }
+
+    @Override
+    public DoubleSummaryStatistics summaryStatistics() {
+        return collect(DoubleSummaryStatistics::new, DoubleSummaryStatistics::accept, DoubleSummaryStatistics::combine);
+    }
+
+    /**
+     * Returns whether an element matched the predicate with the given result, stopping at the first one
+     */
+    private boolean match(DoublePredicate predicate, boolean stopOn) {
+        Objects.requireNonNull(predicate);
+        AtomicBoolean stopped = new AtomicBoolean();
+        evaluate(true, () -> new Sink.Terminal<Double, Void>() {
+            @Override
+            public void accept(double t) {
+                if (predicate.test(t) == stopOn)
+                    stopped.set(true);
+            }
+
+            @Override
+            public boolean cancellationRequested() {
+                return stopped.get();
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, (a, b) -> null);
+        return stopped.get();
+    }
+
+    @Override
+    public boolean anyMatch(DoublePredicate predicate) {
+        return match(predicate, true);
+    }
+
+    @Override
+    public boolean allMatch(DoublePredicate predicate) {
+        return !match(predicate, false);
+    }
+
+    @Override
+    public boolean noneMatch(DoublePredicate predicate) {
+        return !match(predicate, true);
+    }
+
+    @Override
+    public OptionalDouble findFirst() {
+        return find(null);
+    }
+
+    @Override
+    public OptionalDouble findAny() {
+        return find((a, b) -> a.isPresent() ? a : b);
+    }
+
+    private OptionalDouble find(BinaryOperator<OptionalDouble> combiner) {
+        AtomicBoolean found = new AtomicBoolean();
+        return evaluate(true, () -> new Sink.Terminal<Double, OptionalDouble>() {
+            private OptionalDouble result = OptionalDouble.empty();
+
+            @Override
+            public void accept(double t) {
+                if (!result.isPresent()) {
+                    result = OptionalDouble.of(t);
+                    found.set(true);
+                }
+            }
+
+            @Override
+            public boolean cancellationRequested() {
+                return found.get();
+            }
+
+            @Override
+            public OptionalDouble get() {
+                return result;
+            }
+        }, combiner);
+    }
+
+    @Override
+    public Stream<Double> boxed() {
+        return mapToObj(Double::valueOf);
+    }
+
+    @Override
+    public PrimitiveIterator.OfDouble iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        if (getDepth() == 0)
+            return (Spliterator.OfDouble) consumeSource();
+        return new Streams.UnboxingDoubleSpliterator(new Streams.WrappingSpliterator<>(this, consumeSource()));
+    }
+
+
+    /**
+     * A stage that applies an operation to the elements of the previous stage
+     */
+    abstract static class Op extends DoublePipeline implements IntermediateStage<Double> {
+
+        Op(AbstractPipeline<?, ?> previous, boolean stateful, boolean shortCircuit) {
+            super(previous, stateful, shortCircuit);
+        }
+    }
+
+    /**
+     * The source stage of a pipeline, which has no operation of its own
+     */
+    static class Head extends DoublePipeline {
+
+        Head(Spliterator.OfDouble source, boolean parallel) {
+            super(source, parallel);
+        }
+    }
+}
@@ -0,0 +1,545 @@
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.IntSummaryStatistics;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A stage of a stream of int values, which are passed between stages without boxing
+ */
+abstract class IntPipeline extends AbstractPipeline<Integer, IntStream> implements IntStream {
+
+    IntPipeline(Spliterator.OfInt source, boolean parallel) {
+        super(source, SHAPE_INT, parallel);
+    }
+
+    private IntPipeline(AbstractPipeline<?, ?> previous, boolean stateful, boolean shortCircuit) {
+        super(previous, stateful, shortCircuit);
+    }
+
+    @Override
+    public IntStream filter(IntPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new IntPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                return new Sink.Chained<Integer, Integer>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(int t) {
+                        if (predicate.test(t))
+                            downstream.accept(t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream map(IntUnaryOperator mapper) {
+        Objects.requireNonNull(mapper);
+        return new IntPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                return new Sink.Chained<Integer, Integer>(sink) {
+                    @Override
+                    public void accept(int t) {
+                        downstream.accept(mapper.applyAsInt(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public <U> Stream<U> mapToObj(IntFunction<? extends U> mapper) {
+        Objects.requireNonNull(mapper);
+        return new ReferencePipeline.Op<U>(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<U> sink) {
+                return new Sink.Chained<Integer, U>(sink) {
+                    @Override
+                    public void accept(int t) {
+                        downstream.accept(mapper.apply(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream mapToLong(IntToLongFunction mapper) {
+        Objects.requireNonNull(mapper);
+        return new LongPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                return new Sink.Chained<Integer, Long>(sink) {
+                    @Override
+                    public void accept(int t) {
+                        downstream.accept(mapper.applyAsLong(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream mapToDouble(IntToDoubleFunction mapper) {
+        Objects.requireNonNull(mapper);
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                return new Sink.Chained<Integer, Double>(sink) {
+                    @Override
+                    public void accept(int t) {
+                        downstream.accept(mapper.applyAsDouble(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream flatMap(IntFunction<? extends IntStream> mapper) {
+        Objects.requireNonNull(mapper);
+        return new IntPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<Integer, Integer>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(int t) {
+                        try (IntStream result = mapper.apply(t)) {
+                            if (result == null)
+                                return;
+                            if (!shortCircuit)
+                                result.sequential().forEach(downstream);
+                            else {
+                                Spliterator.OfInt spliterator = result.sequential().spliterator();
+                                while (!downstream.cancellationRequested() && spliterator.tryAdvance((IntConsumer) downstream)) {
+                                }
+                            }
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream distinct() {
+        return boxed().distinct().mapToInt(Integer::intValue);
+    }
+
+    @Override
+    public IntStream sorted() {
+        return new IntPipeline.Op(this, true, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<Integer, Integer>(sink) {
+                    private Streams.IntBuffer buffer;
+
+                    @Override
+                    public void begin(long size) {
+                        buffer = new Streams.IntBuffer(size);
+                    }
+
+                    @Override
+                    public void end() {
+                        int[] array = buffer.array;
+                        int size = buffer.size;
+                        buffer = null;
+                        Arrays.sort(array, 0, size);
+                        downstream.begin(size);
+                        for (int i = 0; i < size && !(shortCircuit && downstream.cancellationRequested()); i++)
+                            downstream.accept(array[i]);
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(int t) {
+                        buffer.accept(t);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream peek(IntConsumer action) {
+        Objects.requireNonNull(action);
+        return new IntPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                return new Sink.Chained<Integer, Integer>(sink) {
+                    @Override
+                    public void accept(int t) {
+                        action.accept(t);
+                        downstream.accept(t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream limit(long maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        return slice(0, maxSize);
+    }
+
+    @Override
+    public IntStream skip(long n) {
+        if (n < 0)
+            throw new IllegalArgumentException(Long.toString(n));
+        if (n == 0)
+            return this;
+        return slice(n, -1);
+    }
+
+    private IntStream slice(long skip, long limit) {
+        return new IntPipeline.Op(this, true, limit >= 0) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                return new Streams.SliceSink<>(sink, skip, limit);
+            }
+        };
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        Objects.requireNonNull(action);
+        evaluate(false, () -> new Sink.Terminal<Integer, Void>() {
+            @Override
+            public void accept(int t) {
+                action.accept(t);
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, (a, b) -> null);
+    }
+
+    @Override
+    public void forEachOrdered(IntConsumer action) {
+        Objects.requireNonNull(action);
+        evaluate(false, () -> new Sink.Terminal<Integer, Void>() {
+            @Override
+            public void accept(int t) {
+                action.accept(t);
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, null);
+    }
+
+    @Override
+    public int[] toArray() {
+        return evaluate(false, () -> new Sink.Terminal<Integer, Streams.IntBuffer>() {
+            private Streams.IntBuffer buffer;
+
+            @Override
+            public void begin(long size) {
+                buffer = new Streams.IntBuffer(size);
+            }
+
+            @Override
+            public void accept(int t) {
+                buffer.accept(t);
+            }
+
+            @Override
+            public Streams.IntBuffer get() {
+                return buffer;
+            }
+        }, Streams.IntBuffer::addAll).toArray();
+    }
+
+    @Override
+    public int reduce(int identity, IntBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return evaluate(false, () -> new Sink.Terminal<Integer, Integer>() {
+            private int state = identity;
+
+            @Override
+            public void accept(int t) {
+                state = op.applyAsInt(state, t);
+            }
+
+            @Override
+            public Integer get() {
+                return state;
+            }
+        }, op::applyAsInt);
+    }
+
+    @Override
+    public OptionalInt reduce(IntBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return evaluate(false, () -> new Sink.Terminal<Integer, OptionalInt>() {
+            private boolean empty = true;
+            private int state;
+
+            @Override
+            public void accept(int t) {
+                if (empty) {
+                    empty = false;
+                    state = t;
+                } else
+                    state = op.applyAsInt(state, t);
+            }
+
+            @Override
+            public OptionalInt get() {
+                return empty ? OptionalInt.empty() : OptionalInt.of(state);
+            }
+        }, (a, b) -> a.isPresent() ? b.isPresent() ? OptionalInt.of(op.applyAsInt(a.getAsInt(), b.getAsInt())) : a : b);
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        return evaluate(false, () -> new Sink.Terminal<Integer, R>() {
+            private final R container = supplier.get();
+
+            @Override
+            public void accept(int t) {
+                accumulator.accept(container, t);
+            }
+
+            @Override
+            public R get() {
+                return container;
+            }
+        }, (a, b) -> {
+            combiner.accept(a, b);
+            return a;
+        });
+    }
+
+    @Override
+    public int sum() {
+        return reduce(0, Integer::sum);
+    }
+
+    @Override
+    public OptionalDouble average() {
+        long[] totals = collect(() -> new long[2], (array, t) -> {
+            array[0]++;
+            array[1] += t;
+        }, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+        });
+        return totals[0] > 0 ? OptionalDouble.of((double) totals[1] / totals[0]) : OptionalDouble.empty();
+    }
+
+    @Override
+    public OptionalInt min() {
+        return reduce(Math::min);
+    }
+
+    @Override
+    public OptionalInt max() {
+        return reduce(Math::max);
+    }
+
+    @Override
+    public long count() {
+        long size = exactOutputSizeIfKnown();
+        if (size >= 0) {
+            consumeSource();
+            return size;
+        }
+        return evaluate(false, Streams.CountSink<Integer>::new, Long::sum);
+    }
+
+    @Override
+    public IntSummaryStatistics summaryStatistics() {
+        return collect(IntSummaryStatistics::new, IntSummaryStatistics::accept, IntSummaryStatistics::combine);
+    }
+
+    /**
+     * Returns whether an element matched the predicate with the given result, stopping at the first one
+     */
+    private boolean match(IntPredicate predicate, boolean stopOn) {
+        Objects.requireNonNull(predicate);
+        AtomicBoolean stopped = new AtomicBoolean();
+        evaluate(true, () -> new Sink.Terminal<Integer, Void>() {
+            @Override
+            public void accept(int t) {
+                if (predicate.test(t) == stopOn)
+                    stopped.set(true);
+            }
+
+            @Override
+            public boolean cancellationRequested() {
+                return stopped.get();
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, (a, b) -> null);
+        return stopped.get();
+    }
+
+    @Override
+    public boolean anyMatch(IntPredicate predicate) {
+        return match(predicate, true);
+    }
+
+    @Override
+    public boolean allMatch(IntPredicate predicate) {
+        return !match(predicate, false);
+    }
+
+    @Override
+    public boolean noneMatch(IntPredicate predicate) {
+        return !match(predicate, true);
+    }
+
+    @Override
+    public OptionalInt findFirst() {
+        return find(null);
+    }
+
+    @Override
+    public OptionalInt findAny() {
+        return find((a, b) -> a.isPresent() ? a : b);
+    }
+
+    private OptionalInt find(BinaryOperator<OptionalInt> combiner) {
+        AtomicBoolean found = new AtomicBoolean();
+        return evaluate(true, () -> new Sink.Terminal<Integer, OptionalInt>() {
+            private OptionalInt result = OptionalInt.empty();
+
+            @Override
+            public void accept(int t) {
+                if (!result.isPresent()) {
+                    result = OptionalInt.of(t);
+                    found.set(true);
+                }
+            }
+
+            @Override
+            public boolean cancellationRequested() {
+                return found.get();
+            }
+
+            @Override
+            public OptionalInt get() {
+                return result;
+            }
+        }, combiner);
+    }
+
+    @Override
+    public LongStream asLongStream() {
+        return new LongPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                return new Sink.Chained<Integer, Long>(sink) {
+                    @Override
+                    public void accept(int t) {
+                        downstream.accept((long) t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream asDoubleStream() {
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                return new Sink.Chained<Integer, Double>(sink) {
+                    @Override
+                    public void accept(int t) {
+                        downstream.accept((double) t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Stream<Integer> boxed() {
+        return mapToObj(Integer::valueOf);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator.OfInt spliterator() {
+        if (getDepth() == 0)
+            return (Spliterator.OfInt) consumeSource();
+        return new Streams.UnboxingIntSpliterator(new Streams.WrappingSpliterator<>(this, consumeSource()));
+    }
+
+
+    /**
+     * A stage that applies an operation to the elements of the previous stage
+     */
+    abstract static class Op extends IntPipeline implements IntermediateStage<Integer> {
+
+        Op(AbstractPipeline<?, ?> previous, boolean stateful, boolean shortCircuit) {
+            super(previous, stateful, shortCircuit);
+        }
+    }
+
+    /**
+     * The source stage of a pipeline, which has no operation of its own
+     */
+    static class Head extends IntPipeline {
+
+        Head(Spliterator.OfInt source, boolean parallel) {
+            super(source, parallel);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.IntSummaryStatistics;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A sequence of primitive int elements supporting sequential and parallel aggregate operations.
+ */
+public interface IntStream extends BaseStream<Integer, IntStream> {
+
+    IntStream filter(IntPredicate predicate);
+
+    IntStream map(IntUnaryOperator mapper);
+
+    <U> Stream<U> mapToObj(IntFunction<? extends U> mapper);
+
+    LongStream mapToLong(IntToLongFunction mapper);
+
+    DoubleStream mapToDouble(IntToDoubleFunction mapper);
+
+    IntStream flatMap(IntFunction<? extends IntStream> mapper);
+
+    IntStream distinct();
+
+    IntStream sorted();
+
+    IntStream peek(IntConsumer action);
+
+    IntStream limit(long maxSize);
+
+    IntStream skip(long n);
+
+    void forEach(IntConsumer action);
+
+    void forEachOrdered(IntConsumer action);
+
+    int[] toArray();
+
+    int reduce(int identity, IntBinaryOperator op);
+
+    OptionalInt reduce(IntBinaryOperator op);
+
+    <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner);
+
+    int sum();
+
+    OptionalInt min();
+
+    OptionalInt max();
+
+    long count();
+
+    OptionalDouble average();
+
+    IntSummaryStatistics summaryStatistics();
+
+    boolean anyMatch(IntPredicate predicate);
+
+    boolean allMatch(IntPredicate predicate);
+
+    boolean noneMatch(IntPredicate predicate);
+
+    OptionalInt findFirst();
+
+    OptionalInt findAny();
+
+    LongStream asLongStream();
+
+    DoubleStream asDoubleStream();
+
+    Stream<Integer> boxed();
+
+    @Override
+    IntStream sequential();
+
+    @Override
+    IntStream parallel();
+
+    @Override
+    PrimitiveIterator.OfInt iterator();
+
+    @Override
+    Spliterator.OfInt spliterator();
+
+    static Builder builder() {
+        return new Streams.IntStreamBuilder();
+    }
+
+    static IntStream empty() {
+        return StreamSupport.intStream(Spliterators.emptyIntSpliterator(), false);
+    }
+
+    static IntStream of(int t) {
+        return of(new int[] { t });
+    }
+
+    static IntStream of(int... values) {
+        return Arrays.stream(values);
+    }
+
+    static IntStream iterate(final int seed, final IntUnaryOperator f) {
+        Objects.requireNonNull(f);
+        return StreamSupport.intStream(new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL) {
+            private int previous;
+            private boolean started;
+
+            @Override
+            public boolean tryAdvance(IntConsumer action) {
+                int t = started ? f.applyAsInt(previous) : seed;
+                started = true;
+                previous = t;
+                action.accept(t);
+                return true;
+            }
+        }, false);
+    }
+
+    static IntStream generate(IntSupplier s) {
+        Objects.requireNonNull(s);
+        return StreamSupport.intStream(new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE, Spliterator.IMMUTABLE | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(IntConsumer action) {
+                action.accept(s.getAsInt());
+                return true;
+            }
+        }, false);
+    }
+
+    static IntStream range(int startInclusive, int endExclusive) {
+        if (startInclusive >= endExclusive)
+            return empty();
+        return StreamSupport.intStream(new Streams.RangeIntSpliterator(startInclusive, endExclusive - 1), false);
+    }
+
+    static IntStream rangeClosed(int startInclusive, int endInclusive) {
+        if (startInclusive > endInclusive)
+            return empty();
+        return StreamSupport.intStream(new Streams.RangeIntSpliterator(startInclusive, endInclusive), false);
+    }
+
+    static IntStream concat(IntStream a, IntStream b) {
+        Objects.requireNonNull(a);
+        Objects.requireNonNull(b);
+        IntStream stream = StreamSupport.intStream(new Streams.ConcatSpliterator.OfInt(a.spliterator(), b.spliterator()), a.isParallel() || b.isParallel());
+        return stream.onClose(Streams.composedClose(a, b));
+    }
+
+    /**
+     * A mutable builder for a IntStream, which collects elements before creating the stream.
+     */
+    interface Builder extends IntConsumer {
+
+        @Override
+        void accept(int t);
+
+        default Builder add(int t) {
+            accept(t);
+            return this;
+        }
+
+        IntStream build();
+    }
+}
@@ -0,0 +1,530 @@
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.LongSummaryStatistics;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A stage of a stream of long values, which are passed between stages without boxing
+ */
+abstract class LongPipeline extends AbstractPipeline<Long, LongStream> implements LongStream {
+
+    LongPipeline(Spliterator.OfLong source, boolean parallel) {
+        super(source, SHAPE_LONG, parallel);
+    }
+
+    private LongPipeline(AbstractPipeline<?, ?> previous, boolean stateful, boolean shortCircuit) {
+        super(previous, stateful, shortCircuit);
+    }
+
+    @Override
+    public LongStream filter(LongPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        return new LongPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                return new Sink.Chained<Long, Long>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(long t) {
+                        if (predicate.test(t))
+                            downstream.accept(t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream map(LongUnaryOperator mapper) {
+        Objects.requireNonNull(mapper);
+        return new LongPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                return new Sink.Chained<Long, Long>(sink) {
+                    @Override
+                    public void accept(long t) {
+                        downstream.accept(mapper.applyAsLong(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public <U> Stream<U> mapToObj(LongFunction<? extends U> mapper) {
+        Objects.requireNonNull(mapper);
+        return new ReferencePipeline.Op<U>(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<U> sink) {
+                return new Sink.Chained<Long, U>(sink) {
+                    @Override
+                    public void accept(long t) {
+                        downstream.accept(mapper.apply(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream mapToInt(LongToIntFunction mapper) {
+        Objects.requireNonNull(mapper);
+        return new IntPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                return new Sink.Chained<Long, Integer>(sink) {
+                    @Override
+                    public void accept(long t) {
+                        downstream.accept(mapper.applyAsInt(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream mapToDouble(LongToDoubleFunction mapper) {
+        Objects.requireNonNull(mapper);
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                return new Sink.Chained<Long, Double>(sink) {
+                    @Override
+                    public void accept(long t) {
+                        downstream.accept(mapper.applyAsDouble(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream flatMap(LongFunction<? extends LongStream> mapper) {
+        Objects.requireNonNull(mapper);
+        return new LongPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<Long, Long>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(long t) {
+                        try (LongStream result = mapper.apply(t)) {
+                            if (result == null)
+                                return;
+                            if (!shortCircuit)
+                                result.sequential().forEach(downstream);
+                            else {
+                                Spliterator.OfLong spliterator = result.sequential().spliterator();
+                                while (!downstream.cancellationRequested() && spliterator.tryAdvance((LongConsumer) downstream)) {
+                                }
+                            }
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream distinct() {
+        return boxed().distinct().mapToLong(Long::longValue);
+    }
+
+    @Override
+    public LongStream sorted() {
+        return new LongPipeline.Op(this, true, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<Long, Long>(sink) {
+                    private Streams.LongBuffer buffer;
+
+                    @Override
+                    public void begin(long size) {
+                        buffer = new Streams.LongBuffer(size);
+                    }
+
+                    @Override
+                    public void end() {
+                        long[] array = buffer.array;
+                        int size = buffer.size;
+                        buffer = null;
+                        Arrays.sort(array, 0, size);
+                        downstream.begin(size);
+                        for (int i = 0; i < size && !(shortCircuit && downstream.cancellationRequested()); i++)
+                            downstream.accept(array[i]);
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(long t) {
+                        buffer.accept(t);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream peek(LongConsumer action) {
+        Objects.requireNonNull(action);
+        return new LongPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                return new Sink.Chained<Long, Long>(sink) {
+                    @Override
+                    public void accept(long t) {
+                        action.accept(t);
+                        downstream.accept(t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream limit(long maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        return slice(0, maxSize);
+    }
+
+    @Override
+    public LongStream skip(long n) {
+        if (n < 0)
+            throw new IllegalArgumentException(Long.toString(n));
+        if (n == 0)
+            return this;
+        return slice(n, -1);
+    }
+
+    private LongStream slice(long skip, long limit) {
+        return new LongPipeline.Op(this, true, limit >= 0) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                return new Streams.SliceSink<>(sink, skip, limit);
+            }
+        };
+    }
+
+    @Override
+    public void forEach(LongConsumer action) {
+        Objects.requireNonNull(action);
+        evaluate(false, () -> new Sink.Terminal<Long, Void>() {
+            @Override
+            public void accept(long t) {
+                action.accept(t);
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, (a, b) -> null);
+    }
+
+    @Override
+    public void forEachOrdered(LongConsumer action) {
+        Objects.requireNonNull(action);
+        evaluate(false, () -> new Sink.Terminal<Long, Void>() {
+            @Override
+            public void accept(long t) {
+                action.accept(t);
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, null);
+    }
+
+    @Override
+    public long[] toArray() {
+        return evaluate(false, () -> new Sink.Terminal<Long, Streams.LongBuffer>() {
+            private Streams.LongBuffer buffer;
+
+            @Override
+            public void begin(long size) {
+                buffer = new Streams.LongBuffer(size);
+            }
+
+            @Override
+            public void accept(long t) {
+                buffer.accept(t);
+            }
+
+            @Override
+            public Streams.LongBuffer get() {
+                return buffer;
+            }
+        }, Streams.LongBuffer::addAll).toArray();
+    }
+
+    @Override
+    public long reduce(long identity, LongBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return evaluate(false, () -> new Sink.Terminal<Long, Long>() {
+            private long state = identity;
+
+            @Override
+            public void accept(long t) {
+                state = op.applyAsLong(state, t);
+            }
+
+            @Override
+            public Long get() {
+                return state;
+            }
+        }, op::applyAsLong);
+    }
+
+    @Override
+    public OptionalLong reduce(LongBinaryOperator op) {
+        Objects.requireNonNull(op);
+        return evaluate(false, () -> new Sink.Terminal<Long, OptionalLong>() {
+            private boolean empty = true;
+            private long state;
+
+            @Override
+            public void accept(long t) {
+                if (empty) {
+                    empty = false;
+                    state = t;
+                } else
+                    state = op.applyAsLong(state, t);
+            }
+
+            @Override
+            public OptionalLong get() {
+                return empty ? OptionalLong.empty() : OptionalLong.of(state);
+            }
+        }, (a, b) -> a.isPresent() ? b.isPresent() ? OptionalLong.of(op.applyAsLong(a.getAsLong(), b.getAsLong())) : a : b);
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        return evaluate(false, () -> new Sink.Terminal<Long, R>() {
+            private final R container = supplier.get();
+
+            @Override
+            public void accept(long t) {
+                accumulator.accept(container, t);
+            }
+
+            @Override
+            public R get() {
+                return container;
+            }
+        }, (a, b) -> {
+            combiner.accept(a, b);
+            return a;
+        });
+    }
+
+    @Override
+    public long sum() {
+        return reduce(0, Long::sum);
+    }
+
+    @Override
+    public OptionalDouble average() {
+        long[] totals = collect(() -> new long[2], (array, t) -> {
+            array[0]++;
+            array[1] += t;
+        }, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+        });
+        return totals[0] > 0 ? OptionalDouble.of((double) totals[1] / totals[0]) : OptionalDouble.empty();
+    }
+
+    @Override
+    public OptionalLong min() {
+        return reduce(Math::min);
+    }
+
+    @Override
+    public OptionalLong max() {
+        return reduce(Math::max);
+    }
+
+    @Override
+    public long count() {
+        long size = exactOutputSizeIfKnown();
+        if (size >= 0) {
+            consumeSource();
+            return size;
+        }
+        return evaluate(false, Streams.CountSink<Long>::new, Long::sum);
+    }
+
+    @Override
+    public LongSummaryStatistics summaryStatistics() {
+        return collect(LongSummaryStatistics::new, LongSummaryStatistics::accept, LongSummaryStatistics::combine);
+    }
+
+    /**
+     * Returns whether an element matched the predicate with the given result, stopping at the first one
+     */
+    private boolean match(LongPredicate predicate, boolean stopOn) {
+        Objects.requireNonNull(predicate);
+        AtomicBoolean stopped = new AtomicBoolean();
+        evaluate(true, () -> new Sink.Terminal<Long, Void>() {
+            @Override
+            public void accept(long t) {
+                if (predicate.test(t) == stopOn)
+                    stopped.set(true);
+            }
+
+            @Override
+            public boolean cancellationRequested() {
+                return stopped.get();
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, (a, b) -> null);
+        return stopped.get();
+    }
+
+    @Override
+    public boolean anyMatch(LongPredicate predicate) {
+        return match(predicate, true);
+    }
+
+    @Override
+    public boolean allMatch(LongPredicate predicate) {
+        return !match(predicate, false);
+    }
+
+    @Override
+    public boolean noneMatch(LongPredicate predicate) {
+        return !match(predicate, true);
+    }
+
+    @Override
+    public OptionalLong findFirst() {
+        return find(null);
+    }
+
+    @Override
+    public OptionalLong findAny() {
+        return find((a, b) -> a.isPresent() ? a : b);
+    }
+
+    private OptionalLong find(BinaryOperator<OptionalLong> combiner) {
+        AtomicBoolean found = new AtomicBoolean();
+        return evaluate(true, () -> new Sink.Terminal<Long, OptionalLong>() {
+            private OptionalLong result = OptionalLong.empty();
+
+            @Override
+            public void accept(long t) {
+                if (!result.isPresent()) {
+                    result = OptionalLong.of(t);
+                    found.set(true);
+                }
+            }
+
+            @Override
+            public boolean cancellationRequested() {
+                return found.get();
+            }
+
+            @Override
+            public OptionalLong get() {
+                return result;
+            }
+        }, combiner);
+    }
+
+    @Override
+    public DoubleStream asDoubleStream() {
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                return new Sink.Chained<Long, Double>(sink) {
+                    @Override
+                    public void accept(long t) {
+                        downstream.accept((double) t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Stream<Long> boxed() {
+        return mapToObj(Long::valueOf);
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator.OfLong spliterator() {
+        if (getDepth() == 0)
+            return (Spliterator.OfLong) consumeSource();
+        return new Streams.UnboxingLongSpliterator(new Streams.WrappingSpliterator<>(this, consumeSource()));
+    }
+
+
+    /**
+     * A stage that applies an operation to the elements of the previous stage
+     */
+    abstract static class Op extends LongPipeline implements IntermediateStage<Long> {
+
+        Op(AbstractPipeline<?, ?> previous, boolean stateful, boolean shortCircuit) {
+            super(previous, stateful, shortCircuit);
+        }
+    }
+
+    /**
+     * The source stage of a pipeline, which has no operation of its own
+     */
+    static class Head extends LongPipeline {
+
+        Head(Spliterator.OfLong source, boolean parallel) {
+            super(source, parallel);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.LongSummaryStatistics;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A sequence of primitive long elements supporting sequential and parallel aggregate operations.
+ */
+public interface LongStream extends BaseStream<Long, LongStream> {
+
+    LongStream filter(LongPredicate predicate);
+
+    LongStream map(LongUnaryOperator mapper);
+
+    <U> Stream<U> mapToObj(LongFunction<? extends U> mapper);
+
+    IntStream mapToInt(LongToIntFunction mapper);
+
+    DoubleStream mapToDouble(LongToDoubleFunction mapper);
+
+    LongStream flatMap(LongFunction<? extends LongStream> mapper);
+
+    LongStream distinct();
+
+    LongStream sorted();
+
+    LongStream peek(LongConsumer action);
+
+    LongStream limit(long maxSize);
+
+    LongStream skip(long n);
+
+    void forEach(LongConsumer action);
+
+    void forEachOrdered(LongConsumer action);
+
+    long[] toArray();
+
+    long reduce(long identity, LongBinaryOperator op);
+
+    OptionalLong reduce(LongBinaryOperator op);
+
+    <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner);
+
+    long sum();
+
+    OptionalLong min();
+
+    OptionalLong max();
+
+    long count();
+
+    OptionalDouble average();
+
+    LongSummaryStatistics summaryStatistics();
+
+    boolean anyMatch(LongPredicate predicate);
+
+    boolean allMatch(LongPredicate predicate);
+
+    boolean noneMatch(LongPredicate predicate);
+
+    OptionalLong findFirst();
+
+    OptionalLong findAny();
+
+    DoubleStream asDoubleStream();
+
+    Stream<Long> boxed();
+
+    @Override
+    LongStream sequential();
+
+    @Override
+    LongStream parallel();
+
+    @Override
+    PrimitiveIterator.OfLong iterator();
+
+    @Override
+    Spliterator.OfLong spliterator();
+
+    static Builder builder() {
+        return new Streams.LongStreamBuilder();
+    }
+
+    static LongStream empty() {
+        return StreamSupport.longStream(Spliterators.emptyLongSpliterator(), false);
+    }
+
+    static LongStream of(long t) {
+        return of(new long[] { t });
+    }
+
+    static LongStream of(long... values) {
+        return Arrays.stream(values);
+    }
+
+    static LongStream iterate(final long seed, final LongUnaryOperator f) {
+        Objects.requireNonNull(f);
+        return StreamSupport.longStream(new Spliterators.AbstractLongSpliterator(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL) {
+            private long previous;
+            private boolean started;
+
+            @Override
+            public boolean tryAdvance(LongConsumer action) {
+                long t = started ? f.applyAsLong(previous) : seed;
+                started = true;
+                previous = t;
+                action.accept(t);
+                return true;
+            }
+        }, false);
+    }
+
+    static LongStream generate(LongSupplier s) {
+        Objects.requireNonNull(s);
+        return StreamSupport.longStream(new Spliterators.AbstractLongSpliterator(Long.MAX_VALUE, Spliterator.IMMUTABLE | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(LongConsumer action) {
+                action.accept(s.getAsLong());
+                return true;
+            }
+        }, false);
+    }
+
+    static LongStream range(long startInclusive, long endExclusive) {
+        if (startInclusive >= endExclusive)
+            return empty();
+        return StreamSupport.longStream(new Streams.RangeLongSpliterator(startInclusive, endExclusive - 1), false);
+    }
+
+    static LongStream rangeClosed(long startInclusive, long endInclusive) {
+        if (startInclusive > endInclusive)
+            return empty();
+        return StreamSupport.longStream(new Streams.RangeLongSpliterator(startInclusive, endInclusive), false);
+    }
+
+    static LongStream concat(LongStream a, LongStream b) {
+        Objects.requireNonNull(a);
+        Objects.requireNonNull(b);
+        LongStream stream = StreamSupport.longStream(new Streams.ConcatSpliterator.OfLong(a.spliterator(), b.spliterator()), a.isParallel() || b.isParallel());
+        return stream.onClose(Streams.composedClose(a, b));
+    }
+
+    /**
+     * A mutable builder for a LongStream, which collects elements before creating the stream.
+     */
+    interface Builder extends LongConsumer {
+
+        @Override
+        void accept(long t);
+
+        default Builder add(long t) {
+            accept(t);
+            return this;
+        }
+
+        LongStream build();
+    }
+}
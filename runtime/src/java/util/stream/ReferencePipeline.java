@@ -0,0 +1,638 @@
+package java.util.stream;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A stage of a stream of objects
+ */
+abstract class ReferencePipeline<P_OUT> extends AbstractPipeline<P_OUT, Stream<P_OUT>> implements Stream<P_OUT> {
+
+    ReferencePipeline(Spliterator<P_OUT> source, boolean parallel) {
+        super(source, SHAPE_REFERENCE, parallel);
+    }
+
+    private ReferencePipeline(AbstractPipeline<?, ?> previous, boolean stateful, boolean shortCircuit) {
+        super(previous, stateful, shortCircuit);
+    }
+
+    @Override
+    public Stream<P_OUT> filter(Predicate<? super P_OUT> predicate) {
+        Objects.requireNonNull(predicate);
+        return new ReferencePipeline.Op<P_OUT>(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<P_OUT> sink) {
+                return new Sink.Chained<P_OUT, P_OUT>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(P_OUT t) {
+                        if (predicate.test(t))
+                            downstream.accept(t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public <R> Stream<R> map(Function<? super P_OUT, ? extends R> mapper) {
+        Objects.requireNonNull(mapper);
+        return new ReferencePipeline.Op<R>(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<R> sink) {
+                return new Sink.Chained<P_OUT, R>(sink) {
+                    @Override
+                    public void accept(P_OUT t) {
+                        downstream.accept(mapper.apply(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream mapToInt(ToIntFunction<? super P_OUT> mapper) {
+        Objects.requireNonNull(mapper);
+        return new IntPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                return new Sink.Chained<P_OUT, Integer>(sink) {
+                    @Override
+                    public void accept(P_OUT t) {
+                        downstream.accept(mapper.applyAsInt(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream mapToLong(ToLongFunction<? super P_OUT> mapper) {
+        Objects.requireNonNull(mapper);
+        return new LongPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                return new Sink.Chained<P_OUT, Long>(sink) {
+                    @Override
+                    public void accept(P_OUT t) {
+                        downstream.accept(mapper.applyAsLong(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream mapToDouble(ToDoubleFunction<? super P_OUT> mapper) {
+        Objects.requireNonNull(mapper);
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                return new Sink.Chained<P_OUT, Double>(sink) {
+                    @Override
+                    public void accept(P_OUT t) {
+                        downstream.accept(mapper.applyAsDouble(t));
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public <R> Stream<R> flatMap(Function<? super P_OUT, ? extends Stream<? extends R>> mapper) {
+        Objects.requireNonNull(mapper);
+        return new ReferencePipeline.Op<R>(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<R> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<P_OUT, R>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(P_OUT t) {
+                        try (Stream<? extends R> result = mapper.apply(t)) {
+                            if (result == null)
+                                return;
+                            if (!shortCircuit)
+                                result.sequential().forEach(downstream);
+                            else {
+                                Spliterator<? extends R> spliterator = result.sequential().spliterator();
+                                while (!downstream.cancellationRequested() && spliterator.tryAdvance(downstream)) {
+                                }
+                            }
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public IntStream flatMapToInt(Function<? super P_OUT, ? extends IntStream> mapper) {
+        Objects.requireNonNull(mapper);
+        return new IntPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Integer> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<P_OUT, Integer>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(P_OUT t) {
+                        try (IntStream result = mapper.apply(t)) {
+                            if (result == null)
+                                return;
+                            if (!shortCircuit)
+                                result.sequential().forEach(downstream);
+                            else {
+                                Spliterator.OfInt spliterator = result.sequential().spliterator();
+                                while (!downstream.cancellationRequested() && spliterator.tryAdvance((IntConsumer) downstream)) {
+                                }
+                            }
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public LongStream flatMapToLong(Function<? super P_OUT, ? extends LongStream> mapper) {
+        Objects.requireNonNull(mapper);
+        return new LongPipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Long> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<P_OUT, Long>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(P_OUT t) {
+                        try (LongStream result = mapper.apply(t)) {
+                            if (result == null)
+                                return;
+                            if (!shortCircuit)
+                                result.sequential().forEach(downstream);
+                            else {
+                                Spliterator.OfLong spliterator = result.sequential().spliterator();
+                                while (!downstream.cancellationRequested() && spliterator.tryAdvance((LongConsumer) downstream)) {
+                                }
+                            }
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public DoubleStream flatMapToDouble(Function<? super P_OUT, ? extends DoubleStream> mapper) {
+        Objects.requireNonNull(mapper);
+        return new DoublePipeline.Op(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<Double> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<P_OUT, Double>(sink) {
+                    @Override
+                    public void begin(long size) {
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void accept(P_OUT t) {
+                        try (DoubleStream result = mapper.apply(t)) {
+                            if (result == null)
+                                return;
+                            if (!shortCircuit)
+                                result.sequential().forEach(downstream);
+                            else {
+                                Spliterator.OfDouble spliterator = result.sequential().spliterator();
+                                while (!downstream.cancellationRequested() && spliterator.tryAdvance((DoubleConsumer) downstream)) {
+                                }
+                            }
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Stream<P_OUT> distinct() {
+        return new ReferencePipeline.Op<P_OUT>(this, true, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<P_OUT> sink) {
+                return new Sink.Chained<P_OUT, P_OUT>(sink) {
+                    private HashSet<P_OUT> seen;
+
+                    @Override
+                    public void begin(long size) {
+                        seen = new HashSet<>();
+                        downstream.begin(-1);
+                    }
+
+                    @Override
+                    public void end() {
+                        seen = null;
+                        downstream.end();
+                    }
+
+                    @Override
+                    public void accept(P_OUT t) {
+                        if (seen.add(t))
+                            downstream.accept(t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<P_OUT> sorted() {
+        return sorted((Comparator<? super P_OUT>) Comparator.naturalOrder());
+    }
+
+    @Override
+    public Stream<P_OUT> sorted(Comparator<? super P_OUT> comparator) {
+        Objects.requireNonNull(comparator);
+        return new ReferencePipeline.Op<P_OUT>(this, true, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<P_OUT> sink) {
+                boolean shortCircuit = isShortCircuit();
+                return new Sink.Chained<P_OUT, P_OUT>(sink) {
+                    private ArrayList<P_OUT> buffer;
+
+                    @Override
+                    public void begin(long size) {
+                        buffer = size >= 0 && size < Integer.MAX_VALUE - 8 ? new ArrayList<>((int) size) : new ArrayList<>();
+                    }
+
+                    @Override
+                    public void end() {
+                        buffer.sort(comparator);
+                        downstream.begin(buffer.size());
+                        if (!shortCircuit)
+                            buffer.forEach(downstream);
+                        else
+                            for (int i = 0; i < buffer.size() && !downstream.cancellationRequested(); i++)
+                                downstream.accept(buffer.get(i));
+                        downstream.end();
+                        buffer = null;
+                    }
+
+                    @Override
+                    public void accept(P_OUT t) {
+                        buffer.add(t);
+                    }
+
+                    @Override
+                    public boolean cancellationRequested() {
+                        return false;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Stream<P_OUT> peek(Consumer<? super P_OUT> action) {
+        Objects.requireNonNull(action);
+        return new ReferencePipeline.Op<P_OUT>(this, false, false) {
+            @Override
+            public Sink<?> opWrapSink(Sink<P_OUT> sink) {
+                return new Sink.Chained<P_OUT, P_OUT>(sink) {
+                    @Override
+                    public void accept(P_OUT t) {
+                        action.accept(t);
+                        downstream.accept(t);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Stream<P_OUT> limit(long maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        return slice(0, maxSize);
+    }
+
+    @Override
+    public Stream<P_OUT> skip(long n) {
+        if (n < 0)
+            throw new IllegalArgumentException(Long.toString(n));
+        if (n == 0)
+            return this;
+        return slice(n, -1);
+    }
+
+    private Stream<P_OUT> slice(long skip, long limit) {
+        return new ReferencePipeline.Op<P_OUT>(this, true, limit >= 0) {
+            @Override
+            public Sink<?> opWrapSink(Sink<P_OUT> sink) {
+                return new Streams.SliceSink<>(sink, skip, limit);
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super P_OUT> action) {
+        Objects.requireNonNull(action);
+        evaluate(false, () -> new Sink.Terminal<P_OUT, Void>() {
+            @Override
+            public void accept(P_OUT t) {
+                action.accept(t);
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, (a, b) -> null);
+    }
+
+    @Override
+    public void forEachOrdered(Consumer<? super P_OUT> action) {
+        Objects.requireNonNull(action);
+        evaluate(false, () -> new Sink.Terminal<P_OUT, Void>() {
+            @Override
+            public void accept(P_OUT t) {
+                action.accept(t);
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, null);
+    }
+
+    @Override
+    public Object[] toArray() {
+        return toArray(Object[]::new);
+    }
+
+    @Override
+    @SuppressWarnings("SuspiciousToArrayCall")
+    public <A> A[] toArray(IntFunction<A[]> generator) {
+        ArrayList<P_OUT> list = collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        return list.toArray(generator.apply(list.size()));
+    }
+
+    @Override
+    public P_OUT reduce(P_OUT identity, BinaryOperator<P_OUT> accumulator) {
+        return reduce(identity, accumulator, accumulator);
+    }
+
+    @Override
+    public Optional<P_OUT> reduce(BinaryOperator<P_OUT> accumulator) {
+        Objects.requireNonNull(accumulator);
+        return evaluate(false, () -> new Sink.Terminal<P_OUT, Optional<P_OUT>>() {
+            private boolean empty = true;
+            private P_OUT state;
+
+            @Override
+            public void accept(P_OUT t) {
+                if (empty) {
+                    empty = false;
+                    state = t;
+                } else
+                    state = accumulator.apply(state, t);
+            }
+
+            @Override
+            public Optional<P_OUT> get() {
+                return empty ? Optional.empty() : Optional.of(state);
+            }
+        }, (a, b) -> a.isPresent() ? b.isPresent() ? Optional.of(accumulator.apply(a.get(), b.get())) : a : b);
+    }
+
+    @Override
+    public <U> U reduce(U identity, BiFunction<U, ? super P_OUT, U> accumulator, BinaryOperator<U> combiner) {
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        return evaluate(false, () -> new Sink.Terminal<P_OUT, U>() {
+            private U state = identity;
+
+            @Override
+            public void accept(P_OUT t) {
+                state = accumulator.apply(state, t);
+            }
+
+            @Override
+            public U get() {
+                return state;
+            }
+        }, combiner);
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, BiConsumer<R, ? super P_OUT> accumulator, BiConsumer<R, R> combiner) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        return evaluate(false, () -> new Sink.Terminal<P_OUT, R>() {
+            private final R container = supplier.get();
+
+            @Override
+            public void accept(P_OUT t) {
+                accumulator.accept(container, t);
+            }
+
+            @Override
+            public R get() {
+                return container;
+            }
+        }, (a, b) -> {
+            combiner.accept(a, b);
+            return a;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R, A> R collect(Collector<? super P_OUT, A, R> collector) {
+        Supplier<A> supplier = collector.supplier();
+        BiConsumer<A, ? super P_OUT> accumulator = collector.accumulator();
+        A container = evaluate(false, () -> new Sink.Terminal<P_OUT, A>() {
+            private final A container = supplier.get();
+
+            @Override
+            public void accept(P_OUT t) {
+                accumulator.accept(container, t);
+            }
+
+            @Override
+            public A get() {
+                return container;
+            }
+        }, collector.combiner());
+        return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH) ? (R) container : collector.finisher().apply(container);
+    }
+
+    @Override
+    public Optional<P_OUT> min(Comparator<? super P_OUT> comparator) {
+        return reduce(BinaryOperator.minBy(comparator));
+    }
+
+    @Override
+    public Optional<P_OUT> max(Comparator<? super P_OUT> comparator) {
+        return reduce(BinaryOperator.maxBy(comparator));
+    }
+
+    @Override
+    public long count() {
+        long size = exactOutputSizeIfKnown();
+        if (size >= 0) {
+            consumeSource();
+            return size;
+        }
+        return evaluate(false, Streams.CountSink<P_OUT>::new, Long::sum);
+    }
+
+    /**
+     * Returns whether an element matched the predicate with the given result, stopping at the first one
+     */
+    private boolean match(Predicate<? super P_OUT> predicate, boolean stopOn) {
+        Objects.requireNonNull(predicate);
+        AtomicBoolean stopped = new AtomicBoolean();
+        evaluate(true, () -> new Sink.Terminal<P_OUT, Void>() {
+            @Override
+            public void accept(P_OUT t) {
+                if (predicate.test(t) == stopOn)
+                    stopped.set(true);
+            }
+
+            @Override
+            public boolean cancellationRequested() {
+                return stopped.get();
+            }
+
+            @Override
+            public Void get() {
+                return null;
+            }
+        }, (a, b) -> null);
+        return stopped.get();
+    }
+
+    @Override
+    public boolean anyMatch(Predicate<? super P_OUT> predicate) {
+        return match(predicate, true);
+    }
+
+    @Override
+    public boolean allMatch(Predicate<? super P_OUT> predicate) {
+        return !match(predicate, false);
+    }
+
+    @Override
+    public boolean noneMatch(Predicate<? super P_OUT> predicate) {
+        return !match(predicate, true);
+    }
+
+    @Override
+    public Optional<P_OUT> findFirst() {
+        return find(null);
+    }
+
+    @Override
+    public Optional<P_OUT> findAny() {
+        return find((a, b) -> a.isPresent() ? a : b);
+    }
+
+    private Optional<P_OUT> find(BinaryOperator<Optional<P_OUT>> combiner) {
+        AtomicBoolean found = new AtomicBoolean();
+        return evaluate(true, () -> new Sink.Terminal<P_OUT, Optional<P_OUT>>() {
+            private Optional<P_OUT> result = Optional.empty();
+
+            @Override
+            public void accept(P_OUT t) {
+                if (!result.isPresent()) {
+                    result = Optional.of(t);
+                    found.set(true);
+                }
+            }
+
+            @Override
+            public boolean cancellationRequested() {
+                return found.get();
+            }
+
+            @Override
+            public Optional<P_OUT> get() {
+                return result;
+            }
+        }, combiner);
+    }
+
+    @Override
+    public Iterator<P_OUT> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Spliterator<P_OUT> spliterator() {
+        if (getDepth() == 0)
+            return (Spliterator<P_OUT>) consumeSource();
+        return new Streams.WrappingSpliterator<>(this, consumeSource());
+    }
+
+
+    /**
+     * A stage that applies an operation to the elements of the previous stage
+     */
+    abstract static class Op<P_OUT> extends ReferencePipeline<P_OUT> implements IntermediateStage<P_OUT> {
+
+        Op(AbstractPipeline<?, ?> previous, boolean stateful, boolean shortCircuit) {
+            super(previous, stateful, shortCircuit);
+        }
+    }
+
+    /**
+     * The source stage of a pipeline, which has no operation of its own
+     */
+    static class Head<P_OUT> extends ReferencePipeline<P_OUT> {
+
+        Head(Spliterator<P_OUT> source, boolean parallel) {
+            super(source, parallel);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package java.util.stream;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A stage of a fused stream pipeline that values are pushed into. Each stage wraps the sink of the following stage, so a
+ * terminal operation runs every operation on an element before moving to the next one. Only the accept method for the
+ * shape of the stage is called. Stateful stages can buffer values until {@link #end()}.
+ */
+interface Sink<T> extends Consumer<T>, IntConsumer, LongConsumer, DoubleConsumer {
+
+    /**
+     * Called before values are pushed, with the exact number of values or -1 if unknown
+     */
+    default void begin(long size) {
+    }
+
+    /**
+     * Called after all values have been pushed
+     */
+    default void end() {
+    }
+
+    /**
+     * Whether no more values are wanted, for short-circuiting operations
+     */
+    default boolean cancellationRequested() {
+        return false;
+    }
+
+    @Override
+    default void accept(T t) {
+        throw new IllegalStateException("Called wrong accept method");
+    }
+
+    @Override
+    default void accept(int value) {
+        throw new IllegalStateException("Called wrong accept method");
+    }
+
+    @Override
+    default void accept(long value) {
+        throw new IllegalStateException("Called wrong accept method");
+    }
+
+    @Override
+    default void accept(double value) {
+        throw new IllegalStateException("Called wrong accept method");
+    }
+
+    /**
+     * A stage that passes the pipeline lifecycle through to the downstream stage
+     */
+    abstract class Chained<T, E_OUT> implements Sink<T> {
+        protected final Sink<? super E_OUT> downstream;
+
+        Chained(Sink<? super E_OUT> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void begin(long size) {
+            downstream.begin(size);
+        }
+
+        @Override
+        public void end() {
+            downstream.end();
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            return downstream.cancellationRequested();
+        }
+    }
+
+    /**
+     * The final stage of a terminal operation, which produces its result
+     */
+    interface Terminal<T, R> extends Sink<T> {
+        R get();
+    }
+}
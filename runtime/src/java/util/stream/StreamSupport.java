@@ -0,0 +1,54 @@
+package java.util.stream;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Supplier;
+
+/**
+ * Low-level utility methods for creating and manipulating streams from spliterators.
+ */
+public final class StreamSupport {
+
+    private StreamSupport() {
+    }
+
+    public static <T> Stream<T> stream(Spliterator<T> spliterator, boolean parallel) {
+        Objects.requireNonNull(spliterator);
+        return new ReferencePipeline.Head<>(spliterator, parallel);
+    }
+
+    public static <T> Stream<T> stream(Supplier<? extends Spliterator<T>> supplier, int characteristics, boolean parallel) {
+        Objects.requireNonNull(supplier);
+        return stream(supplier.get(), parallel);
+    }
+
+    public static IntStream intStream(Spliterator.OfInt spliterator, boolean parallel) {
+        Objects.requireNonNull(spliterator);
+        return new IntPipeline.Head(spliterator, parallel);
+    }
+
+    public static IntStream intStream(Supplier<? extends Spliterator.OfInt> supplier, int characteristics, boolean parallel) {
+        Objects.requireNonNull(supplier);
+        return intStream(supplier.get(), parallel);
+    }
+
+    public static LongStream longStream(Spliterator.OfLong spliterator, boolean parallel) {
+        Objects.requireNonNull(spliterator);
+        return new LongPipeline.Head(spliterator, parallel);
+    }
+
+    public static LongStream longStream(Supplier<? extends Spliterator.OfLong> supplier, int characteristics, boolean parallel) {
+        Objects.requireNonNull(supplier);
+        return longStream(supplier.get(), parallel);
+    }
+
+    public static DoubleStream doubleStream(Spliterator.OfDouble spliterator, boolean parallel) {
+        Objects.requireNonNull(spliterator);
+        return new DoublePipeline.Head(spliterator, parallel);
+    }
+
+    public static DoubleStream doubleStream(Supplier<? extends Spliterator.OfDouble> supplier, int characteristics, boolean parallel) {
+        Objects.requireNonNull(supplier);
+        return doubleStream(supplier.get(), parallel);
+    }
+}
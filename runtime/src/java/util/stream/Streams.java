@@ -0,0 +1,779 @@
+package java.util.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Package-private stream sources, spliterators, and sinks shared by the pipeline implementations.
+ */
+final class Streams {
+
+    private Streams() {
+    }
+
+    /**
+     * Returns a close handler that closes both streams, even if closing the first one throws
+     */
+    static Runnable composedClose(BaseStream<?, ?> a, BaseStream<?, ?> b) {
+        return () -> {
+            try {
+                a.close();
+            } catch (Throwable e1) {
+                try {
+                    b.close();
+                } catch (Throwable e2) {
+                    e1.addSuppressed(e2);
+                }
+                throw e1;
+            }
+            b.close();
+        };
+    }
+
+    /**
+     * Returns a close handler that runs both handlers, even if the first one throws
+     */
+    static Runnable composeHandlers(Runnable a, Runnable b) {
+        return () -> {
+            try {
+                a.run();
+            } catch (Throwable e1) {
+                try {
+                    b.run();
+                } catch (Throwable e2) {
+                    e1.addSuppressed(e2);
+                }
+                throw e1;
+            }
+            b.run();
+        };
+    }
+
+    static final class StreamBuilder<T> implements Stream.Builder<T> {
+        private final ArrayList<T> buffer = new ArrayList<>();
+        private boolean built;
+
+        @Override
+        public void accept(T t) {
+            if (built)
+                throw new IllegalStateException("Stream already built");
+            buffer.add(t);
+        }
+
+        @Override
+        public Stream<T> build() {
+            if (built)
+                throw new IllegalStateException("Stream already built");
+            built = true;
+            return StreamSupport.stream(Spliterators.spliterator(buffer.toArray(), Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+        }
+    }
+
+    static final class IntStreamBuilder implements IntStream.Builder {
+        private final IntBuffer buffer = new IntBuffer(-1);
+        private boolean built;
+
+        @Override
+        public void accept(int t) {
+            if (built)
+                throw new IllegalStateException("Stream already built");
+            buffer.accept(t);
+        }
+
+        @Override
+        public IntStream build() {
+            if (built)
+                throw new IllegalStateException("Stream already built");
+            built = true;
+            return StreamSupport.intStream(Spliterators.spliterator(buffer.toArray(), Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+        }
+    }
+
+    static final class LongStreamBuilder implements LongStream.Builder {
+        private final LongBuffer buffer = new LongBuffer(-1);
+        private boolean built;
+
+        @Override
+        public void accept(long t) {
+            if (built)
+                throw new IllegalStateException("Stream already built");
+            buffer.accept(t);
+        }
+
+        @Override
+        public LongStream build() {
+            if (built)
+                throw new IllegalStateException("Stream already built");
+            built = true;
+            return StreamSupport.longStream(Spliterators.spliterator(buffer.toArray(), Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+        }
+    }
+
+    static final class DoubleStreamBuilder implements DoubleStream.Builder {
+        private final DoubleBuffer buffer = new DoubleBuffer(-1);
+        private boolean built;
+
+        @Override
+        public void accept(double t) {
+            if (built)
+                throw new IllegalStateException("Stream already built");
+            buffer.accept(t);
+        }
+
+        @Override
+        public DoubleStream build() {
+            if (built)
+                throw new IllegalStateException("Stream already built");
+            built = true;
+            return StreamSupport.doubleStream(Spliterators.spliterator(buffer.toArray(), Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+        }
+    }
+
+    /**
+     * Growable int array for buffering stream elements without boxing
+     */
+    static final class IntBuffer implements IntConsumer {
+        int[] array;
+        int size;
+
+        IntBuffer(long sizeHint) {
+            array = new int[sizeHint >= 0 && sizeHint < Integer.MAX_VALUE - 8 ? (int) sizeHint : 16];
+        }
+
+        @Override
+        public void accept(int value) {
+            if (size == array.length)
+                array = Arrays.copyOf(array, Math.max(16, size * 2));
+            array[size++] = value;
+        }
+
+        IntBuffer addAll(IntBuffer other) {
+            if (size + other.size > array.length)
+                array = Arrays.copyOf(array, size + other.size);
+            System.arraycopy(other.array, 0, array, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        int[] toArray() {
+            return array.length == size ? array : Arrays.copyOf(array, size);
+        }
+    }
+
+    /**
+     * Growable long array for buffering stream elements without boxing
+     */
+    static final class LongBuffer implements LongConsumer {
+        long[] array;
+        int size;
+
+        LongBuffer(long sizeHint) {
+            array = new long[sizeHint >= 0 && sizeHint < Integer.MAX_VALUE - 8 ? (int) sizeHint : 16];
+        }
+
+        @Override
+        public void accept(long value) {
+            if (size == array.length)
+                array = Arrays.copyOf(array, Math.max(16, size * 2));
+            array[size++] = value;
+        }
+
+        LongBuffer addAll(LongBuffer other) {
+            if (size + other.size > array.length)
+                array = Arrays.copyOf(array, size + other.size);
+            System.arraycopy(other.array, 0, array, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        long[] toArray() {
+            return array.length == size ? array : Arrays.copyOf(array, size);
+        }
+    }
+
+    /**
+     * Growable double array for buffering stream elements without boxing
+     */
+    static final class DoubleBuffer implements DoubleConsumer {
+        double[] array;
+        int size;
+
+        DoubleBuffer(long sizeHint) {
+            array = new double[sizeHint >= 0 && sizeHint < Integer.MAX_VALUE - 8 ? (int) sizeHint : 16];
+        }
+
+        @Override
+        public void accept(double value) {
+            if (size == array.length)
+                array = Arrays.copyOf(array, Math.max(16, size * 2));
+            array[size++] = value;
+        }
+
+        DoubleBuffer addAll(DoubleBuffer other) {
+            if (size + other.size > array.length)
+                array = Arrays.copyOf(array, size + other.size);
+            System.arraycopy(other.array, 0, array, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        double[] toArray() {
+            return array.length == size ? array : Arrays.copyOf(array, size);
+        }
+    }
+
+    /**
+     * A splittable spliterator over an inclusive range of ints
+     */
+    static final class RangeIntSpliterator implements Spliterator.OfInt {
+        private int from;
+        private final int to;
+        private boolean done;
+
+        RangeIntSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+            done = from > to;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (done)
+                return false;
+            int value = from;
+            if (value == to)
+                done = true;
+            else
+                from++;
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (done)
+                return;
+            int value = from;
+            int end = to;
+            from = end;
+            done = true;
+            for (; value < end; value++)
+                action.accept(value);
+            action.accept(end);
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            if (done || from == to)
+                return null;
+            int middle = from + (int) (((long) to - from) >>> 1);
+            Spliterator.OfInt prefix = new RangeIntSpliterator(from, middle);
+            from = middle + 1;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return done ? 0 : (long) to - from + 1;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE
+                    | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.SORTED;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+
+    /**
+     * A splittable spliterator over an inclusive range of longs
+     */
+    static final class RangeLongSpliterator implements Spliterator.OfLong {
+        private long from;
+        private final long to;
+        private boolean done;
+
+        RangeLongSpliterator(long from, long to) {
+            this.from = from;
+            this.to = to;
+            done = from > to;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            if (done)
+                return false;
+            long value = from;
+            if (value == to)
+                done = true;
+            else
+                from++;
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            if (done)
+                return;
+            long value = from;
+            long end = to;
+            from = end;
+            done = true;
+            for (; value < end; value++)
+                action.accept(value);
+            action.accept(end);
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            if (done || from == to)
+                return null;
+            long middle = from + ((to - from) >>> 1);
+            Spliterator.OfLong prefix = new RangeLongSpliterator(from, middle);
+            from = middle + 1;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            if (done)
+                return 0;
+            long size = to - from + 1;
+            return size > 0 ? size : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE
+                    | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.SORTED;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+    }
+
+    /**
+     * A spliterator over the elements of one spliterator followed by another, which splits into the two halves first
+     */
+    static class ConcatSpliterator<T, T_SPLITR extends Spliterator<T>> implements Spliterator<T> {
+        protected final T_SPLITR a;
+        protected final T_SPLITR b;
+        protected boolean beforeSplit = true;
+        private final boolean unsized;
+
+        ConcatSpliterator(T_SPLITR a, T_SPLITR b) {
+            this.a = a;
+            this.b = b;
+            unsized = a.estimateSize() + b.estimateSize() < 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T_SPLITR trySplit() {
+            if (beforeSplit) {
+                beforeSplit = false;
+                return a;
+            }
+            return (T_SPLITR) b.trySplit();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (beforeSplit) {
+                if (a.tryAdvance(action))
+                    return true;
+                beforeSplit = false;
+            }
+            return b.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (beforeSplit)
+                a.forEachRemaining(action);
+            b.forEachRemaining(action);
+        }
+
+        @Override
+        public long estimateSize() {
+            if (!beforeSplit)
+                return b.estimateSize();
+            long size = a.estimateSize() + b.estimateSize();
+            return size >= 0 ? size : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            if (!beforeSplit)
+                return b.characteristics();
+            return a.characteristics() & b.characteristics() & ~(Spliterator.DISTINCT | Spliterator.SORTED
+                    | (unsized ? Spliterator.SIZED | Spliterator.SUBSIZED : 0));
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            if (beforeSplit)
+                throw new IllegalStateException();
+            return b.getComparator();
+        }
+
+        static final class OfInt extends ConcatSpliterator<Integer, Spliterator.OfInt> implements Spliterator.OfInt {
+            OfInt(Spliterator.OfInt a, Spliterator.OfInt b) {
+                super(a, b);
+            }
+
+            @Override
+            public boolean tryAdvance(IntConsumer action) {
+                if (beforeSplit) {
+                    if (a.tryAdvance(action))
+                        return true;
+                    beforeSplit = false;
+                }
+                return b.tryAdvance(action);
+            }
+
+            @Override
+            public void forEachRemaining(IntConsumer action) {
+                if (beforeSplit)
+                    a.forEachRemaining(action);
+                b.forEachRemaining(action);
+            }
+        }
+
+        static final class OfLong extends ConcatSpliterator<Long, Spliterator.OfLong> implements Spliterator.OfLong {
+            OfLong(Spliterator.OfLong a, Spliterator.OfLong b) {
+                super(a, b);
+            }
+
+            @Override
+            public boolean tryAdvance(LongConsumer action) {
+                if (beforeSplit) {
+                    if (a.tryAdvance(action))
+                        return true;
+                    beforeSplit = false;
+                }
+                return b.tryAdvance(action);
+            }
+
+            @Override
+            public void forEachRemaining(LongConsumer action) {
+                if (beforeSplit)
+                    a.forEachRemaining(action);
+                b.forEachRemaining(action);
+            }
+        }
+
+        static final class OfDouble extends ConcatSpliterator<Double, Spliterator.OfDouble> implements Spliterator.OfDouble {
+            OfDouble(Spliterator.OfDouble a, Spliterator.OfDouble b) {
+                super(a, b);
+            }
+
+            @Override
+            public boolean tryAdvance(DoubleConsumer action) {
+                if (beforeSplit) {
+                    if (a.tryAdvance(action))
+                        return true;
+                    beforeSplit = false;
+                }
+                return b.tryAdvance(action);
+            }
+
+            @Override
+            public void forEachRemaining(DoubleConsumer action) {
+                if (beforeSplit)
+                    a.forEachRemaining(action);
+                b.forEachRemaining(action);
+            }
+        }
+    }
+
+    /**
+     * A spliterator over the output of a pipeline, which pushes source elements through the pipeline one at a time and
+     * buffers the results. Primitive outputs are boxed, so the primitive streams wrap it to unbox them again.
+     */
+    static final class WrappingSpliterator<T> implements Spliterator<T> {
+        private final AbstractPipeline<T, ?> pipeline;
+        private final Spliterator<?> source;
+        private final ArrayList<T> buffer = new ArrayList<>();
+        private int index;
+        private Sink<?> sink;
+        private boolean finished;
+
+        WrappingSpliterator(AbstractPipeline<T, ?> pipeline, Spliterator<?> source) {
+            this.pipeline = pipeline;
+            this.source = source;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean fill() {
+            if (sink == null) {
+                sink = pipeline.wrapSink(new Sink<T>() {
+                    @Override
+                    public void accept(T t) {
+                        buffer.add(t);
+                    }
+
+                    @Override
+                    public void accept(int value) {
+                        buffer.add((T) Integer.valueOf(value));
+                    }
+
+                    @Override
+                    public void accept(long value) {
+                        buffer.add((T) Long.valueOf(value));
+                    }
+
+                    @Override
+                    public void accept(double value) {
+                        buffer.add((T) Double.valueOf(value));
+                    }
+                });
+                sink.begin(source.getExactSizeIfKnown());
+            }
+            while (index == buffer.size()) {
+                if (finished)
+                    return false;
+                buffer.clear();
+                index = 0;
+                if (sink.cancellationRequested() || !pipeline.tryAdvance(source, sink)) {
+                    finished = true;
+                    sink.end();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (!fill())
+                return false;
+            T value = buffer.get(index);
+            buffer.set(index++, null);
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & Spliterator.ORDERED;
+        }
+    }
+
+    static final class UnboxingIntSpliterator implements Spliterator.OfInt {
+        private final Spliterator<Integer> spliterator;
+
+        UnboxingIntSpliterator(Spliterator<Integer> spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return spliterator.tryAdvance((Integer value) -> action.accept(value));
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+    }
+
+    static final class UnboxingLongSpliterator implements Spliterator.OfLong {
+        private final Spliterator<Long> spliterator;
+
+        UnboxingLongSpliterator(Spliterator<Long> spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            return spliterator.tryAdvance((Long value) -> action.accept(value));
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+    }
+
+    static final class UnboxingDoubleSpliterator implements Spliterator.OfDouble {
+        private final Spliterator<Double> spliterator;
+
+        UnboxingDoubleSpliterator(Spliterator<Double> spliterator) {
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            return spliterator.tryAdvance((Double value) -> action.accept(value));
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return spliterator.characteristics();
+        }
+    }
+
+    /**
+     * Skips and limits the elements of any shape
+     */
+    static final class SliceSink<T> extends Sink.Chained<T, T> {
+        private final long skip;
+        private final long limit;
+        private long toSkip;
+        private long remaining;
+
+        /**
+         * @param limit The maximum number of elements to pass through after skipping, or -1 for no limit
+         */
+        SliceSink(Sink<? super T> downstream, long skip, long limit) {
+            super(downstream);
+            this.skip = skip;
+            this.limit = limit;
+        }
+
+        @Override
+        public void begin(long size) {
+            toSkip = skip;
+            remaining = limit;
+            if (size >= 0) {
+                size = Math.max(0, size - skip);
+                if (limit >= 0)
+                    size = Math.min(size, limit);
+            }
+            downstream.begin(size);
+        }
+
+        private boolean take() {
+            if (toSkip > 0) {
+                toSkip--;
+                return false;
+            }
+            if (remaining == 0)
+                return false;
+            if (remaining > 0)
+                remaining--;
+            return true;
+        }
+
+        @Override
+        public void accept(T t) {
+            if (take())
+                downstream.accept(t);
+        }
+
+        @Override
+        public void accept(int value) {
+            if (take())
+                downstream.accept(value);
+        }
+
+        @Override
+        public void accept(long value) {
+            if (take())
+                downstream.accept(value);
+        }
+
+        @Override
+        public void accept(double value) {
+            if (take())
+                downstream.accept(value);
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            return remaining == 0 || downstream.cancellationRequested();
+        }
+    }
+
+    /**
+     * Counts the elements of any shape
+     */
+    static final class CountSink<T> implements Sink.Terminal<T, Long> {
+        private long count;
+
+        @Override
+        public void accept(T t) {
+            count++;
+        }
+
+        @Override
+        public void accept(int value) {
+            count++;
+        }
+
+        @Override
+        public void accept(long value) {
+            count++;
+        }
+
+        @Override
+        public void accept(double value) {
+            count++;
+        }
+
+        @Override
+        public Long get() {
+            return count;
+        }
+    }
+}
@@ -2,11 +2,14 @@ package com.thelogicmaster.clearwing;
 
 import org.objectweb.asm.Type;
 
+import java.io.Serializable;
 import java.util.*;
 
 // Todo: Make created objects eternal
 public class BytecodeAnnotation extends AnnotationValue {
 
+	private static final long serialVersionUID = 1L;
+
 	private final ArrayList<AnnotationValue> values = new ArrayList<>();
 	private final String annotationName;
 	private final String qualifiedName;
@@ -103,13 +106,16 @@ public class BytecodeAnnotation extends AnnotationValue {
 	}
 
 	public void append (StringBuilder builder, String target, boolean fieldTarget, HashMap<String, BytecodeClass> classMap) {
-		builder.append("\t\t").append(target).append(" = ").append(fieldTarget ? "(intptr_t) " : "").append("gcAlloc(ctx, &class_").append(qualifiedName).append(");\n");
+		// Annotations live as long as their class metadata, and are stored into arrays without write barriers
+		builder.append("\t\t").append(target).append(" = ").append(fieldTarget ? "(intptr_t) " : "").append("gcAllocEternal(ctx, &class_").append(qualifiedName).append(");\n");
 		for (AnnotationValue value: values)
 			value.append(builder, "((" + qualifiedName + " *)" + target + ")->" + Utils.sanitizeField(qualifiedName, value.name, false), true, classMap);
 	}
 }
 
-abstract class AnnotationValue {
+abstract class AnnotationValue implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	protected final String name;
 
@@ -126,6 +132,8 @@ abstract class AnnotationValue {
 
 class AnnotationObjectValue extends AnnotationValue {
 
+	private static final long serialVersionUID = 1L;
+
 	private final Object object;
 	private final BytecodeAnnotation annotation;
 
@@ -231,6 +239,8 @@ class AnnotationObjectValue extends AnnotationValue {
 
 class AnnotationEnumValue extends AnnotationValue {
 
+	private static final long serialVersionUID = 1L;
+
 	private final String clazz;
 	private final String value;
 
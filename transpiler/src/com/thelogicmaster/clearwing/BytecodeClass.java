@@ -1,12 +1,18 @@
 package com.thelogicmaster.clearwing;
 
 import com.thelogicmaster.clearwing.bytecode.Instruction;
+import com.thelogicmaster.clearwing.bytecode.LocalInstruction;
+import com.thelogicmaster.clearwing.bytecode.TryInstruction;
 import org.objectweb.asm.Opcodes;
 
+import java.io.Serializable;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-public class BytecodeClass {
+public class BytecodeClass implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	public final static BytecodeClass OBJECT_CLASS = new BytecodeClass("java/lang/Object", null, null, Opcodes.ACC_PUBLIC);
 	public final static BytecodeMethod[] OBJECT_METHODS = {
@@ -329,7 +335,7 @@ public class BytecodeClass {
 			}
 		builder.append("\n");
 
-		builder.append("void mark_").append(qualifiedName).append("(jobject object, jint mark, jint depth);\n");
+		builder.append("void mark_").append(qualifiedName).append("(jobject object, jint mark);\n");
 		builder.append("void clinit_").append(qualifiedName).append("(jcontext ctx);\n");
 
 		for (BytecodeMethod method : methods)
@@ -346,9 +352,17 @@ public class BytecodeClass {
 		builder.append("#endif\n");
 	}
 
+	private static void collectRegisterLocals(List<Instruction> instructions, Set<String> registerLocals) {
+		for (Instruction instruction : instructions)
+			if (instruction instanceof LocalInstruction local && local.getLocalType() != TypeVariants.OBJECT)
+				registerLocals.add(local.getLocalType().getArithmeticType() + " " + BytecodeMethod.getRegisterLocal(local.getLocal(), local.getLocalType()));
+			else if (instruction instanceof InstructionGroup group)
+				collectRegisterLocals(group.getInstructions(), registerLocals);
+	}
+
 	public void generateCpp(StringBuilder builder, TranspilerConfig config, HashMap<String, BytecodeClass> classMap) {
 		builder.append("#include \"").append(Utils.getClassFilename(name)).append(".h\"\n");
-		for (String clazz : dependencies)
+		for (String clazz : new TreeSet<>(dependencies)) // Sorted for stable output
 			builder.append("#include \"").append(Utils.getClassFilename(clazz)).append(".h\"\n");
 		builder.append("\n");
 
@@ -365,29 +379,19 @@ public class BytecodeClass {
 		builder.append("\n");
 
 		// Mark function
-		builder.append("void mark_").append(qualifiedName).append("(jobject object, jint mark, jint depth) {\n");
+		builder.append("void mark_").append(qualifiedName).append("(jobject object, jint mark) {\n");
 		builder.append("\tif (!object) {\n");
 		for (BytecodeField field : fields)
 			if (field.isStatic() && !field.getType().isPrimitive())
-				builder.append("\t\tif (").append(field.getName()).append(")\n")
-						.append("\t\t\t((gc_mark_ptr) ((jclass) ((jobject) ").append(field.getName()).append(")->clazz)->markFunction)((jobject) ").append(field.getName()).append(", mark, depth + 1);\n");
-		builder.append("\t\treturn;\n");
-		builder.append("\t}\n");
-		builder.append("\tif (depth > GC_DEPTH_ALWAYS && (object->gcMark < GC_MARK_START || object->gcMark == mark))\n");
-		builder.append("\t\treturn;\n");
-		builder.append("\tif (depth > MAX_GC_MARK_DEPTH) {\n");
-		builder.append("\t\tmarkDeepObject(object);\n");
+				builder.append("\t\tmarkObject((jobject) ").append(field.getName()).append(", mark);\n");
 		builder.append("\t\treturn;\n");
 		builder.append("\t}\n");
 		if (superClass != null && superClass != OBJECT_CLASS)
-			builder.append("\tmark_").append(qualifiedSuperName).append("(object, mark, depth);\n");
-		builder.append("\tif (object->gcMark >= GC_MARK_START)\n");
-		builder.append("\t\tobject->gcMark = mark;\n");
+			builder.append("\tmark_").append(qualifiedSuperName).append("(object, mark);\n");
 		builder.append("\tauto self = (").append(qualifiedName).append(" *) object;\n");
 		for (BytecodeField field : fields)
 			if (!field.isStatic() && !field.getType().isPrimitive())
-				builder.append("\tif (self->").append(field.getName()).append(")\n")
-						.append("\t\t((gc_mark_ptr) ((jclass) ((jobject) self->").append(field.getName()).append(")->clazz)->markFunction)((jobject) self->").append(field.getName()).append(", mark, depth + 1);\n");
+				builder.append("\tmarkObject((jobject) self->").append(field.getName()).append(", mark);\n");
 		builder.append("}\n\n");
 
 		// Default static initializer
@@ -410,14 +414,24 @@ public class BytecodeClass {
 			else if (!method.isStatic())
 				builder.append("\tNULL_CHECK(self);\n");
 
+			// Frame values must be volatile to survive a longjmp, which isn't needed with C++ exceptions
+			String frameQualifier = config.useCppExceptions() ? "" : "volatile ";
 			int stackSize = method.getStackSize() + method.getLocalCount();
 			if (stackSize > 0) {
-				builder.append("\tvolatile jtype frame[").append(stackSize).append("];\n");
+				builder.append("\t").append(frameQualifier).append("jtype frame[").append(stackSize).append("];\n");
 				builder.append("\tauto stack = &frame[").append(method.getLocalCount()).append("];\n");
-				builder.append("\tvolatile jtype *sp = stack;\n");
+				builder.append("\t").append(frameQualifier).append("jtype *sp = stack;\n");
+				// Primitive slots are never scanned, but reference and mixed slots are read by the GC, so they can't start out as garbage
+				String frameSlots = method.getFrameSlots();
+				for (int i = 0; i < stackSize; i++)
+					if (frameSlots == null || frameSlots.charAt(i) != 'P')
+						builder.append("\tframe[").append(i).append("].o = nullptr;\n");
 			}
 			builder.append("\tFrameInfo frameInfo { ").append("\"").append(name).append(":")
-					.append(method.getOriginalName()).append("\", ").append(stackSize).append(" };\n");
+					.append(method.getOriginalName()).append("\", ").append(stackSize);
+			if (stackSize > 0 && method.getFrameSlots() != null)
+				builder.append(", \"").append(method.getFrameSlots()).append("\"");
+			builder.append(" };\n");
 			builder.append("\tauto frameRef = pushStackFrame(ctx, &frameInfo, ")
 					.append(stackSize > 0 ? "frame" : "nullptr").append(", ");
 			if (!method.isSynchronized())
@@ -429,28 +443,72 @@ public class BytecodeClass {
 			builder.append(");\n");
 			
 			if (method.getTryCatchBypasses() > 0)
-				builder.append("\tvolatile bool bypasses[").append(method.getTryCatchBypasses()).append("]{};\n");
+				builder.append("\t").append(frameQualifier).append("bool bypasses[").append(method.getTryCatchBypasses()).append("]{};\n");
 			
 			builder.append("\n");
 
 			if (method.isStatic() || method.isConstructor())
 				builder.append("\tclinit_").append(qualifiedName).append("(ctx);\n");
 
+			// Declare primitive locals, which are kept out of the frame so that they can be placed in registers
+			if (method.hasRegisterLocals()) {
+				TreeSet<String> registerLocals = new TreeSet<>();
+				for (int i = 0, j = method.isStatic() ? 0 : 1; i < method.getSignature().getParamTypes().length; i++, j++) {
+					TypeVariants paramType = method.getSignature().getParamTypes()[i].getBasicType();
+					if (paramType != TypeVariants.OBJECT)
+						registerLocals.add(paramType.getArithmeticType() + " " + BytecodeMethod.getRegisterLocal(j, paramType));
+					if (paramType.isWide())
+						j++;
+				}
+				collectRegisterLocals(method.getInstructions(), registerLocals);
+				for (String local : registerLocals)
+					builder.append("\t").append(local).append("{};\n");
+			}
+
 			// Set locals from parameters
 			if (method.getLocalCount() > 0) {
 				if (!method.isStatic())
 					builder.append("\tframe[0].o = self;\n");
 				for (int i = 0, j = method.isStatic() ? 0 : 1; i < method.getSignature().getParamTypes().length; i++, j++) {
 					TypeVariants paramType = method.getSignature().getParamTypes()[i].getBasicType();
-					builder.append("\tframe[").append(j).append("].").append(paramType.getStackName()).append(" = param").append(i).append(";\n");
+					if (method.hasRegisterLocals() && paramType != TypeVariants.OBJECT)
+						builder.append("\t").append(BytecodeMethod.getRegisterLocal(j, paramType)).append(" = param").append(i).append(";\n");
+					else
+						builder.append("\tframe[").append(j).append("].").append(paramType.getStackName()).append(" = param").append(i).append(";\n");
 					if (paramType.isWide())
 						j++;
 				}
 			}
 
+			// With C++ exceptions, caught exceptions unwind to a single handler around the body that dispatches to the catch block
+			List<TryInstruction> tryInstructions = new ArrayList<>();
+			for (Instruction instruction : method.getInstructions())
+				if (instruction instanceof TryInstruction tryInstruction)
+					tryInstructions.add(tryInstruction);
+			boolean exceptionDispatch = config.useCppExceptions() && !tryInstructions.isEmpty();
+			if (exceptionDispatch) {
+				builder.append("\tint exceptionHandler = -1;\n");
+				builder.append("exception_dispatch:\n");
+				builder.append("\ttry {\n");
+				builder.append("\tswitch (exceptionHandler) {\n");
+				for (TryInstruction tryInstruction : tryInstructions)
+					tryInstruction.appendHandlerDispatch(builder);
+				builder.append("\t\tdefault: break;\n");
+				builder.append("\t}\n\n");
+			}
+
 			for (Instruction instruction : method.getInstructions())
 				instruction.appendUnoptimized(builder, config);
 
+			if (exceptionDispatch) {
+				builder.append("\n\t} catch (const ExceptionUnwind &unwind) {\n");
+				builder.append("\t\tif (unwind.frame != frameRef)\n");
+				builder.append("\t\t\tthrow;\n");
+				builder.append("\t\texceptionHandler = unwind.handler;\n");
+				builder.append("\t\tgoto exception_dispatch;\n");
+				builder.append("\t}\n");
+			}
+
 			builder.append("\n\tpopStackFrame(ctx);\n"); // Todo: This can probably be removed
 			builder.append("}\n\n");
 		}
@@ -758,6 +816,43 @@ public class BytecodeClass {
 		return interfaceClasses;
 	}
 
+	/**
+	 * Returns whether this class is the given class or inherits from it
+	 */
+	public boolean isSubtypeOf(BytecodeClass clazz) {
+		if (this == clazz)
+			return true;
+		if (hierarchyError)
+			return false;
+		if (superClass != null && superClass.isSubtypeOf(clazz))
+			return true;
+		if (interfaceClasses != null)
+			for (BytecodeClass interfaceClass : interfaceClasses)
+				if (interfaceClass.isSubtypeOf(clazz))
+					return true;
+		return false;
+	}
+
+	/**
+	 * Removes methods that aren't kept along with vtable entries for signatures that are never dispatched.
+	 * Entries are removed by signature across all classes, so a superclass vtable remains a prefix of its subclasses.
+	 * Returns the number of removed methods.
+	 */
+	public int trimMethods(Predicate<BytecodeMethod> keep, Set<MethodSignature> dispatchedSignatures) {
+		int count = methods.size();
+		methods.removeIf(method -> !method.isStaticInitializer() && !keep.test(method));
+		vtable.removeIf(method -> !dispatchedSignatures.contains(method.getSignature()));
+		return count - methods.size();
+	}
+
+	/**
+	 * Finds the method a call on an instance of this class dispatches to, or null if not in the vtable
+	 */
+	public BytecodeMethod findVtableMethod(BytecodeMethod method) {
+		int index = vtable.indexOf(method);
+		return index < 0 ? null : vtable.get(index);
+	}
+
 	@Override
 	public String toString() {
 		return "class " + name;
@@ -2,12 +2,15 @@ package com.thelogicmaster.clearwing;
 
 import org.objectweb.asm.Opcodes;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-public class BytecodeField {
+public class BytecodeField implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private final BytecodeClass owner;
 	private final String name;
@@ -7,10 +7,16 @@ import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.*;
 import java.util.function.Function;
 
-public class BytecodeMethod {
+public class BytecodeMethod implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private final BytecodeClass clazz;
 	private final String name;
@@ -31,6 +37,8 @@ public class BytecodeMethod {
 	private int labelCount;
 	private boolean intrinsic;
 	private boolean generated;
+	private String frameSlots;
+	private boolean registerLocals;
 
 	public BytecodeMethod (BytecodeClass clazz, String name, int access, String desc, String signature, String[] exceptions) {
 		this.clazz = clazz;
@@ -59,6 +67,14 @@ public class BytecodeMethod {
 		return (access & Opcodes.ACC_ABSTRACT) == Opcodes.ACC_ABSTRACT;
 	}
 
+	public boolean isFinal() {
+		return (access & Opcodes.ACC_FINAL) == Opcodes.ACC_FINAL;
+	}
+
+	public boolean isPrivate() {
+		return (access & Opcodes.ACC_PRIVATE) == Opcodes.ACC_PRIVATE;
+	}
+
 	public boolean isSynchronized() {
 		return (access & Opcodes.ACC_SYNCHRONIZED) == Opcodes.ACC_SYNCHRONIZED;
 	}
@@ -258,6 +274,35 @@ public class BytecodeMethod {
 		return localCount;
 	}
 
+	/**
+	 * Set the kind of each frame slot, used by the GC to only scan slots that can hold references
+	 */
+	public void setFrameSlots(String frameSlots) {
+		this.frameSlots = frameSlots;
+	}
+
+	public String getFrameSlots() {
+		return frameSlots;
+	}
+
+	/**
+	 * Set whether primitive locals are stored in C++ variables rather than the frame
+	 */
+	public void setRegisterLocals(boolean registerLocals) {
+		this.registerLocals = registerLocals;
+	}
+
+	public boolean hasRegisterLocals() {
+		return registerLocals;
+	}
+
+	/**
+	 * Get the C++ variable for a primitive local, since slots can be reused for different types
+	 */
+	public static String getRegisterLocal(int local, TypeVariants type) {
+		return "local" + local + "_" + type.getStackName();
+	}
+
 	public void addTryCatch(TryInstruction tryInstruction) {
 		tryCatchBlocks.add(tryInstruction);
 	}
@@ -270,6 +315,77 @@ public class BytecodeMethod {
 		return methodType;
 	}
 
+	/**
+	 * Writes the stack entry links as indices into flat lists of instructions and entries, since following them during
+	 * serialization would recurse through the whole instruction graph of the method
+	 */
+	private void writeObject(ObjectOutputStream output) throws IOException {
+		output.defaultWriteObject();
+		ArrayList<Instruction> linkedInstructions = new ArrayList<>();
+		IdentityHashMap<Instruction, Integer> instructionIds = new IdentityHashMap<>();
+		ArrayList<StackEntry> entries = new ArrayList<>();
+		IdentityHashMap<StackEntry, Integer> entryIds = new IdentityHashMap<>();
+		for (Instruction instruction : instructions)
+			addLinked(instruction, linkedInstructions, instructionIds);
+		for (Instruction instruction : tryCatchBlocks)
+			addLinked(instruction, linkedInstructions, instructionIds);
+		for (int i = 0, j = 0; i < linkedInstructions.size() || j < entries.size();) {
+			if (i < linkedInstructions.size()) {
+				Instruction instruction = linkedInstructions.get(i++);
+				if (instruction instanceof InstructionGroup group)
+					for (Instruction child : group.getInstructions())
+						addLinked(child, linkedInstructions, instructionIds);
+				if (instruction instanceof TryInstruction tryInstruction)
+					addLinked(tryInstruction.getCatchInstruction(), linkedInstructions, instructionIds);
+				if (instruction.getInputs() != null)
+					for (StackEntry entry : instruction.getInputs())
+						addLinked(entry, entries, entryIds);
+				if (instruction.getOutputs() != null)
+					for (StackEntry entry : instruction.getOutputs())
+						addLinked(entry, entries, entryIds);
+			} else {
+				StackEntry entry = entries.get(j++);
+				addLinked(entry.getSource(), linkedInstructions, instructionIds);
+				addLinked(entry.getDirectOriginal(), entries, entryIds);
+				for (Instruction consumer : entry.getConsumers())
+					addLinked(consumer, linkedInstructions, instructionIds);
+			}
+		}
+
+		output.writeObject(linkedInstructions);
+		output.writeObject(entries);
+		for (StackEntry entry : entries) {
+			output.writeInt(entry.getSource() == null ? -1 : instructionIds.get(entry.getSource()));
+			output.writeInt(entry.getDirectOriginal() == null ? -1 : entryIds.get(entry.getDirectOriginal()));
+			output.writeInt(entry.getConsumers().size());
+			for (Instruction consumer : entry.getConsumers())
+				output.writeInt(instructionIds.get(consumer));
+		}
+	}
+
+	private static <T> void addLinked(T node, ArrayList<T> nodes, IdentityHashMap<T, Integer> ids) {
+		if (node == null || ids.containsKey(node))
+			return;
+		ids.put(node, nodes.size());
+		nodes.add(node);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+		input.defaultReadObject();
+		ArrayList<Instruction> linkedInstructions = (ArrayList<Instruction>) input.readObject();
+		ArrayList<StackEntry> entries = (ArrayList<StackEntry>) input.readObject();
+		for (StackEntry entry : entries) {
+			int source = input.readInt();
+			int original = input.readInt();
+			int consumerCount = input.readInt();
+			ArrayList<Instruction> consumers = new ArrayList<>(consumerCount);
+			for (int i = 0; i < consumerCount; i++)
+				consumers.add(linkedInstructions.get(input.readInt()));
+			entry.link(source < 0 ? null : linkedInstructions.get(source), original < 0 ? null : entries.get(original), consumers);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return clazz + "." + name;
@@ -0,0 +1,140 @@
+package com.thelogicmaster.clearwing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes output files only when their content changes, so unchanged files keep their timestamps and aren't rebuilt.
+ * A manifest of content hashes is kept in the output directory to skip unchanged files and remove stale outputs from
+ * previous runs. The size and modification time of each file are recorded alongside its hash, so files changed on disk
+ * since the manifest was saved, such as by a run that failed before saving it, are compared by content instead.
+ * Writes are thread-safe.
+ */
+public class IncrementalWriter {
+
+	private static final String MANIFEST_NAME = ".clearwing-manifest";
+
+	private final File outputDir;
+	private final HashMap<String, Entry> previousEntries = new HashMap<>();
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicInteger writtenCount = new AtomicInteger();
+
+	public IncrementalWriter (File outputDir) throws IOException {
+		this.outputDir = outputDir;
+		File manifest = new File(outputDir, MANIFEST_NAME);
+		if (manifest.exists())
+			for (String line: Files.readAllLines(manifest.toPath())) {
+				String[] fields = line.split(" ", 4);
+				if (fields.length == 4)
+					previousEntries.put(fields[3], new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+			}
+	}
+
+	private String getPath(File file) {
+		return outputDir.toPath().toAbsolutePath().relativize(file.toPath().toAbsolutePath()).toString().replace('\\', '/');
+	}
+
+	private static String hash(byte[] content) {
+		try {
+			StringBuilder builder = new StringBuilder();
+			for (byte b: MessageDigest.getInstance("SHA-256").digest(content))
+				builder.append(String.format("%02x", b));
+			return builder.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new TranspilerException("Failed to hash output", e);
+		}
+	}
+
+	public void write (File file, String content) {
+		write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Writes a file unless it exists with the same content hash as the previous run and hasn't changed on disk since,
+	 * or the same content otherwise
+	 */
+	public void write (File file, byte[] content) {
+		String path = getPath(file);
+		String hash = hash(content);
+		Entry previous = previousEntries.get(path);
+		try {
+			if (file.exists() && (previous != null && previous.matches(file) ? previous.hash.equals(hash) : Arrays.equals(Files.readAllBytes(file.toPath()), content))) {
+				entries.put(path, new Entry(hash, file));
+				return;
+			}
+			file.getParentFile().mkdirs();
+			Files.write(file.toPath(), content);
+		} catch (IOException e) {
+			throw new TranspilerException("Failed to write file: " + file, e);
+		}
+		entries.put(path, new Entry(hash, file));
+		writtenCount.incrementAndGet();
+	}
+
+	/**
+	 * Deletes outputs from the previous run that weren't written by this one and saves the manifest.
+	 * Returns the number of removed files.
+	 */
+	public int finish () throws IOException {
+		int removed = 0;
+		for (String path: previousEntries.keySet())
+			if (!entries.containsKey(path) && new File(outputDir, path).delete())
+				removed++;
+
+		StringBuilder manifest = new StringBuilder();
+		for (Map.Entry<String, Entry> entry: new TreeMap<>(entries).entrySet())
+			manifest.append(entry.getValue()).append(' ').append(entry.getKey()).append('\n');
+		outputDir.mkdirs();
+		Files.writeString(new File(outputDir, MANIFEST_NAME).toPath(), manifest);
+		return removed;
+	}
+
+	/**
+	 * The number of files that were written because their content changed
+	 */
+	public int getWrittenCount () {
+		return writtenCount.get();
+	}
+
+	/**
+	 * The total number of output files
+	 */
+	public int getFileCount () {
+		return entries.size();
+	}
+
+	private static class Entry {
+		private final String hash;
+		private final long size;
+		private final long modified;
+
+		private Entry (String hash, long size, long modified) {
+			this.hash = hash;
+			this.size = size;
+			this.modified = modified;
+		}
+
+		private Entry (String hash, File file) {
+			this(hash, file.length(), file.lastModified());
+		}
+
+		/**
+		 * Whether the file on disk still has the recorded size and modification time
+		 */
+		private boolean matches (File file) {
+			return file.length() == size && file.lastModified() == modified;
+		}
+
+		@Override
+		public String toString () {
+			return hash + " " + size + " " + modified;
+		}
+	}
+}
@@ -7,6 +7,8 @@ import java.util.*;
 
 public class InstructionGroup extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final List<Instruction> instructions;
 
     public InstructionGroup(BytecodeMethod method, List<Instruction> instructions) {
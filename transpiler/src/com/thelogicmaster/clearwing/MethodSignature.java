@@ -1,8 +1,11 @@
 package com.thelogicmaster.clearwing;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
-public class MethodSignature {
+public class MethodSignature implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private final String name;
 	private final String desc;
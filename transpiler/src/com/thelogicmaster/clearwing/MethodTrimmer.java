@@ -0,0 +1,150 @@
+package com.thelogicmaster.clearwing;
+
+import com.thelogicmaster.clearwing.bytecode.Instruction;
+import com.thelogicmaster.clearwing.bytecode.InvokeDynamicInstruction;
+import com.thelogicmaster.clearwing.bytecode.MethodInstruction;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+
+import java.util.*;
+
+/**
+ * Finds the methods of the required classes that can be called and removes the rest. Virtual calls are tracked by
+ * signature, so every implementation of a dispatched signature is kept along with its vtable entries. Methods
+ * referenced by native code are found by scanning the native sources for generated symbol names.
+ */
+public class MethodTrimmer {
+
+	private final Collection<BytecodeClass> classes;
+	private final Map<String, BytecodeClass> classMap;
+	private final Set<BytecodeMethod> reachable = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final HashSet<MethodSignature> dispatchedSignatures = new HashSet<>();
+	private final HashMap<MethodSignature, List<BytecodeMethod>> instanceMethods = new HashMap<>();
+	private final ArrayDeque<BytecodeMethod> queue = new ArrayDeque<>();
+
+	public MethodTrimmer (Collection<BytecodeClass> classes, Map<String, BytecodeClass> classMap) {
+		this.classes = classes;
+		this.classMap = classMap;
+		for (BytecodeClass clazz: classes)
+			for (BytecodeMethod method: clazz.getMethods())
+				if (isVirtual(method))
+					instanceMethods.computeIfAbsent(method.getSignature(), signature -> new ArrayList<>()).add(method);
+
+		// The runtime dispatches Object methods like finalize and toString through the vtable
+		for (BytecodeMethod method: BytecodeClass.OBJECT_METHODS)
+			markDispatched(method.getSignature());
+
+		// Static initializers run when their class is first used
+		for (BytecodeClass clazz: classes)
+			for (BytecodeMethod method: clazz.getMethods())
+				if (method.isStaticInitializer())
+					markReachable(method);
+	}
+
+	private static boolean isVirtual(BytecodeMethod method) {
+		return !method.isStatic() && !method.isConstructor() && !method.isStaticInitializer();
+	}
+
+	/**
+	 * Marks a method as callable, along with every implementation of its signature if it's an instance method
+	 */
+	public void markReachable(BytecodeMethod method) {
+		if (!reachable.add(method))
+			return;
+		queue.add(method);
+		if (isVirtual(method))
+			markDispatched(method.getSignature());
+	}
+
+	private void markDispatched(MethodSignature signature) {
+		if (!dispatchedSignatures.add(signature))
+			return;
+		for (BytecodeMethod method: instanceMethods.getOrDefault(signature, Collections.emptyList()))
+			markReachable(method);
+	}
+
+	/**
+	 * Keeps every method of a class, for classes that are used reflectively
+	 */
+	public void markClass(BytecodeClass clazz) {
+		for (BytecodeMethod method: clazz.getMethods())
+			markReachable(method);
+	}
+
+	/**
+	 * Marks methods referenced from native code, given the set of identifiers found in the native sources.
+	 * Virtual and interface methods can be referenced through their VTABLE_, INDEX_, and func_ macros, or by the split
+	 * class and method arguments of INVOKE_INTERFACE.
+	 */
+	public void markNativeReferences(Set<String> symbols) {
+		for (BytecodeClass clazz: classes) {
+			for (BytecodeMethod method: clazz.getMethods()) {
+				if (symbols.contains(method.getName()))
+					markReachable(method);
+				else if (clazz.isInterface() && isVirtual(method)) {
+					String suffix = method.getName().substring(2);
+					if (symbols.contains("INDEX_" + suffix) || symbols.contains("func_" + suffix) || symbols.contains(clazz.getQualifiedName())
+							&& symbols.contains(suffix.substring(clazz.getQualifiedName().length() + 1)))
+						markReachable(method);
+				}
+			}
+			for (BytecodeMethod method: clazz.getVtable()) {
+				String suffix = Utils.sanitizeMethod(clazz.getQualifiedName(), method.getSignature(), false).substring(2);
+				if (symbols.contains("VTABLE_" + suffix) || symbols.contains("func_" + suffix) || symbols.contains(suffix))
+					markDispatched(method.getSignature());
+			}
+		}
+	}
+
+	/**
+	 * Follows the calls from all marked methods until no new methods are found
+	 */
+	public void analyze() {
+		while (!queue.isEmpty())
+			markCalls(queue.poll().getInstructions());
+	}
+
+	private void markCalls(List<Instruction> instructions) {
+		for (Instruction instruction: instructions) {
+			if (instruction instanceof MethodInstruction call) {
+				BytecodeMethod resolved = call.getResolvedMethod();
+				if (resolved == null)
+					continue;
+				if (call.isDynamicCall())
+					markDispatched(resolved.getSignature());
+				else
+					markReachable(resolved);
+			} else if (instruction instanceof InvokeDynamicInstruction.Proxy proxy)
+				markHandle(proxy.getInvokeDynamic().getHandle());
+			else if (instruction instanceof InstructionGroup group)
+				markCalls(group.getInstructions());
+		}
+	}
+
+	/**
+	 * Marks the target of a lambda method handle
+	 */
+	private void markHandle(Handle handle) {
+		MethodSignature signature = new MethodSignature(handle.getName(), handle.getDesc(), null);
+		if (handle.getTag() == Opcodes.H_INVOKEVIRTUAL || handle.getTag() == Opcodes.H_INVOKEINTERFACE) {
+			markDispatched(signature);
+			return;
+		}
+		for (BytecodeClass clazz = classMap.get(Utils.sanitizeName(handle.getOwner())); clazz != null; clazz = clazz.getSuperClass())
+			for (BytecodeMethod method: clazz.getMethods())
+				if (method.getSignature().equals(signature)) {
+					markReachable(method);
+					return;
+				}
+	}
+
+	/**
+	 * Removes unreachable methods and unused vtable entries from all classes, returning the number of removed methods
+	 */
+	public int trim() {
+		int removed = 0;
+		for (BytecodeClass clazz: classes)
+			removed += clazz.trimMethods(reachable::contains, dispatchedSignatures);
+		return removed;
+	}
+}
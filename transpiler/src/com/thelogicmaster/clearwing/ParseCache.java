@@ -0,0 +1,212 @@
+package com.thelogicmaster.clearwing;
+
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An on-disk cache of parsed classes, keyed by the hash of the class file, the transpiler build, and the config options
+ * that affect parsing. Entries hold the classes produced by parsing a class file (Including lambda proxy classes) before
+ * any hierarchy processing, so they only reference other classes by name. ASM values aren't serializable, so they are
+ * replaced in the stream and recreated when loading. Methods write their instruction graphs as flat tables (See
+ * BytecodeMethod), so the stream doesn't recurse through linked instructions.
+ */
+public class ParseCache {
+
+	private static final int VERSION = 2;
+
+	private final File directory;
+	private final byte[] key;
+	private final HashSet<String> usedEntries = new HashSet<>();
+	private int hits;
+	private int misses;
+
+	public ParseCache (File directory, TranspilerConfig config) throws IOException {
+		this.directory = directory;
+		MessageDigest digest = createDigest();
+		digest.update(("" + VERSION + config.useOptimizations() + config.hasLoopSafepoints() + config.getSafepointElisionLimit()
+				+ config.useCppExceptions() + config.useRegisterLocals()).getBytes(StandardCharsets.UTF_8));
+		hashTranspiler(digest);
+		key = digest.digest();
+		directory.mkdirs();
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new TranspilerException("Failed to create digest", e);
+		}
+	}
+
+	/**
+	 * Hashes the transpiler JAR or class directory, so that cached results are invalidated when the parser changes
+	 */
+	private static void hashTranspiler(MessageDigest digest) throws IOException {
+		Path location;
+		try {
+			location = Path.of(ParseCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		} catch (URISyntaxException e) {
+			throw new TranspilerException("Failed to find transpiler location", e);
+		}
+		if (!Files.isDirectory(location)) {
+			digest.update(Files.readAllBytes(location));
+			return;
+		}
+		try (Stream<Path> stream = Files.walk(location)) {
+			for (Path path: stream.filter(path -> path.toString().endsWith(".class")).sorted().collect(Collectors.toList()))
+				digest.update(Files.readAllBytes(path));
+		}
+	}
+
+	/**
+	 * Get the cache key for a class file
+	 */
+	public String hash(byte[] classFile) {
+		MessageDigest digest = createDigest();
+		digest.update(key);
+		StringBuilder builder = new StringBuilder();
+		for (byte b: digest.digest(classFile))
+			builder.append(String.format("%02x", b));
+		return builder.toString();
+	}
+
+	/**
+	 * Loads the classes parsed from a class file, or returns null if not cached
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	public List<BytecodeClass> load(String hash) {
+		File file = new File(directory, hash);
+		if (!file.exists()) {
+			misses++;
+			return null;
+		}
+		try (ObjectInputStream input = new CacheInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			List<BytecodeClass> classes = (List<BytecodeClass>) input.readObject();
+			usedEntries.add(hash);
+			hits++;
+			return classes;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			file.delete();
+			misses++;
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the classes parsed from a class file
+	 */
+	public void store(String hash, List<BytecodeClass> classes) throws IOException {
+		File temp = new File(directory, hash + ".tmp");
+		try (ObjectOutputStream output = new CacheOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			output.writeObject(new ArrayList<>(classes));
+		}
+		Files.move(temp.toPath(), new File(directory, hash).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		usedEntries.add(hash);
+	}
+
+	/**
+	 * Deletes entries that weren't used since this cache was created, returning the number of removed entries
+	 */
+	public int prune() {
+		int removed = 0;
+		File[] files = directory.listFiles();
+		if (files != null)
+			for (File file: files)
+				if (!usedEntries.contains(file.getName()) && file.delete())
+					removed++;
+		return removed;
+	}
+
+	public int getHits() {
+		return hits;
+	}
+
+	public int getMisses() {
+		return misses;
+	}
+
+	private static class SerializedType implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String descriptor;
+
+		private SerializedType(Type type) {
+			descriptor = type.getDescriptor();
+		}
+	}
+
+	private static class SerializedHandle implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final int tag;
+		private final String owner;
+		private final String name;
+		private final String desc;
+		private final boolean isInterface;
+
+		private SerializedHandle(Handle handle) {
+			tag = handle.getTag();
+			owner = handle.getOwner();
+			name = handle.getName();
+			desc = handle.getDesc();
+			isInterface = handle.isInterface();
+		}
+	}
+
+	private static class SerializedLabel implements Serializable {
+		private static final long serialVersionUID = 1L;
+	}
+
+	private static class CacheOutputStream extends ObjectOutputStream {
+
+		private CacheOutputStream(OutputStream output) throws IOException {
+			super(output);
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) {
+			if (obj instanceof Type type)
+				return new SerializedType(type);
+			if (obj instanceof Handle handle)
+				return new SerializedHandle(handle);
+			if (obj instanceof Label)
+				return new SerializedLabel();
+			return obj;
+		}
+	}
+
+	private static class CacheInputStream extends ObjectInputStream {
+
+		private CacheInputStream(InputStream input) throws IOException {
+			super(input);
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) {
+			if (obj instanceof SerializedType type)
+				return Type.getType(type.descriptor);
+			if (obj instanceof SerializedHandle handle)
+				return new Handle(handle.tag, handle.owner, handle.name, handle.desc, handle.isInterface);
+			if (obj instanceof SerializedLabel)
+				return new Label();
+			return obj;
+		}
+	}
+}
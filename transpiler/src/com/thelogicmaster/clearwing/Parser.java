@@ -23,17 +23,41 @@ public class Parser extends ClassVisitor {
     }
 
     public List<BytecodeClass> parse(List<Supplier<InputStream>> sources) throws IOException {
+        return parse(sources, null);
+    }
+
+    /**
+     * Parse class files, loading unchanged classes from the cache if provided
+     */
+    public List<BytecodeClass> parse(List<Supplier<InputStream>> sources, @Nullable ParseCache cache) throws IOException {
         classes = new ArrayList<>();
 
-        for (Supplier<InputStream> input: sources)
+        for (Supplier<InputStream> input: sources) {
+            byte[] bytes;
             try (InputStream inputStream = input.get()) {
-                ClassReader reader = new ClassReader(inputStream);
-                if ("java/lang/Object".equals(reader.getClassName()))
+                bytes = inputStream.readAllBytes();
+            }
+
+            String hash = null;
+            if (cache != null) {
+                hash = cache.hash(bytes);
+                List<BytecodeClass> cached = cache.load(hash);
+                if (cached != null) {
+                    classes.addAll(cached);
                     continue;
+                }
+            }
+
+            int start = classes.size();
+            ClassReader reader = new ClassReader(bytes);
+            if (!"java/lang/Object".equals(reader.getClassName())) {
                 currentClass = new BytecodeClass(reader.getClassName(), reader.getSuperName(), reader.getInterfaces(), reader.getAccess());
                 reader.accept(this, ClassReader.EXPAND_FRAMES);
                 classes.add(currentClass);
             }
+            if (cache != null)
+                cache.store(hash, classes.subList(start, classes.size()));
+        }
 
         return classes;
     }
@@ -348,9 +372,13 @@ public class Parser extends ClassVisitor {
 
             insertTryCatchBlocks();
             resolveInstructionIO();
+            // Locals modified after a setjmp need to be in the volatile frame
+            method.setRegisterLocals(config.useRegisterLocals() && (config.useCppExceptions() || method.getTryCatchBlocks().isEmpty()));
+            computeFrameSlots();
             trimLabels();
             handleTryCatchOuterJumps();
             insertTryCatchBypasses();
+            insertLoopSafepoints();
             
             if (config.useOptimizations())
                 groupInstructions();
@@ -399,6 +427,153 @@ public class Parser extends ClassVisitor {
             }
         }
 
+        /**
+         * Determine which frame slots can hold references, so that the GC only has to check mixed slots (Reused locals and
+         * stack slots) against the object set. Optimized instruction groups can place objects in any free stack slot.
+         */
+        private void computeFrameSlots() {
+            if (!method.hasBody())
+                return;
+            int locals = method.getLocalCount();
+            boolean[] references = new boolean[locals + method.getStackSize()];
+            boolean[] primitives = new boolean[references.length];
+
+            int local = 0;
+            if (!method.isStatic())
+                references[local++] = true;
+            for (JavaType param : method.getSignature().getParamTypes()) {
+                (param.isPrimitive() ? primitives : references)[local++] = true;
+                if (param.getBasicType().isWide())
+                    local++;
+            }
+
+            boolean stackReferences = !method.getTryCatchBlocks().isEmpty();
+            if (stackReferences && method.getStackSize() > 0)
+                references[locals] = true; // Caught exception
+            for (Instruction instruction : method.getInstructions()) {
+                if (instruction instanceof VariableInstruction || instruction instanceof IncrementInstruction) {
+                    LocalInstruction localInstruction = (LocalInstruction) instruction;
+                    boolean store = instruction.getOpcode() >= Opcodes.ISTORE && instruction.getOpcode() <= Opcodes.ASTORE || instruction instanceof IncrementInstruction;
+                    if (store)
+                        (localInstruction.getLocalType() == TypeVariants.OBJECT ? references : primitives)[localInstruction.getLocal()] = true;
+                }
+                if (instruction.getInputs() == null || instruction.getOutputs() == null)
+                    continue;
+                int slot = locals + instruction.getStackDepth() - instruction.getInputs().size();
+                for (StackEntry output : instruction.getOutputs()) {
+                    boolean reference = !output.getType().isPrimitive();
+                    (reference ? references : primitives)[slot++] = true;
+                    stackReferences |= reference;
+                }
+            }
+
+            if (stackReferences && config.useOptimizations())
+                Arrays.fill(references, locals, references.length, true);
+            if (method.hasRegisterLocals())
+                Arrays.fill(primitives, 0, locals, false); // Primitive locals are stored outside the frame
+
+            StringBuilder slots = new StringBuilder();
+            for (int i = 0; i < references.length; i++)
+                slots.append(references[i] ? primitives[i] ? 'M' : 'R' : 'P');
+            method.setFrameSlots(slots.toString());
+        }
+
+        /**
+         * Poll for safepoints on backward jumps, except for counted loops with a small trip count
+         */
+        private void insertLoopSafepoints() {
+            if (!config.hasLoopSafepoints())
+                return;
+            List<Instruction> instructions = method.getInstructions();
+            for (int i = 0; i < instructions.size(); i++) {
+                if (!(instructions.get(i) instanceof JumpInstruction jump))
+                    continue;
+                int target = method.findLabelInstruction(jump.getOriginalLabel());
+                if (target > i)
+                    continue;
+                long trips = findCountedLoopTrips(target, i);
+                if (trips >= 0 && trips <= config.getSafepointElisionLimit())
+                    continue;
+                jump.setSafepointPoll(true);
+            }
+        }
+
+        /**
+         * Find the trip count of a loop in the form javac emits for `for (int i = a; i < b; i += c)` with constant
+         * bounds and a positive step that isn't otherwise modified in the loop, or -1 if it can't be determined
+         */
+        private long findCountedLoopTrips(int start, int end) {
+            List<Instruction> instructions = method.getInstructions();
+            int label = ((LabelInstruction) instructions.get(start)).getLabel();
+            for (Instruction instruction : instructions)
+                if (instruction instanceof JumpingInstruction jumping && instruction != instructions.get(end) && jumping.getJumpLabels().contains(label))
+                    return -1;
+
+            // Loop header: ILOAD i, constant bound, IF_ICMPGE/IF_ICMPGT to exit
+            int load = findNextInstruction(start, 1);
+            int bound = findNextInstruction(load, 1);
+            int exit = findNextInstruction(bound, 1);
+            if (!(instructions.get(load) instanceof VariableInstruction loadInstruction) || loadInstruction.getOpcode() != Opcodes.ILOAD)
+                return -1;
+            int local = loadInstruction.getLocal();
+            Integer boundValue = getIntConstant(instructions.get(bound));
+            if (boundValue == null || !(instructions.get(exit) instanceof JumpInstruction exitJump)
+                    || method.findLabelInstruction(exitJump.getOriginalLabel()) < end)
+                return -1;
+            long limit;
+            if (exitJump.getOpcode() == Opcodes.IF_ICMPGE)
+                limit = boundValue;
+            else if (exitJump.getOpcode() == Opcodes.IF_ICMPGT)
+                limit = (long) boundValue + 1;
+            else
+                return -1;
+
+            // Initialization: constant, ISTORE i
+            int store = findNextInstruction(start, -1);
+            int initial = findNextInstruction(store, -1);
+            if (!(instructions.get(store) instanceof VariableInstruction storeInstruction) || storeInstruction.getOpcode() != Opcodes.ISTORE
+                    || storeInstruction.getLocal() != local)
+                return -1;
+            Integer initialValue = getIntConstant(instructions.get(initial));
+            if (initialValue == null)
+                return -1;
+
+            // Step: IINC i, c before the back-edge
+            int step = findNextInstruction(end, -1);
+            if (!(instructions.get(step) instanceof IncrementInstruction increment) || increment.getLocal() != local || increment.getAmount() <= 0)
+                return -1;
+
+            for (int i = exit + 1; i < step; i++) {
+                Instruction instruction = instructions.get(i);
+                if (instruction instanceof IncrementInstruction other && other.getLocal() == local)
+                    return -1;
+                if (instruction instanceof VariableInstruction other && other.getOpcode() == Opcodes.ISTORE && other.getLocal() == local)
+                    return -1;
+            }
+
+            return Math.max(0, (limit - initialValue + increment.getAmount() - 1) / increment.getAmount());
+        }
+
+        private int findNextInstruction(int index, int direction) {
+            List<Instruction> instructions = method.getInstructions();
+            for (index += direction; index >= 0 && index < instructions.size(); index += direction) {
+                Instruction instruction = instructions.get(index);
+                if (!(instruction instanceof LabelInstruction) && !(instruction instanceof LineNumberInstruction))
+                    return index;
+            }
+            return Math.max(0, Math.min(instructions.size() - 1, index));
+        }
+
+        @Nullable
+        private Integer getIntConstant(Instruction instruction) {
+            int opcode = instruction.getOpcode();
+            if (opcode >= Opcodes.ICONST_M1 && opcode <= Opcodes.ICONST_5)
+                return opcode - Opcodes.ICONST_0;
+            if (instruction instanceof IntegerInstruction integer && (opcode == Opcodes.BIPUSH || opcode == Opcodes.SIPUSH))
+                return integer.getOperand();
+            return null;
+        }
+
         /**
          * Group optimizable instructions into InstructionGroup objects to convert stack accesses into local variables
          */
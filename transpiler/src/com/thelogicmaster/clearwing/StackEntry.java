@@ -2,15 +2,19 @@ package com.thelogicmaster.clearwing;
 
 import com.thelogicmaster.clearwing.bytecode.Instruction;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
-public class StackEntry {
+public class StackEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final JavaType type;
-    private final Instruction source;
-    private final ArrayList<Instruction> consumers = new ArrayList<>();
+    // Links to other entries and instructions are written as indices by BytecodeMethod, to keep serialization shallow
+    private transient Instruction source;
+    private transient ArrayList<Instruction> consumers = new ArrayList<>();
+    private transient StackEntry original;
 
-    private StackEntry original;
     private OperandType opType;
     private int index;
 
@@ -69,6 +73,19 @@ public class StackEntry {
     public StackEntry getOriginal() {
         return original == null ? this : original.getOriginal();
     }
+
+    StackEntry getDirectOriginal() {
+        return original;
+    }
+
+    /**
+     * Restore the links of a deserialized entry
+     */
+    void link(Instruction source, StackEntry original, ArrayList<Instruction> consumers) {
+        this.source = source;
+        this.original = original;
+        this.consumers = consumers;
+    }
     
     public void addConsumer(Instruction consumer) {
         consumers.add(consumer);
@@ -1,9 +1,10 @@
 package com.thelogicmaster.clearwing;
 
+import com.thelogicmaster.clearwing.bytecode.Instruction;
+import com.thelogicmaster.clearwing.bytecode.MethodInstruction;
 import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.ast.type.Type;
 import io.github.classgraph.ClassGraph;
-import io.github.classgraph.ClassInfo;
 import io.github.classgraph.Resource;
 import io.github.classgraph.ScanResult;
 import net.sourceforge.argparse4j.ArgumentParsers;
@@ -14,11 +15,11 @@ import net.sourceforge.argparse4j.inf.Namespace;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -30,6 +31,7 @@ public class Transpiler {
 	private final static String[] NATIVE_DEPENDENCIES = {
 			"java/lang/ArithmeticException",
 			"java/lang/reflect/Array",
+			"java/util/Arrays",
 			"java/lang/Boolean",
 			"java/nio/Buffer",
 			"java/lang/Byte",
@@ -47,6 +49,7 @@ public class Transpiler {
 			"java/io/File",
 			"java/io/FileInputStream",
 			"java/io/FileOutputStream",
+			"java/io/RandomAccessFile",
 			"java/lang/Float",
 			"java/util/HashMap",
 			"java/lang/Integer",
@@ -60,6 +63,7 @@ public class Transpiler {
 			"java/lang/reflect/Method",
 			"java/io/NativeOutputStream",
 			"java/nio/NativeUtils",
+			"java/nio/ReadOnlyBufferException",
 			"java/lang/Runtime",
 			"java/lang/Short",
 			"java/lang/String",
@@ -73,8 +77,17 @@ public class Transpiler {
 			"java/util/zip/CRC32",
 			"java/util/zip/Deflater",
 			"java/util/zip/Inflater",
+			"java/lang/ref/Reference",
+			"java/lang/ref/ReferenceQueue",
 			"java/lang/ref/WeakReference",
 			"java/util/zip/ZipFile",
+			"java/util/concurrent/atomic/AtomicBoolean",
+			"java/util/concurrent/atomic/AtomicFieldAccess",
+			"java/util/concurrent/atomic/AtomicInteger",
+			"java/util/concurrent/atomic/AtomicIntegerArray",
+			"java/util/concurrent/atomic/AtomicLong",
+			"java/util/concurrent/atomic/AtomicReference",
+			"java/util/concurrent/atomic/AtomicReferenceArray",
 	};
 
 	private static void collect(BytecodeClass clazz, Set<BytecodeClass> collected, HashMap<String, BytecodeClass> classMap) {
@@ -94,27 +107,34 @@ public class Transpiler {
 		}
 	}
 
-	private static void copyResources(String source, String prefix, File outputDir) throws IOException {
+	private static List<MethodInstruction> collectMethodInstructions(List<Instruction> instructions, List<MethodInstruction> collected) {
+		for (Instruction instruction: instructions)
+			if (instruction instanceof MethodInstruction)
+				collected.add((MethodInstruction) instruction);
+			else if (instruction instanceof InstructionGroup)
+				collectMethodInstructions(((InstructionGroup) instruction).getInstructions(), collected);
+		return collected;
+	}
+
+	private static void copyResources(String source, String prefix, File outputDir, IncrementalWriter output) throws IOException {
 		try (ScanResult scanResult = new ClassGraph().acceptPaths(source).scan()) {
-			for (Resource resource: scanResult.getAllResources()) {
-				Path path = Paths.get(outputDir.getPath(), resource.getPath().substring(prefix.length()));
-				path.getParent().toFile().mkdirs();
-				try (InputStream input = resource.open()) {
-					Files.copy(input, path, StandardCopyOption.REPLACE_EXISTING);
-				}
-			}
+			for (Resource resource: scanResult.getAllResources())
+				output.write(new File(outputDir, resource.getPath().substring(prefix.length())), resource.load());
 		}
 	}
 
 	private static void addScanResultSuppliers(ScanResult scanResult, ArrayList<Supplier<InputStream>> sources) {
-		for (ClassInfo info: scanResult.getAllClasses())
+		for (Resource resource: scanResult.getResourcesWithExtension("class")) {
+			if (resource.getPath().endsWith("package-info.class") || resource.getPath().endsWith("module-info.class"))
+				continue;
 			sources.add(() -> {
 				try {
-					return info.getResource().open();
+					return resource.open();
 				} catch (IOException e) {
 					throw new TranspilerException("Failed to open file", e);
 				}
 			});
+		}
 	}
 
 	private static <T> Collection<Map.Entry<String, T>> filterByPattern(String expression, Collection<Map.Entry<String, T>> entries) {
@@ -123,10 +143,38 @@ public class Transpiler {
 		return entries.stream().filter(entry -> pattern.matcher(entry.getKey()).matches()).collect(Collectors.toList());
 	}
 
+	/**
+	 * Collects the identifiers used by the runtime and inlined jnigen style natives, to find methods called from native code
+	 */
+	private static Set<String> collectNativeSymbols(List<File> sourceDirs) throws IOException {
+		ArrayList<String> sources = new ArrayList<>();
+		try (ScanResult scanResult = new ClassGraph().acceptPaths("clearwing/src/").scan()) {
+			for (Resource resource: scanResult.getAllResources())
+				sources.add(resource.getContentAsString());
+		}
+		for (File source: sourceDirs)
+			try (Stream<Path> stream = Files.find(source.toPath(), Integer.MAX_VALUE, (path, attr) -> attr.isRegularFile() && path.toString().endsWith(".java"))) {
+				for (Path path: (Iterable<Path>) stream::iterator) {
+					String code = Files.readString(path);
+					if (code.contains("native"))
+						sources.add(code);
+				}
+			}
+
+		HashSet<String> symbols = new HashSet<>();
+		Pattern identifier = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+		for (String source: sources) {
+			Matcher matcher = identifier.matcher(source);
+			while (matcher.find())
+				symbols.add(matcher.group());
+		}
+		return symbols;
+	}
+
 	/**
 	 * Generates Cpp files from inlined jnigen style native methods
 	 */
-	private static void processSources(List<File> sourceDirs, File outputDir, List<String> ignorePatterns) throws IOException {
+	private static void processSources(List<File> sourceDirs, File outputDir, List<String> ignorePatterns, IncrementalWriter output) throws IOException {
 		HashMap<String, Path> sourceMap = new HashMap<>();
 		for (File source: sourceDirs)
 			try (Stream<Path> stream = Files.find(source.toPath(), Integer.MAX_VALUE, (path, attr) -> attr.isRegularFile() && path.toString().endsWith(".java"))) {
@@ -218,11 +266,7 @@ public class Transpiler {
 					builder.append("}\n\n");
 				}
 
-			File file = new File(outputDir, name + "_native.cpp");
-			file.getParentFile().mkdirs();
-			try (Writer writer = new BufferedWriter(new FileWriter(file))) {
-				writer.write(builder.toString());
-			}
+			output.write(new File(outputDir, name + "_native.cpp"), builder.toString());
 		}
 	}
 
@@ -232,7 +276,7 @@ public class Transpiler {
 		ArrayList<Supplier<InputStream>> sources = new ArrayList<>();
 		List<BytecodeClass> classes;
 		ArrayList<Closeable> parserCloseables = new ArrayList<>();
-		ScanResult scanResult = new ClassGraph().acceptPaths("regexodus/", "java/").enableClassInfo().ignoreClassVisibility().scan();
+		ScanResult scanResult = new ClassGraph().acceptPaths("regexodus/", "java/").scan(); // Class files are only read by the parser
 		parserCloseables.add(scanResult);
 		addScanResultSuppliers(scanResult, sources);
 
@@ -274,7 +318,12 @@ public class Transpiler {
 			}
 		}
 
-		classes = parser.parse(sources);
+		ParseCache parseCache = config.useParseCache() ? new ParseCache(new File(outputDir, ".clearwing-cache"), config) : null;
+		classes = parser.parse(sources, parseCache);
+		if (parseCache != null) {
+			int pruned = parseCache.prune();
+			System.out.printf("Loaded %d of %d class files from the parse cache, pruned %d stale entries%n", parseCache.getHits(), parseCache.getHits() + parseCache.getMisses(), pruned);
+		}
 
 		for (Closeable result: parserCloseables)
 			result.close();
@@ -346,73 +395,115 @@ public class Transpiler {
 		for (String dep: NATIVE_DEPENDENCIES)
 			collect(classMap.get(dep), required, classMap);
 		ArrayList<String> requiredPatterns = new ArrayList<>(config.getNonOptimized());
+		HashSet<BytecodeClass> nonOptimized = new HashSet<>();
 		for (String pattern: requiredPatterns)
-			for (Map.Entry<String, BytecodeClass> entry: filterByPattern(pattern, classMap.entrySet()))
+			for (Map.Entry<String, BytecodeClass> entry: filterByPattern(pattern, classMap.entrySet())) {
 				collect(entry.getValue(), required, classMap);
+				nonOptimized.add(entry.getValue());
+			}
 		if (mainClass != null)
 			collect(mainClass, required, classMap);
 
-		// Todo: Trim unused methods
+		// Trim methods that can't be called from the entrypoint, natives, or non-optimized classes
+		if (config.useMethodTrimming()) {
+			MethodTrimmer trimmer = new MethodTrimmer(required, classMap);
+			if (mainClass != null)
+				for (BytecodeMethod method: mainClass.getMethods())
+					if (method.isMain())
+						trimmer.markReachable(method);
+			for (BytecodeClass clazz: required) {
+				if (clazz.isAnnotation() || nonOptimized.contains(clazz)) {
+					trimmer.markClass(clazz);
+					continue;
+				}
+				// Default constructors are kept for Class.newInstance()
+				for (BytecodeMethod method: clazz.getMethods())
+					if (method.isIntrinsic() || (method.isConstructor() && method.getSignature().getParamTypes().length == 0 && clazz.isInstantiatable()))
+						trimmer.markReachable(method);
+			}
+			trimmer.markNativeReferences(collectNativeSymbols(sourceDirs));
+			trimmer.analyze();
+
+			int totalMethods = 0;
+			for (BytecodeClass clazz: required)
+				totalMethods += clazz.getMethods().size();
+			int trimmedMethods = trimmer.trim();
+			if (totalMethods > 0)
+				System.out.printf("Emitted %d of %d methods (%.1f%%)%n", totalMethods - trimmedMethods, totalMethods, (totalMethods - trimmedMethods) * 100.0 / totalMethods);
+			for (BytecodeClass clazz: required)
+				clazz.collectDependencies(classMap);
+		}
 
-		// Write transpiled output
+		// Devirtualize calls with a single implementation among the required classes
+		int virtualCalls = 0;
+		int devirtualizedCalls = 0;
+		for (BytecodeClass clazz: required) {
+			for (BytecodeMethod method: clazz.getMethods())
+				for (MethodInstruction instruction: collectMethodInstructions(method.getInstructions(), new ArrayList<>())) {
+					if (!instruction.isDynamicCall())
+						continue;
+					virtualCalls++;
+					if (instruction.devirtualize(required))
+						devirtualizedCalls++;
+				}
+			clazz.collectDependencies(classMap);
+		}
+		if (virtualCalls > 0)
+			System.out.printf("Devirtualized %d of %d virtual call sites (%.1f%%)%n", devirtualizedCalls, virtualCalls, devirtualizedCalls * 100.0 / virtualCalls);
+
+		// Write transpiled output, generating classes in parallel since generation doesn't modify other classes
+		// Only files with changed content are written, so unchanged translation units aren't rebuilt
+		IncrementalWriter output = new IncrementalWriter(outputDir);
 		File srcDir = new File(outputDir, "src");
 		File includeDir = srcDir;//new File(outputDir, "include");
-		boolean failed = false;
-		for (BytecodeClass clazz: required) {
-			File header = new File(includeDir, Utils.getClassFilename(clazz.getName()) + ".h");
-			Paths.get(header.getAbsolutePath()).getParent().toFile().mkdirs();
-			FileWriter writer = new FileWriter(header);
+		AtomicBoolean failed = new AtomicBoolean();
+		required.parallelStream().forEach(clazz -> {
 			StringBuilder builder = new StringBuilder();
 			clazz.generateHeader(builder, config, classMap);
-			writer.write(builder.toString());
-			writer.close();
+			output.write(new File(includeDir, Utils.getClassFilename(clazz.getName()) + ".h"), builder.toString());
 
-			File cpp = new File(srcDir, Utils.getClassFilename(clazz.getName()) + ".cpp");
-			Paths.get(cpp.getAbsolutePath()).getParent().toFile().mkdirs();
-			writer = new FileWriter(cpp);
 			builder = new StringBuilder();
 			try {
 				clazz.generateCpp(builder, config, classMap);
 			} catch (Exception e) {
 				System.err.println("ERR: " + e.getMessage());
-				failed = true;
+				failed.set(true);
 			}
-			writer.write(builder.toString());
-			writer.close();
-		}
-		if (failed)
+			output.write(new File(srcDir, Utils.getClassFilename(clazz.getName()) + ".cpp"), builder.toString());
+		});
+		if (failed.get())
 			throw new TranspilerException("Failed to transpile sources");
 
 		// Write main.cpp
 		if (mainClass != null)
-			try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(new File(outputDir.getPath(), "src/main.cpp")))) {
-				writer.write("" +
-						"#include \"" + Utils.getClassFilename(mainClass.getName()) + ".h\"\n" +
-						"#include \"Clearwing.h\"\n" +
-						"\n" +
-						"int main() {\n" +
-						"\trunVM(SM_" + mainClass.getQualifiedName() + "_main_Array1_java_lang_String);\n" +
-						"}\n"
-				);
-			}
+			output.write(new File(srcDir, "main.cpp"), "" +
+					"#include \"" + Utils.getClassFilename(mainClass.getName()) + ".h\"\n" +
+					"#include \"Clearwing.h\"\n" +
+					"\n" +
+					"int main(int argc, char **argv) {\n" +
+					"\trunVM(SM_" + mainClass.getQualifiedName() + "_main_Array1_java_lang_String, argc, argv);\n" +
+					"}\n"
+			);
 
 		// Write config header
-		try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(new File(outputDir.getPath(), "src/Config.h")))) {
-			writer.write("#pragma once\n\n" +
-					"#ifndef USE_LINE_NUMBERS\n#define USE_LINE_NUMBERS " + config.hasLineNumbers() + "\n#endif\n\n" +
-					"#ifndef USE_VALUE_CHECKS\n#define USE_VALUE_CHECKS " + config.hasValueChecks() + "\n#endif\n\n" +
-					"#ifndef USE_PLATFORM_OVERRIDE\n#define USE_PLATFORM_OVERRIDE " + config.hasPlatformOverride() + "\n#endif\n\n"
-			);
-		}
+		output.write(new File(srcDir, "Config.h"), "#pragma once\n\n" +
+				"#ifndef USE_LINE_NUMBERS\n#define USE_LINE_NUMBERS " + config.hasLineNumbers() + "\n#endif\n\n" +
+				"#ifndef USE_VALUE_CHECKS\n#define USE_VALUE_CHECKS " + config.hasValueChecks() + "\n#endif\n\n" +
+				"#ifndef USE_PLATFORM_OVERRIDE\n#define USE_PLATFORM_OVERRIDE " + config.hasPlatformOverride() + "\n#endif\n\n" +
+				"#ifndef USE_CPP_EXCEPTIONS\n#define USE_CPP_EXCEPTIONS " + config.useCppExceptions() + "\n#endif\n\n"
+		);
 
 		// Generate natives from jnigen style comments
-		processSources(sourceDirs, new File(outputDir, "src"), config.getSourceIgnores());
+		processSources(sourceDirs, srcDir, config.getSourceIgnores(), output);
 
 		// Copy resources to output
-		copyResources("clearwing/src/", "clearwing/", outputDir);
-		copyResources("clearwing/include/", "clearwing/", outputDir);
+		copyResources("clearwing/src/", "clearwing/", outputDir, output);
+		copyResources("clearwing/include/", "clearwing/", outputDir, output);
 		if (config.isWritingProjectFiles())
-			copyResources("clearwing/project/", "clearwing/project/", outputDir);
+			copyResources("clearwing/project/", "clearwing/project/", outputDir, output);
+
+		int removedFiles = output.finish();
+		System.out.printf("Wrote %d of %d output files, removed %d stale files%n", output.getWrittenCount(), output.getFileCount(), removedFiles);
 	}
 
 	private static List<File> getFileArgs(Namespace namespace, String name) {
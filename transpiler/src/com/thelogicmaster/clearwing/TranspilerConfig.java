@@ -19,6 +19,12 @@ public class TranspilerConfig {
     private boolean valueChecks = false; // Enable type/NPE checks at runtime, has substantial performance overhead
     private boolean platformOverride = false; // Enable custom platform implementation for env vars and such
     private boolean optimizations = true; // Enable stack optimizations
+    private boolean loopSafepoints = true; // Poll for safepoints on loop back-edges so that loops without calls don't block the GC
+    private int safepointElisionLimit = 0; // Skip loop safepoint polls for counted loops with at most this many iterations
+    private boolean cppExceptions = false; // Use C++ exceptions for Java exceptions instead of setjmp/longjmp exception frames
+    private boolean registerLocals = false; // Store primitive locals in C++ variables instead of the frame, when exception handling allows it (Experimental)
+    private boolean methodTrimming = false; // Remove methods that aren't reachable from the entrypoint, natives, or non-optimized classes
+    private boolean parseCache = true; // Cache parsed classes in the output directory by class file hash
 
     public TranspilerConfig() {
     }
@@ -35,6 +41,12 @@ public class TranspilerConfig {
         lineNumbers = json.optBoolean("useLineNumbers", true);
         valueChecks = json.optBoolean("useValueChecks", true);
         platformOverride = json.optBoolean("platformOverride", false);
+        loopSafepoints = json.optBoolean("useLoopSafepoints", true);
+        safepointElisionLimit = json.optInt("safepointElisionLimit", 0);
+        cppExceptions = json.optBoolean("useCppExceptions", false);
+        registerLocals = json.optBoolean("useRegisterLocals", false);
+        methodTrimming = json.optBoolean("useMethodTrimming", false);
+        parseCache = json.optBoolean("useParseCache", true);
     }
 
     private static List<String> getArray(JSONObject json, String name) {
@@ -124,4 +136,52 @@ public class TranspilerConfig {
     public void setOptimizations(boolean optimizations) {
         this.optimizations = optimizations;
     }
+
+    public boolean hasLoopSafepoints() {
+        return loopSafepoints;
+    }
+
+    public void setLoopSafepoints(boolean loopSafepoints) {
+        this.loopSafepoints = loopSafepoints;
+    }
+
+    public int getSafepointElisionLimit() {
+        return safepointElisionLimit;
+    }
+
+    public void setSafepointElisionLimit(int safepointElisionLimit) {
+        this.safepointElisionLimit = safepointElisionLimit;
+    }
+
+    public boolean useCppExceptions() {
+        return cppExceptions;
+    }
+
+    public void setCppExceptions(boolean cppExceptions) {
+        this.cppExceptions = cppExceptions;
+    }
+
+    public boolean useRegisterLocals() {
+        return registerLocals;
+    }
+
+    public void setRegisterLocals(boolean registerLocals) {
+        this.registerLocals = registerLocals;
+    }
+
+    public boolean useMethodTrimming() {
+        return methodTrimming;
+    }
+
+    public void setMethodTrimming(boolean methodTrimming) {
+        this.methodTrimming = methodTrimming;
+    }
+
+    public boolean useParseCache() {
+        return parseCache;
+    }
+
+    public void setParseCache(boolean parseCache) {
+        this.parseCache = parseCache;
+    }
 }
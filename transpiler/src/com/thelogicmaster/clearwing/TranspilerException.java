@@ -2,6 +2,8 @@ package com.thelogicmaster.clearwing;
 
 public class TranspilerException extends RuntimeException {
 
+	private static final long serialVersionUID = 1L;
+
 	public TranspilerException (String message) {
 		this(message, null);
 	}
@@ -8,6 +8,8 @@ import java.util.List;
 
 public class CustomInstruction extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final String code;
 
     public CustomInstruction(BytecodeMethod method, String code) {
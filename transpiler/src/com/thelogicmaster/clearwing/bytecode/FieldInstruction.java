@@ -10,6 +10,8 @@ import java.util.*;
  */
 public class FieldInstruction extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final String owner;
     private final String qualifiedOwner;
     private final String name;
@@ -91,8 +93,11 @@ public class FieldInstruction extends Instruction {
             }
             case Opcodes.PUTFIELD -> {
                 builder.append("\tsp -= 2;\n");
-                builder.append("\t((").append(realOwnerClass.getQualifiedName()).append(" *) NULL_CHECK(sp[0].o))->").append(name).append(" = ").append(type.isPrimitive() ? "" : "(jref) ")
-                        .append("sp[1].").append(type.getBasicType().getStackName()).append(";\n");
+                if (type.isPrimitive())
+                    builder.append("\t((").append(realOwnerClass.getQualifiedName()).append(" *) NULL_CHECK(sp[0].o))->").append(name).append(" = ")
+                            .append("sp[1].").append(type.getBasicType().getStackName()).append(";\n");
+                else
+                    builder.append("\tSTORE_FIELD_REFERENCE(").append(realOwnerClass.getQualifiedName()).append(", sp[0].o, ").append(name).append(", sp[1].o);\n");
             }
             default -> throw new TranspilerException("Invalid opcode");
         }
@@ -115,9 +120,14 @@ public class FieldInstruction extends Instruction {
                     .append(type.getBasicType().getArithmeticType()).append(")").append("((")
                     .append(realOwnerClass.getQualifiedName()).append(" *) NULL_CHECK(")
                     .append(inputs.get(0).arg()).append("))->").append(name).append(";\n");
-            case Opcodes.PUTFIELD -> builder.append("\t((").append(realOwnerClass.getQualifiedName())
-                    .append(" *) NULL_CHECK(").append(inputs.get(0).arg()).append("))->").append(name)
-                    .append(" = ").append(type.isPrimitive() ? "" : "(jref) ").append(inputs.get(1).arg()).append(";\n");
+            case Opcodes.PUTFIELD -> {
+                if (type.isPrimitive())
+                    builder.append("\t((").append(realOwnerClass.getQualifiedName()).append(" *) NULL_CHECK(").append(inputs.get(0).arg())
+                            .append("))->").append(name).append(" = ").append(inputs.get(1).arg()).append(";\n");
+                else
+                    builder.append("\tSTORE_FIELD_REFERENCE(").append(realOwnerClass.getQualifiedName()).append(", ").append(inputs.get(0).arg())
+                            .append(", ").append(name).append(", ").append(inputs.get(1).arg()).append(");\n");
+            }
             default -> throw new TranspilerException("Invalid opcode");
         }
     }
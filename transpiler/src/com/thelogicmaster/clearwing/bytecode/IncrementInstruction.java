@@ -13,6 +13,8 @@ import java.util.List;
  */
 public class IncrementInstruction extends Instruction implements LocalInstruction {
 
+	private static final long serialVersionUID = 1L;
+
 	private final int local;
 	private final int amount;
 
@@ -24,7 +26,10 @@ public class IncrementInstruction extends Instruction implements LocalInstructio
 
 	@Override
 	public void appendUnoptimized (StringBuilder builder, TranspilerConfig config) {
-		appendStandardInstruction(builder, "iinc", "" + local, "" + amount);
+		if (getMethod().hasRegisterLocals())
+			appendStandardInstruction(builder, "iinc_local", BytecodeMethod.getRegisterLocal(local, TypeVariants.INT), "" + amount);
+		else
+			appendStandardInstruction(builder, "iinc", "" + local, "" + amount);
 	}
 
 	@Override
@@ -3,12 +3,15 @@ package com.thelogicmaster.clearwing.bytecode;
 import com.thelogicmaster.clearwing.*;
 import org.objectweb.asm.util.Printer;
 
+import java.io.Serializable;
 import java.util.*;
 
 /**
  * The base class for all instructions and pseudo-instructions
  */
-public abstract class Instruction {
+public abstract class Instruction implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	public static final String LABEL_PREFIX = "label_";
 
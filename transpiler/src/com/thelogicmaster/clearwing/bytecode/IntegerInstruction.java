@@ -10,6 +10,8 @@ import java.util.List;
  */
 public class IntegerInstruction extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final int operand;
 
     public IntegerInstruction(BytecodeMethod method, int opcode, int operand) {
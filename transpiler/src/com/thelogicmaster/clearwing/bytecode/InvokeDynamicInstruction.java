@@ -9,6 +9,8 @@ import java.util.*;
 // Todo: Rename to InvokeLambda or something
 public class InvokeDynamicInstruction extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final Handle handle;
     private final String className;
     private final String qualifiedProxyClassName;
@@ -31,7 +33,7 @@ public class InvokeDynamicInstruction extends Instruction {
         builder.append("\t\tclinit_").append(qualifiedProxyClassName).append("(ctx);\n");
         builder.append("\t\tauto proxy").append(" = (").append(qualifiedProxyClassName).append(" *) gcAlloc(ctx, &class_").append(qualifiedProxyClassName).append(");\n");
         for (int i = proxyFields.length - 1; i >= 0; i--)
-            builder.append("\t\tproxy->F_field").append(i).append(" = ").append(proxyFields[i].isPrimitive() ? "" : "(jref) ").append("(--sp)->").append(proxyFields[i].getBasicType().getStackName()).append(";\n");
+            appendFieldStore(builder, i, "(--sp)->" + proxyFields[i].getBasicType().getStackName());
         builder.append("\t\tPUSH_OBJECT((jobject) proxy);\n");
         builder.append("\t}\n");
     }
@@ -43,12 +45,23 @@ public class InvokeDynamicInstruction extends Instruction {
         builder.append("\t\tclinit_").append(qualifiedProxyClassName).append("(ctx);\n");
         builder.append("\t\tauto proxy").append(" = (").append(qualifiedProxyClassName).append(" *) gcAlloc(ctx, &class_").append(qualifiedProxyClassName).append(");\n");
         for (int i = proxyFields.length - 1; i >= 0; i--)
-            builder.append("\t\tproxy->F_field").append(i).append(" = ").append(proxyFields[i].isPrimitive() ? "" : "(jref) ").append(inputs.get(i).arg()).append(";\n");
+            appendFieldStore(builder, i, inputs.get(i).arg());
         builder.append("\t");
         outputs.get(0).buildAssignment(builder).append("(jobject) proxy;\n");
         builder.append("\t}\n");
     }
 
+    /**
+     * Stores a captured value, using a write barrier for references since large proxies are allocated in the old generation
+     */
+    private void appendFieldStore(StringBuilder builder, int index, String value) {
+        if (proxyFields[index].isPrimitive())
+            builder.append("\t\tproxy->F_field").append(index).append(" = ").append(value).append(";\n");
+        else
+            builder.append("\t\tSTORE_FIELD_REFERENCE(").append(qualifiedProxyClassName).append(", proxy, F_field").append(index)
+                    .append(", ").append(value).append(");\n");
+    }
+
     @Override
     public void resolveIO(List<StackEntry> stack) {
         setInputsFromStack(stack, proxyFields.length);
@@ -86,6 +99,8 @@ public class InvokeDynamicInstruction extends Instruction {
 
     public class Proxy extends Instruction {
 
+        private static final long serialVersionUID = 1L;
+
         private final boolean isStatic;
         private final boolean isInterface;
         private final boolean isSpecial;
@@ -128,7 +143,7 @@ public class InvokeDynamicInstruction extends Instruction {
             if (isStatic)
                 builder.append(targetMethod).append("(ctx");
             else if (isInterface) {
-                builder.append("((func_").append(targetMethod.substring(2)).append(") resolveInterfaceMethod(ctx, &class_").append(qualifiedTarget)
+                builder.append("((func_").append(targetMethod.substring(2)).append(") resolveInterfaceMethodCached(ctx, INTERFACE_CACHE(), &class_").append(qualifiedTarget)
                         .append(", INDEX_").append(targetMethod.substring(2)).append(", ").append(thisStr).append("))(ctx");
             } else if (isConstructor) {
                 builder.append("auto object = gcAlloc(ctx, &class_").append(qualifiedTarget).append(");\n");
@@ -176,6 +191,10 @@ public class InvokeDynamicInstruction extends Instruction {
         public void resolveIO(List<StackEntry> stack) {
         }
 
+        public InvokeDynamicInstruction getInvokeDynamic() {
+            return InvokeDynamicInstruction.this;
+        }
+
         @Override
         public void collectDependencies(Set<String> dependencies) {
             dependencies.add(target);
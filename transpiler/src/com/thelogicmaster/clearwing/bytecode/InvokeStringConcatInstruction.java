@@ -6,6 +6,8 @@ import org.objectweb.asm.Opcodes;
 import java.util.List;
 
 public class InvokeStringConcatInstruction extends Instruction {
+    private static final long serialVersionUID = 1L;
+
     private final MethodSignature signature;
     private final String recipe;
     private final Object[] constants;
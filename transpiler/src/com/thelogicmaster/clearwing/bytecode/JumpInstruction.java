@@ -12,11 +12,14 @@ import java.util.List;
  */
 public class JumpInstruction extends Instruction implements JumpingInstruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final int originalLabel;
 
     private int bypass = -1;
     private int label;
     public int exceptionPops = 0;
+    private boolean safepointPoll;
 
     public JumpInstruction(BytecodeMethod method, int opcode, Label label) {
         super(method, opcode);
@@ -27,25 +30,25 @@ public class JumpInstruction extends Instruction implements JumpingInstruction {
     private void appendCompare(StringBuilder builder, TypeVariants type, String operation) {
         builder.append("\tsp -= 2; ");
         builder.append("if (sp[0].").append(type.getStackName()).append(" ").append(operation).append(" sp[1].").append(type.getStackName()).append(") ");
-        appendGoto(builder, bypass, label, originalLabel, exceptionPops);
+        appendGoto(builder, bypass, label, originalLabel, exceptionPops, safepointPoll);
     }
 
     private void appendCompareZero(StringBuilder builder, TypeVariants type, String operation) {
         builder.append("\tif ((--sp)->").append(type.getStackName()).append(" ").append(operation).append(" ").append(type == TypeVariants.OBJECT ? "nullptr" : "0").append(") ");
-        appendGoto(builder, bypass, label, originalLabel, exceptionPops);
+        appendGoto(builder, bypass, label, originalLabel, exceptionPops, safepointPoll);
     }
 
     // Todo: Ensure future stack optimizations don't break object comparisons (Only compare jobject base types)
     private void appendCompareOptimized(StringBuilder builder, TypeVariants type, String operation) {
         builder.append("\tif (").append(inputs.get(0).arg()).append(" ").append(operation);
         builder.append(" ").append(inputs.get(1).arg()).append(") ");
-        appendGoto(builder, bypass, label, originalLabel, exceptionPops);
+        appendGoto(builder, bypass, label, originalLabel, exceptionPops, safepointPoll);
     }
 
     private void appendCompareZeroOptimized(StringBuilder builder, TypeVariants type, String operation) {
         builder.append("\tif (").append(inputs.get(0).arg()).append(" ").append(operation);
         builder.append(type == TypeVariants.OBJECT ? " nullptr" : " 0").append(") ");
-        appendGoto(builder, bypass, label, originalLabel, exceptionPops);
+        appendGoto(builder, bypass, label, originalLabel, exceptionPops, safepointPoll);
     }
 
     @Override
@@ -69,7 +72,7 @@ public class JumpInstruction extends Instruction implements JumpingInstruction {
             case Opcodes.IF_ACMPNE -> appendCompare(builder, TypeVariants.OBJECT, "!=");
             case Opcodes.GOTO -> {
                 builder.append("\t");
-                appendGoto(builder, bypass, label, originalLabel, exceptionPops);
+                appendGoto(builder, bypass, label, originalLabel, exceptionPops, safepointPoll);
             }
             default -> throw new TranspilerException("Invalid opcode");
         }
@@ -97,7 +100,7 @@ public class JumpInstruction extends Instruction implements JumpingInstruction {
             case Opcodes.IF_ACMPNE -> appendCompareOptimized(builder, TypeVariants.OBJECT, "!=");
             case Opcodes.GOTO -> {
                 builder.append("\t");
-                appendGoto(builder, bypass, label, originalLabel, exceptionPops);
+                appendGoto(builder, bypass, label, originalLabel, exceptionPops, safepointPoll);
             }
             default -> throw new TranspilerException("Invalid opcode");
         }
@@ -143,4 +146,15 @@ public class JumpInstruction extends Instruction implements JumpingInstruction {
     public int getOriginalLabel() {
         return originalLabel;
     }
+
+    /**
+     * Poll for a safepoint before jumping, used for loop back-edges
+     */
+    public void setSafepointPoll(boolean safepointPoll) {
+        this.safepointPoll = safepointPoll;
+    }
+
+    public boolean hasSafepointPoll() {
+        return safepointPoll;
+    }
 }
@@ -13,14 +13,21 @@ public interface JumpingInstruction {
     List<Integer> getJumpLabels();
 
     default void appendGoto(StringBuilder builder, int bypass, int label, int originalLabel, int pops) {
-        if (bypass != -1 || pops > 0)
+        appendGoto(builder, bypass, label, originalLabel, pops, false);
+    }
+
+    default void appendGoto(StringBuilder builder, int bypass, int label, int originalLabel, int pops, boolean poll) {
+        boolean block = bypass != -1 || pops > 0 || poll;
+        if (block)
             builder.append("{ ");
+        if (poll)
+            builder.append("SAFEPOINT_POLL(); ");
         if (pops > 0)
             builder.append("popExceptionFrames(frameRef, ").append(pops).append("); ");
         if (bypass != -1)
             builder.append("bypasses[").append(bypass).append("] = true; ");
         builder.append("goto ").append(LABEL_PREFIX).append(label).append(";");
-        if (bypass != -1 || pops > 0)
+        if (block)
             builder.append(" }");
         if (bypass != -1)
             builder.append(" // goto ").append(LABEL_PREFIX).append(originalLabel);
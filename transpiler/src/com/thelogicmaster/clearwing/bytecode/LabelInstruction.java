@@ -12,6 +12,8 @@ import java.util.List;
  */
 public class LabelInstruction extends Instruction {
 
+	private static final long serialVersionUID = 1L;
+
 	private final int label;
 
 	public LabelInstruction (BytecodeMethod method, int label) {
@@ -12,6 +12,8 @@ import java.util.List;
  */
 public class LineNumberInstruction extends Instruction {
 
+	private static final long serialVersionUID = 1L;
+
 	private final int line;
 	private final Label start;
 
@@ -13,6 +13,8 @@ import java.util.Set;
  */
 public class LoadConstantInstruction extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final Object value;
     private final TypeVariants type;
 
@@ -10,6 +10,8 @@ import java.util.*;
  */
 public class MethodInstruction extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final String owner;
     private final String qualifiedOwner;
     private final String name;
@@ -21,6 +23,8 @@ public class MethodInstruction extends Instruction {
     private final boolean isStatic;
     private BytecodeClass ownerClass;
     private BytecodeMethod resolvedMethod;
+    private BytecodeMethod directMethod;
+    private BytecodeClass guardClass;
 
     public MethodInstruction(BytecodeMethod method, int opcode, String owner, String name, String desc, boolean onInterface) {
         super(method, opcode);
@@ -54,20 +58,95 @@ public class MethodInstruction extends Instruction {
                 }
     }
 
+    /**
+     * Replace a virtual or interface call with a direct call when the required classes contain a single implementation.
+     * Interface calls are guarded by the receiver class, since runtime proxies can implement interfaces.
+     * Returns whether the call was devirtualized.
+     */
+    public boolean devirtualize(Collection<BytecodeClass> classes) {
+        directMethod = null;
+        guardClass = null;
+        if (!isDynamicCall() || resolvedMethod == null || ownerClass == null)
+            return false;
+
+        if (opcode == Opcodes.INVOKEVIRTUAL && !ownerClass.isInterface() && (ownerClass.isFinal() || resolvedMethod.isFinal() || resolvedMethod.isPrivate())) {
+            BytecodeMethod target = ownerClass.findVtableMethod(resolvedMethod);
+            if (target != null && !target.isAbstract()) {
+                directMethod = target;
+                return true;
+            }
+        }
+
+        BytecodeMethod target = null;
+        BytecodeClass implementation = null;
+        int implementations = 0;
+        for (BytecodeClass clazz : classes) {
+            if (!clazz.isInstantiatable() || !clazz.isSubtypeOf(ownerClass))
+                continue;
+            BytecodeMethod method = clazz.findVtableMethod(resolvedMethod);
+            if (method == null || method.isAbstract() || (target != null && target != method))
+                return false;
+            target = method;
+            implementation = clazz;
+            implementations++;
+        }
+        if (target == null || (opcode == Opcodes.INVOKEINTERFACE && implementations != 1))
+            return false;
+        directMethod = target;
+        if (opcode == Opcodes.INVOKEINTERFACE)
+            guardClass = implementation;
+        return true;
+    }
+
+    /**
+     * Returns whether this call is dispatched on the receiver class, excluding interface calls to Object methods
+     */
+    public boolean isDynamicCall() {
+        if (opcode == Opcodes.INVOKEVIRTUAL)
+            return true;
+        if (opcode != Opcodes.INVOKEINTERFACE)
+            return false;
+        for (BytecodeMethod m : BytecodeClass.OBJECT_METHODS)
+            if (m.getDesc().equals(desc) && m.getOriginalName().equals(originalName))
+                return false;
+        return true;
+    }
+
+    private void appendDirectCall(StringBuilder builder, String object) {
+        if (guardClass == null) {
+            builder.append(directMethod.getName());
+            return;
+        }
+        builder.append("((func_").append(resolvedMethod.getName().substring(2)).append(") ((jclass) nullCheck(ctx, ").append(object)
+                .append(")->clazz == &class_").append(guardClass.getQualifiedName()).append(" ? (void *) ").append(directMethod.getName())
+                .append(" : resolveInterfaceMethodCached(ctx, INTERFACE_CACHE(), &class_").append(resolvedMethod.getOwner().getQualifiedName())
+                .append(", INDEX_").append(resolvedMethod.getName().substring(2)).append(", ").append(object).append(")))");
+    }
+
     // Todo: Move to BytecodeClass
+    /**
+     * Resolves the method like the JVM, searching the superclass chain before any interface, so a
+     * bridge calling a superclass method doesn't resolve to an interface default bridge calling it back
+     */
     private BytecodeMethod resolveMethod(BytecodeClass clazz) {
-        if (clazz == null)
-            return null;
-        for (BytecodeMethod m : clazz.getMethods())
-            if (m.getSignature().equals(signature) && m.isStatic() == isStatic && (opcode != Opcodes.INVOKESPECIAL || !m.isAbstract()))
-                return m;
-        for (BytecodeClass c : clazz.getInterfaceClasses()) {
-            BytecodeMethod resolved = resolveMethod(c);
+        for (BytecodeClass c = clazz; c != null; c = c.getSuperName().equals("java/lang/Object") ? null : c.getSuperClass()) {
+            BytecodeMethod resolved = findDeclaredMethod(c);
             if (resolved != null)
                 return resolved;
         }
-        if (!clazz.getSuperName().equals("java/lang/Object"))
-            return resolveMethod(clazz.getSuperClass());
+        for (BytecodeClass c = clazz; c != null; c = c.getSuperName().equals("java/lang/Object") ? null : c.getSuperClass())
+            for (BytecodeClass i : c.getInterfaceClasses()) {
+                BytecodeMethod resolved = resolveMethod(i);
+                if (resolved != null)
+                    return resolved;
+            }
+        return null;
+    }
+
+    private BytecodeMethod findDeclaredMethod(BytecodeClass clazz) {
+        for (BytecodeMethod m : clazz.getMethods())
+            if (m.getSignature().equals(signature) && m.isStatic() == isStatic && (opcode != Opcodes.INVOKESPECIAL || !m.isAbstract()))
+                return m;
         return null;
     }
 
@@ -94,17 +173,22 @@ public class MethodInstruction extends Instruction {
         }
 
         // Todo: Use invocation macros
+        if (directMethod != null)
+            actualOpcode = -1;
         switch (actualOpcode) {
+            case -1 -> appendDirectCall(builder, "sp[0].o");
             case Opcodes.INVOKEVIRTUAL ->
                 builder.append("((func_").append(virtualName.substring(2)).append(") ((void **) nullCheck(ctx, sp[0].o)->vtable)[VTABLE_").append(virtualName.substring(2)).append("])");
             case Opcodes.INVOKEINTERFACE ->
-                builder.append("((func_").append(resolvedMethod.getName().substring(2)).append(") resolveInterfaceMethod(ctx, &class_")
+                builder.append("((func_").append(resolvedMethod.getName().substring(2)).append(") resolveInterfaceMethodCached(ctx, INTERFACE_CACHE(), &class_")
                         .append(resolvedMethod.getOwner().getQualifiedName()).append(", INDEX_").append(resolvedMethod.getName().substring(2)).append(", sp[0].o))");
             case Opcodes.INVOKESPECIAL, Opcodes.INVOKESTATIC -> builder.append(resolvedMethod.getName());
             default -> throw new TranspilerException("Invalid opcode");
         }
         builder.append("(ctx");
-        if (actualOpcode != Opcodes.INVOKESTATIC)
+        if (actualOpcode == -1 && guardClass == null)
+            builder.append(", nullCheck(ctx, sp[0].o)");
+        else if (actualOpcode != Opcodes.INVOKESTATIC)
             builder.append(", sp[0].o");
         int paramOffset = actualOpcode == Opcodes.INVOKESTATIC ? 0 : 1;
         for (int i = 0; i < signature.getParamTypes().length; i++) {
@@ -142,19 +226,24 @@ public class MethodInstruction extends Instruction {
         }
 
         // Todo: Use invocation macros
+        if (directMethod != null)
+            actualOpcode = -1;
         switch (actualOpcode) {
+            case -1 -> appendDirectCall(builder, inputs.get(0).arg());
             case Opcodes.INVOKEVIRTUAL ->
                     builder.append("((func_").append(virtualName.substring(2)).append(") ((void **) nullCheck(ctx, ").append(inputs.get(0).arg())
                             .append(")->vtable)[VTABLE_").append(virtualName.substring(2)).append("])");
             case Opcodes.INVOKEINTERFACE ->
-                    builder.append("((func_").append(resolvedMethod.getName().substring(2)).append(") resolveInterfaceMethod(ctx, &class_")
+                    builder.append("((func_").append(resolvedMethod.getName().substring(2)).append(") resolveInterfaceMethodCached(ctx, INTERFACE_CACHE(), &class_")
                             .append(resolvedMethod.getOwner().getQualifiedName()).append(", INDEX_").append(resolvedMethod.getName().substring(2))
                             .append(", ").append(inputs.get(0).arg()).append("))");
             case Opcodes.INVOKESPECIAL, Opcodes.INVOKESTATIC -> builder.append(resolvedMethod.getName());
             default -> throw new TranspilerException("Invalid opcode");
         }
         builder.append("(ctx");
-        if (actualOpcode != Opcodes.INVOKESTATIC)
+        if (actualOpcode == -1 && guardClass == null)
+            builder.append(", nullCheck(ctx, ").append(inputs.get(0).arg()).append(")");
+        else if (actualOpcode != Opcodes.INVOKESTATIC)
             builder.append(", ").append(inputs.get(0).arg());
         int paramOffset = actualOpcode == Opcodes.INVOKESTATIC ? 0 : 1;
         for (int i = 0; i < signature.getParamTypes().length; i++) {
@@ -188,6 +277,10 @@ public class MethodInstruction extends Instruction {
             dependencies.add(signature.getReturnType().getReferenceType());
         if (resolvedMethod != null)
             dependencies.add(resolvedMethod.getOwner().getName());
+        if (directMethod != null)
+            dependencies.add(directMethod.getOwner().getName());
+        if (guardClass != null)
+            dependencies.add(guardClass.getName());
     }
 
     public String getOwner() {
@@ -217,4 +310,12 @@ public class MethodInstruction extends Instruction {
     public MethodSignature getSignature() {
         return signature;
     }
+
+    public BytecodeMethod getResolvedMethod() {
+        return resolvedMethod;
+    }
+
+    public BytecodeMethod getDirectMethod() {
+        return directMethod;
+    }
 }
@@ -8,6 +8,8 @@ import java.util.Set;
 
 public class MultiArrayInstruction extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final String desc;
     private final int dimensions;
     private final JavaType type;
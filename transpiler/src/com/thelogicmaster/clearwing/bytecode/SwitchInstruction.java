@@ -15,6 +15,8 @@ import java.util.List;
  */
 public class SwitchInstruction extends Instruction implements JumpingInstruction {
 
+	private static final long serialVersionUID = 1L;
+
 	private final int[] keys;
 	private final int[] originalLabels;
 	private final int[] labels;
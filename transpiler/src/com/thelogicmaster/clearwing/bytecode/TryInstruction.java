@@ -6,6 +6,7 @@ import com.thelogicmaster.clearwing.TranspilerConfig;
 import com.thelogicmaster.clearwing.Utils;
 import org.objectweb.asm.Label;
 
+import java.io.Serializable;
 import java.util.*;
 
 /**
@@ -13,6 +14,8 @@ import java.util.*;
  */
 public class TryInstruction extends Instruction implements JumpingInstruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final int start;
     private final int end;
     private int handler;
@@ -39,11 +42,17 @@ public class TryInstruction extends Instruction implements JumpingInstruction {
 
     @Override
     public void appendUnoptimized(StringBuilder builder, TranspilerConfig config) {
-        builder.append(LABEL_PREFIX).append(label).append(": if (setjmp(*pushExceptionFrame(frameRef, &class_")
-                .append(qualifiedType == null ? "java_lang_Throwable" : qualifiedType).append("))) {\n\t\tsp = stack; PUSH_OBJECT(clearCurrentException(frameRef)); ");
-        appendGoto(builder, handlerBypass, handler, originalHandler, exceptionPops);
-        builder.append("\n\t}\n");
-        
+        String exceptionClass = qualifiedType == null ? "java_lang_Throwable" : qualifiedType;
+        if (config.useCppExceptions())
+            builder.append(LABEL_PREFIX).append(label).append(": pushExceptionFrame(frameRef, &class_").append(exceptionClass)
+                    .append(", ").append(label).append(");\n");
+        else {
+            builder.append(LABEL_PREFIX).append(label).append(": if (setjmp(*pushExceptionFrame(frameRef, &class_")
+                    .append(exceptionClass).append("))) {\n\t\tsp = stack; PUSH_OBJECT(clearCurrentException(frameRef)); ");
+            appendGoto(builder, handlerBypass, handler, originalHandler, exceptionPops);
+            builder.append("\n\t}\n");
+        }
+
         for (Bypass bypass: bypasses) {
             builder.append("\tif (bypasses[").append(bypass.index).append("]) { ");
             if (bypass.isLast())
@@ -52,6 +61,15 @@ public class TryInstruction extends Instruction implements JumpingInstruction {
         }
     }
 
+    /**
+     * Append the handler case for the method's exception dispatch switch, used with C++ exceptions instead of setjmp
+     */
+    public void appendHandlerDispatch(StringBuilder builder) {
+        builder.append("\t\tcase ").append(label).append(": sp = stack; PUSH_OBJECT(clearCurrentException(frameRef)); ");
+        appendGoto(builder, handlerBypass, handler, originalHandler, exceptionPops);
+        builder.append("\n");
+    }
+
     @Override
     public void collectDependencies(Set<String> dependencies) {
         if (type != null)
@@ -123,6 +141,8 @@ public class TryInstruction extends Instruction implements JumpingInstruction {
 
     public class CatchInstruction extends Instruction {
         
+        private static final long serialVersionUID = 1L;
+
         private CatchInstruction() {
             super(TryInstruction.this.getMethod(), -1);
         }
@@ -143,7 +163,9 @@ public class TryInstruction extends Instruction implements JumpingInstruction {
         }
     }
 
-    public static class Bypass {
+    public static class Bypass implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private final int index;
         private final int target;
         private final int originalTarget;
@@ -11,6 +11,8 @@ import java.util.Set;
  */
 public class TypeInstruction extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final String type;
     private final String qualifiedType;
     private final JavaType javaType;
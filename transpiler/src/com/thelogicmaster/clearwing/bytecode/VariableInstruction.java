@@ -10,6 +10,8 @@ import java.util.List;
  */
 public class VariableInstruction extends Instruction implements LocalInstruction {
 
+    private static final long serialVersionUID = 1L;
+
     private final int local;
 
     public VariableInstruction(BytecodeMethod method, int opcode, int local) {
@@ -19,7 +21,23 @@ public class VariableInstruction extends Instruction implements LocalInstruction
 
     private void appendLoadStore(StringBuilder builder, int baseOpcode, String suffix) {
         String name = (TypeVariants.values()[TypeVariants.INT.ordinal() + opcode - baseOpcode].name().toLowerCase().charAt(0) + "").replace("o", "a") + suffix;
-        appendStandardInstruction(builder, name, "" + local);
+        if (isRegisterLocal())
+            appendStandardInstruction(builder, name + "_local", getLocalReference());
+        else
+            appendStandardInstruction(builder, name, "" + local);
+    }
+
+    private boolean isRegisterLocal() {
+        return getMethod().hasRegisterLocals() && getLocalType() != TypeVariants.OBJECT;
+    }
+
+    /**
+     * Get the expression for the local, either a frame slot or a C++ variable
+     */
+    private String getLocalReference() {
+        if (isRegisterLocal())
+            return BytecodeMethod.getRegisterLocal(local, getLocalType());
+        return "frame[" + local + "]." + getLocalType().getStackName();
     }
 
     @Override
@@ -35,11 +53,9 @@ public class VariableInstruction extends Instruction implements LocalInstruction
     public void appendOptimized(StringBuilder builder, TranspilerConfig config) {
         switch (opcode) {
             case Opcodes.ILOAD, Opcodes.LLOAD, Opcodes.FLOAD, Opcodes.DLOAD, Opcodes.ALOAD ->
-                    outputs.get(0).buildAssignment(builder).append("frame[").append(local).append("].")
-                            .append(getLocalType().getStackName()).append(";\n");
+                    outputs.get(0).buildAssignment(builder).append(getLocalReference()).append(";\n");
             case Opcodes.ISTORE, Opcodes.LSTORE, Opcodes.FSTORE, Opcodes.DSTORE, Opcodes.ASTORE ->
-                    builder.append("\tframe[").append(local).append("].").append(getLocalType().getStackName())
-                            .append(" = ").append(inputs.get(0).arg()).append(";\n");
+                    builder.append("\t").append(getLocalReference()).append(" = ").append(inputs.get(0).arg()).append(";\n");
             default -> throw new TranspilerException("Invalid opcode");
         }
     }
@@ -48,7 +64,7 @@ public class VariableInstruction extends Instruction implements LocalInstruction
     public void appendInlined(StringBuilder builder) {
         switch (opcode) {
             case Opcodes.ILOAD, Opcodes.LLOAD, Opcodes.FLOAD, Opcodes.DLOAD, Opcodes.ALOAD ->
-                    builder.append("frame[").append(local).append("].").append(getLocalType().getStackName());
+                    builder.append(getLocalReference());
             default -> throw new TranspilerException("Not inlinable");
         }
     }
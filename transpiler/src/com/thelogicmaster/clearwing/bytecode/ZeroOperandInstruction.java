@@ -11,6 +11,8 @@ import java.util.*;
  */
 public class ZeroOperandInstruction extends Instruction {
 
+    private static final long serialVersionUID = 1L;
+
     public ZeroOperandInstruction(BytecodeMethod method, int opcode) {
         super(method, opcode);
     }
@@ -132,7 +134,9 @@ public class ZeroOperandInstruction extends Instruction {
                         .append(type.getCppType()).append(", ").append(inputs.get(0).arg()).append(", ")
                         .append(inputs.get(1).arg()).append(");\n");
             }
-            case Opcodes.IASTORE, Opcodes.LASTORE, Opcodes.FASTORE, Opcodes.DASTORE, Opcodes.AASTORE, Opcodes.BASTORE, Opcodes.CASTORE, Opcodes.SASTORE -> {
+            case Opcodes.AASTORE -> builder.append("\tSTORE_ARRAY_REFERENCE(").append(inputs.get(0).arg()).append(", ")
+                    .append(inputs.get(1).arg()).append(", ").append(inputs.get(2).arg()).append(");\n");
+            case Opcodes.IASTORE, Opcodes.LASTORE, Opcodes.FASTORE, Opcodes.DASTORE, Opcodes.BASTORE, Opcodes.CASTORE, Opcodes.SASTORE -> {
                 type = opcodeType(Opcodes.IASTORE);
                 builder.append("\tARRAY_ACCESS(").append(type.getCppType()).append(", ").append(inputs.get(0).arg()).append(", ")
                         .append(inputs.get(1).arg()).append(") = ").append(inputs.get(2).arg()).append(";\n");
@@ -268,16 +272,16 @@ public class ZeroOperandInstruction extends Instruction {
             case Opcodes.IXOR, Opcodes.LXOR ->
                     builder.append(inputs.get(0).arg()).append(" ^ ").append(inputs.get(1).arg());
             case Opcodes.I2L, Opcodes.F2L, Opcodes.D2L ->
-                    builder.append("jlong(").append(inputs.get(0).arg()).append(")");
+                    builder.append("(jlong) ").append(inputs.get(0).arg());
             case Opcodes.I2F, Opcodes.L2F, Opcodes.D2F ->
-                    builder.append("jfloat(").append(inputs.get(0).arg()).append(")");
+                    builder.append("(jfloat) ").append(inputs.get(0).arg());
             case Opcodes.I2D, Opcodes.L2D, Opcodes.F2D ->
-                    builder.append("jdouble(").append(inputs.get(0).arg()).append(")");
+                    builder.append("(jdouble) ").append(inputs.get(0).arg());
             case Opcodes.L2I, Opcodes.F2I, Opcodes.D2I ->
-                    builder.append("jint(").append(inputs.get(0).arg()).append(")");
-            case Opcodes.I2B -> builder.append("jbyte(").append(inputs.get(0).arg()).append(")");
-            case Opcodes.I2C -> builder.append("jchar(").append(inputs.get(0).arg()).append(")");
-            case Opcodes.I2S -> builder.append("jshort(").append(inputs.get(0).arg()).append(")");
+                    builder.append("(jint) ").append(inputs.get(0).arg());
+            case Opcodes.I2B -> builder.append("(jbyte) ").append(inputs.get(0).arg());
+            case Opcodes.I2C -> builder.append("(jchar) ").append(inputs.get(0).arg());
+            case Opcodes.I2S -> builder.append("(jshort) ").append(inputs.get(0).arg());
             case Opcodes.LCMP ->
                     builder.append("longCompare(").append(inputs.get(0).arg()).append(", ").append(inputs.get(1).arg()).append(")");
             case Opcodes.FCMPL ->